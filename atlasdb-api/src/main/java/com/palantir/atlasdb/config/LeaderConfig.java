@@ -75,6 +75,13 @@ public abstract class LeaderConfig {
         return 5000L;
     }
 
+    /**
+     * If set, acceptors grant the leader a lease of this duration each time it verifies its leadership, promising not
+     * to take part in electing another leader until the lease expires. Leader leases must be enabled with the same
+     * duration on every node before any leader relies on them.
+     */
+    public abstract Optional<Long> leaderLeaseDurationMs();
+
     @Value.Check
     protected final void check() {
         Preconditions.checkState(quorumSize() > leaders().size() / 2,
@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimap;
 import com.palantir.atlasdb.transaction.api.TransactionManager;
 import com.palantir.common.annotation.Idempotent;
@@ -288,6 +289,34 @@ public interface KeyValueService extends AutoCloseable {
      */
     void checkAndSet(CheckAndSetRequest checkAndSetRequest) throws CheckAndSetException;
 
+    /**
+     * Performs multiple check-and-set operations, each as in {@link #checkAndSet(CheckAndSetRequest)}, reporting the
+     * outcome of each request in the returned {@link MultiCheckAndSetResult} rather than throwing
+     * {@link CheckAndSetException}s.
+     * <p>
+     * Implementations may apply requests for cells in the same row of a table atomically, in a single operation. If
+     * one of these requests fails, the others in that row are reported as unapplied, and may be retried. There is no
+     * atomicity across rows. If this method throws, any of the requests may or may not have been applied.
+     * <p>
+     * The default implementation performs each check-and-set in turn.
+     *
+     * @param checkAndSetRequests the requests; no two requests may be for the same cell of the same table.
+     * @return the outcome of each request.
+     */
+    default MultiCheckAndSetResult multiCheckAndSet(List<CheckAndSetRequest> checkAndSetRequests) {
+        ImmutableMultiCheckAndSetResult.Builder result = MultiCheckAndSetResult.builder();
+        for (CheckAndSetRequest request : checkAndSetRequests) {
+            try {
+                checkAndSet(request);
+                result.addSuccessfulRequests(request);
+            } catch (CheckAndSetException e) {
+                result.putFailedRequests(request,
+                        e.getActualValues() == null ? ImmutableList.of() : e.getActualValues());
+            }
+        }
+        return result.build();
+    }
+
     /**
      * Deletes values from the key-value store.
      * <p>
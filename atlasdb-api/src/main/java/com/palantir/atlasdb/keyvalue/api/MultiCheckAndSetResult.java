@@ -0,0 +1,60 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.api;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.immutables.value.Value;
+
+/**
+ * The outcome of {@link KeyValueService#multiCheckAndSet(List)}. Each request supplied to multiCheckAndSet appears in
+ * exactly one of {@link #successfulRequests()}, {@link #failedRequests()} and {@link #unappliedRequests()}.
+ */
+@Value.Immutable
+public abstract class MultiCheckAndSetResult {
+    /**
+     * Requests that were applied.
+     */
+    public abstract List<CheckAndSetRequest> successfulRequests();
+
+    /**
+     * Requests that were not applied because the stored value for their cell was not as expected, mapped to the values
+     * that were stored for the cell (which may be empty, if there was no value).
+     */
+    public abstract Map<CheckAndSetRequest, List<byte[]>> failedRequests();
+
+    /**
+     * Requests that were not applied even though the stored value for their cell was as expected, because they were
+     * to be applied atomically with a request that failed. These requests may be retried.
+     */
+    public abstract List<CheckAndSetRequest> unappliedRequests();
+
+    public static ImmutableMultiCheckAndSetResult.Builder builder() {
+        return ImmutableMultiCheckAndSetResult.builder();
+    }
+
+    public static MultiCheckAndSetResult merge(Collection<MultiCheckAndSetResult> results) {
+        ImmutableMultiCheckAndSetResult.Builder builder = builder();
+        for (MultiCheckAndSetResult result : results) {
+            builder.addAllSuccessfulRequests(result.successfulRequests())
+                    .putAllFailedRequests(result.failedRequests())
+                    .addAllUnappliedRequests(result.unappliedRequests());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.autobatch;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Histograms describing the behaviour of a {@link DisruptorAutobatcher}:
+ *
+ * - batchSize: the number of elements in each batch;
+ * - queueWaitMicros: the time each element spent queued before its batch started processing;
+ * - processingTimeMicros: the time taken to process each batch.
+ *
+ * Autobatchers that are not given metrics do not record any.
+ */
+public final class AutobatcherMetrics {
+    private final Histogram batchSize;
+    private final Histogram queueWaitMicros;
+    private final Histogram processingTimeMicros;
+
+    private AutobatcherMetrics(Histogram batchSize, Histogram queueWaitMicros, Histogram processingTimeMicros) {
+        this.batchSize = batchSize;
+        this.queueWaitMicros = queueWaitMicros;
+        this.processingTimeMicros = processingTimeMicros;
+    }
+
+    /**
+     * Creates metrics registered under names prefixed by {@link DisruptorAutobatcher} and the given purpose, which
+     * must be safe to log.
+     */
+    public static AutobatcherMetrics create(MetricRegistry registry, String safeLoggablePurpose) {
+        return new AutobatcherMetrics(
+                registry.histogram(MetricRegistry.name(DisruptorAutobatcher.class, safeLoggablePurpose, "batchSize")),
+                registry.histogram(
+                        MetricRegistry.name(DisruptorAutobatcher.class, safeLoggablePurpose, "queueWaitMicros")),
+                registry.histogram(
+                        MetricRegistry.name(DisruptorAutobatcher.class, safeLoggablePurpose, "processingTimeMicros")));
+    }
+
+    public Histogram batchSize() {
+        return batchSize;
+    }
+
+    public Histogram queueWaitMicros() {
+        return queueWaitMicros;
+    }
+
+    public Histogram processingTimeMicros() {
+        return processingTimeMicros;
+    }
+}
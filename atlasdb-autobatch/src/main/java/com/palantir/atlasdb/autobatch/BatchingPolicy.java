@@ -0,0 +1,86 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.autobatch;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.immutables.value.Value;
+
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+
+/**
+ * Controls when a {@link DisruptorAutobatcher} flushes the elements it has accumulated.
+ *
+ * By default, an autobatcher flushes whenever it has caught up with its producers, so batches are as large as the
+ * number of requests that arrived while the previous batch was being processed. A policy may additionally:
+ *
+ * - cap the size of each batch ({@link #maxBatchSize()});
+ * - wait for up to {@link #lingerTime()} for more elements to arrive before flushing a partial batch, trading
+ *   latency for larger batches;
+ * - adapt the size cap to the observed processing time of batches ({@link #targetProcessingTime()}): the cap is
+ *   halved whenever a batch takes longer than the target, and grows additively while full batches are processed
+ *   within the target.
+ */
+@Value.Immutable
+public interface BatchingPolicy {
+    int DEFAULT_BUFFER_SIZE = 1024;
+
+    /**
+     * Size of the ring buffer that elements are queued in; must be a power of two.
+     */
+    @Value.Default
+    default int bufferSize() {
+        return DEFAULT_BUFFER_SIZE;
+    }
+
+    /**
+     * Maximum number of elements in a batch; must not be greater than the buffer size.
+     */
+    @Value.Default
+    default int maxBatchSize() {
+        return bufferSize();
+    }
+
+    @Value.Default
+    default Duration lingerTime() {
+        return Duration.ZERO;
+    }
+
+    Optional<Duration> targetProcessingTime();
+
+    @Value.Check
+    default void check() {
+        Preconditions.checkArgument(Integer.bitCount(bufferSize()) == 1, "Buffer size must be a power of two",
+                SafeArg.of("bufferSize", bufferSize()));
+        Preconditions.checkArgument(maxBatchSize() > 0, "Max batch size must be positive",
+                SafeArg.of("maxBatchSize", maxBatchSize()));
+        Preconditions.checkArgument(maxBatchSize() <= bufferSize(), "Max batch size must not exceed the buffer size",
+                SafeArg.of("maxBatchSize", maxBatchSize()),
+                SafeArg.of("bufferSize", bufferSize()));
+        Preconditions.checkArgument(!lingerTime().isNegative(), "Linger time must not be negative",
+                SafeArg.of("lingerTime", lingerTime()));
+        targetProcessingTime().ifPresent(target -> Preconditions.checkArgument(
+                !target.isNegative() && !target.isZero(), "Target processing time must be positive",
+                SafeArg.of("targetProcessingTime", target)));
+    }
+
+    static ImmutableBatchingPolicy.Builder builder() {
+        return ImmutableBatchingPolicy.builder();
+    }
+}
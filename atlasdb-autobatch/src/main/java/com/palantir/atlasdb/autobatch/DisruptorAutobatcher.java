@@ -19,10 +19,13 @@ package com.palantir.atlasdb.autobatch;
 import static com.google.common.base.Preconditions.checkState;
 
 import java.io.Closeable;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -30,9 +33,14 @@ import com.google.common.util.concurrent.AsyncFunction;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.lmax.disruptor.BlockingWaitStrategy;
 import com.lmax.disruptor.EventHandler;
 import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.TimeoutBlockingWaitStrategy;
+import com.lmax.disruptor.TimeoutHandler;
+import com.lmax.disruptor.WaitStrategy;
 import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
 
 /**
  * While this class is public, it shouldn't be used as API outside of AtlasDB because we
@@ -40,7 +48,6 @@ import com.lmax.disruptor.dsl.Disruptor;
  */
 public final class DisruptorAutobatcher<T, R>
         implements AsyncFunction<T, R>, Function<T, ListenableFuture<R>>, Closeable {
-    private static final int BUFFER_SIZE = 1024;
     private static final ThreadFactory threadFactory = new ThreadFactoryBuilder()
             .setDaemon(true)
             .setNameFormat("autobatcher-%d")
@@ -61,9 +68,11 @@ public final class DisruptorAutobatcher<T, R>
     public ListenableFuture<R> apply(T argument) {
         checkState(!closed, "Autobatcher is already shut down");
         SettableFuture<R> result = SettableFuture.create();
+        long enqueuedNanos = System.nanoTime();
         buffer.publishEvent((refresh, sequence) -> {
             refresh.result = result;
             refresh.argument = argument;
+            refresh.enqueuedNanos = enqueuedNanos;
         });
         return result;
     }
@@ -77,6 +86,16 @@ public final class DisruptorAutobatcher<T, R>
     private static final class DefaultBatchElement<T, R> implements BatchElement<T, R> {
         private T argument;
         private SettableFuture<R> result;
+        private long enqueuedNanos;
+
+        private DefaultBatchElement() {
+        }
+
+        private DefaultBatchElement(T argument, SettableFuture<R> result, long enqueuedNanos) {
+            this.argument = argument;
+            this.result = result;
+            this.enqueuedNanos = enqueuedNanos;
+        }
 
         @Override
         public T argument() {
@@ -89,37 +108,140 @@ public final class DisruptorAutobatcher<T, R>
         }
     }
 
-    private static final class BatchingEventHandler<T, R> implements EventHandler<DefaultBatchElement<T, R>> {
+    private static final class BatchingEventHandler<T, R>
+            implements EventHandler<DefaultBatchElement<T, R>>, TimeoutHandler {
         private final Consumer<List<BatchElement<T, R>>> batchFunction;
-        private final List<DefaultBatchElement<T, R>> pending = new ArrayList<>(BUFFER_SIZE);
-
-        private BatchingEventHandler(Consumer<List<BatchElement<T, R>>> batchFunction) {
+        private final BatchingPolicy policy;
+        private final Optional<AutobatcherMetrics> metrics;
+        private final List<DefaultBatchElement<T, R>> pending;
+        private final long lingerNanos;
+        private final long targetProcessingNanos;
+        private int currentMaxBatchSize;
+
+        private BatchingEventHandler(
+                Consumer<List<BatchElement<T, R>>> batchFunction,
+                BatchingPolicy policy,
+                Optional<AutobatcherMetrics> metrics) {
             this.batchFunction = batchFunction;
+            this.policy = policy;
+            this.metrics = metrics;
+            this.pending = new ArrayList<>(policy.maxBatchSize());
+            this.lingerNanos = policy.lingerTime().toNanos();
+            this.targetProcessingNanos = policy.targetProcessingTime().map(Duration::toNanos).orElse(0L);
+            this.currentMaxBatchSize = policy.maxBatchSize();
         }
 
         @Override
         public void onEvent(DefaultBatchElement<T, R> event, long sequence, boolean endOfBatch) {
-            pending.add(event);
-            if (endOfBatch) {
+            pending.add(retainableElement(event));
+            if (pending.size() >= currentMaxBatchSize || (endOfBatch && oldestPendingHasLingered())) {
+                flush();
+            }
+        }
+
+        /**
+         * Called by the Disruptor when no new elements have arrived within the linger time.
+         */
+        @Override
+        public void onTimeout(long sequence) {
+            if (!pending.isEmpty()) {
                 flush();
             }
         }
 
+        /**
+         * Once we return from {@link #onEvent}, the Disruptor may hand the event's slot in the ring buffer to a
+         * producer, so elements that may be pending past the end of a Disruptor batch must be copied out of it.
+         * Without a linger time, we always flush at the end of a Disruptor batch, so the slot can be used directly.
+         */
+        private DefaultBatchElement<T, R> retainableElement(DefaultBatchElement<T, R> event) {
+            if (lingerNanos == 0) {
+                return event;
+            }
+            return new DefaultBatchElement<>(event.argument, event.result, event.enqueuedNanos);
+        }
+
+        private boolean oldestPendingHasLingered() {
+            return lingerNanos == 0 || System.nanoTime() - pending.get(0).enqueuedNanos >= lingerNanos;
+        }
+
         private void flush() {
+            long startNanos = System.nanoTime();
+            metrics.ifPresent(this::recordQueueing);
+
             try {
                 batchFunction.accept(Collections.unmodifiableList(pending));
             } catch (Throwable t) {
                 pending.forEach(p -> p.result.setException(t));
             }
+
+            long processingNanos = System.nanoTime() - startNanos;
+            metrics.ifPresent(registered -> registered.processingTimeMicros()
+                    .update(TimeUnit.NANOSECONDS.toMicros(processingNanos)));
+            adaptMaxBatchSize(pending.size(), processingNanos);
             pending.clear();
         }
+
+        private void recordQueueing(AutobatcherMetrics registered) {
+            long nowNanos = System.nanoTime();
+            registered.batchSize().update(pending.size());
+            for (DefaultBatchElement<T, R> element : pending) {
+                registered.queueWaitMicros().update(TimeUnit.NANOSECONDS.toMicros(nowNanos - element.enqueuedNanos));
+            }
+        }
+
+        private void adaptMaxBatchSize(int batchSize, long processingNanos) {
+            if (targetProcessingNanos == 0) {
+                return;
+            }
+            if (processingNanos > targetProcessingNanos) {
+                currentMaxBatchSize = Math.max(1, Math.min(currentMaxBatchSize, batchSize) / 2);
+            } else if (batchSize >= currentMaxBatchSize) {
+                currentMaxBatchSize = Math.min(policy.maxBatchSize(), currentMaxBatchSize + additiveIncrease());
+            }
+        }
+
+        private int additiveIncrease() {
+            return Math.max(1, policy.maxBatchSize() / 16);
+        }
     }
 
     public static <T, R> DisruptorAutobatcher<T, R> create(Consumer<List<BatchElement<T, R>>> batchFunction) {
-        Disruptor<DefaultBatchElement<T, R>> disruptor =
-                new Disruptor<>(DefaultBatchElement::new, BUFFER_SIZE, threadFactory);
-        disruptor.handleEventsWith(new BatchingEventHandler<>(batchFunction));
+        return create(batchFunction, BatchingPolicy.builder().build());
+    }
+
+    public static <T, R> DisruptorAutobatcher<T, R> create(
+            Consumer<List<BatchElement<T, R>>> batchFunction,
+            BatchingPolicy policy) {
+        return create(batchFunction, policy, Optional.empty());
+    }
+
+    public static <T, R> DisruptorAutobatcher<T, R> create(
+            Consumer<List<BatchElement<T, R>>> batchFunction,
+            BatchingPolicy policy,
+            AutobatcherMetrics metrics) {
+        return create(batchFunction, policy, Optional.of(metrics));
+    }
+
+    private static <T, R> DisruptorAutobatcher<T, R> create(
+            Consumer<List<BatchElement<T, R>>> batchFunction,
+            BatchingPolicy policy,
+            Optional<AutobatcherMetrics> metrics) {
+        Disruptor<DefaultBatchElement<T, R>> disruptor = new Disruptor<>(
+                DefaultBatchElement::new,
+                policy.bufferSize(),
+                threadFactory,
+                ProducerType.MULTI,
+                waitStrategy(policy));
+        disruptor.handleEventsWith(new BatchingEventHandler<>(batchFunction, policy, metrics));
         disruptor.start();
         return new DisruptorAutobatcher<>(disruptor, disruptor.getRingBuffer());
     }
+
+    private static WaitStrategy waitStrategy(BatchingPolicy policy) {
+        if (policy.lingerTime().isZero()) {
+            return new BlockingWaitStrategy();
+        }
+        return new TimeoutBlockingWaitStrategy(policy.lingerTime().toNanos(), TimeUnit.NANOSECONDS);
+    }
 }
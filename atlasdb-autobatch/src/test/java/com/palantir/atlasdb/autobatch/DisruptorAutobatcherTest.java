@@ -0,0 +1,203 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.autobatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+public class DisruptorAutobatcherTest {
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private final CountDownLatch firstBatchStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+
+    private DisruptorAutobatcher<Integer, Integer> autobatcher;
+
+    @After
+    public void tearDown() {
+        releaseFirstBatch.countDown();
+        if (autobatcher != null) {
+            autobatcher.close();
+        }
+    }
+
+    @Test
+    public void completesElementsWithResultsOfBatchFunction() throws Exception {
+        autobatcher = DisruptorAutobatcher.create(this::doubleEachElement);
+
+        assertThat(autobatcher.apply(21).get()).isEqualTo(42);
+    }
+
+    @Test
+    public void failsAllElementsOfBatchIfBatchFunctionThrows() {
+        RuntimeException failure = new IllegalStateException("boo");
+        autobatcher = DisruptorAutobatcher.create(batch -> {
+            throw failure;
+        });
+
+        assertThatThrownBy(() -> autobatcher.apply(1).get())
+                .isInstanceOf(ExecutionException.class)
+                .hasCause(failure);
+    }
+
+    @Test
+    public void respectsMaxBatchSize() {
+        autobatcher = DisruptorAutobatcher.create(
+                this::blockFirstBatchThenDouble,
+                BatchingPolicy.builder().maxBatchSize(3).build());
+
+        autobatcher.apply(0);
+        Uninterruptibles.awaitUninterruptibly(firstBatchStarted);
+        List<ListenableFuture<Integer>> futures = submit(10);
+        releaseFirstBatch.countDown();
+
+        assertThat(Futures.getUnchecked(Futures.allAsList(futures))).hasSize(10);
+        assertThat(batchSizes).containsExactly(1, 3, 3, 3, 1);
+    }
+
+    @Test
+    public void lingersToCoalesceElementsArrivingSlowly() {
+        autobatcher = DisruptorAutobatcher.create(
+                this::doubleEachElement,
+                BatchingPolicy.builder().lingerTime(Duration.ofSeconds(1)).build());
+
+        ListenableFuture<Integer> first = autobatcher.apply(1);
+        Uninterruptibles.sleepUninterruptibly(50, TimeUnit.MILLISECONDS);
+        ListenableFuture<Integer> second = autobatcher.apply(2);
+
+        assertThat(Futures.getUnchecked(first)).isEqualTo(2);
+        assertThat(Futures.getUnchecked(second)).isEqualTo(4);
+        assertThat(batchSizes).containsExactly(2);
+    }
+
+    @Test
+    public void shrinksBatchesThatExceedTargetProcessingTime() {
+        autobatcher = DisruptorAutobatcher.create(
+                batch -> {
+                    firstBatchStarted.countDown();
+                    Uninterruptibles.awaitUninterruptibly(releaseFirstBatch);
+                    Uninterruptibles.sleepUninterruptibly(5, TimeUnit.MILLISECONDS);
+                    doubleEachElement(batch);
+                },
+                BatchingPolicy.builder()
+                        .maxBatchSize(16)
+                        .targetProcessingTime(Duration.ofNanos(1))
+                        .build());
+
+        autobatcher.apply(0);
+        Uninterruptibles.awaitUninterruptibly(firstBatchStarted);
+        List<ListenableFuture<Integer>> futures = submit(20);
+        releaseFirstBatch.countDown();
+
+        Futures.getUnchecked(Futures.allAsList(futures));
+        assertThat(batchSizes).allMatch(size -> size == 1);
+    }
+
+    @Test
+    public void recordsMetrics() {
+        AutobatcherMetrics metrics = AutobatcherMetrics.create(new MetricRegistry(), "test");
+        autobatcher = DisruptorAutobatcher.create(
+                this::blockFirstBatchThenDouble,
+                BatchingPolicy.builder().build(),
+                metrics);
+
+        autobatcher.apply(0);
+        Uninterruptibles.awaitUninterruptibly(firstBatchStarted);
+        List<ListenableFuture<Integer>> futures = submit(5);
+        releaseFirstBatch.countDown();
+        Futures.getUnchecked(Futures.allAsList(futures));
+
+        assertThat(metrics.batchSize().getCount()).isEqualTo(2);
+        assertThat(metrics.batchSize().getSnapshot().getMax()).isEqualTo(5);
+        assertThat(metrics.queueWaitMicros().getCount()).isEqualTo(6);
+        assertThat(metrics.processingTimeMicros().getCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void completesElementsWithTheirOwnResultsWhenLingeringWithConcurrentProducers() throws Exception {
+        autobatcher = DisruptorAutobatcher.create(
+                this::doubleEachElement,
+                BatchingPolicy.builder()
+                        .bufferSize(16)
+                        .lingerTime(Duration.ofMillis(1))
+                        .build());
+
+        int numProducers = 16;
+        int elementsPerProducer = 1_000;
+        ExecutorService executor = Executors.newFixedThreadPool(numProducers);
+        try {
+            List<Future<?>> producers = IntStream.range(0, numProducers)
+                    .mapToObj(producer -> executor.submit(() -> {
+                        List<ListenableFuture<Integer>> futures = IntStream.range(0, elementsPerProducer)
+                                .mapToObj(index -> autobatcher.apply(producer * elementsPerProducer + index))
+                                .collect(Collectors.toList());
+                        for (int index = 0; index < elementsPerProducer; index++) {
+                            assertThat(Futures.getUnchecked(futures.get(index)))
+                                    .isEqualTo(2 * (producer * elementsPerProducer + index));
+                        }
+                    }))
+                    .collect(Collectors.toList());
+            for (Future<?> producer : producers) {
+                producer.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void maxBatchSizeMustNotExceedBufferSize() {
+        assertThatThrownBy(() -> BatchingPolicy.builder().bufferSize(16).maxBatchSize(17).build())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<ListenableFuture<Integer>> submit(int numElements) {
+        return IntStream.range(0, numElements)
+                .mapToObj(autobatcher::apply)
+                .collect(Collectors.toList());
+    }
+
+    private void blockFirstBatchThenDouble(List<BatchElement<Integer, Integer>> batch) {
+        firstBatchStarted.countDown();
+        Uninterruptibles.awaitUninterruptibly(releaseFirstBatch);
+        doubleEachElement(batch);
+    }
+
+    private void doubleEachElement(List<BatchElement<Integer, Integer>> batch) {
+        batchSizes.add(batch.size());
+        batch.forEach(element -> element.result().set(element.argument() * 2));
+    }
+}
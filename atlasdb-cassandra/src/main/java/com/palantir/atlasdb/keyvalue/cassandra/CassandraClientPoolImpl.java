@@ -314,6 +314,11 @@ public class CassandraClientPoolImpl implements CassandraClientPool {
         return cassandra.getRandomHostForKey(key);
     }
 
+    @Override
+    public List<InetSocketAddress> getReplicasForKey(byte[] key) {
+        return cassandra.getReplicasForKey(key);
+    }
+
     @VisibleForTesting
     void runOneTimeStartupChecks() {
         try {
@@ -52,11 +52,15 @@ import com.palantir.logsafe.UnsafeArg;
 public class CassandraClientPoolingContainer implements PoolingContainer<CassandraClient> {
     private static final Logger log = LoggerFactory.getLogger(CassandraClientPoolingContainer.class);
 
+    // Each new sample moves the average 1/8th of the way towards it, as TCP does for its smoothed round trip time.
+    private static final int LATENCY_SMOOTHING_SHIFT = 3;
+
     private final InetSocketAddress host;
     private final CassandraKeyValueServiceConfig config;
     private final MetricsManager metricsManager;
     private final AtomicLong count = new AtomicLong();
     private final AtomicInteger openRequests = new AtomicInteger();
+    private final AtomicLong latencyEwmaNanos = new AtomicLong();
     private final GenericObjectPool<CassandraClient> clientPool;
     private final int poolNumber;
 
@@ -86,6 +90,16 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Cassand
         return openRequests.get();
     }
 
+    /**
+     * Exponentially weighted moving average of the time taken by successful calls to
+     * {@link #runWithPooledResource(FunctionCheckedException)}, or 0 if no call has succeeded yet.
+     * Failed calls are not sampled, since connection failures are often fast and would make an unhealthy host look
+     * quick; those hosts are blacklisted instead.
+     */
+    public long getLatencyEwmaNanos() {
+        return latencyEwmaNanos.get();
+    }
+
     // returns negative if not available; only expected use is debugging
     public int getActiveCheckouts() {
         return clientPool.getNumActive();
@@ -106,7 +120,10 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Cassand
                 + " - " + count.getAndIncrement());
         try {
             openRequests.getAndIncrement();
-            return runWithGoodResource(fn);
+            long startTime = System.nanoTime();
+            V result = runWithGoodResource(fn);
+            recordLatency(System.nanoTime() - startTime);
+            return result;
         } catch (Throwable t) {
             log.warn("Error occurred talking to host '{}': {}",
                     SafeArg.of("host", CassandraLogHelper.host(host)), UnsafeArg.of("exception", t.toString()));
@@ -127,6 +144,12 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Cassand
         }
     }
 
+    private void recordLatency(long latencyNanos) {
+        latencyEwmaNanos.accumulateAndGet(Math.max(latencyNanos, 1), (average, sample) -> average == 0
+                ? sample
+                : average + ((sample - average) >> LATENCY_SMOOTHING_SHIFT));
+    }
+
     @Override
     public <V> V runWithPooledResource(Function<CassandraClient, V> fn) {
         throw new UnsupportedOperationException("you should use FunctionCheckedException<?, ?, Exception> "
@@ -306,6 +329,8 @@ public class CassandraClientPoolingContainer implements PoolingContainer<Cassand
         registerPoolMetric("meanBorrowWaitTimeMillis", pool::getMeanBorrowWaitTimeMillis);
         registerPoolMetric("numIdle", pool::getNumIdle);
         registerPoolMetric("numActive", pool::getNumActive);
+        registerPoolMetric("latencyEwmaMillis",
+                () -> latencyEwmaNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1));
         registerPoolMetric("approximatePoolSize", () -> pool.getNumIdle() + pool.getNumActive());
         registerPoolMetric("proportionDestroyedByEvictor",
                 () -> ((double) pool.getDestroyedByEvictorCount()) / ((double) pool.getCreatedCount()));
@@ -21,6 +21,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -87,6 +88,7 @@ import com.palantir.atlasdb.keyvalue.api.ImmutableCandidateCellForSweepingReques
 import com.palantir.atlasdb.keyvalue.api.InsufficientConsistencyException;
 import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.MultiCheckAndSetResult;
 import com.palantir.atlasdb.keyvalue.api.RangeRequest;
 import com.palantir.atlasdb.keyvalue.api.RangeRequests;
 import com.palantir.atlasdb.keyvalue.api.RowColumnRangeIterator;
@@ -1655,26 +1657,42 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
     public void putUnlessExists(final TableReference tableRef, final Map<Cell, byte[]> values)
             throws KeyAlreadyExistsException {
         try {
-            Optional<KeyAlreadyExistsException> failure = clientPool.runWithRetry(client -> {
-                Map<ByteString, Map<Cell, byte[]>> partitionedEntries = partitionPerRow(values);
-
-                for (Map.Entry<ByteString, Map<Cell, byte[]>> partition : partitionedEntries.entrySet()) {
+            Map<ByteString, Map<Cell, byte[]>> partitionedEntries = partitionPerRow(values);
+            List<Callable<Optional<Set<Cell>>>> tasks = Lists.newArrayList();
+            for (Map.Entry<ByteString, Map<Cell, byte[]>> partition : partitionedEntries.entrySet()) {
+                tasks.add(() -> clientPool.runWithRetry(client -> {
                     CASResult casResult = putUnlessExistsSinglePartition(
                             tableRef, client, partition.getKey(), partition.getValue());
-                    if (!casResult.isSuccess()) {
-                        return Optional.of(new KeyAlreadyExistsException(
-                                String.format("The cells in table %s already exist.", tableRef.getQualifiedName()),
-                                casResult.getCurrent_values().stream()
-                                        .map(column -> Cell.create(partition.getKey().toByteArray(),
-                                                CassandraKeyValueServices.decompose(column.bufferForName()).lhSide))
-                                        .collect(Collectors.toList())));
+                    if (casResult.isSuccess()) {
+                        return Optional.empty();
                     }
+                    return Optional.of(casResult.getCurrent_values().stream()
+                            .map(column -> Cell.create(partition.getKey().toByteArray(),
+                                    CassandraKeyValueServices.decompose(column.bufferForName()).lhSide))
+                            .collect(Collectors.toSet()));
+                }));
+            }
+
+            // Each partition is written in its own Paxos round, so partitions are independent and may be written
+            // concurrently. Report the partitions that were written, so that callers need not retry them.
+            List<Optional<Set<Cell>>> existingCellsByPartition = taskRunner.runAllTasksCancelOnFailure(tasks);
+            Set<Cell> existingCells = Sets.newHashSet();
+            Set<Cell> successfullyCommittedCells = Sets.newHashSet();
+            int partitionIndex = 0;
+            for (Map<Cell, byte[]> partition : partitionedEntries.values()) {
+                Optional<Set<Cell>> existingCellsInPartition = existingCellsByPartition.get(partitionIndex++);
+                if (existingCellsInPartition.isPresent()) {
+                    existingCells.addAll(existingCellsInPartition.get());
+                } else {
+                    successfullyCommittedCells.addAll(partition.keySet());
                 }
-                return Optional.empty();
-            });
-            failure.ifPresent(exception -> {
-                throw exception;
-            });
+            }
+            if (!existingCells.isEmpty()) {
+                throw new KeyAlreadyExistsException(
+                        String.format("The cells in table %s already exist.", tableRef.getQualifiedName()),
+                        existingCells,
+                        successfullyCommittedCells);
+            }
         } catch (KeyAlreadyExistsException e) {
             throw e;
         } catch (Exception e) {
@@ -1755,6 +1773,35 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
         }
     }
 
+    /**
+     * Performs the given check-and-set requests. Requests for cells in the same partition of the same table are
+     * applied atomically in a single Paxos round, using a conditional batch; different partitions are written
+     * concurrently. If a request in a partition fails, none of the requests for that partition are applied.
+     * <p>
+     * Does not require all Cassandra nodes to be up and available, works as long as quorum is achieved.
+     *
+     * @param requests the requests, which must be for distinct cells.
+     * @return the outcome of each of the requests.
+     */
+    @Override
+    public MultiCheckAndSetResult multiCheckAndSet(List<CheckAndSetRequest> requests) {
+        try {
+            Map<Map.Entry<TableReference, ByteString>, List<CheckAndSetRequest>> requestsByPartition =
+                    requests.stream().collect(Collectors.groupingBy(
+                            request -> Maps.immutableEntry(request.table(), ByteString.of(request.cell().getRowName())),
+                            LinkedHashMap::new,
+                            Collectors.toList()));
+            List<Callable<MultiCheckAndSetResult>> tasks = Lists.newArrayList();
+            for (List<CheckAndSetRequest> partition : requestsByPartition.values()) {
+                tasks.add(() -> clientPool.runWithRetry(
+                        client -> checkAndSetRunner.executeCheckAndSets(client, partition)));
+            }
+            return MultiCheckAndSetResult.merge(taskRunner.runAllTasksCancelOnFailure(tasks));
+        } catch (Exception e) {
+            throw Throwables.unwrapAndThrowAtlasDbDependencyException(e);
+        }
+    }
+
     @Override
     public void compactInternally(TableReference tableRef) {
         log.info("Called compactInternally on {}, but this is a no-op for Cassandra KVS."
@@ -93,36 +93,24 @@ final class CellLoader {
             boolean loadAllTs,
             CassandraKeyValueServices.ThreadSafeResultVisitor visitor,
             ConsistencyLevel consistency) {
-        Map<InetSocketAddress, List<Cell>> hostsAndCells = HostPartitioner.partitionByHost(clientPool, cells,
+        Collection<List<Cell>> cellsByReplicas = HostPartitioner.partitionByReplicas(clientPool, cells,
                 Cell::getRowName);
-        int totalPartitions = hostsAndCells.keySet().size();
 
         if (log.isTraceEnabled()) {
             log.trace(
-                    "Loading {} cells from {} {}starting at timestamp {}, partitioned across {} nodes.",
+                    "Loading {} cells from {} {}starting at timestamp {}, partitioned across {} replica groups.",
                     SafeArg.of("cells", cells.size()),
                     LoggingArgs.tableRef(tableRef),
                     SafeArg.of("timestampClause", loadAllTs ? "for all timestamps " : ""),
                     SafeArg.of("startTs", startTs),
-                    SafeArg.of("totalPartitions", totalPartitions));
+                    SafeArg.of("totalPartitions", cellsByReplicas.size()));
         }
 
         List<Callable<Void>> tasks = Lists.newArrayList();
-        for (Map.Entry<InetSocketAddress, List<Cell>> hostAndCells : hostsAndCells.entrySet()) {
-            if (log.isTraceEnabled()) {
-                log.trace(
-                        "Requesting {} cells from {} {}starting at timestamp {} on {}",
-                        SafeArg.of("cells", hostsAndCells.values().size()),
-                        LoggingArgs.tableRef(tableRef),
-                        SafeArg.of("timestampClause", loadAllTs ? "for all timestamps " : ""),
-                        SafeArg.of("startTs", startTs),
-                        SafeArg.of("ipPort", hostAndCells.getKey()));
-            }
-
-            tasks.addAll(getLoadWithTsTasksForSingleHost(kvsMethodName,
-                    hostAndCells.getKey(),
+        for (List<Cell> replicaGroup : cellsByReplicas) {
+            tasks.addAll(getLoadWithTsTasksForReplicaGroup(kvsMethodName,
                     tableRef,
-                    hostAndCells.getValue(),
+                    replicaGroup,
                     startTs,
                     loadAllTs,
                     visitor,
@@ -132,18 +120,27 @@ final class CellLoader {
         taskRunner.runAllTasksCancelOnFailure(tasks);
     }
 
+    /**
+     * All cells passed in must be owned by the same replicas. Each batch is sent to one of those replicas, chosen
+     * separately for every batch so that a large load is spread across all of them.
+     */
     // TODO(unknown): after cassandra api change: handle different column select per row
-    private List<Callable<Void>> getLoadWithTsTasksForSingleHost(final String kvsMethodName,
-            final InetSocketAddress host,
+    private List<Callable<Void>> getLoadWithTsTasksForReplicaGroup(final String kvsMethodName,
             final TableReference tableRef,
-            final Collection<Cell> cells,
+            final List<Cell> cells,
             final long startTs,
             final boolean loadAllTs,
             final CassandraKeyValueServices.ThreadSafeResultVisitor visitor,
             final ConsistencyLevel consistency) {
         final ColumnParent colFam = new ColumnParent(CassandraKeyValueServiceImpl.internalTableName(tableRef));
+        InetSocketAddress groupHost = clientPool.getRandomHostForKey(cells.get(0).getRowName());
         List<Callable<Void>> tasks = Lists.newArrayList();
-        for (final List<Cell> partition : batcher.partitionIntoBatches(cells, host, tableRef)) {
+        List<List<Cell>> partitions = batcher.partitionIntoBatches(cells, groupHost, tableRef);
+        for (int i = 0; i < partitions.size(); i++) {
+            final List<Cell> partition = partitions.get(i);
+            final InetSocketAddress host = i == 0
+                    ? groupHost
+                    : clientPool.getRandomHostForKey(partition.get(0).getRowName());
             Callable<Void> multiGetCallable = () -> clientPool.runWithRetryOnHost(
                     host,
                     new FunctionCheckedException<CassandraClient, Void, Exception>() {
@@ -208,7 +205,7 @@ final class CellLoader {
     }
 
     private static void logRebatchingWarnMessage(InetSocketAddress host, TableReference tableRef, int numRows) {
-        log.warn("Re-batching in getLoadWithTsTasksForSingleHost a call to {} for table {} that attempted to"
+        log.warn("Re-batching in getLoadWithTsTasksForReplicaGroup a call to {} for table {} that attempted to"
                         + " multiget {} rows; this may indicate overly-large batching on a higher level."
                         + " Note that batches are executed in parallel, which may cause load on both"
                         + " your Atlas client as well as on Cassandra if the number of rows is exceptionally"
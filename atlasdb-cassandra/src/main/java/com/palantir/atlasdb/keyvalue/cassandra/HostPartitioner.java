@@ -17,11 +17,15 @@ package com.palantir.atlasdb.keyvalue.cassandra;
 
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import com.google.common.base.Function;
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimaps;
@@ -64,4 +68,23 @@ final class HostPartitioner {
         }
         return Multimaps.asMap(valuesByHost);
     }
+
+    /**
+     * Groups values by the set of replicas owning their keys, so that any one of those replicas can serve a request
+     * for a whole group without forwarding it. Unlike {@link #partitionByHost}, choosing a replica is left to the
+     * caller, which can then do it once per request rather than once per key. Values whose replicas are not known
+     * yet are grouped together.
+     */
+    static <V> Collection<List<V>> partitionByReplicas(CassandraClientPool clientPool,
+            Iterable<V> iterable,
+            Function<V, byte[]> keyExtractor) {
+        // Keys in the same token range share the same list of replicas, so only copy each list into a set once.
+        Map<List<InetSocketAddress>, Set<InetSocketAddress>> replicaSets = new IdentityHashMap<>();
+        ListMultimap<Set<InetSocketAddress>, V> valuesByReplicas = ArrayListMultimap.create();
+        for (V value : iterable) {
+            List<InetSocketAddress> replicas = clientPool.getReplicasForKey(keyExtractor.apply(value));
+            valuesByReplicas.put(replicaSets.computeIfAbsent(replicas, ImmutableSet::copyOf), value);
+        }
+        return Multimaps.asMap(valuesByReplicas).values();
+    }
 }
@@ -15,6 +15,8 @@
  */
 package com.palantir.atlasdb.keyvalue.cassandra.cas;
 
+import java.util.List;
+
 import com.google.common.base.Preconditions;
 import com.google.common.io.BaseEncoding;
 import com.palantir.atlasdb.keyvalue.api.CheckAndSetRequest;
@@ -36,6 +38,26 @@ final class CheckAndSetQueries {
         return request.oldValue().map(unused -> updateIfMatching(request)).orElseGet(() -> insertIfNotExists(request));
     }
 
+    /**
+     * Returns a single conditional batch applying all of the given requests, which must be for distinct cells in the
+     * same partition of the same table. Cassandra applies such a batch atomically in one Paxos round, so either all of
+     * the requests are applied or none of them are.
+     */
+    static CqlQuery getQueryForRequests(List<CheckAndSetRequest> requests) {
+        Preconditions.checkArgument(!requests.isEmpty(), "Cannot create a query for no check-and-set requests");
+        if (requests.size() == 1) {
+            return getQueryForRequest(requests.get(0));
+        }
+        StringBuilder queryFormat = new StringBuilder("BEGIN UNLOGGED BATCH ");
+        ImmutableCqlQuery.Builder builder = ImmutableCqlQuery.builder();
+        for (CheckAndSetRequest request : requests) {
+            CqlQuery query = getQueryForRequest(request);
+            queryFormat.append(query.safeQueryFormat()).append(' ');
+            builder.addAllArgs(query.args());
+        }
+        return builder.safeQueryFormat(queryFormat.append("APPLY BATCH;").toString()).build();
+    }
+
     private static CqlQuery insertIfNotExists(CheckAndSetRequest request) {
         Preconditions.checkState(!request.oldValue().isPresent(),
                 "insertIfNotExists queries should only be made if we don't have an old value");
@@ -16,7 +16,10 @@
 package com.palantir.atlasdb.keyvalue.cassandra.cas;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import org.apache.cassandra.thrift.Column;
 import org.apache.cassandra.thrift.CqlResult;
@@ -25,6 +28,9 @@ import org.apache.cassandra.thrift.CqlRow;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.CheckAndSetRequest;
+import com.palantir.atlasdb.keyvalue.api.ImmutableMultiCheckAndSetResult;
+import com.palantir.atlasdb.keyvalue.api.MultiCheckAndSetResult;
 import com.palantir.atlasdb.keyvalue.impl.CheckAndSetResult;
 import com.palantir.atlasdb.keyvalue.impl.ImmutableCheckAndSetResult;
 
@@ -32,6 +38,7 @@ import okio.ByteString;
 
 final class CheckAndSetResponseDecoder {
     private static final String APPLIED_COLUMN = "[applied]";
+    private static final String COLUMN_NAME_COLUMN = "column1";
     private static final String VALUE_COLUMN = "value";
 
     private static final byte[] SUCCESSFUL_OPERATION = {1};
@@ -45,6 +52,42 @@ final class CheckAndSetResponseDecoder {
         return ImmutableCheckAndSetResult.of(isResultSuccessful(resultRow), existingValues(resultRow));
     }
 
+    /**
+     * Decodes the result of a conditional batch created by {@link CheckAndSetQueries#getQueryForRequests(List)}. If
+     * the batch was not applied, Cassandra returns the current value of each cell the batch had a condition on that
+     * exists, so we can tell which requests caused the batch to fail and which could have been applied on their own.
+     */
+    static MultiCheckAndSetResult decodeBatchCqlResult(CqlResult cqlResult, List<CheckAndSetRequest> requests) {
+        List<CqlRow> resultRows = cqlResult.getRows();
+        if (isResultSuccessful(resultRows.get(0))) {
+            return MultiCheckAndSetResult.builder().addAllSuccessfulRequests(requests).build();
+        }
+
+        Map<ByteString, byte[]> existingValuesByColumnName = new HashMap<>();
+        for (CqlRow resultRow : resultRows) {
+            Optional<byte[]> columnName = columnValue(resultRow, COLUMN_NAME_COLUMN);
+            Optional<byte[]> value = columnValue(resultRow, VALUE_COLUMN);
+            if (columnName.isPresent() && value.isPresent()) {
+                existingValuesByColumnName.put(ByteString.of(columnName.get()), value.get());
+            }
+        }
+
+        ImmutableMultiCheckAndSetResult.Builder result = MultiCheckAndSetResult.builder();
+        for (CheckAndSetRequest request : requests) {
+            byte[] existingValue = existingValuesByColumnName.get(ByteString.of(request.cell().getColumnName()));
+            boolean matchesExpected = request.oldValue()
+                    .map(oldValue -> existingValue != null && Arrays.equals(oldValue, existingValue))
+                    .orElse(existingValue == null);
+            if (matchesExpected) {
+                result.addUnappliedRequests(request);
+            } else {
+                result.putFailedRequests(request,
+                        existingValue == null ? ImmutableList.of() : ImmutableList.of(existingValue));
+            }
+        }
+        return result.build();
+    }
+
     private static boolean isResultSuccessful(CqlRow cqlRow) {
         Column appliedColumn = cqlRow.getColumns()
                 .stream()
@@ -63,6 +106,14 @@ final class CheckAndSetResponseDecoder {
                 .orElseGet(ImmutableList::of);
     }
 
+    private static Optional<byte[]> columnValue(CqlRow cqlRow, String columnName) {
+        return cqlRow.getColumns()
+                .stream()
+                .filter(column -> columnName.equals(decodeCqlColumnName(column)))
+                .findFirst()
+                .map(Column::getValue);
+    }
+
     private static String decodeCqlColumnName(Column column) {
         return PtBytes.toString(column.getName());
     }
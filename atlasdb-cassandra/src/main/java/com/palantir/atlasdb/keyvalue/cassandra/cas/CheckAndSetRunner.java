@@ -15,6 +15,8 @@
  */
 package com.palantir.atlasdb.keyvalue.cassandra.cas;
 
+import java.util.List;
+
 import org.apache.cassandra.thrift.Compression;
 import org.apache.cassandra.thrift.ConsistencyLevel;
 import org.apache.cassandra.thrift.CqlResult;
@@ -23,6 +25,7 @@ import org.apache.thrift.TException;
 
 import com.palantir.atlasdb.keyvalue.api.CheckAndSetRequest;
 import com.palantir.atlasdb.keyvalue.api.InsufficientConsistencyException;
+import com.palantir.atlasdb.keyvalue.api.MultiCheckAndSetResult;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
 import com.palantir.atlasdb.keyvalue.cassandra.CassandraClient;
 import com.palantir.atlasdb.keyvalue.cassandra.TracingQueryRunner;
@@ -55,4 +58,26 @@ public class CheckAndSetRunner {
                     "Check-and-set requires " + writeConsistency + " Cassandra nodes to be up and available.", e);
         }
     }
+
+    /**
+     * Executes the given requests, which must be for distinct cells in the same partition of the same table, as a
+     * single conditional batch.
+     */
+    public MultiCheckAndSetResult executeCheckAndSets(CassandraClient client, List<CheckAndSetRequest> requests)
+            throws TException {
+        try {
+            TableReference table = requests.get(0).table();
+            CqlResult result = queryRunner.run(
+                    client,
+                    table,
+                    () -> client.execute_cql3_query(
+                            CheckAndSetQueries.getQueryForRequests(requests),
+                            Compression.NONE,
+                            writeConsistency));
+            return CheckAndSetResponseDecoder.decodeBatchCqlResult(result, requests);
+        } catch (UnavailableException e) {
+            throw new InsufficientConsistencyException(
+                    "Check-and-set requires " + writeConsistency + " Cassandra nodes to be up and available.", e);
+        }
+    }
 }
@@ -236,6 +236,11 @@ public class CassandraService implements AutoCloseable {
         }
     }
 
+    public List<InetSocketAddress> getReplicasForKey(byte[] key) {
+        List<InetSocketAddress> hostsForKey = getHostsFor(key);
+        return hostsForKey == null ? ImmutableList.of() : hostsForKey;
+    }
+
     public InetSocketAddress getRandomHostForKey(byte[] key) {
         List<InetSocketAddress> hostsForKey = getHostsFor(key);
 
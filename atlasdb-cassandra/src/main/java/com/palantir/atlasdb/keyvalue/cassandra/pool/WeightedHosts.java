@@ -22,14 +22,22 @@ import java.util.NavigableMap;
 import java.util.TreeMap;
 import java.util.concurrent.ThreadLocalRandom;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.palantir.atlasdb.keyvalue.cassandra.CassandraClientPoolingContainer;
 
 /**
- * Weights hosts inversely by the number of active connections. {@link #getRandomHost()} should then be used to
- * pick a random host
+ * Weights hosts inversely by the number of active connections, and further by their recent latency, so that hosts
+ * which are both idle and responsive are favoured. {@link #getRandomHost()} should then be used to pick a random host
  */
 public final class WeightedHosts {
+    /**
+     * Bounds how much more traffic the fastest host can attract than the slowest, so that one slow response does not
+     * starve a host of the requests that would show it has recovered.
+     */
+    @VisibleForTesting
+    static final int MAX_LATENCY_FACTOR = 16;
+
     final NavigableMap<Integer, InetSocketAddress> hosts;
 
     private WeightedHosts(NavigableMap<Integer, InetSocketAddress> hosts) {
@@ -49,16 +57,30 @@ public final class WeightedHosts {
      * <p>
      * Every weight is guaranteed to be non-zero in size. That is, every key is guaranteed to be at least one larger
      * than the previous key.
+     * <p>
+     * The weight derived from open requests is multiplied by how many times faster the host is than the slowest one,
+     * going by {@link CassandraClientPoolingContainer#getLatencyEwmaNanos()}. Hosts with no latency samples yet are
+     * treated as being as fast as the fastest host, so that they get the requests needed to measure them.
      */
     private static NavigableMap<Integer, InetSocketAddress> buildHostsWeightedByActiveConnections(
             Map<InetSocketAddress, CassandraClientPoolingContainer> pools) {
 
         Map<InetSocketAddress, Integer> openRequestsByHost = new HashMap<>(pools.size());
+        Map<InetSocketAddress, Long> latencyByHost = new HashMap<>(pools.size());
         int totalOpenRequests = 0;
+        long fastestLatency = Long.MAX_VALUE;
+        long slowestLatency = 0;
         for (Map.Entry<InetSocketAddress, CassandraClientPoolingContainer> poolEntry : pools.entrySet()) {
             int openRequests = Math.max(poolEntry.getValue().getOpenRequests(), 0);
             openRequestsByHost.put(poolEntry.getKey(), openRequests);
             totalOpenRequests += openRequests;
+
+            long latency = poolEntry.getValue().getLatencyEwmaNanos();
+            if (latency > 0) {
+                latencyByHost.put(poolEntry.getKey(), latency);
+                fastestLatency = Math.min(fastestLatency, latency);
+                slowestLatency = Math.max(slowestLatency, latency);
+            }
         }
 
         int lowerBoundInclusive = 0;
@@ -67,12 +89,21 @@ public final class WeightedHosts {
             // We want the weight to be inversely proportional to the number of open requests so that we pick
             // less-active hosts. We add 1 to make sure that all ranges are non-empty
             int weight = totalOpenRequests - entry.getValue() + 1;
+            if (!latencyByHost.isEmpty()) {
+                long latency = latencyByHost.getOrDefault(entry.getKey(), fastestLatency);
+                weight *= getLatencyFactor(latency, slowestLatency);
+            }
             weightedHosts.put(lowerBoundInclusive + weight, entry.getKey());
             lowerBoundInclusive += weight;
         }
         return weightedHosts;
     }
 
+    private static int getLatencyFactor(long latency, long slowestLatency) {
+        long factor = Math.round((double) slowestLatency / latency);
+        return (int) Math.max(1, Math.min(factor, MAX_LATENCY_FACTOR));
+    }
+
     public InetSocketAddress getRandomHost() {
         int index = ThreadLocalRandom.current().nextInt(hosts.lastKey());
         return getRandomHostInternal(index);
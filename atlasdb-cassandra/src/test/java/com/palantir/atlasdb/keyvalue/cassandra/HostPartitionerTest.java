@@ -0,0 +1,99 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.InetSocketAddress;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+
+@SuppressWarnings("unchecked") // AssertJ assertions
+public class HostPartitionerTest {
+    private static final InetSocketAddress HOST_1 = new InetSocketAddress(1);
+    private static final InetSocketAddress HOST_2 = new InetSocketAddress(2);
+    private static final InetSocketAddress HOST_3 = new InetSocketAddress(3);
+
+    private static final Cell CELL_A1 = cell("a", "1");
+    private static final Cell CELL_A2 = cell("a", "2");
+    private static final Cell CELL_B1 = cell("b", "1");
+    private static final Cell CELL_C1 = cell("c", "1");
+    private static final Cell CELL_D1 = cell("d", "1");
+
+    private final CassandraClientPool clientPool = mock(CassandraClientPool.class);
+
+    @Test
+    public void groupsCellsOwnedByTheSameReplicas() {
+        setReplicas("a", HOST_1, HOST_2);
+        setReplicas("b", HOST_2, HOST_3);
+        setReplicas("c", HOST_1, HOST_2);
+
+        Collection<List<Cell>> groups = HostPartitioner.partitionByReplicas(
+                clientPool, ImmutableList.of(CELL_A1, CELL_B1, CELL_C1, CELL_A2), Cell::getRowName);
+
+        assertThat(groups).containsExactlyInAnyOrder(
+                ImmutableList.of(CELL_A1, CELL_C1, CELL_A2),
+                ImmutableList.of(CELL_B1));
+    }
+
+    @Test
+    public void groupingIgnoresReplicaOrder() {
+        setReplicas("a", HOST_1, HOST_2);
+        setReplicas("b", HOST_2, HOST_1);
+
+        Collection<List<Cell>> groups = HostPartitioner.partitionByReplicas(
+                clientPool, ImmutableList.of(CELL_A1, CELL_B1), Cell::getRowName);
+
+        assertThat(groups).containsExactly(ImmutableList.of(CELL_A1, CELL_B1));
+    }
+
+    @Test
+    public void groupsCellsWithUnknownReplicasTogether() {
+        when(clientPool.getReplicasForKey(any())).thenReturn(ImmutableList.of());
+        setReplicas("c", HOST_3);
+
+        Collection<List<Cell>> groups = HostPartitioner.partitionByReplicas(
+                clientPool, ImmutableList.of(CELL_A1, CELL_B1, CELL_C1, CELL_D1), Cell::getRowName);
+
+        assertThat(groups).containsExactlyInAnyOrder(
+                ImmutableList.of(CELL_A1, CELL_B1, CELL_D1),
+                ImmutableList.of(CELL_C1));
+    }
+
+    @Test
+    public void handlesNoCells() {
+        assertThat(HostPartitioner.partitionByReplicas(clientPool, ImmutableList.<Cell>of(), Cell::getRowName))
+                .isEmpty();
+    }
+
+    private void setReplicas(String row, InetSocketAddress... replicas) {
+        when(clientPool.getReplicasForKey(PtBytes.toBytes(row))).thenReturn(ImmutableList.copyOf(replicas));
+    }
+
+    private static Cell cell(String row, String column) {
+        return Cell.create(PtBytes.toBytes(row), PtBytes.toBytes(column));
+    }
+}
@@ -24,6 +24,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import org.junit.Test;
 
 import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Maps;
 import com.palantir.atlasdb.encoding.PtBytes;
 import com.palantir.atlasdb.keyvalue.api.Cell;
@@ -97,4 +98,27 @@ public class CheckAndSetQueriesTest {
                 .isEqualTo("UPDATE \"ns__table\" SET value=0x626262"
                         + " WHERE key=0x616263 AND column1=0x313233 AND column2=-1 IF value=0x616161;");
     }
+
+    @Test
+    public void batchesRequestsIntoSingleConditionalBatch() {
+        CheckAndSetRequest otherCellRequest = CheckAndSetRequest.newCell(
+                TABLE_REFERENCE,
+                Cell.create(PtBytes.toBytes("abc"), PtBytes.toBytes("456")),
+                PtBytes.toBytes("ptpt"));
+        CqlQuery query = CheckAndSetQueries.getQueryForRequests(ImmutableList.of(UPDATE_REQUEST, otherCellRequest));
+
+        assertThat(query.toString())
+                .isEqualTo("BEGIN UNLOGGED BATCH "
+                        + "UPDATE \"ns__table\" SET value=0x626262"
+                        + " WHERE key=0x616263 AND column1=0x313233 AND column2=-1 IF value=0x616161; "
+                        + "INSERT INTO \"ns__table\" (key, column1, column2, value)"
+                        + " VALUES (0x616263, 0x343536, -1, 0x70747074) IF NOT EXISTS; "
+                        + "APPLY BATCH;");
+    }
+
+    @Test
+    public void doesNotBatchSingleRequests() {
+        assertThat(CheckAndSetQueries.getQueryForRequests(ImmutableList.of(NEW_CELL_REQUEST)))
+                .isEqualTo(CheckAndSetQueries.getQueryForRequest(NEW_CELL_REQUEST));
+    }
 }
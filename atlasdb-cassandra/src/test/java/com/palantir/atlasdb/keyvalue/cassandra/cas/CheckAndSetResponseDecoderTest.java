@@ -0,0 +1,105 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.cassandra.cas;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.apache.cassandra.thrift.Column;
+import org.apache.cassandra.thrift.CqlResult;
+import org.apache.cassandra.thrift.CqlResultType;
+import org.apache.cassandra.thrift.CqlRow;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.CheckAndSetRequest;
+import com.palantir.atlasdb.keyvalue.api.MultiCheckAndSetResult;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+
+public class CheckAndSetResponseDecoderTest {
+    private static final TableReference TABLE_REFERENCE = TableReference.createFromFullyQualifiedName("ns.table");
+    private static final byte[] ROW = PtBytes.toBytes("row");
+    private static final byte[] COLUMN_1 = PtBytes.toBytes("col1");
+    private static final byte[] COLUMN_2 = PtBytes.toBytes("col2");
+    private static final byte[] COLUMN_3 = PtBytes.toBytes("col3");
+    private static final byte[] VALUE_1 = PtBytes.toBytes("value1");
+    private static final byte[] VALUE_2 = PtBytes.toBytes("value2");
+
+    private static final CheckAndSetRequest INSERT_1 = CheckAndSetRequest.newCell(
+            TABLE_REFERENCE, Cell.create(ROW, COLUMN_1), VALUE_1);
+    private static final CheckAndSetRequest UPDATE_2 = CheckAndSetRequest.singleCell(
+            TABLE_REFERENCE, Cell.create(ROW, COLUMN_2), VALUE_1, VALUE_2);
+    private static final CheckAndSetRequest UPDATE_3 = CheckAndSetRequest.singleCell(
+            TABLE_REFERENCE, Cell.create(ROW, COLUMN_3), VALUE_1, VALUE_2);
+    private static final List<CheckAndSetRequest> REQUESTS = ImmutableList.of(INSERT_1, UPDATE_2, UPDATE_3);
+
+    @Test
+    public void allRequestsSucceedIfBatchWasApplied() {
+        MultiCheckAndSetResult result = CheckAndSetResponseDecoder.decodeBatchCqlResult(
+                cqlResult(ImmutableList.of(appliedColumn(true))), REQUESTS);
+
+        assertThat(result.successfulRequests()).containsExactlyElementsOf(REQUESTS);
+        assertThat(result.failedRequests()).isEmpty();
+        assertThat(result.unappliedRequests()).isEmpty();
+    }
+
+    @Test
+    public void requestsWhoseConditionsHeldAreUnappliedIfBatchWasNotApplied() {
+        MultiCheckAndSetResult result = CheckAndSetResponseDecoder.decodeBatchCqlResult(
+                cqlResult(
+                        ImmutableList.of(appliedColumn(false), column("column1", COLUMN_1), column("value", VALUE_1)),
+                        ImmutableList.of(appliedColumn(false), column("column1", COLUMN_2), column("value", VALUE_1))),
+                REQUESTS);
+
+        assertThat(result.successfulRequests()).isEmpty();
+        assertThat(result.unappliedRequests()).containsExactly(UPDATE_2);
+        assertThat(result.failedRequests()).containsOnlyKeys(INSERT_1, UPDATE_3);
+        assertThat(result.failedRequests().get(INSERT_1)).containsExactly(VALUE_1);
+        assertThat(result.failedRequests().get(UPDATE_3)).isEmpty();
+    }
+
+    @Test
+    public void updatesFailIfExistingValueDiffers() {
+        MultiCheckAndSetResult result = CheckAndSetResponseDecoder.decodeBatchCqlResult(
+                cqlResult(
+                        ImmutableList.of(appliedColumn(false), column("column1", COLUMN_2), column("value", VALUE_2))),
+                ImmutableList.of(UPDATE_2));
+
+        assertThat(result.failedRequests()).containsOnlyKeys(UPDATE_2);
+        assertThat(result.failedRequests().get(UPDATE_2)).containsExactly(VALUE_2);
+    }
+
+    @SafeVarargs
+    private static CqlResult cqlResult(List<Column>... rows) {
+        CqlResult result = new CqlResult(CqlResultType.ROWS);
+        for (List<Column> columns : rows) {
+            result.addToRows(new CqlRow(ByteBuffer.wrap(ROW), columns));
+        }
+        return result;
+    }
+
+    private static Column appliedColumn(boolean applied) {
+        return column("[applied]", new byte[] {(byte) (applied ? 1 : 0)});
+    }
+
+    private static Column column(String name, byte[] value) {
+        return new Column(ByteBuffer.wrap(PtBytes.toBytes(name))).setValue(value);
+    }
+}
@@ -143,9 +143,83 @@ public class WeightedHostsTest {
         assertEquals(hostsToWeight, numTimesSelected);
     }
 
+    @Test
+    public void testWeightedHostsFavourLowLatencyPool() {
+        InetSocketAddress fastHost = new InetSocketAddress(0);
+        InetSocketAddress slowHost = new InetSocketAddress(1);
+        Map<InetSocketAddress, CassandraClientPoolingContainer> pools = ImmutableMap.of(
+                fastHost, createMockClientPoolingContainer(5, 1_000_000L),
+                slowHost, createMockClientPoolingContainer(5, 4_000_000L));
+
+        Map<InetSocketAddress, Integer> weights = getWeights(WeightedHosts.create(pools));
+
+        assertEquals(4 * weights.get(slowHost), (int) weights.get(fastHost));
+    }
+
+    @Test
+    public void testWeightedHostsCombineLatencyAndActivity() {
+        InetSocketAddress fastBusyHost = new InetSocketAddress(0);
+        InetSocketAddress slowIdleHost = new InetSocketAddress(1);
+        Map<InetSocketAddress, CassandraClientPoolingContainer> pools = ImmutableMap.of(
+                fastBusyHost, createMockClientPoolingContainer(10, 1_000_000L),
+                slowIdleHost, createMockClientPoolingContainer(0, 2_000_000L));
+
+        Map<InetSocketAddress, Integer> weights = getWeights(WeightedHosts.create(pools));
+
+        assertEquals(2, (int) weights.get(fastBusyHost));
+        assertEquals(11, (int) weights.get(slowIdleHost));
+    }
+
+    @Test
+    public void testLatencyFactorIsBounded() {
+        InetSocketAddress fastHost = new InetSocketAddress(0);
+        InetSocketAddress slowHost = new InetSocketAddress(1);
+        Map<InetSocketAddress, CassandraClientPoolingContainer> pools = ImmutableMap.of(
+                fastHost, createMockClientPoolingContainer(0, 1_000L),
+                slowHost, createMockClientPoolingContainer(0, 1_000_000_000L));
+
+        Map<InetSocketAddress, Integer> weights = getWeights(WeightedHosts.create(pools));
+
+        assertEquals(WeightedHosts.MAX_LATENCY_FACTOR * weights.get(slowHost), (int) weights.get(fastHost));
+    }
+
+    @Test
+    public void testHostsWithoutLatencySamplesAreWeightedAsFastestHost() {
+        InetSocketAddress fastHost = new InetSocketAddress(0);
+        InetSocketAddress slowHost = new InetSocketAddress(1);
+        InetSocketAddress newHost = new InetSocketAddress(2);
+        Map<InetSocketAddress, CassandraClientPoolingContainer> pools = ImmutableMap.of(
+                fastHost, createMockClientPoolingContainer(0, 1_000_000L),
+                slowHost, createMockClientPoolingContainer(0, 3_000_000L),
+                newHost, createMockClientPoolingContainerWithUtilization(0));
+
+        Map<InetSocketAddress, Integer> weights = getWeights(WeightedHosts.create(pools));
+
+        assertEquals(weights.get(fastHost), weights.get(newHost));
+        assertEquals(3 * weights.get(slowHost), (int) weights.get(newHost));
+    }
+
+    private static Map<InetSocketAddress, Integer> getWeights(WeightedHosts weightedHosts) {
+        Map<InetSocketAddress, Integer> hostsToWeight = new HashMap<>();
+        int prevKey = 0;
+        for (Map.Entry<Integer, InetSocketAddress> entry : weightedHosts.hosts.entrySet()) {
+            hostsToWeight.put(entry.getValue(), entry.getKey() - prevKey);
+            prevKey = entry.getKey();
+        }
+        return hostsToWeight;
+    }
+
     private static CassandraClientPoolingContainer createMockClientPoolingContainerWithUtilization(int utilization) {
         CassandraClientPoolingContainer mock = Mockito.mock(CassandraClientPoolingContainer.class);
         Mockito.when(mock.getOpenRequests()).thenReturn(utilization);
         return mock;
     }
+
+    private static CassandraClientPoolingContainer createMockClientPoolingContainer(
+            int utilization,
+            long latencyNanos) {
+        CassandraClientPoolingContainer mock = createMockClientPoolingContainerWithUtilization(utilization);
+        Mockito.when(mock.getLatencyEwmaNanos()).thenReturn(latencyNanos);
+        return mock;
+    }
 }
@@ -139,7 +139,8 @@ public class KeyValueServiceMigratorsTest {
         migrator.setup();
 
         assertThat(toKvs.getAllTableNames()).containsExactlyInAnyOrder(TransactionConstants.TRANSACTION_TABLE,
-                TransactionConstants.TRANSACTIONS2_TABLE, AtlasDbConstants.COORDINATION_TABLE);
+                TransactionConstants.TRANSACTIONS2_TABLE, TransactionConstants.TRANSACTIONS2_PACKED_TABLE,
+                AtlasDbConstants.COORDINATION_TABLE);
     }
 
     @Test
@@ -51,6 +51,7 @@ public final class AtlasDbMetricNames {
     public static final String TAG_STRATEGY = "strategy";
     public static final String TAG_CONSERVATIVE = "conservative";
     public static final String TAG_THOROUGH = "thorough";
+    public static final String TAG_SHARD = "shard";
     public static final String ENQUEUED_WRITES = "enqueuedWrites";
     public static final String ENTRIES_READ = "entriesRead";
     public static final String TOMBSTONES_PUT = "tombstonesPut";
@@ -58,6 +59,7 @@ public final class AtlasDbMetricNames {
     public static final String SWEEP_TS = "sweepTimestamp";
     public static final String LAST_SWEPT_TS = "lastSweptTimestamp";
     public static final String LAG_MILLIS = "millisSinceLastSweptTs";
+    public static final String LAG_TIMESTAMPS = "timestampsSinceLastSweptTs";
 
     public static final String SWEEP_OUTCOME = "outcome";
     public static final String TAG_OUTCOME = "status";
@@ -0,0 +1,295 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.cache;
+
+import java.io.IOException;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+import javax.annotation.Nullable;
+
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+
+/**
+ * A bounded, concurrent map from primitive longs to primitive longs, intended for caching start to commit timestamp
+ * mappings without the boxing and per-entry node overhead of a general purpose cache.
+ *
+ * The cache is set-associative: each key hashes to a set of {@link #WAYS} slots, and is only ever stored in one of
+ * the slots of its set. When a set is full, a victim is chosen from that set using the CLOCK algorithm (an
+ * approximation of LRU), so eviction never has to look beyond a single set. Sets are guarded by a fixed number of
+ * striped {@link StampedLock}s; reads are optimistic and do not block writers.
+ *
+ * Entries take up 17 bytes (key, value and reference bit), and neither reads nor writes allocate. Keys and values may
+ * instead be kept in a memory-mapped {@link TimestampCacheFile}, in which case only the reference bits are on heap.
+ *
+ * {@link Long#MIN_VALUE} is reserved to mark empty slots, and cannot be used as a key.
+ */
+final class LongToLongClockCache {
+    static final int WAYS = 8;
+    static final long EMPTY = Long.MIN_VALUE;
+    private static final int MAX_STRIPES = 64;
+
+    private final long maximumSize;
+    private final int numSets;
+    private final LongBuffer keys;
+    private final LongBuffer values;
+    private final byte[] referenced;
+    private final byte[] clockHands;
+    private final StampedLock[] locks;
+    @Nullable
+    private final TimestampCacheFile file;
+    private volatile boolean closed = false;
+
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder size = new LongAdder();
+
+    LongToLongClockCache(long maximumSize) {
+        this(maximumSize, null);
+    }
+
+    /**
+     * Creates a cache whose keys and values are stored in the given file, or on heap if no file is provided. Entries
+     * already present in the file are retained.
+     */
+    LongToLongClockCache(long maximumSize, @Nullable TimestampCacheFile file) {
+        int slots = slotsFor(maximumSize);
+        this.maximumSize = maximumSize;
+        this.numSets = slots / WAYS;
+        this.file = file;
+        if (file == null) {
+            long[] keyArray = new long[slots];
+            Arrays.fill(keyArray, EMPTY);
+            this.keys = LongBuffer.wrap(keyArray);
+            this.values = LongBuffer.allocate(slots);
+        } else {
+            Preconditions.checkArgument(file.keys().capacity() == slots, "Cache file has the wrong number of slots",
+                    SafeArg.of("fileSlots", file.keys().capacity()),
+                    SafeArg.of("slots", slots));
+            this.keys = file.keys();
+            this.values = file.values();
+        }
+        this.referenced = new byte[numSets * WAYS];
+        this.clockHands = new byte[numSets];
+        this.locks = new StampedLock[Math.min(numSets, MAX_STRIPES)];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new StampedLock();
+        }
+        for (int slot = 0; slot < slots; slot++) {
+            if (keys.get(slot) != EMPTY) {
+                size.increment();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of slots that a cache of the given maximum size stores keys and values in.
+     */
+    static int slotsFor(long maximumSize) {
+        Preconditions.checkArgument(maximumSize > 0, "Maximum size must be positive",
+                SafeArg.of("maximumSize", maximumSize));
+        long sets = (maximumSize + WAYS - 1) / WAYS;
+        Preconditions.checkArgument(sets * WAYS <= Integer.MAX_VALUE, "Maximum size is too large",
+                SafeArg.of("maximumSize", maximumSize));
+        return (int) sets * WAYS;
+    }
+
+    long maximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Returns the value associated with the key, or the provided default if the key is not present.
+     */
+    long getOrDefault(long key, long defaultValue) {
+        if (key == EMPTY) {
+            return defaultValue;
+        }
+        int set = setFor(key);
+        StampedLock lock = lockFor(set);
+
+        long stamp = lock.tryOptimisticRead();
+        int slot = findSlot(set, key);
+        long value = slot >= 0 ? values.get(slot) : defaultValue;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                slot = findSlot(set, key);
+                value = slot >= 0 ? values.get(slot) : defaultValue;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        if (slot >= 0) {
+            // Racy by design: the reference bit is only a hint for eviction.
+            referenced[slot] = 1;
+        }
+        return value;
+    }
+
+    void put(long key, long value) {
+        if (key == EMPTY) {
+            return;
+        }
+        int set = setFor(key);
+        StampedLock lock = lockFor(set);
+        long stamp = lock.writeLock();
+        try {
+            if (closed) {
+                return;
+            }
+            int slot = findSlot(set, key);
+            if (slot < 0) {
+                slot = findEmptySlot(set);
+                if (slot < 0) {
+                    slot = evictFromSet(set);
+                } else {
+                    size.increment();
+                }
+                keys.put(slot, key);
+            }
+            values.put(slot, value);
+            referenced[slot] = 1;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    void clear() {
+        for (int stripe = 0; stripe < locks.length; stripe++) {
+            long stamp = locks[stripe].writeLock();
+            try {
+                for (int set = stripe; set < numSets; set += locks.length) {
+                    int base = set * WAYS;
+                    for (int slot = base; slot < base + WAYS; slot++) {
+                        if (keys.get(slot) != EMPTY) {
+                            keys.put(slot, EMPTY);
+                            referenced[slot] = 0;
+                            size.decrement();
+                        }
+                    }
+                }
+            } finally {
+                locks[stripe].unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * Copies entries from this cache into another, for example when resizing. Entries are copied set by set, so
+     * concurrent writes to this cache may or may not be reflected in the target.
+     */
+    void copyTo(LongToLongClockCache target) {
+        for (int set = 0; set < numSets; set++) {
+            StampedLock lock = lockFor(set);
+            long stamp = lock.readLock();
+            try {
+                int base = set * WAYS;
+                for (int slot = base; slot < base + WAYS; slot++) {
+                    if (keys.get(slot) != EMPTY) {
+                        target.put(keys.get(slot), values.get(slot));
+                    }
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    /**
+     * Stops the cache from accepting writes and, if it is backed by a file, closes the file so that its contents can
+     * be reused. Entries can still be read after the cache has been closed.
+     */
+    void close() throws IOException {
+        long[] stamps = new long[locks.length];
+        for (int stripe = 0; stripe < locks.length; stripe++) {
+            stamps[stripe] = locks[stripe].writeLock();
+        }
+        try {
+            closed = true;
+            if (file != null) {
+                file.close();
+            }
+        } finally {
+            for (int stripe = 0; stripe < locks.length; stripe++) {
+                locks[stripe].unlockWrite(stamps[stripe]);
+            }
+        }
+    }
+
+    long evictionCount() {
+        return evictions.sum();
+    }
+
+    long estimatedSize() {
+        return size.sum();
+    }
+
+    private int findSlot(int set, long key) {
+        int base = set * WAYS;
+        for (int slot = base; slot < base + WAYS; slot++) {
+            if (keys.get(slot) == key) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int findEmptySlot(int set) {
+        return findSlot(set, EMPTY);
+    }
+
+    private int evictFromSet(int set) {
+        int base = set * WAYS;
+        int hand = clockHands[set];
+        // Concurrent readers may set reference bits as we go, so bound the sweep to two revolutions.
+        for (int step = 0; step < 2 * WAYS - 1; step++) {
+            int slot = base + hand;
+            if (referenced[slot] == 0) {
+                break;
+            }
+            referenced[slot] = 0;
+            hand = (hand + 1) % WAYS;
+        }
+        clockHands[set] = (byte) ((hand + 1) % WAYS);
+        evictions.increment();
+        return base + hand;
+    }
+
+    private int setFor(long key) {
+        return (int) Long.remainderUnsigned(mix(key), numSets);
+    }
+
+    private StampedLock lockFor(int set) {
+        return locks[set % locks.length];
+    }
+
+    /**
+     * Finalization step of MurmurHash3; timestamps are sequential, so we need to spread them across sets.
+     */
+    private static long mix(long key) {
+        long hash = key;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
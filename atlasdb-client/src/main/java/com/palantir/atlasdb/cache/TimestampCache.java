@@ -15,43 +15,90 @@
  */
 package com.palantir.atlasdb.cache;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.LongAdder;
+
 import javax.annotation.Nullable;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.Policy;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Supplier;
-import com.palantir.atlasdb.util.AtlasDbMetrics;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.UnsafeArg;
+
+/**
+ * Caches start to commit timestamp mappings of transactions that are known to have committed.
+ *
+ * Mappings are held in a {@link LongToLongClockCache}, which stores keys and values as primitives; with millions of
+ * cached mappings this takes up a small fraction of the heap that a general purpose cache of boxed longs would.
+ *
+ * A cache created with {@link #createPersistent} keeps its mappings in a memory-mapped file instead, so that they
+ * survive restarts; such a cache has a fixed size, and must be closed for its contents to be reused.
+ */
+public class TimestampCache implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(TimestampCache.class);
+    private static final long NOT_PRESENT = Long.MIN_VALUE;
 
-public class TimestampCache {
     private final Supplier<Long> size;
+    private final boolean resizable;
+
+    private volatile LongToLongClockCache startToCommitTimestampCache;
+    private volatile long evictionsBeforeLastResize = 0;
 
-    private final Cache<Long, Long> startToCommitTimestampCache;
-    private final Policy.Eviction<Long, Long> evictionPolicy;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public TimestampCache(MetricRegistry metricRegistry, Supplier<Long> size) {
+        this(metricRegistry, size, MetricRegistry.name(TimestampCache.class, "startToCommitTimestamp"));
+    }
 
     @VisibleForTesting
-    static Cache<Long, Long> createCache(long size) {
-        return Caffeine.newBuilder()
-                .maximumSize(size)
-                .recordStats()
-                .build();
+    TimestampCache(MetricRegistry metricRegistry, Supplier<Long> size, String metricsPrefix) {
+        this(metricRegistry, size, metricsPrefix, new LongToLongClockCache(size.get()), true);
     }
 
-    public TimestampCache(MetricRegistry metricRegistry, Supplier<Long> size) {
+    private TimestampCache(MetricRegistry metricRegistry, Supplier<Long> size, String metricsPrefix,
+            LongToLongClockCache initialCache, boolean resizable) {
         this.size = size;
-        startToCommitTimestampCache = createCache(size.get());
-        evictionPolicy = startToCommitTimestampCache.policy().eviction().get();
-        AtlasDbMetrics.registerCache(metricRegistry, startToCommitTimestampCache,
-                MetricRegistry.name(TimestampCache.class, "startToCommitTimestamp"));
+        this.resizable = resizable;
+        this.startToCommitTimestampCache = initialCache;
+        registerMetrics(metricRegistry, metricsPrefix);
     }
 
-    @VisibleForTesting
-    TimestampCache(Cache<Long, Long> cache) {
-        this.evictionPolicy = cache.policy().eviction().get();
-        this.size = evictionPolicy::getMaximum;
-        this.startToCommitTimestampCache = cache;
+    /**
+     * Creates a cache whose mappings are kept in a memory-mapped file at the given path, and retained across restarts.
+     * The size of the cache is fixed to the size supplied at creation. If the file cannot be used, for example because
+     * another process is using it, an on-heap cache is returned instead.
+     *
+     * @param metricRegistry registry to register cache metrics with
+     * @param size maximum number of mappings to cache
+     * @param file location of the file backing the cache
+     * @param identifier identifier of the AtlasDB instance whose timestamps are cached; mappings persisted for a
+     * different identifier are discarded
+     * @return timestamp cache backed by the file, if possible
+     */
+    public static TimestampCache createPersistent(MetricRegistry metricRegistry, Supplier<Long> size, Path file,
+            String identifier) {
+        String metricsPrefix = MetricRegistry.name(TimestampCache.class, "startToCommitTimestamp");
+        long maximumSize = size.get();
+        try {
+            TimestampCacheFile cacheFile = TimestampCacheFile.open(
+                    file, LongToLongClockCache.slotsFor(maximumSize), identifier);
+            LongToLongClockCache cache = new LongToLongClockCache(maximumSize, cacheFile);
+            log.info("Opened timestamp cache file at {} with {} cached mappings.",
+                    UnsafeArg.of("path", file),
+                    SafeArg.of("size", cache.estimatedSize()));
+            return new TimestampCache(metricRegistry, () -> maximumSize, metricsPrefix, cache, false);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not open timestamp cache file at {}; falling back to an on-heap timestamp cache.",
+                    UnsafeArg.of("path", file), e);
+            return new TimestampCache(metricRegistry, size, metricsPrefix);
+        }
     }
 
     /**
@@ -63,15 +110,36 @@ public class TimestampCache {
     @Nullable
     public Long getCommitTimestampIfPresent(Long startTimestamp) {
         resizeIfNecessary();
-        return startToCommitTimestampCache.getIfPresent(startTimestamp);
+        long commitTimestamp = startToCommitTimestampCache.getOrDefault(startTimestamp, NOT_PRESENT);
+        if (commitTimestamp == NOT_PRESENT) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return commitTimestamp;
     }
 
     private void resizeIfNecessary() {
-        if (evictionPolicy.getMaximum() != size.get()) {
-            evictionPolicy.setMaximum(size.get());
+        if (!resizable) {
+            return;
+        }
+        long maximumSize = size.get();
+        if (startToCommitTimestampCache.maximumSize() != maximumSize) {
+            resize(maximumSize);
         }
     }
 
+    private synchronized void resize(long maximumSize) {
+        LongToLongClockCache oldCache = startToCommitTimestampCache;
+        if (oldCache.maximumSize() == maximumSize) {
+            return;
+        }
+        LongToLongClockCache newCache = new LongToLongClockCache(maximumSize);
+        oldCache.copyTo(newCache);
+        evictionsBeforeLastResize += oldCache.evictionCount();
+        startToCommitTimestampCache = newCache;
+    }
+
     /**
      * Be very careful to only insert timestamps here that are already present in the backing store,
      * effectively using the timestamp table as existing concurrency control for who wins a commit.
@@ -87,7 +155,52 @@ public class TimestampCache {
      * Clear all values from the cache.
      */
     public void clear() {
-        startToCommitTimestampCache.invalidateAll();
+        startToCommitTimestampCache.clear();
+    }
+
+    /**
+     * Stops caching new mappings and, if this cache is backed by a file, flushes it so that its contents can be
+     * reused after a restart.
+     */
+    @Override
+    public void close() {
+        try {
+            startToCommitTimestampCache.close();
+        } catch (IOException e) {
+            log.warn("Failed to close the timestamp cache file; its contents will not be reused.", e);
+        }
+    }
+
+    private void registerMetrics(MetricRegistry metricRegistry, String metricsPrefix) {
+        if (metricRegistry.getMetrics().keySet().stream().anyMatch(name -> name.startsWith(metricsPrefix))) {
+            log.info("Not registering cache with prefix '{}' as metric registry already contains metrics",
+                    metricsPrefix);
+            return;
+        }
+        registerGauge(metricRegistry, metricsPrefix, "hit.count", hits::sum);
+        registerGauge(metricRegistry, metricsPrefix, "miss.count", misses::sum);
+        registerGauge(metricRegistry, metricsPrefix, "request.count", this::requestCount);
+        registerGauge(metricRegistry, metricsPrefix, "hit.ratio", () -> ratio(hits.sum(), requestCount()));
+        registerGauge(metricRegistry, metricsPrefix, "miss.ratio", () -> ratio(misses.sum(), requestCount()));
+        registerGauge(metricRegistry, metricsPrefix, "eviction.count",
+                () -> evictionsBeforeLastResize + startToCommitTimestampCache.evictionCount());
+        registerGauge(metricRegistry, metricsPrefix, "estimated.size",
+                () -> startToCommitTimestampCache.estimatedSize());
+        registerGauge(metricRegistry, metricsPrefix, "maximum.size",
+                () -> startToCommitTimestampCache.maximumSize());
+    }
+
+    private long requestCount() {
+        return hits.sum() + misses.sum();
+    }
+
+    private static double ratio(long numerator, long denominator) {
+        return denominator == 0 ? 1.0 : (double) numerator / denominator;
+    }
+
+    private static <T> void registerGauge(
+            MetricRegistry metricRegistry, String metricsPrefix, String name, Gauge<T> gauge) {
+        metricRegistry.register(MetricRegistry.name(metricsPrefix, "cache", name), gauge);
     }
 
     public static TimestampCache createForTests() {
@@ -0,0 +1,205 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.hash.Hashing;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.UnsafeArg;
+
+/**
+ * A memory-mapped file holding the keys and values of a {@link LongToLongClockCache}, so that cached start to commit
+ * timestamp mappings survive restarts and do not take up heap.
+ *
+ * The file starts with a header recording the layout of the file, a fingerprint of the identifier of the AtlasDB
+ * instance whose timestamps are cached, and whether the file was closed cleanly. Writes to the mapped regions may reach
+ * the disk in any order, so a file that was not closed cleanly could hold keys whose values were never written, and is
+ * discarded on open, as is a file with a different layout or identifier. The file is locked for as long as it is
+ * open, so that it cannot be used by multiple processes at once.
+ *
+ * Nothing in the file records the state of the key value service, so a file written before the key value service was
+ * restored from a backup or reset will still be reused, and must be deleted by whoever performs the restore.
+ */
+final class TimestampCacheFile implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(TimestampCacheFile.class);
+
+    private static final long MAGIC = 0x4154_4c41_5354_4331L;
+    private static final long VERSION = 1L;
+    private static final long CLEAN = 1L;
+    private static final long DIRTY = 0L;
+
+    private static final int HEADER_BYTES = 4096;
+    private static final int MAGIC_INDEX = 0;
+    private static final int VERSION_INDEX = 1;
+    private static final int SLOTS_INDEX = 2;
+    private static final int FINGERPRINT_INDEX = 3;
+    private static final int STATE_INDEX = 4;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final FileLock lock;
+    private final MappedByteBuffer header;
+    private final MappedByteBuffer keyRegion;
+    private final MappedByteBuffer valueRegion;
+    private final LongBuffer keys;
+    private final LongBuffer values;
+    private final boolean reused;
+
+    private boolean closed = false;
+
+    private TimestampCacheFile(Path path, FileChannel channel, FileLock lock, int slots, long fingerprint)
+            throws IOException {
+        this.path = path;
+        this.channel = channel;
+        this.lock = lock;
+        long regionBytes = (long) slots * Long.BYTES;
+        long expectedSize = HEADER_BYTES + 2 * regionBytes;
+
+        boolean canReuse = channel.size() == expectedSize;
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        header.order(ByteOrder.nativeOrder());
+        LongBuffer headerLongs = header.asLongBuffer();
+        canReuse = canReuse
+                && headerLongs.get(MAGIC_INDEX) == MAGIC
+                && headerLongs.get(VERSION_INDEX) == VERSION
+                && headerLongs.get(SLOTS_INDEX) == slots
+                && headerLongs.get(FINGERPRINT_INDEX) == fingerprint
+                && headerLongs.get(STATE_INDEX) == CLEAN;
+
+        if (!canReuse) {
+            log.info("Discarding the contents of the timestamp cache file at {}, since it was not closed cleanly or "
+                    + "was written with a different configuration.", UnsafeArg.of("path", path));
+            // The state is marked dirty before anything else is touched, so that a crash part way through
+            // initialization cannot leave behind a file that appears to be valid.
+            headerLongs.put(STATE_INDEX, DIRTY);
+            header.force();
+            channel.truncate(HEADER_BYTES);
+        }
+
+        this.keyRegion = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES, regionBytes);
+        this.valueRegion = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + regionBytes, regionBytes);
+        this.keys = keyRegion.order(ByteOrder.nativeOrder()).asLongBuffer();
+        this.values = valueRegion.order(ByteOrder.nativeOrder()).asLongBuffer();
+        this.reused = canReuse;
+
+        if (!canReuse) {
+            long[] emptyKeys = new long[Math.min(slots, 1 << 16)];
+            Arrays.fill(emptyKeys, LongToLongClockCache.EMPTY);
+            for (int start = 0; start < slots; start += emptyKeys.length) {
+                keys.position(start);
+                keys.put(emptyKeys, 0, Math.min(emptyKeys.length, slots - start));
+            }
+            keys.position(0);
+            keyRegion.force();
+            headerLongs.put(MAGIC_INDEX, MAGIC);
+            headerLongs.put(VERSION_INDEX, VERSION);
+            headerLongs.put(SLOTS_INDEX, slots);
+            headerLongs.put(FINGERPRINT_INDEX, fingerprint);
+        }
+        headerLongs.put(STATE_INDEX, DIRTY);
+        header.force();
+    }
+
+    /**
+     * Opens the cache file at the given path, creating it if necessary.
+     *
+     * @param path location of the file
+     * @param slots number of entries the file should hold
+     * @param identifier identifier of the AtlasDB instance whose timestamps are cached in the file
+     * @throws IOException if the file could not be opened, or is already in use by another process
+     */
+    static TimestampCacheFile open(Path path, int slots, String identifier) throws IOException {
+        Preconditions.checkArgument(slots > 0 && (long) slots * Long.BYTES <= Integer.MAX_VALUE,
+                "Number of slots is out of range for a timestamp cache file",
+                SafeArg.of("slots", slots));
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            FileLock lock = channel.tryLock();
+            if (lock == null) {
+                throw new IOException("Timestamp cache file " + path + " is in use by another process");
+            }
+            return new TimestampCacheFile(path, channel, lock, slots, fingerprint(identifier));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    LongBuffer keys() {
+        return keys;
+    }
+
+    LongBuffer values() {
+        return values;
+    }
+
+    /**
+     * Returns whether the contents of an existing file were kept when opening it.
+     */
+    boolean reusedExistingContents() {
+        return reused;
+    }
+
+    /**
+     * Flushes all entries to disk and marks the file as cleanly closed, so that its contents can be used by the next
+     * process to open it. The cache backed by this file must not be used after it has been closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            keyRegion.force();
+            valueRegion.force();
+            header.asLongBuffer().put(STATE_INDEX, CLEAN);
+            header.force();
+        } finally {
+            try {
+                lock.release();
+            } finally {
+                channel.close();
+            }
+        }
+        log.info("Closed timestamp cache file at {}.", UnsafeArg.of("path", path));
+    }
+
+    private static long fingerprint(String identifier) {
+        return Hashing.murmur3_128().hashString(identifier, StandardCharsets.UTF_8).asLong();
+    }
+}
@@ -16,13 +16,50 @@
 package com.palantir.atlasdb.compress;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nullable;
 
 import org.xerial.snappy.Snappy;
 
+import com.github.luben.zstd.Zstd;
 import com.palantir.atlasdb.table.description.ColumnValueDescription.Compression;
 import com.palantir.common.base.Throwables;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.exceptions.SafeIllegalStateException;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
 
+/**
+ * Compresses and decompresses values with the {@link Compression} configured for their column.
+ * <p>
+ * Snappy values are raw Snappy buffers. LZ4 values are the uncompressed length (a big-endian int) followed by an LZ4
+ * block. Zstd values are the id of the dictionary they were compressed with, or 0 if none, and the uncompressed length
+ * (both big-endian ints) followed by a Zstd frame.
+ */
 public final class CompressionUtils {
+    static final int ZSTD_DEFAULT_LEVEL = 3;
+
+    private static final LZ4Compressor LZ4_COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4SafeDecompressor LZ4_DECOMPRESSOR = LZ4Factory.fastestInstance().safeDecompressor();
+    private static final int LZ4_HEADER_SIZE = Integer.BYTES;
+    // An LZ4 block cannot expand to more than 255 times its size, so anything claiming to is corrupt.
+    private static final int LZ4_MAX_EXPANSION = 255;
+
+    private static final int ZSTD_HEADER_SIZE = 2 * Integer.BYTES;
+    // The most compact Zstd block is a 4 byte RLE block, which expands to at most 128 KiB, so a frame cannot expand
+    // to more than 32768 times its size.
+    private static final int ZSTD_MAX_EXPANSION = 32 * 1024;
+    private static final int NO_DICTIONARY = 0;
+    private static final ConcurrentMap<Integer, ZstdDictionary> zstdDictionaries = new ConcurrentHashMap<>();
+
     private CompressionUtils() {
         // empty
     }
@@ -30,6 +67,10 @@ public final class CompressionUtils {
     public static byte[] compress(byte[] bytes, Compression compressionType) {
         if (compressionType == Compression.SNAPPY) {
             return compressWithSnappy(bytes);
+        } else if (compressionType == Compression.LZ4) {
+            return compressWithLz4(bytes);
+        } else if (compressionType == Compression.ZSTD) {
+            return compressWithZstd(bytes);
         } else if (compressionType == Compression.NONE) {
             return bytes;
         } else {
@@ -40,6 +81,10 @@ public final class CompressionUtils {
     public static byte[] decompress(byte[] bytes, Compression compressionType) {
         if (compressionType == Compression.SNAPPY) {
             return decompressWithSnappy(bytes);
+        } else if (compressionType == Compression.LZ4) {
+            return decompressWithLz4(bytes);
+        } else if (compressionType == Compression.ZSTD) {
+            return decompressWithZstd(bytes);
         } else if (compressionType == Compression.NONE) {
             return bytes;
         } else {
@@ -47,6 +92,92 @@ public final class CompressionUtils {
         }
     }
 
+    /**
+     * Compresses the remaining bytes of {@code source} into {@code destination}, which must have at least
+     * {@link #maxCompressedLength} bytes remaining, and returns the number of bytes written. The positions of both
+     * buffers are advanced past the bytes read and written.
+     * <p>
+     * Neither buffer is copied, but both must be direct buffers for Snappy, and either both direct or both backed by
+     * arrays for Zstd.
+     */
+    public static int compress(ByteBuffer source, ByteBuffer destination, Compression compressionType) {
+        if (compressionType == Compression.SNAPPY) {
+            return compressWithSnappy(source, destination);
+        } else if (compressionType == Compression.LZ4) {
+            return compressWithLz4(source, destination);
+        } else if (compressionType == Compression.ZSTD) {
+            return compressWithZstd(source, destination, null);
+        } else if (compressionType == Compression.NONE) {
+            int length = source.remaining();
+            destination.put(source);
+            return length;
+        } else {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Decompresses the remaining bytes of {@code source} into {@code destination}, which must have at least
+     * {@link #getDecompressedLength} bytes remaining, and returns the number of bytes written. The positions of both
+     * buffers are advanced past the bytes read and written. The same restrictions on the kinds of buffers apply as
+     * for {@link #compress(ByteBuffer, ByteBuffer, Compression)}.
+     */
+    public static int decompress(ByteBuffer source, ByteBuffer destination, Compression compressionType) {
+        if (compressionType == Compression.SNAPPY) {
+            return decompressWithSnappy(source, destination);
+        } else if (compressionType == Compression.LZ4) {
+            return decompressWithLz4(source, destination);
+        } else if (compressionType == Compression.ZSTD) {
+            return decompressWithZstd(source, destination);
+        } else if (compressionType == Compression.NONE) {
+            int length = source.remaining();
+            destination.put(source);
+            return length;
+        } else {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    public static int maxCompressedLength(int uncompressedLength, Compression compressionType) {
+        if (compressionType == Compression.SNAPPY) {
+            return Snappy.maxCompressedLength(uncompressedLength);
+        } else if (compressionType == Compression.LZ4) {
+            return LZ4_HEADER_SIZE + LZ4_COMPRESSOR.maxCompressedLength(uncompressedLength);
+        } else if (compressionType == Compression.ZSTD) {
+            return ZSTD_HEADER_SIZE + Math.toIntExact(Zstd.compressBound(uncompressedLength));
+        } else if (compressionType == Compression.NONE) {
+            return uncompressedLength;
+        } else {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Returns the length of the remaining bytes of {@code source} once decompressed, without changing its position.
+     */
+    public static int getDecompressedLength(ByteBuffer source, Compression compressionType) {
+        if (compressionType == Compression.SNAPPY) {
+            try {
+                return source.isDirect()
+                        ? Snappy.uncompressedLength(source)
+                        : Snappy.uncompressedLength(
+                                source.array(), source.arrayOffset() + source.position(), source.remaining());
+            } catch (IOException e) {
+                throw Throwables.throwUncheckedException(e);
+            }
+        } else if (compressionType == Compression.LZ4) {
+            checkValid(source.remaining() >= LZ4_HEADER_SIZE, "LZ4");
+            return source.getInt(source.position());
+        } else if (compressionType == Compression.ZSTD) {
+            checkValid(source.remaining() >= ZSTD_HEADER_SIZE, "Zstd");
+            return source.getInt(source.position() + Integer.BYTES);
+        } else if (compressionType == Compression.NONE) {
+            return source.remaining();
+        } else {
+            throw new UnsupportedOperationException();
+        }
+    }
+
     public static byte[] compressWithSnappy(byte[] bytes) {
         try {
             return Snappy.compress(bytes);
@@ -65,4 +196,271 @@ public final class CompressionUtils {
             throw Throwables.throwUncheckedException(e);
         }
     }
+
+    public static byte[] compressWithLz4(byte[] bytes) {
+        int maxLength = LZ4_COMPRESSOR.maxCompressedLength(bytes.length);
+        byte[] compressed = new byte[LZ4_HEADER_SIZE + maxLength];
+        ByteBuffer.wrap(compressed).putInt(bytes.length);
+        int length = LZ4_COMPRESSOR.compress(bytes, 0, bytes.length, compressed, LZ4_HEADER_SIZE, maxLength);
+        return Arrays.copyOf(compressed, LZ4_HEADER_SIZE + length);
+    }
+
+    public static byte[] decompressWithLz4(byte[] bytes) {
+        checkValid(bytes.length >= LZ4_HEADER_SIZE, "LZ4");
+        int decompressedLength = ByteBuffer.wrap(bytes).getInt();
+        checkValidLz4Length(decompressedLength, bytes.length - LZ4_HEADER_SIZE);
+        byte[] decompressed = new byte[decompressedLength];
+        try {
+            int length = LZ4_DECOMPRESSOR.decompress(
+                    bytes, LZ4_HEADER_SIZE, bytes.length - LZ4_HEADER_SIZE, decompressed, 0, decompressedLength);
+            checkValid(length == decompressedLength, "LZ4");
+        } catch (LZ4Exception e) {
+            throw new IllegalArgumentException("Cannot decompress these bytes using LZ4", e);
+        }
+        return decompressed;
+    }
+
+    public static byte[] compressWithZstd(byte[] bytes) {
+        return compressWithZstd(bytes, null);
+    }
+
+    /**
+     * Compresses the given bytes with Zstd against the given dictionary, which is registered so that they can be
+     * decompressed by this process. Other processes must register the same dictionary before decompressing them.
+     */
+    public static byte[] compressWithZstd(byte[] bytes, @Nullable ZstdDictionary dictionary) {
+        registerIfPresent(dictionary);
+        int maxLength = Math.toIntExact(Zstd.compressBound(bytes.length));
+        byte[] compressed = new byte[ZSTD_HEADER_SIZE + maxLength];
+        ByteBuffer.wrap(compressed).putInt(dictionaryId(dictionary)).putInt(bytes.length);
+        long length = dictionary == null
+                ? Zstd.compressByteArray(
+                        compressed, ZSTD_HEADER_SIZE, maxLength, bytes, 0, bytes.length, ZSTD_DEFAULT_LEVEL)
+                : Zstd.compressFastDict(
+                        compressed, ZSTD_HEADER_SIZE, bytes, 0, bytes.length, dictionary.compressionDictionary());
+        checkZstdCompressionSucceeded(length);
+        return Arrays.copyOf(compressed, ZSTD_HEADER_SIZE + (int) length);
+    }
+
+    public static byte[] decompressWithZstd(byte[] bytes) {
+        checkValid(bytes.length >= ZSTD_HEADER_SIZE, "Zstd");
+        ByteBuffer header = ByteBuffer.wrap(bytes);
+        ZstdDictionary dictionary = getDictionary(header.getInt());
+        int decompressedLength = header.getInt();
+        int frameLength = bytes.length - ZSTD_HEADER_SIZE;
+        checkValidZstdLength(decompressedLength, frameLength);
+        byte[] decompressed = new byte[decompressedLength];
+        long length = dictionary == null
+                ? Zstd.decompressByteArray(
+                        decompressed, 0, decompressedLength, bytes, ZSTD_HEADER_SIZE, frameLength)
+                : Zstd.decompressFastDict(
+                        decompressed, 0, bytes, ZSTD_HEADER_SIZE, frameLength, dictionary.decompressionDictionary());
+        checkValid(!Zstd.isError(length) && length == decompressedLength, "Zstd");
+        return decompressed;
+    }
+
+    /**
+     * Compresses the remaining bytes of {@code source} into {@code destination} with Zstd against the given
+     * dictionary, in the same way as {@link #compress(ByteBuffer, ByteBuffer, Compression)}.
+     */
+    public static int compressWithZstd(
+            ByteBuffer source,
+            ByteBuffer destination,
+            @Nullable ZstdDictionary dictionary) {
+        checkZstdBuffers(source, destination);
+        registerIfPresent(dictionary);
+        int sourcePosition = source.position();
+        int sourceLength = source.remaining();
+        int destinationPosition = destination.position();
+        int frameOffset = destinationPosition + ZSTD_HEADER_SIZE;
+        int maxFrameLength = destination.remaining() - ZSTD_HEADER_SIZE;
+        Preconditions.checkArgument(maxFrameLength >= 0, "Destination buffer is too small");
+
+        long length;
+        if (source.isDirect()) {
+            length = dictionary == null
+                    ? Zstd.compressDirectByteBuffer(destination, frameOffset, maxFrameLength,
+                            source, sourcePosition, sourceLength, ZSTD_DEFAULT_LEVEL)
+                    : Zstd.compressDirectByteBufferFastDict(destination, frameOffset, maxFrameLength,
+                            source, sourcePosition, sourceLength, dictionary.compressionDictionary());
+        } else {
+            byte[] destinationArray = destination.array();
+            int destinationOffset = destination.arrayOffset() + frameOffset;
+            byte[] sourceArray = source.array();
+            int sourceOffset = source.arrayOffset() + sourcePosition;
+            length = dictionary == null
+                    ? Zstd.compressByteArray(destinationArray, destinationOffset, maxFrameLength,
+                            sourceArray, sourceOffset, sourceLength, ZSTD_DEFAULT_LEVEL)
+                    : Zstd.compressFastDict(destinationArray, destinationOffset,
+                            sourceArray, sourceOffset, sourceLength, dictionary.compressionDictionary());
+        }
+        checkZstdCompressionSucceeded(length);
+
+        destination.putInt(destinationPosition, dictionaryId(dictionary));
+        destination.putInt(destinationPosition + Integer.BYTES, sourceLength);
+        source.position(source.limit());
+        destination.position(frameOffset + (int) length);
+        return ZSTD_HEADER_SIZE + (int) length;
+    }
+
+    /**
+     * Registers a dictionary, so that values compressed with it can be decompressed. Registering the same dictionary
+     * more than once has no effect, but registering a different dictionary with the id of an existing one fails.
+     */
+    public static void registerZstdDictionary(ZstdDictionary dictionary) {
+        ZstdDictionary existing = zstdDictionaries.putIfAbsent(dictionary.getId(), dictionary);
+        Preconditions.checkArgument(existing == null || existing.hasSameContentsAs(dictionary),
+                "A different Zstd dictionary with this id is already registered",
+                SafeArg.of("id", dictionary.getId()));
+    }
+
+    private static int compressWithSnappy(ByteBuffer source, ByteBuffer destination) {
+        Preconditions.checkArgument(source.isDirect() && destination.isDirect(),
+                "Compressing buffers with Snappy requires direct buffers");
+        int destinationPosition = destination.position();
+        int destinationLimit = destination.limit();
+        try {
+            int length = Snappy.compress(source, destination);
+            source.position(source.limit());
+            destination.limit(destinationLimit);
+            destination.position(destinationPosition + length);
+            return length;
+        } catch (IOException e) {
+            throw Throwables.throwUncheckedException(e);
+        }
+    }
+
+    private static int decompressWithSnappy(ByteBuffer source, ByteBuffer destination) {
+        Preconditions.checkArgument(source.isDirect() && destination.isDirect(),
+                "Decompressing buffers with Snappy requires direct buffers");
+        int destinationPosition = destination.position();
+        int destinationLimit = destination.limit();
+        try {
+            int length = Snappy.uncompress(source, destination);
+            source.position(source.limit());
+            destination.limit(destinationLimit);
+            destination.position(destinationPosition + length);
+            return length;
+        } catch (IOException e) {
+            throw Throwables.throwUncheckedException(e);
+        }
+    }
+
+    private static int compressWithLz4(ByteBuffer source, ByteBuffer destination) {
+        int sourceLength = source.remaining();
+        int destinationPosition = destination.position();
+        int maxBlockLength = destination.remaining() - LZ4_HEADER_SIZE;
+        Preconditions.checkArgument(maxBlockLength >= 0, "Destination buffer is too small");
+
+        int length = LZ4_COMPRESSOR.compress(source, source.position(), sourceLength,
+                destination, destinationPosition + LZ4_HEADER_SIZE, maxBlockLength);
+
+        destination.putInt(destinationPosition, sourceLength);
+        source.position(source.limit());
+        destination.position(destinationPosition + LZ4_HEADER_SIZE + length);
+        return LZ4_HEADER_SIZE + length;
+    }
+
+    private static int decompressWithLz4(ByteBuffer source, ByteBuffer destination) {
+        int decompressedLength = getDecompressedLength(source, Compression.LZ4);
+        int blockLength = source.remaining() - LZ4_HEADER_SIZE;
+        checkValidLz4Length(decompressedLength, blockLength);
+        Preconditions.checkArgument(destination.remaining() >= decompressedLength, "Destination buffer is too small");
+
+        try {
+            int length = LZ4_DECOMPRESSOR.decompress(source, source.position() + LZ4_HEADER_SIZE, blockLength,
+                    destination, destination.position(), decompressedLength);
+            checkValid(length == decompressedLength, "LZ4");
+        } catch (LZ4Exception e) {
+            throw new IllegalArgumentException("Cannot decompress these bytes using LZ4", e);
+        }
+        source.position(source.limit());
+        destination.position(destination.position() + decompressedLength);
+        return decompressedLength;
+    }
+
+    private static int decompressWithZstd(ByteBuffer source, ByteBuffer destination) {
+        checkZstdBuffers(source, destination);
+        int decompressedLength = getDecompressedLength(source, Compression.ZSTD);
+        int frameOffset = source.position() + ZSTD_HEADER_SIZE;
+        int frameLength = source.remaining() - ZSTD_HEADER_SIZE;
+        checkValidZstdLength(decompressedLength, frameLength);
+        Preconditions.checkArgument(destination.remaining() >= decompressedLength, "Destination buffer is too small");
+        ZstdDictionary dictionary = getDictionary(source.getInt(source.position()));
+        int destinationPosition = destination.position();
+
+        long length;
+        if (source.isDirect()) {
+            length = dictionary == null
+                    ? Zstd.decompressDirectByteBuffer(destination, destinationPosition, decompressedLength,
+                            source, frameOffset, frameLength)
+                    : Zstd.decompressDirectByteBufferFastDict(destination, destinationPosition, decompressedLength,
+                            source, frameOffset, frameLength, dictionary.decompressionDictionary());
+        } else {
+            byte[] destinationArray = destination.array();
+            int destinationOffset = destination.arrayOffset() + destinationPosition;
+            byte[] sourceArray = source.array();
+            int sourceOffset = source.arrayOffset() + frameOffset;
+            length = dictionary == null
+                    ? Zstd.decompressByteArray(destinationArray, destinationOffset, decompressedLength,
+                            sourceArray, sourceOffset, frameLength)
+                    : Zstd.decompressFastDict(destinationArray, destinationOffset,
+                            sourceArray, sourceOffset, frameLength, dictionary.decompressionDictionary());
+        }
+        checkValid(!Zstd.isError(length) && length == decompressedLength, "Zstd");
+
+        source.position(source.limit());
+        destination.position(destinationPosition + decompressedLength);
+        return decompressedLength;
+    }
+
+    private static void checkZstdBuffers(ByteBuffer source, ByteBuffer destination) {
+        Preconditions.checkArgument(
+                (source.isDirect() && destination.isDirect()) || (source.hasArray() && destination.hasArray()),
+                "Zstd requires either two direct buffers or two buffers backed by arrays");
+    }
+
+    private static void registerIfPresent(@Nullable ZstdDictionary dictionary) {
+        if (dictionary != null) {
+            registerZstdDictionary(dictionary);
+        }
+    }
+
+    private static int dictionaryId(@Nullable ZstdDictionary dictionary) {
+        return dictionary == null ? NO_DICTIONARY : dictionary.getId();
+    }
+
+    @Nullable
+    private static ZstdDictionary getDictionary(int dictionaryId) {
+        if (dictionaryId == NO_DICTIONARY) {
+            return null;
+        }
+        ZstdDictionary dictionary = zstdDictionaries.get(dictionaryId);
+        if (dictionary == null) {
+            throw new SafeIllegalStateException("Cannot decompress a value compressed with an unregistered Zstd"
+                    + " dictionary", SafeArg.of("dictionaryId", dictionaryId));
+        }
+        return dictionary;
+    }
+
+    private static void checkZstdCompressionSucceeded(long result) {
+        if (Zstd.isError(result)) {
+            throw new SafeIllegalStateException("Failed to compress with Zstd",
+                    SafeArg.of("error", Zstd.getErrorName(result)));
+        }
+    }
+
+    private static void checkValidLz4Length(int decompressedLength, int blockLength) {
+        checkValid(decompressedLength >= 0 && decompressedLength <= (long) blockLength * LZ4_MAX_EXPANSION, "LZ4");
+    }
+
+    private static void checkValidZstdLength(int decompressedLength, int frameLength) {
+        checkValid(decompressedLength >= 0 && decompressedLength <= (long) frameLength * ZSTD_MAX_EXPANSION, "Zstd");
+    }
+
+    private static void checkValid(boolean valid, String compressionName) {
+        if (!valid) {
+            throw new IllegalArgumentException("Cannot decompress these bytes using " + compressionName);
+        }
+    }
 }
@@ -0,0 +1,99 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.compress;
+
+import java.util.Arrays;
+
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdDictTrainer;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+
+/**
+ * A Zstd dictionary, trained on sample values. Small values share little redundancy within themselves, but usually a
+ * lot with each other, so compressing them against a dictionary of their common content compresses them much better
+ * than compressing each one on its own.
+ * <p>
+ * Values compressed with a dictionary record its id, and can only be decompressed once a dictionary with that id has
+ * been registered with {@link CompressionUtils#registerZstdDictionary}. Ids must therefore be unique within the
+ * process, and a dictionary must be kept for as long as values compressed with it may still be read.
+ * <p>
+ * Dictionaries are not part of table metadata: columns declared with {@code Compression.ZSTD} are always compressed
+ * without a dictionary. Callers that compress values against a dictionary are responsible for storing it and
+ * registering it in every process that reads those values.
+ */
+public final class ZstdDictionary {
+    private final int id;
+    private final byte[] bytes;
+    private final ZstdDictCompress compressionDictionary;
+    private final ZstdDictDecompress decompressionDictionary;
+
+    private ZstdDictionary(int id, byte[] bytes, int compressionLevel) {
+        Preconditions.checkArgument(id > 0, "Dictionary ids must be positive", SafeArg.of("id", id));
+        this.id = id;
+        this.bytes = Arrays.copyOf(bytes, bytes.length);
+        this.compressionDictionary = new ZstdDictCompress(this.bytes, compressionLevel);
+        this.decompressionDictionary = new ZstdDictDecompress(this.bytes);
+    }
+
+    /**
+     * Creates a dictionary from the bytes of a previously trained one, as returned by {@link #getBytes()}.
+     */
+    public static ZstdDictionary of(int id, byte[] bytes) {
+        return new ZstdDictionary(id, bytes, CompressionUtils.ZSTD_DEFAULT_LEVEL);
+    }
+
+    /**
+     * Trains a dictionary of at most {@code maxSizeBytes} on the given sample values, which must total less than
+     * 2 GiB. A few thousand samples are typically enough, and a dictionary of around 100 times smaller than the total
+     * size of the samples works well.
+     */
+    public static ZstdDictionary train(int id, Iterable<byte[]> samples, int maxSizeBytes) {
+        long totalSampleSize = 0;
+        for (byte[] sample : samples) {
+            totalSampleSize += sample.length;
+        }
+        Preconditions.checkArgument(totalSampleSize <= Integer.MAX_VALUE,
+                "Samples for training a Zstd dictionary must total less than 2 GiB",
+                SafeArg.of("totalSampleSize", totalSampleSize));
+        ZstdDictTrainer trainer = new ZstdDictTrainer((int) totalSampleSize, maxSizeBytes);
+        for (byte[] sample : samples) {
+            trainer.addSample(sample);
+        }
+        return of(id, trainer.trainSamples());
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public byte[] getBytes() {
+        return Arrays.copyOf(bytes, bytes.length);
+    }
+
+    ZstdDictCompress compressionDictionary() {
+        return compressionDictionary;
+    }
+
+    ZstdDictDecompress decompressionDictionary() {
+        return decompressionDictionary;
+    }
+
+    boolean hasSameContentsAs(ZstdDictionary other) {
+        return id == other.id && Arrays.equals(bytes, other.bytes);
+    }
+}
@@ -33,6 +33,7 @@ import com.palantir.atlasdb.keyvalue.api.ColumnRangeSelection;
 import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
 import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.MultiCheckAndSetResult;
 import com.palantir.atlasdb.keyvalue.api.RangeRequest;
 import com.palantir.atlasdb.keyvalue.api.RowColumnRangeIterator;
 import com.palantir.atlasdb.keyvalue.api.RowResult;
@@ -120,6 +121,11 @@ public class DualWriteKeyValueService implements KeyValueService {
         delegate1.checkAndSet(checkAndSetRequest);
     }
 
+    @Override
+    public MultiCheckAndSetResult multiCheckAndSet(List<CheckAndSetRequest> checkAndSetRequests) {
+        return delegate1.multiCheckAndSet(checkAndSetRequests);
+    }
+
     @Override
     public void delete(TableReference tableRef, Multimap<Cell, Long> keys) {
         delegate1.delete(tableRef, keys);
@@ -30,6 +30,7 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
 
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
@@ -85,14 +86,35 @@ public class InMemoryKeyValueService extends AbstractKeyValueService {
     private final ConcurrentMap<TableReference, Table> tables = Maps.newConcurrentMap();
     private final ConcurrentMap<TableReference, byte[]> tableMetadata = Maps.newConcurrentMap();
     private final boolean createTablesAutomatically;
+    private final Supplier<Table> tableFactory;
 
     public InMemoryKeyValueService(boolean createTablesAutomatically) {
         this(createTablesAutomatically, MoreExecutors.newDirectExecutorService());
     }
 
     public InMemoryKeyValueService(boolean createTablesAutomatically, ExecutorService executor) {
+        this(createTablesAutomatically, executor, OnHeapTable::new);
+    }
+
+    private InMemoryKeyValueService(
+            boolean createTablesAutomatically,
+            ExecutorService executor,
+            Supplier<Table> tableFactory) {
         super(executor);
         this.createTablesAutomatically = createTablesAutomatically;
+        this.tableFactory = tableFactory;
+    }
+
+    /**
+     * Creates an in-memory key-value service that stores its tables outside of the Java heap, in direct byte buffers.
+     * This keeps large data sets from putting pressure on the garbage collector; note that the amount of data that
+     * can be stored is then bounded by {@code -XX:MaxDirectMemorySize} rather than by the heap size.
+     */
+    public static InMemoryKeyValueService createOffHeap(boolean createTablesAutomatically) {
+        return new InMemoryKeyValueService(
+                createTablesAutomatically,
+                MoreExecutors.newDirectExecutorService(),
+                OffHeapInMemoryTable::new);
     }
 
     @Override
@@ -100,13 +122,13 @@ public class InMemoryKeyValueService extends AbstractKeyValueService {
     public Map<Cell, Value> getRows(TableReference tableRef, Iterable<byte[]> rows,
                                     ColumnSelection columnSelection, long timestamp) {
         Map<Cell, Value> result = Maps.newHashMap();
-        ConcurrentSkipListMap<Key, byte[]> table = getTableMap(tableRef).entries;
+        Table table = getTableMap(tableRef);
 
         for (byte[] row : rows) {
             Cell rowBegin = Cells.createSmallestCellForRow(row);
             Cell rowEnd = Cells.createLargestCellForRow(row);
-            PeekingIterator<Entry<Key, byte[]>> entries = Iterators.peekingIterator(table.subMap(
-                    new Key(rowBegin, Long.MIN_VALUE), new Key(rowEnd, timestamp)).entrySet().iterator());
+            PeekingIterator<Entry<Key, byte[]>> entries = Iterators.peekingIterator(table.entries(
+                    new Key(rowBegin, Long.MIN_VALUE), true, new Key(rowEnd, timestamp), false, false));
             while (entries.hasNext()) {
                 Entry<Key, byte[]> entry = entries.peek();
                 Key key = entry.getKey();
@@ -140,7 +162,7 @@ public class InMemoryKeyValueService extends AbstractKeyValueService {
 
     @Override
     public Map<Cell, Value> get(TableReference tableRef, Map<Cell, Long> timestampByCell) {
-        ConcurrentSkipListMap<Key, byte[]> table = getTableMap(tableRef).entries;
+        Table table = getTableMap(tableRef);
         Map<Cell, Value> result = Maps.newHashMap();
         for (Map.Entry<Cell, Long> e : timestampByCell.entrySet()) {
             Cell cell = e.getKey();
@@ -223,29 +245,29 @@ public class InMemoryKeyValueService extends AbstractKeyValueService {
     private <T> ClosableIterator<RowResult<T>> getRangeInternal(TableReference tableRef,
                                                                 final RangeRequest range,
                                                                 final ResultProducer<T> resultProducer) {
-        ConcurrentNavigableMap<Key, byte[]> tableMap = getTableMap(tableRef).entries;
-        if (range.isReverse()) {
-            tableMap = tableMap.descendingMap();
-        }
+        Table table = getTableMap(tableRef);
+        Key startKey = null;
         if (range.getStartInclusive().length != 0) {
             if (range.isReverse()) {
                 Cell startCell = Cells.createLargestCellForRow(range.getStartInclusive());
-                tableMap = tableMap.tailMap(new Key(startCell, Long.MIN_VALUE));
+                startKey = new Key(startCell, Long.MIN_VALUE);
             } else {
                 Cell startCell = Cells.createSmallestCellForRow(range.getStartInclusive());
-                tableMap = tableMap.tailMap(new Key(startCell, Long.MIN_VALUE));
+                startKey = new Key(startCell, Long.MIN_VALUE);
             }
         }
+        Key endKey = null;
         if (range.getEndExclusive().length != 0) {
             if (range.isReverse()) {
                 Cell endCell = Cells.createLargestCellForRow(range.getEndExclusive());
-                tableMap = tableMap.headMap(new Key(endCell, Long.MAX_VALUE));
+                endKey = new Key(endCell, Long.MAX_VALUE);
             } else {
                 Cell endCell = Cells.createSmallestCellForRow(range.getEndExclusive());
-                tableMap = tableMap.headMap(new Key(endCell, Long.MAX_VALUE));
+                endKey = new Key(endCell, Long.MAX_VALUE);
             }
         }
-        final PeekingIterator<Entry<Key, byte[]>> it = Iterators.peekingIterator(tableMap.entrySet().iterator());
+        final PeekingIterator<Entry<Key, byte[]>> it = Iterators.peekingIterator(
+                table.entries(startKey, true, endKey, false, range.isReverse()));
         return ClosableIterators.wrap(new AbstractIterator<RowResult<T>>() {
             @Override
             protected RowResult<T> computeNext() {
@@ -301,7 +323,7 @@ public class InMemoryKeyValueService extends AbstractKeyValueService {
                                                                   BatchColumnRangeSelection batchColumnRangeSelection,
                                                                   long timestamp) {
         Map<byte[], RowColumnRangeIterator> result = Maps.newHashMap();
-        ConcurrentSkipListMap<Key, byte[]> table = getTableMap(tableRef).entries;
+        Table table = getTableMap(tableRef);
 
         ColumnRangeSelection columnRangeSelection = new ColumnRangeSelection(
                 batchColumnRangeSelection.getStartCol(),
@@ -319,14 +341,14 @@ public class InMemoryKeyValueService extends AbstractKeyValueService {
                                                      ColumnRangeSelection columnRangeSelection,
                                                      int cellBatchHint,
                                                      long timestamp) {
-        ConcurrentSkipListMap<Key, byte[]> table = getTableMap(tableRef).entries;
+        Table table = getTableMap(tableRef);
         Iterator<RowColumnRangeIterator> rowColumnRanges =
                 Iterators.transform(rows.iterator(),
                         row -> getColumnRangeForSingleRow(table, row, columnRangeSelection, timestamp));
         return new LocalRowColumnRangeIterator(Iterators.concat(rowColumnRanges));
     }
 
-    private RowColumnRangeIterator getColumnRangeForSingleRow(ConcurrentSkipListMap<Key, byte[]> table,
+    private RowColumnRangeIterator getColumnRangeForSingleRow(Table table,
                                                               byte[] row,
                                                               ColumnRangeSelection columnRangeSelection,
                                                               long timestamp) {
@@ -343,8 +365,8 @@ public class InMemoryKeyValueService extends AbstractKeyValueService {
         } else {
             rowEnd = Cells.createLargestCellForRow(row);
         }
-        PeekingIterator<Entry<Key, byte[]>> entries = Iterators.peekingIterator(table.subMap(
-                new Key(rowBegin, Long.MIN_VALUE), new Key(rowEnd, timestamp)).entrySet().iterator());
+        PeekingIterator<Entry<Key, byte[]>> entries = Iterators.peekingIterator(table.entries(
+                new Key(rowBegin, Long.MIN_VALUE), true, new Key(rowEnd, timestamp), false, false));
         Map<Cell, Value> rowResults = new LinkedHashMap<>();
         while (entries.hasNext()) {
             Entry<Key, byte[]> entry = entries.peek();
@@ -410,7 +432,7 @@ public class InMemoryKeyValueService extends AbstractKeyValueService {
             byte[] contents = entry.getValue().getContents();
             long timestamp = entry.getValue().getTimestamp();
 
-            Key key = getKey(table, entry.getKey(), timestamp);
+            Key key = new Key(entry.getKey(), timestamp);
             byte[] oldContents = putIfAbsent(table, key, contents);
             if (oldContents != null && (doNotOverwriteWithSameValue || !Arrays.equals(oldContents, contents))) {
                 throw new KeyAlreadyExistsException("We already have a value for this timestamp",
@@ -433,13 +455,13 @@ public class InMemoryKeyValueService extends AbstractKeyValueService {
         Optional<byte[]> oldValue = request.oldValue();
         byte[] contents = request.newValue();
 
-        Key key = getKey(table, cell, AtlasDbConstants.TRANSACTION_TS);
+        Key key = new Key(cell, AtlasDbConstants.TRANSACTION_TS);
         if (oldValue.isPresent()) {
-            byte[] storedValue = table.entries.get(key);
+            byte[] storedValue = table.get(key);
             boolean succeeded = Arrays.equals(storedValue, oldValue.get())
-                    && table.entries.replace(key, storedValue, copyOf(contents));
+                    && table.replace(key, storedValue, copyOf(contents));
             if (!succeeded) {
-                byte[] actual = table.entries.get(key); // Re-fetch, something may have happened between get and replace
+                byte[] actual = table.get(key); // Re-fetch, something may have happened between get and replace
                 throwCheckAndSetException(cell, tableRef, oldValue.get(), actual);
             }
         } else {
@@ -452,19 +474,7 @@ public class InMemoryKeyValueService extends AbstractKeyValueService {
 
     // Returns the existing contents, if any, and null otherwise
     private byte[] putIfAbsent(Table table, Key key, final byte[] contents) {
-        return table.entries.putIfAbsent(key, copyOf(contents));
-    }
-
-    private Key getKey(Table table, Cell cell, long timestamp) {
-        byte[] row = cell.getRowName();
-        byte[] col = cell.getColumnName();
-
-        Key nextKey = table.entries.ceilingKey(new Key(row, ArrayUtils.EMPTY_BYTE_ARRAY, Long.MIN_VALUE));
-        if (nextKey != null && nextKey.matchesRow(row)) {
-            // Save memory by sharing rows.
-            row = nextKey.row;
-        }
-        return new Key(row, col, timestamp);
+        return table.putIfAbsent(key, copyOf(contents));
     }
 
     private void throwCheckAndSetException(Cell cell, TableReference tableRef, byte[] expected, byte[] actual) {
@@ -474,7 +484,7 @@ public class InMemoryKeyValueService extends AbstractKeyValueService {
 
     @Override
     public void delete(TableReference tableRef, Multimap<Cell, Long> keys) {
-        ConcurrentSkipListMap<Key, byte[]> table = getTableMap(tableRef).entries;
+        Table table = getTableMap(tableRef);
         for (Map.Entry<Cell, Long> e : keys.entries()) {
             table.remove(new Key(e.getKey(), e.getValue()));
         }
@@ -482,19 +492,21 @@ public class InMemoryKeyValueService extends AbstractKeyValueService {
 
     @Override
     public void deleteAllTimestamps(TableReference tableRef, Map<Cell, TimestampRangeDelete> deletes) {
-        ConcurrentSkipListMap<Key, byte[]> table = getTableMap(tableRef).entries;
-        deletes.forEach((cell, delete) -> table.subMap(
-                new Key(cell, delete.minTimestampToDelete()), true,
-                new Key(cell, delete.maxTimestampToDelete()), true).clear());
+        Table table = getTableMap(tableRef);
+        deletes.forEach((cell, delete) -> table.removeRange(
+                new Key(cell, delete.minTimestampToDelete()),
+                new Key(cell, delete.maxTimestampToDelete())));
     }
 
     @Override
     public Multimap<Cell, Long> getAllTimestamps(TableReference tableRef, Set<Cell> cells, long ts) {
         Multimap<Cell, Long> multimap = HashMultimap.create();
-        ConcurrentSkipListMap<Key, byte[]> table = getTableMap(tableRef).entries;
+        Table table = getTableMap(tableRef);
         for (Cell key : cells) {
-            for (Key entry : table.subMap(new Key(key, Long.MIN_VALUE), new Key(key, ts)).keySet()) {
-                multimap.put(key, entry.ts);
+            Iterator<Entry<Key, byte[]>> entries = table.entries(
+                    new Key(key, Long.MIN_VALUE), true, new Key(key, ts), false, false);
+            while (entries.hasNext()) {
+                multimap.put(key, entries.next().getKey().ts);
             }
         }
         return multimap;
@@ -515,7 +527,7 @@ public class InMemoryKeyValueService extends AbstractKeyValueService {
     public void truncateTable(TableReference tableRef) {
         Table table = tables.get(tableRef);
         if (table != null) {
-            table.entries.clear();
+            table.clear();
         } else {
             throw new IllegalStateException(
                     String.format("Truncate called on a table (%s) that did not exist", tableRef));
@@ -524,7 +536,7 @@ public class InMemoryKeyValueService extends AbstractKeyValueService {
 
     @Override
     public void createTable(TableReference tableRef, byte[] metadata) {
-        tables.putIfAbsent(tableRef, new Table());
+        tables.computeIfAbsent(tableRef, unused -> tableFactory.get());
         putMetadataForTable(tableRef, metadata);
     }
 
@@ -554,11 +566,116 @@ public class InMemoryKeyValueService extends AbstractKeyValueService {
         return Arrays.copyOf(contents, contents.length);
     }
 
-    static class Table {
-        final ConcurrentSkipListMap<Key, byte[]> entries;
+    /**
+     * The sorted versions of the cells of a single table. Implementations must be thread safe, and their iterators
+     * weakly consistent, in the same way as those of a {@link ConcurrentSkipListMap}.
+     */
+    interface Table {
+        @Nullable
+        byte[] get(Key key);
+
+        @Nullable
+        Entry<Key, byte[]> lowerEntry(Key key);
+
+        /**
+         * Returns the entries between the given keys, in ascending key order or, if {@code descending} is true, in
+         * descending key order. {@code from} bounds the first entry returned and {@code to} the last; a null bound
+         * leaves that end of the range unbounded.
+         */
+        Iterator<Entry<Key, byte[]>> entries(
+                @Nullable Key from,
+                boolean fromInclusive,
+                @Nullable Key to,
+                boolean toInclusive,
+                boolean descending);
+
+        /**
+         * Returns the existing value, if there is one, and null otherwise.
+         */
+        @Nullable
+        byte[] putIfAbsent(Key key, byte[] value);
+
+        boolean replace(Key key, byte[] oldValue, byte[] newValue);
+
+        void put(Key key, byte[] value);
 
-        Table() {
-            this.entries = new ConcurrentSkipListMap<>();
+        void remove(Key key);
+
+        /**
+         * Removes all entries between the given keys, inclusive.
+         */
+        void removeRange(Key fromInclusive, Key toInclusive);
+
+        void clear();
+    }
+
+    private static final class OnHeapTable implements Table {
+        private final ConcurrentSkipListMap<Key, byte[]> entries = new ConcurrentSkipListMap<>();
+
+        @Override
+        public byte[] get(Key key) {
+            return entries.get(key);
+        }
+
+        @Override
+        public Entry<Key, byte[]> lowerEntry(Key key) {
+            return entries.lowerEntry(key);
+        }
+
+        @Override
+        public Iterator<Entry<Key, byte[]>> entries(
+                @Nullable Key from,
+                boolean fromInclusive,
+                @Nullable Key to,
+                boolean toInclusive,
+                boolean descending) {
+            ConcurrentNavigableMap<Key, byte[]> map = descending ? entries.descendingMap() : entries;
+            if (from != null) {
+                map = map.tailMap(from, fromInclusive);
+            }
+            if (to != null) {
+                map = map.headMap(to, toInclusive);
+            }
+            return map.entrySet().iterator();
+        }
+
+        @Override
+        public byte[] putIfAbsent(Key key, byte[] value) {
+            return entries.putIfAbsent(withSharedRow(key), value);
+        }
+
+        @Override
+        public boolean replace(Key key, byte[] oldValue, byte[] newValue) {
+            return entries.replace(key, oldValue, newValue);
+        }
+
+        @Override
+        public void put(Key key, byte[] value) {
+            entries.put(key, value);
+        }
+
+        @Override
+        public void remove(Key key) {
+            entries.remove(key);
+        }
+
+        @Override
+        public void removeRange(Key fromInclusive, Key toInclusive) {
+            entries.subMap(fromInclusive, true, toInclusive, true).clear();
+        }
+
+        @Override
+        public void clear() {
+            entries.clear();
+        }
+
+        private Key withSharedRow(Key key) {
+            Key nextKey = entries.ceilingKey(new Key(key.row, ArrayUtils.EMPTY_BYTE_ARRAY, Long.MIN_VALUE));
+            if (nextKey != null && nextKey.matchesRow(key.row)) {
+                // Save memory by sharing rows.
+                return new Key(nextKey.row, key.col, key.ts);
+            }
+            return key;
         }
     }
 
@@ -575,7 +692,7 @@ public class InMemoryKeyValueService extends AbstractKeyValueService {
 
     @Override
     public void addGarbageCollectionSentinelValues(TableReference tableRef, Iterable<Cell> cells) {
-        ConcurrentSkipListMap<Key, byte[]> table = getTableMap(tableRef).entries;
+        Table table = getTableMap(tableRef);
         for (Cell cell : cells) {
             table.put(new Key(cell, Value.INVALID_VALUE_TIMESTAMP), ArrayUtils.EMPTY_BYTE_ARRAY);
         }
@@ -591,10 +708,10 @@ public class InMemoryKeyValueService extends AbstractKeyValueService {
         return ClusterAvailabilityStatus.ALL_AVAILABLE;
     }
 
-    private static class Key implements Comparable<Key> {
-        private final byte[] row;
-        private final byte[] col;
-        private final long ts;
+    static final class Key implements Comparable<Key> {
+        final byte[] row;
+        final byte[] col;
+        final long ts;
 
         Key(Cell cell, long ts) {
             this(cell.getRowName(), cell.getColumnName(), ts);
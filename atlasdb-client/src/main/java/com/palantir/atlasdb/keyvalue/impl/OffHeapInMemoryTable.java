@@ -0,0 +1,564 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.impl;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Longs;
+import com.palantir.atlasdb.keyvalue.impl.InMemoryKeyValueService.Key;
+
+/**
+ * A {@link InMemoryKeyValueService.Table} that keeps its entries outside of the Java heap.
+ * <p>
+ * Entries are nodes of a skip list, and nodes are allocated sequentially in direct byte buffers, so a table of any
+ * size is made up of a handful of objects as far as the garbage collector is concerned. Each node is laid out as
+ * <pre>
+ *     level (int), row length (int), column length (int), value length (int), timestamp (long),
+ *     next node address (long) for each level, row bytes, column bytes, value bytes
+ * </pre>
+ * and the address of a node is the index of its chunk in the high half and its offset within that chunk in the low
+ * half. The space of removed nodes is reclaimed by copying the remaining nodes into fresh chunks, once more than half
+ * of the allocated space is garbage.
+ * <p>
+ * Writes take an exclusive lock and reads a shared one. Iterators don't hold the lock between batches of entries;
+ * instead, each batch seeks past the last key returned by the previous one, so iterators are weakly consistent and
+ * never observe a compaction.
+ */
+@ThreadSafe
+final class OffHeapInMemoryTable implements InMemoryKeyValueService.Table {
+    @VisibleForTesting
+    static final int DEFAULT_CHUNK_SIZE_BYTES = 16 * 1024 * 1024;
+
+    private static final int MAX_LEVEL = 16;
+    private static final long NIL = -1L;
+    private static final int ITERATOR_BATCH_SIZE = 128;
+
+    private static final int LEVEL_OFFSET = 0;
+    private static final int ROW_LENGTH_OFFSET = 4;
+    private static final int COL_LENGTH_OFFSET = 8;
+    private static final int VALUE_LENGTH_OFFSET = 12;
+    private static final int TIMESTAMP_OFFSET = 16;
+    private static final int NEXT_OFFSET = 24;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final int chunkSizeBytes;
+
+    private final long[] head = new long[MAX_LEVEL];
+    private List<ByteBuffer> chunks = new ArrayList<>();
+    private long liveBytes = 0;
+    private long garbageBytes = 0;
+    private int size = 0;
+
+    OffHeapInMemoryTable() {
+        this(DEFAULT_CHUNK_SIZE_BYTES);
+    }
+
+    @VisibleForTesting
+    OffHeapInMemoryTable(int chunkSizeBytes) {
+        this.chunkSizeBytes = chunkSizeBytes;
+        Arrays.fill(head, NIL);
+    }
+
+    @Override
+    public byte[] get(Key key) {
+        lock.readLock().lock();
+        try {
+            long node = ceilingNode(key, true);
+            return node != NIL && compare(key, node) == 0 ? readValue(node) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Entry<Key, byte[]> lowerEntry(Key key) {
+        lock.readLock().lock();
+        try {
+            long node = floorNode(key, false);
+            return node == NIL ? null : readEntry(node);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Iterator<Entry<Key, byte[]>> entries(
+            @Nullable Key from,
+            boolean fromInclusive,
+            @Nullable Key to,
+            boolean toInclusive,
+            boolean descending) {
+        return new AbstractIterator<Entry<Key, byte[]>>() {
+            private final Queue<Entry<Key, byte[]>> batch = new ArrayDeque<>(ITERATOR_BATCH_SIZE);
+            private Key seekKey = from;
+            private boolean seekInclusive = fromInclusive;
+            private boolean exhausted = false;
+
+            @Override
+            protected Entry<Key, byte[]> computeNext() {
+                if (batch.isEmpty() && !exhausted) {
+                    exhausted = fetchBatch();
+                }
+                return batch.isEmpty() ? endOfData() : batch.poll();
+            }
+
+            private boolean fetchBatch() {
+                lock.readLock().lock();
+                try {
+                    long node = descending ? firstNodeDescending() : firstNodeAscending();
+                    while (node != NIL && batch.size() < ITERATOR_BATCH_SIZE) {
+                        Entry<Key, byte[]> entry = readEntry(node);
+                        if (to != null && isPastEnd(entry.getKey())) {
+                            return true;
+                        }
+                        batch.add(entry);
+                        seekKey = entry.getKey();
+                        seekInclusive = false;
+                        node = descending ? floorNode(seekKey, false) : nextNode(node, 0);
+                    }
+                    return node == NIL;
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+
+            private long firstNodeAscending() {
+                return seekKey == null ? head[0] : ceilingNode(seekKey, seekInclusive);
+            }
+
+            private long firstNodeDescending() {
+                return seekKey == null ? lastNode() : floorNode(seekKey, seekInclusive);
+            }
+
+            private boolean isPastEnd(Key key) {
+                int comparison = descending ? to.compareTo(key) : key.compareTo(to);
+                return toInclusive ? comparison > 0 : comparison >= 0;
+            }
+        };
+    }
+
+    @Override
+    public byte[] putIfAbsent(Key key, byte[] value) {
+        lock.writeLock().lock();
+        try {
+            long[] predecessors = new long[MAX_LEVEL];
+            long node = findPredecessors(key, predecessors);
+            if (node != NIL && compare(key, node) == 0) {
+                return readValue(node);
+            }
+            insert(key, value, predecessors);
+            return null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean replace(Key key, byte[] oldValue, byte[] newValue) {
+        lock.writeLock().lock();
+        try {
+            long[] predecessors = new long[MAX_LEVEL];
+            long node = findPredecessors(key, predecessors);
+            if (node == NIL || compare(key, node) != 0 || !Arrays.equals(readValue(node), oldValue)) {
+                return false;
+            }
+            replaceValue(key, node, newValue, predecessors);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(Key key, byte[] value) {
+        lock.writeLock().lock();
+        try {
+            long[] predecessors = new long[MAX_LEVEL];
+            long node = findPredecessors(key, predecessors);
+            if (node != NIL && compare(key, node) == 0) {
+                replaceValue(key, node, value, predecessors);
+            } else {
+                insert(key, value, predecessors);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Key key) {
+        lock.writeLock().lock();
+        try {
+            long[] predecessors = new long[MAX_LEVEL];
+            long node = findPredecessors(key, predecessors);
+            if (node != NIL && compare(key, node) == 0) {
+                unlink(node, predecessors);
+                compactIfMostlyGarbage();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeRange(Key fromInclusive, Key toInclusive) {
+        lock.writeLock().lock();
+        try {
+            long[] predecessors = new long[MAX_LEVEL];
+            long node = findPredecessors(fromInclusive, predecessors);
+            while (node != NIL && compare(toInclusive, node) >= 0) {
+                long following = nextNode(node, 0);
+                unlink(node, predecessors);
+                node = following;
+            }
+            compactIfMostlyGarbage();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            Arrays.fill(head, NIL);
+            chunks = new ArrayList<>();
+            liveBytes = 0;
+            garbageBytes = 0;
+            size = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @VisibleForTesting
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @VisibleForTesting
+    long allocatedBytes() {
+        lock.readLock().lock();
+        try {
+            return liveBytes + garbageBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the first node at or after the given key, or NIL if there is none.
+     */
+    private long ceilingNode(Key key, boolean inclusive) {
+        long node = findPredecessors(key, null);
+        if (!inclusive && node != NIL && compare(key, node) == 0) {
+            node = nextNode(node, 0);
+        }
+        return node;
+    }
+
+    /**
+     * Returns the last node at or before the given key, or NIL if there is none.
+     */
+    private long floorNode(Key key, boolean inclusive) {
+        long predecessor = NIL;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            long node = predecessor == NIL ? head[level] : nextNode(predecessor, level);
+            while (node != NIL) {
+                int comparison = compare(key, node);
+                if (comparison < 0 || (comparison == 0 && !inclusive)) {
+                    break;
+                }
+                predecessor = node;
+                node = nextNode(node, level);
+            }
+        }
+        return predecessor;
+    }
+
+    private long lastNode() {
+        long node = NIL;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            long next = node == NIL ? head[level] : nextNode(node, level);
+            while (next != NIL) {
+                node = next;
+                next = nextNode(node, level);
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Returns the first node at or after the given key, or NIL if there is none, and records the last node before
+     * the key at each level in {@code predecessors}, if it is given, where NIL stands for the head of the list.
+     */
+    private long findPredecessors(Key key, @Nullable long[] predecessors) {
+        long predecessor = NIL;
+        long node = NIL;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            node = predecessor == NIL ? head[level] : nextNode(predecessor, level);
+            while (node != NIL && compare(key, node) > 0) {
+                predecessor = node;
+                node = nextNode(node, level);
+            }
+            if (predecessors != null) {
+                predecessors[level] = predecessor;
+            }
+        }
+        return node;
+    }
+
+    private void insert(Key key, byte[] value, long[] predecessors) {
+        int level = randomLevel();
+        long node = allocate(key, value, level);
+        for (int i = 0; i < level; i++) {
+            long predecessor = predecessors[i];
+            setNextNode(node, i, predecessor == NIL ? head[i] : nextNode(predecessor, i));
+            setNextNode(predecessor, i, node);
+        }
+        size++;
+    }
+
+    private void replaceValue(Key key, long node, byte[] value, long[] predecessors) {
+        if (valueLength(node) == value.length) {
+            ByteBuffer chunk = chunk(node);
+            int offset = offset(node);
+            writeBytes(chunk, offset + valueOffset(chunk, offset), value);
+        } else {
+            unlink(node, predecessors);
+            insert(key, value, predecessors);
+            compactIfMostlyGarbage();
+        }
+    }
+
+    private void unlink(long node, long[] predecessors) {
+        int level = level(node);
+        for (int i = 0; i < level; i++) {
+            setNextNode(predecessors[i], i, nextNode(node, i));
+        }
+        int nodeSize = nodeSize(node);
+        liveBytes -= nodeSize;
+        garbageBytes += nodeSize;
+        size--;
+    }
+
+    private void compactIfMostlyGarbage() {
+        if (garbageBytes <= chunkSizeBytes || garbageBytes <= liveBytes) {
+            return;
+        }
+        List<ByteBuffer> oldChunks = chunks;
+        long oldNode = head[0];
+        Arrays.fill(head, NIL);
+        chunks = new ArrayList<>();
+        liveBytes = 0;
+        garbageBytes = 0;
+
+        long[] tails = new long[MAX_LEVEL];
+        Arrays.fill(tails, NIL);
+        while (oldNode != NIL) {
+            ByteBuffer oldChunk = oldChunks.get(chunkIndex(oldNode));
+            int oldOffset = offset(oldNode);
+            int level = oldChunk.getInt(oldOffset + LEVEL_OFFSET);
+            int nodeSize = nodeSize(oldChunk, oldOffset);
+
+            long node = allocate(nodeSize);
+            ByteBuffer chunk = chunk(node);
+            int offset = offset(node);
+            for (int i = 0; i < nodeSize; i++) {
+                chunk.put(offset + i, oldChunk.get(oldOffset + i));
+            }
+            for (int i = 0; i < level; i++) {
+                setNextNode(node, i, NIL);
+                setNextNode(tails[i], i, node);
+                tails[i] = node;
+            }
+            oldNode = oldChunk.getLong(oldOffset + NEXT_OFFSET);
+        }
+    }
+
+    private long allocate(Key key, byte[] value, int level) {
+        int nodeSize = NEXT_OFFSET + Long.BYTES * level + key.row.length + key.col.length + value.length;
+        long node = allocate(nodeSize);
+        ByteBuffer chunk = chunk(node);
+        int offset = offset(node);
+        chunk.putInt(offset + LEVEL_OFFSET, level);
+        chunk.putInt(offset + ROW_LENGTH_OFFSET, key.row.length);
+        chunk.putInt(offset + COL_LENGTH_OFFSET, key.col.length);
+        chunk.putInt(offset + VALUE_LENGTH_OFFSET, value.length);
+        chunk.putLong(offset + TIMESTAMP_OFFSET, key.ts);
+        int dataOffset = offset + NEXT_OFFSET + Long.BYTES * level;
+        writeBytes(chunk, dataOffset, key.row);
+        writeBytes(chunk, dataOffset + key.row.length, key.col);
+        writeBytes(chunk, dataOffset + key.row.length + key.col.length, value);
+        return node;
+    }
+
+    private long allocate(int nodeSize) {
+        ByteBuffer chunk = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+        if (chunk == null || chunk.remaining() < nodeSize) {
+            // Nodes never span chunks, so a node larger than the chunk size gets a chunk of its own.
+            chunk = ByteBuffer.allocateDirect(Math.max(chunkSizeBytes, nodeSize));
+            chunks.add(chunk);
+        }
+        int offset = chunk.position();
+        chunk.position(offset + nodeSize);
+        liveBytes += nodeSize;
+        return ((long) (chunks.size() - 1) << 32) | offset;
+    }
+
+    private static int randomLevel() {
+        // Each level holds a quarter of the nodes of the level below it.
+        int level = 1;
+        while (level < MAX_LEVEL && ThreadLocalRandom.current().nextInt(4) == 0) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * Compares the given key with the key of the given node, in the order of {@link Key#compareTo}.
+     */
+    private int compare(Key key, long node) {
+        ByteBuffer chunk = chunk(node);
+        int offset = offset(node);
+        int rowLength = chunk.getInt(offset + ROW_LENGTH_OFFSET);
+        int colLength = chunk.getInt(offset + COL_LENGTH_OFFSET);
+        int rowOffset = offset + NEXT_OFFSET + Long.BYTES * chunk.getInt(offset + LEVEL_OFFSET);
+
+        int comparison = compareUnsigned(key.row, chunk, rowOffset, rowLength);
+        if (comparison != 0) {
+            return comparison;
+        }
+        comparison = compareUnsigned(key.col, chunk, rowOffset + rowLength, colLength);
+        if (comparison != 0) {
+            return comparison;
+        }
+        return Longs.compare(key.ts, chunk.getLong(offset + TIMESTAMP_OFFSET));
+    }
+
+    private static int compareUnsigned(byte[] bytes, ByteBuffer chunk, int offset, int length) {
+        int minLength = Math.min(bytes.length, length);
+        for (int i = 0; i < minLength; i++) {
+            int comparison = Integer.compare(bytes[i] & 0xFF, chunk.get(offset + i) & 0xFF);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return Integer.compare(bytes.length, length);
+    }
+
+    private Entry<Key, byte[]> readEntry(long node) {
+        ByteBuffer chunk = chunk(node);
+        int offset = offset(node);
+        int rowLength = chunk.getInt(offset + ROW_LENGTH_OFFSET);
+        int colLength = chunk.getInt(offset + COL_LENGTH_OFFSET);
+        int valueLength = chunk.getInt(offset + VALUE_LENGTH_OFFSET);
+        int rowOffset = offset + NEXT_OFFSET + Long.BYTES * chunk.getInt(offset + LEVEL_OFFSET);
+
+        byte[] row = readBytes(chunk, rowOffset, rowLength);
+        byte[] col = readBytes(chunk, rowOffset + rowLength, colLength);
+        byte[] value = readBytes(chunk, rowOffset + rowLength + colLength, valueLength);
+        return Maps.immutableEntry(new Key(row, col, chunk.getLong(offset + TIMESTAMP_OFFSET)), value);
+    }
+
+    private byte[] readValue(long node) {
+        ByteBuffer chunk = chunk(node);
+        int offset = offset(node);
+        return readBytes(chunk, offset + valueOffset(chunk, offset), chunk.getInt(offset + VALUE_LENGTH_OFFSET));
+    }
+
+    private static int valueOffset(ByteBuffer chunk, int offset) {
+        return NEXT_OFFSET
+                + Long.BYTES * chunk.getInt(offset + LEVEL_OFFSET)
+                + chunk.getInt(offset + ROW_LENGTH_OFFSET)
+                + chunk.getInt(offset + COL_LENGTH_OFFSET);
+    }
+
+    private static byte[] readBytes(ByteBuffer chunk, int offset, int length) {
+        ByteBuffer view = chunk.duplicate();
+        view.position(offset);
+        byte[] bytes = new byte[length];
+        view.get(bytes);
+        return bytes;
+    }
+
+    private static void writeBytes(ByteBuffer chunk, int offset, byte[] bytes) {
+        ByteBuffer view = chunk.duplicate();
+        view.position(offset);
+        view.put(bytes);
+    }
+
+    private int level(long node) {
+        return chunk(node).getInt(offset(node) + LEVEL_OFFSET);
+    }
+
+    private int valueLength(long node) {
+        return chunk(node).getInt(offset(node) + VALUE_LENGTH_OFFSET);
+    }
+
+    private int nodeSize(long node) {
+        return nodeSize(chunk(node), offset(node));
+    }
+
+    private static int nodeSize(ByteBuffer chunk, int offset) {
+        return valueOffset(chunk, offset) + chunk.getInt(offset + VALUE_LENGTH_OFFSET);
+    }
+
+    private long nextNode(long node, int level) {
+        return chunk(node).getLong(offset(node) + NEXT_OFFSET + Long.BYTES * level);
+    }
+
+    private void setNextNode(long node, int level, long next) {
+        if (node == NIL) {
+            head[level] = next;
+        } else {
+            chunk(node).putLong(offset(node) + NEXT_OFFSET + Long.BYTES * level, next);
+        }
+    }
+
+    private ByteBuffer chunk(long node) {
+        return chunks.get(chunkIndex(node));
+    }
+
+    private static int chunkIndex(long node) {
+        return (int) (node >>> 32);
+    }
+
+    private static int offset(long node) {
+        return (int) node;
+    }
+}
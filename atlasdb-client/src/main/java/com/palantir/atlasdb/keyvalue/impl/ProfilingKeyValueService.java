@@ -39,6 +39,7 @@ import com.palantir.atlasdb.keyvalue.api.ColumnRangeSelection;
 import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
 import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.MultiCheckAndSetResult;
 import com.palantir.atlasdb.keyvalue.api.RangeRequest;
 import com.palantir.atlasdb.keyvalue.api.RowColumnRangeIterator;
 import com.palantir.atlasdb.keyvalue.api.RowResult;
@@ -346,6 +347,12 @@ public final class ProfilingKeyValueService implements KeyValueService {
                 logCellsAndSize("checkAndSet", request.table(), 1, request.newValue().length));
     }
 
+    @Override
+    public MultiCheckAndSetResult multiCheckAndSet(List<CheckAndSetRequest> requests) {
+        return maybeLog(() -> delegate.multiCheckAndSet(requests),
+                logTime("multiCheckAndSet"));
+    }
+
     @Override
     public void putWithTimestamps(TableReference tableRef, Multimap<Cell, Value> values) {
         maybeLog(() -> delegate.putWithTimestamps(tableRef, values),
@@ -17,6 +17,7 @@ package com.palantir.atlasdb.keyvalue.impl;
 
 import java.io.PrintWriter;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentMap;
@@ -32,6 +33,7 @@ import com.palantir.atlasdb.keyvalue.api.CheckAndSetRequest;
 import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
 import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.MultiCheckAndSetResult;
 import com.palantir.atlasdb.keyvalue.api.RangeRequest;
 import com.palantir.atlasdb.keyvalue.api.RowResult;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
@@ -267,6 +269,24 @@ public class StatsTrackingKeyValueService extends ForwardingKeyValueService {
         incrementPutBytes(s, request.cell(), request.newValue());
     }
 
+    @Override
+    public MultiCheckAndSetResult multiCheckAndSet(List<CheckAndSetRequest> requests) {
+        long start = System.currentTimeMillis();
+        MultiCheckAndSetResult result = super.multiCheckAndSet(requests);
+        long finish = System.currentTimeMillis();
+        for (CheckAndSetRequest request : requests) {
+            getTableStats(request.table()).totalPutMillis.addAndGet(finish - start);
+        }
+
+        // Only update stats for requests that were applied.
+        for (CheckAndSetRequest request : result.successfulRequests()) {
+            TableStats s = getTableStats(request.table());
+            s.totalPutCells.incrementAndGet();
+            incrementPutBytes(s, request.cell(), request.newValue());
+        }
+        return result;
+    }
+
     private TableStats getTableStats(TableReference tableRef) {
         TableStats s = statsByTableName.get(tableRef);
         if (s == null) {
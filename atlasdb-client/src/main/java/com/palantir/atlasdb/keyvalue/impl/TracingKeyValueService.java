@@ -37,6 +37,7 @@ import com.palantir.atlasdb.keyvalue.api.ColumnRangeSelection;
 import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
 import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.MultiCheckAndSetResult;
 import com.palantir.atlasdb.keyvalue.api.RangeRequest;
 import com.palantir.atlasdb.keyvalue.api.RowColumnRangeIterator;
 import com.palantir.atlasdb.keyvalue.api.RowResult;
@@ -93,6 +94,14 @@ public final class TracingKeyValueService extends ForwardingObject implements Ke
         }
     }
 
+    @Override
+    public MultiCheckAndSetResult multiCheckAndSet(List<CheckAndSetRequest> checkAndSetRequests) {
+        //noinspection unused - try-with-resources closes trace
+        try (CloseableTrace trace = startLocalTrace("multiCheckAndSet({} requests)", checkAndSetRequests.size())) {
+            return delegate().multiCheckAndSet(checkAndSetRequests);
+        }
+    }
+
     @Override
     public void close() {
         //noinspection unused - try-with-resources closes trace
@@ -22,9 +22,19 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import javax.annotation.CheckForNull;
@@ -34,18 +44,25 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.palantir.atlasdb.protos.generated.StreamPersistence.Status;
 import com.palantir.atlasdb.protos.generated.StreamPersistence.StreamMetadata;
 import com.palantir.atlasdb.transaction.api.Transaction;
 import com.palantir.atlasdb.transaction.api.TransactionManager;
 import com.palantir.common.base.Throwables;
+import com.palantir.common.concurrent.NamedThreadFactory;
+import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.util.ByteArrayIOStream;
 
 public abstract class AbstractGenericStreamStore<T> implements GenericStreamStore<T> {
     protected static final Logger log = LoggerFactory.getLogger(AbstractGenericStreamStore.class);
 
+    static final ExecutorService blockTransferExecutor = PTExecutors.newCachedThreadPool(
+            new NamedThreadFactory("stream-store-block-transfer", true));
+
     @CheckForNull protected final TransactionManager txnMgr;
 
     protected AbstractGenericStreamStore(TransactionManager txManager) {
@@ -139,6 +156,11 @@ public abstract class AbstractGenericStreamStore<T> implements GenericStreamStor
         };
 
         try {
+            int blocksToReadAhead = getNumberOfBlocksToReadAhead();
+            if (blocksToReadAhead > 0) {
+                return BlockConsumingInputStream.createWithReadAhead(
+                        pageRefresher, totalBlocks, blocksToReadAhead, blockTransferExecutor);
+            }
             return BlockConsumingInputStream.create(pageRefresher, totalBlocks, blocksInMemory);
         } catch (IOException e) {
             throw Throwables.throwUncheckedException(e);
@@ -151,6 +173,15 @@ public abstract class AbstractGenericStreamStore<T> implements GenericStreamStor
         return Math.max(1, blocksInMemory);
     }
 
+    /**
+     * The number of blocks of a large stream to load concurrently ahead of the block being read, or 0 to load blocks
+     * only once the previous ones have been read. This also bounds the number of blocks written concurrently when
+     * loading a stream to a file.
+     */
+    protected int getNumberOfBlocksToReadAhead() {
+        return 0;
+    }
+
     @Override
     public final File loadStreamAsFile(Transaction transaction, T id) {
         StreamMetadata metadata = getMetadata(transaction, id);
@@ -169,6 +200,18 @@ public abstract class AbstractGenericStreamStore<T> implements GenericStreamStor
         }
     }
 
+    @Override
+    public final void loadStreamToChannel(Transaction transaction, T id, WritableByteChannel channel) {
+        StreamMetadata metadata = getMetadata(transaction, id);
+        checkStreamStored(id, metadata);
+        try {
+            tryWriteStreamToChannel(transaction, id, metadata, channel);
+        } catch (IOException e) {
+            log.error("Could not finish streaming blocks to channel for stream {}", id, e);
+            throw Throwables.rewrapAndThrowUncheckedException("Error writing blocks to channel.", e);
+        }
+    }
+
     private void checkStreamStored(T id, StreamMetadata metadata) {
         if (metadata == null) {
             log.error("Error loading stream {} because it was never stored.", id);
@@ -210,11 +253,79 @@ public abstract class AbstractGenericStreamStore<T> implements GenericStreamStor
     // This method is overridden in generated code. Changes to this method may have unintended consequences.
     protected void tryWriteStreamToFile(Transaction transaction, T id, StreamMetadata metadata, FileOutputStream fos)
             throws IOException {
+        tryWriteStreamToChannel(transaction, id, metadata, fos.getChannel());
+        fos.close();
+    }
+
+    // This method is overridden in generated code for streams compressed on the client, whose blocks do not
+    // correspond to ranges of the stream. Changes to this method may have unintended consequences.
+    protected void tryWriteStreamToChannel(
+            Transaction transaction,
+            T id,
+            StreamMetadata metadata,
+            WritableByteChannel channel) throws IOException {
+        if (channel instanceof FileChannel) {
+            writeBlocksToFileChannel(transaction, id, metadata, (FileChannel) channel);
+        } else {
+            OutputStream channelStream = Channels.newOutputStream(channel);
+            long numBlocks = getNumberOfBlocksFromMetadata(metadata);
+            for (long i = 0; i < numBlocks; i++) {
+                loadSingleBlockToOutputStream(transaction, id, i, channelStream);
+            }
+        }
+    }
+
+    private void writeBlocksToFileChannel(Transaction transaction, T id, StreamMetadata metadata, FileChannel channel)
+            throws IOException {
         long numBlocks = getNumberOfBlocksFromMetadata(metadata);
-        for (long i = 0; i < numBlocks; i++) {
-            loadSingleBlockToOutputStream(transaction, id, i, fos);
+        long startPosition = channel.position();
+        long endPosition = startPosition + metadata.getLength();
+        if (metadata.getLength() > 0 && endPosition > channel.size()) {
+            // Extend the file to its final length up front, so blocks can be written at their positions in any order.
+            channel.write(ByteBuffer.allocate(1), endPosition - 1);
         }
-        fos.close();
+
+        AtomicLong nextBlock = new AtomicLong();
+        Runnable blockWriter = () -> {
+            try {
+                for (long block = nextBlock.getAndIncrement(); block < numBlocks; block = nextBlock.getAndIncrement()) {
+                    OutputStream blockStream = new FileChannelOutputStream(
+                            channel, startPosition + block * BLOCK_SIZE_IN_BYTES);
+                    loadSingleBlockToOutputStream(transaction, id, block, blockStream);
+                }
+            } catch (RuntimeException | Error e) {
+                nextBlock.set(numBlocks);
+                throw e;
+            }
+        };
+
+        int parallelism = (int) Math.min(numBlocks, Math.max(1, getNumberOfBlocksToReadAhead()));
+        List<Future<?>> blockWriters = Lists.newArrayListWithCapacity(parallelism);
+        try {
+            for (int i = 1; i < parallelism; i++) {
+                blockWriters.add(blockTransferExecutor.submit(blockWriter));
+            }
+        } catch (RejectedExecutionException e) {
+            log.debug("Could not write blocks of stream {} in parallel; writing them on fewer threads", id, e);
+        }
+
+        Throwable failure = null;
+        try {
+            blockWriter.run();
+        } catch (RuntimeException | Error e) {
+            failure = e;
+        }
+        for (Future<?> writer : blockWriters) {
+            try {
+                Uninterruptibles.getUninterruptibly(writer);
+            } catch (ExecutionException e) {
+                failure = failure == null ? e.getCause() : failure;
+            }
+        }
+        if (failure != null) {
+            throw Throwables.throwUncheckedException(failure);
+        }
+        channel.position(endPosition);
     }
 
     protected abstract File createTempFile(T id) throws IOException;
@@ -230,4 +341,27 @@ public abstract class AbstractGenericStreamStore<T> implements GenericStreamStor
     private StreamMetadata getOnlyStreamMetadata(Map<T, StreamMetadata> idToMetadata) {
         return Iterables.getOnlyElement(idToMetadata.values());
     }
+
+    private static final class FileChannelOutputStream extends OutputStream {
+        private final FileChannel channel;
+        private long position;
+
+        private FileChannelOutputStream(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        @Override
+        public void write(int byteToWrite) throws IOException {
+            write(new byte[] { (byte) byteToWrite }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int off, int len) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, off, len);
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+    }
 }
@@ -19,19 +19,27 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Supplier;
 
 import javax.annotation.Nullable;
 
 import com.google.common.base.Functions;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.common.io.ByteStreams;
 import com.google.common.io.CountingInputStream;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.google.protobuf.ByteString;
 import com.palantir.atlasdb.encoding.PtBytes;
 import com.palantir.atlasdb.protos.generated.StreamPersistence.Status;
@@ -46,6 +54,7 @@ import com.palantir.util.crypto.Sha256Hash;
 
 public abstract class AbstractPersistentStreamStore extends AbstractGenericStreamStore<Long>
         implements PersistentStreamStore {
+    private final Supplier<StreamStorePersistenceConfiguration> persistenceConfiguration;
     private final StreamStoreBackoffStrategy backoffStrategy;
 
     protected AbstractPersistentStreamStore(TransactionManager txManager) {
@@ -55,9 +64,15 @@ public abstract class AbstractPersistentStreamStore extends AbstractGenericStrea
     protected AbstractPersistentStreamStore(TransactionManager txManager,
             Supplier<StreamStorePersistenceConfiguration> persistenceConfiguration) {
         super(txManager);
+        this.persistenceConfiguration = persistenceConfiguration;
         this.backoffStrategy = StandardPeriodicBackoffStrategy.create(persistenceConfiguration);
     }
 
+    @Override
+    protected int getNumberOfBlocksToReadAhead() {
+        return persistenceConfiguration.get().numBlocksToReadAhead();
+    }
+
     protected final void storeMetadataAndIndex(final long streamId, final StreamMetadata metadata) {
         Preconditions.checkNotNull(txnMgr, "Transaction manager must not be null");
         txnMgr.runTaskThrowOnConflict((TxTask) tx -> {
@@ -183,6 +198,12 @@ public abstract class AbstractPersistentStreamStore extends AbstractGenericStrea
     }
 
     private void storeBlocksFromStream(@Nullable Transaction tx, long id, InputStream stream) throws IOException {
+        int blocksToWriteConcurrently = persistenceConfiguration.get().numBlocksToWriteConcurrently();
+        if (!streamOperationIsTransactional(tx) && blocksToWriteConcurrently > 1) {
+            storeBlocksFromStreamConcurrently(id, stream, blocksToWriteConcurrently);
+            return;
+        }
+
         long blockNumber = 0;
 
         while (true) {
@@ -207,6 +228,87 @@ public abstract class AbstractPersistentStreamStore extends AbstractGenericStrea
         }
     }
 
+    /**
+     * Stores blocks in batches of blocksPerBatch, reading the next batch from the stream while the current one is
+     * being written. The last block of each batch is stored first, which extends the length recorded in the stream's
+     * metadata past the whole batch; storing the other blocks then leaves the metadata unchanged, so their concurrent
+     * transactions do not conflict with each other, while still conflicting with a concurrent cleanup of the stream.
+     */
+    private void storeBlocksFromStreamConcurrently(long id, InputStream stream, int blocksPerBatch)
+            throws IOException {
+        long firstBlockInBatch = 0;
+        List<Future<?>> blocksInFlight = ImmutableList.of();
+        while (true) {
+            List<byte[]> batch = readBlocks(stream, blocksPerBatch);
+            awaitBlocks(blocksInFlight);
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            blocksInFlight = storeBatch(id, firstBlockInBatch, batch);
+            for (int i = 0; i < batch.size(); i++) {
+                backoffStrategy.accept(firstBlockInBatch + i + 1);
+            }
+            firstBlockInBatch += batch.size();
+
+            byte[] lastBlock = batch.get(batch.size() - 1);
+            if (batch.size() < blocksPerBatch || lastBlock.length < BLOCK_SIZE_IN_BYTES) {
+                awaitBlocks(blocksInFlight);
+                return;
+            }
+        }
+    }
+
+    private static List<byte[]> readBlocks(InputStream stream, int maxBlocks) throws IOException {
+        List<byte[]> blocks = Lists.newArrayListWithCapacity(maxBlocks);
+        while (blocks.size() < maxBlocks) {
+            byte[] block = new byte[BLOCK_SIZE_IN_BYTES];
+            int length = ByteStreams.read(stream, block, 0, BLOCK_SIZE_IN_BYTES);
+            if (length == 0) {
+                break;
+            }
+            if (length < BLOCK_SIZE_IN_BYTES) {
+                blocks.add(PtBytes.head(block, length));
+                break;
+            }
+            blocks.add(block);
+        }
+        return blocks;
+    }
+
+    private List<Future<?>> storeBatch(long id, long firstBlock, List<byte[]> batch) {
+        int lastIndex = batch.size() - 1;
+        storeBlockWithNonNullTransaction(null, id, firstBlock + lastIndex, batch.get(lastIndex));
+
+        List<Future<?>> blocksInFlight = Lists.newArrayListWithCapacity(lastIndex);
+        for (int i = 0; i < lastIndex; i++) {
+            long blockNumber = firstBlock + i;
+            byte[] block = batch.get(i);
+            Runnable storeTask = () -> storeBlockWithNonNullTransaction(null, id, blockNumber, block);
+            try {
+                blocksInFlight.add(blockTransferExecutor.submit(storeTask));
+            } catch (RejectedExecutionException e) {
+                storeTask.run();
+                blocksInFlight.add(Futures.immediateFuture(null));
+            }
+        }
+        return blocksInFlight;
+    }
+
+    private static void awaitBlocks(List<Future<?>> blocksInFlight) {
+        Throwable failure = null;
+        for (Future<?> block : blocksInFlight) {
+            try {
+                Uninterruptibles.getUninterruptibly(block);
+            } catch (ExecutionException e) {
+                failure = failure == null ? e.getCause() : failure;
+            }
+        }
+        if (failure != null) {
+            throw Throwables.throwUncheckedException(failure);
+        }
+    }
+
     private boolean streamOperationIsTransactional(@Nullable Transaction tx) {
         // TODO (jkong): I'm using tx == null as a proxy for whether the entire operation should be done
         // transactionally or not (null implies nontransactional).
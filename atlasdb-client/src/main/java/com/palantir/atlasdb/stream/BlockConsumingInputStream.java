@@ -18,19 +18,42 @@ package com.palantir.atlasdb.stream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.palantir.atlasdb.schema.stream.StreamStoreDefinition;
 
+/**
+ * An {@link InputStream} over a sequence of blocks loaded by a {@link BlockGetter}.
+ * <p>
+ * By default, blocks are loaded on the reading thread, {@code blocksInMemory} at a time, once the previous ones have
+ * been consumed. With read-ahead, the next {@code blocksToReadAhead} blocks are instead loaded concurrently, one block
+ * per task, while the current block is being consumed. Buffers for blocks are reused, so at most
+ * {@code blocksToReadAhead + 1} blocks are held in memory at once.
+ */
 public final class BlockConsumingInputStream extends InputStream {
+    private static final Logger log = LoggerFactory.getLogger(BlockConsumingInputStream.class);
+
     private final BlockGetter blockGetter;
     private final long numBlocks;
     private final int blocksInMemory;
+    @Nullable private final ReadAhead readAhead;
 
     private long nextBlockToRead;
 
-    private byte[] buffer;
+    private BlockBuffer buffer;
     private int positionInBuffer;
 
     public static BlockConsumingInputStream create(
@@ -38,7 +61,22 @@ public final class BlockConsumingInputStream extends InputStream {
             long numBlocks,
             int blocksInMemory) throws IOException {
         ensureExpectedArraySizeDoesNotOverflow(blockGetter, blocksInMemory);
-        return new BlockConsumingInputStream(blockGetter, numBlocks, blocksInMemory);
+        return new BlockConsumingInputStream(blockGetter, numBlocks, blocksInMemory, 0, null);
+    }
+
+    /**
+     * Creates a stream that loads up to {@code blocksToReadAhead} blocks ahead of the reader concurrently on the given
+     * executor. Blocks that could not be loaded ahead, because the executor rejected the task or loading failed, are
+     * loaded again on the reading thread when they are needed.
+     */
+    public static BlockConsumingInputStream createWithReadAhead(
+            BlockGetter blockGetter,
+            long numBlocks,
+            int blocksToReadAhead,
+            Executor executor) throws IOException {
+        Preconditions.checkArgument(blocksToReadAhead > 0, "Must read at least one block ahead");
+        ensureExpectedArraySizeDoesNotOverflow(blockGetter, 1);
+        return new BlockConsumingInputStream(blockGetter, numBlocks, 1, blocksToReadAhead, executor);
     }
 
     // we don't want to actually create a very large array in tests, as the external test VM would run out of memory.
@@ -57,31 +95,33 @@ public final class BlockConsumingInputStream extends InputStream {
                 expectedBufferSize);
     }
 
-    private BlockConsumingInputStream(BlockGetter blockGetter, long numBlocks, int blocksInMemory) {
+    private BlockConsumingInputStream(
+            BlockGetter blockGetter,
+            long numBlocks,
+            int blocksInMemory,
+            int blocksToReadAhead,
+            @Nullable Executor readAheadExecutor) {
         this.blockGetter = blockGetter;
         this.numBlocks = numBlocks;
         this.blocksInMemory = blocksInMemory;
+        this.readAhead = readAheadExecutor == null ? null : new ReadAhead(blocksToReadAhead, readAheadExecutor);
         this.nextBlockToRead = 0L;
         this.positionInBuffer = 0;
-        this.buffer = new byte[0];
+        this.buffer = new BlockBuffer(0);
     }
 
     @Override
     public int read() throws IOException {
-        if (positionInBuffer < buffer.length) {
-            return buffer[positionInBuffer++] & 0xff;
+        if (positionInBuffer < buffer.length()) {
+            return buffer.bytes()[positionInBuffer++] & 0xff;
         }
 
-        if (nextBlockToRead < numBlocks) {
-            boolean reloaded = refillBuffer();
-            if (!reloaded) {
-                return -1;
-            }
-
-            return buffer[positionInBuffer++] & 0xff;
+        boolean reloaded = refillBuffer();
+        if (!reloaded) {
+            return -1;
         }
 
-        return -1;
+        return buffer.bytes()[positionInBuffer++] & 0xff;
     }
 
     @Override
@@ -96,13 +136,13 @@ public final class BlockConsumingInputStream extends InputStream {
 
         int bytesRead = 0;
         while (bytesRead < len) {
-            int bytesLeftInBuffer = buffer.length - positionInBuffer;
+            int bytesLeftInBuffer = buffer.length() - positionInBuffer;
             int bytesToCopy = Math.min(bytesLeftInBuffer, len - bytesRead);
-            System.arraycopy(buffer, positionInBuffer, bytes, off + bytesRead, bytesToCopy);
+            System.arraycopy(buffer.bytes(), positionInBuffer, bytes, off + bytesRead, bytesToCopy);
             positionInBuffer += bytesToCopy;
             bytesRead += bytesToCopy;
 
-            if (positionInBuffer >= buffer.length) {
+            if (positionInBuffer >= buffer.length()) {
                 boolean reloaded = refillBuffer();
                 if (!reloaded) {
                     break;
@@ -117,7 +157,18 @@ public final class BlockConsumingInputStream extends InputStream {
         return bytesRead;
     }
 
+    @Override
+    public void close() {
+        if (readAhead != null) {
+            readAhead.cancel();
+        }
+    }
+
     private boolean refillBuffer() throws IOException {
+        if (readAhead != null) {
+            return refillBufferFromReadAhead(readAhead);
+        }
+
         // since blocksInMemory is an int, the min is guaranteed to fit in an int
         int numBlocksToGet = (int) Math.min(blocksLeft(), blocksInMemory);
         if (numBlocksToGet <= 0) {
@@ -125,16 +176,129 @@ public final class BlockConsumingInputStream extends InputStream {
         }
 
         int expectedLength = blockGetter.expectedBlockLength() * numBlocksToGet;
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream(expectedLength)) {
-            blockGetter.get(nextBlockToRead, numBlocksToGet, outputStream);
-            nextBlockToRead += numBlocksToGet;
-            buffer = outputStream.toByteArray();
-            positionInBuffer = 0;
-            return true;
+        if (buffer.bytes().length < expectedLength) {
+            buffer = new BlockBuffer(expectedLength);
+        }
+        buffer.reset();
+        blockGetter.get(nextBlockToRead, numBlocksToGet, buffer);
+        nextBlockToRead += numBlocksToGet;
+        positionInBuffer = 0;
+        return true;
+    }
+
+    private boolean refillBufferFromReadAhead(ReadAhead blocksReadAhead) throws IOException {
+        blocksReadAhead.release(buffer);
+        blocksReadAhead.scheduleUpTo(numBlocks);
+        if (blocksReadAhead.isEmpty()) {
+            return false;
         }
+
+        buffer = blocksReadAhead.takeNext();
+        positionInBuffer = 0;
+        blocksReadAhead.scheduleUpTo(numBlocks);
+        return true;
     }
 
     private long blocksLeft() {
         return Math.max(0L, numBlocks - nextBlockToRead);
     }
+
+    private final class ReadAhead {
+        private final int blocksToReadAhead;
+        private final Executor executor;
+        private final Deque<PendingBlock> pendingBlocks;
+        private final Deque<BlockBuffer> freeBuffers;
+
+        private ReadAhead(int blocksToReadAhead, Executor executor) {
+            this.blocksToReadAhead = blocksToReadAhead;
+            this.executor = executor;
+            this.pendingBlocks = new ArrayDeque<>(blocksToReadAhead);
+            this.freeBuffers = new ArrayDeque<>(blocksToReadAhead + 1);
+        }
+
+        private void scheduleUpTo(long lastBlock) {
+            while (pendingBlocks.size() < blocksToReadAhead && nextBlockToRead < lastBlock) {
+                long block = nextBlockToRead++;
+                BlockBuffer blockBuffer = freeBuffers.isEmpty()
+                        ? new BlockBuffer(blockGetter.expectedBlockLength())
+                        : freeBuffers.pop();
+                pendingBlocks.add(new PendingBlock(block, blockBuffer, loadAsync(block, blockBuffer)));
+            }
+        }
+
+        private CompletableFuture<BlockBuffer> loadAsync(long block, BlockBuffer blockBuffer) {
+            try {
+                return CompletableFuture.supplyAsync(() -> load(block, blockBuffer), executor);
+            } catch (RejectedExecutionException e) {
+                CompletableFuture<BlockBuffer> rejected = new CompletableFuture<>();
+                rejected.completeExceptionally(e);
+                return rejected;
+            }
+        }
+
+        private boolean isEmpty() {
+            return pendingBlocks.isEmpty();
+        }
+
+        private BlockBuffer takeNext() throws InterruptedIOException {
+            PendingBlock pendingBlock = pendingBlocks.pop();
+            try {
+                return pendingBlock.future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for block " + pendingBlock.block);
+            } catch (ExecutionException e) {
+                log.debug("Failed to load a block ahead of reading it; loading it on the reading thread instead.",
+                        e.getCause());
+                return load(pendingBlock.block, pendingBlock.blockBuffer);
+            }
+        }
+
+        private BlockBuffer load(long block, BlockBuffer blockBuffer) {
+            blockBuffer.reset();
+            blockGetter.get(block, 1, blockBuffer);
+            return blockBuffer;
+        }
+
+        private void release(BlockBuffer blockBuffer) {
+            if (blockBuffer.bytes().length > 0) {
+                freeBuffers.push(blockBuffer);
+            }
+        }
+
+        private void cancel() {
+            pendingBlocks.forEach(pendingBlock -> pendingBlock.future.cancel(false));
+            pendingBlocks.clear();
+            freeBuffers.clear();
+        }
+    }
+
+    private static final class PendingBlock {
+        private final long block;
+        private final BlockBuffer blockBuffer;
+        private final CompletableFuture<BlockBuffer> future;
+
+        private PendingBlock(long block, BlockBuffer blockBuffer, CompletableFuture<BlockBuffer> future) {
+            this.block = block;
+            this.blockBuffer = blockBuffer;
+            this.future = future;
+        }
+    }
+
+    /**
+     * A reusable buffer for blocks, exposing the internal array of {@link ByteArrayOutputStream} to avoid copying it.
+     */
+    private static final class BlockBuffer extends ByteArrayOutputStream {
+        private BlockBuffer(int expectedLength) {
+            super(expectedLength);
+        }
+
+        private byte[] bytes() {
+            return buf;
+        }
+
+        private int length() {
+            return count;
+        }
+    }
 }
@@ -17,6 +17,7 @@ package com.palantir.atlasdb.stream;
 
 import java.io.File;
 import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -59,4 +60,12 @@ public interface GenericStreamStore<ID> {
      * Loads the whole stream, and saves it to a local temporary file.
      */
     File loadStreamAsFile(Transaction tx, ID id);
+
+    /**
+     * Loads the whole stream, and writes it to the given channel without buffering it on the heap. If the channel is
+     * a {@link java.nio.channels.FileChannel}, the stream is written starting at its current position, and blocks
+     * may be written concurrently at their positions in the file; the position of the channel is then advanced past
+     * the end of the stream. The channel is not closed.
+     */
+    void loadStreamToChannel(Transaction tx, ID id, WritableByteChannel channel);
 }
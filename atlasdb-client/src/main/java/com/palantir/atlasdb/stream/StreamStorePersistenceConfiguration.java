@@ -55,11 +55,43 @@ public interface StreamStorePersistenceConfiguration {
         return 0;
     }
 
+    /**
+     * The number of blocks that a nontransactional storeStream() writes concurrently, each in its own transaction.
+     * Reading, hashing and compressing the next blocks of the stream overlaps with writing the previous ones, so up to
+     * twice this many blocks are held in memory at once. If 1, blocks are read and written one at a time.
+     *
+     * Stream stores must have been generated by a version of AtlasDB that includes this parameter for values greater
+     * than 1 to take effect without conflicts between the concurrent writes.
+     *
+     * This parameter is live reloadable, but only takes effect for streams stored after it is reloaded.
+     */
+    @Value.Default
+    default int numBlocksToWriteConcurrently() {
+        return 1;
+    }
+
+    /**
+     * The number of blocks that reads of streams larger than the in-memory threshold load concurrently, ahead of the
+     * block currently being read. This trades up to this many blocks of additional memory per open stream for not
+     * waiting on a round trip to the key value service for every block. If 0, blocks are loaded serially as they are
+     * read. Streams loaded to files are likewise written this many blocks at a time.
+     *
+     * This parameter is live reloadable, but only takes effect for streams loaded after it is reloaded.
+     */
+    @Value.Default
+    default int numBlocksToReadAhead() {
+        return 0;
+    }
+
     @Value.Check
     default void check() {
         Preconditions.checkState(numBlocksToWriteBeforePause() > 0,
                 "Number of blocks to write before pausing must be positive");
         Preconditions.checkState(writePauseDurationMillis() >= 0,
                 "Pause duration between batches of writes must be non-negative");
+        Preconditions.checkState(numBlocksToWriteConcurrently() > 0,
+                "Number of blocks to write concurrently must be positive");
+        Preconditions.checkState(numBlocksToReadAhead() >= 0,
+                "Number of blocks to read ahead must be non-negative");
     }
 }
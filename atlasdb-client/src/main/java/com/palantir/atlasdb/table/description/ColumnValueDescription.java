@@ -70,6 +70,8 @@ public final class ColumnValueDescription {
 
     public enum Compression {
         SNAPPY,
+        LZ4,
+        ZSTD,
         NONE;
 
         public TableMetadataPersistence.Compression persistToProto() {
@@ -23,6 +23,8 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.util.Arrays;
@@ -184,6 +186,8 @@ public class StreamStoreRenderer {
                         line();
                         tryWriteStreamToFile();
                         line();
+                        tryWriteStreamToChannel();
+                        line();
                         makeStreamUsingTransaction();
                         line();
                     }
@@ -272,7 +276,7 @@ public class StreamStoreRenderer {
                     line("StreamMetadata metadata = metaTable.getMetadatas(ImmutableSet.of(row)).values().iterator().next();");
                     line("Preconditions.checkState(metadata.getStatus() == Status.STORING, \"This stream is being cleaned up while storing blocks: %s\", id);");
                     line("StreamMetadata.Builder builder = StreamMetadata.newBuilder(metadata);");
-                    line("builder.setLength(blockNumber * BLOCK_SIZE_IN_BYTES + 1);");
+                    line("builder.setLength(Math.max(metadata.getLength(), blockNumber * BLOCK_SIZE_IN_BYTES + 1));");
                     line("metaTable.putMetadata(row, builder.build());");
                 } line("}");
             }
@@ -610,6 +614,16 @@ public class StreamStoreRenderer {
                 } line("}");
             }
 
+            private void tryWriteStreamToChannel() {
+                line("@Override");
+                line("protected void tryWriteStreamToChannel(Transaction transaction, ", StreamId, " id, StreamMetadata metadata, WritableByteChannel channel) throws IOException {"); {
+                    line("try (InputStream blockStream = makeStreamUsingTransaction(transaction, id, metadata);");
+                    line("        InputStream decompressingStream = new LZ4BlockInputStream(blockStream)) {"); {
+                        line("ByteStreams.copy(decompressingStream, Channels.newOutputStream(channel));");
+                    } line("}");
+                } line("}");
+            }
+
             private void makeStreamUsingTransaction() {
                 line("private InputStream makeStreamUsingTransaction(Transaction parent, ", StreamId, " id, StreamMetadata metadata) {"); {
                     line("BiConsumer<Long, OutputStream> singleBlockLoader = (index, destination) ->");
@@ -854,5 +868,7 @@ public class StreamStoreRenderer {
         ByteStreams.class,
         Supplier.class,
         StreamStorePersistenceConfiguration.class,
+        Channels.class,
+        WritableByteChannel.class,
     };
 }
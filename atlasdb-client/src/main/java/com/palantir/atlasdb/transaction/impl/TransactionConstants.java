@@ -30,6 +30,8 @@ public class TransactionConstants {
 
     public static final TableReference TRANSACTION_TABLE = TableReference.createWithEmptyNamespace("_transactions");
     public static final TableReference TRANSACTIONS2_TABLE = TableReference.createWithEmptyNamespace("_transactions2");
+    public static final TableReference TRANSACTIONS2_PACKED_TABLE =
+            TableReference.createWithEmptyNamespace("_transactions2_packed");
 
     public static final String COMMIT_TS_COLUMN_STRING = "t";
     public static final byte[] COMMIT_TS_COLUMN = PtBytes.toBytes(COMMIT_TS_COLUMN_STRING);
@@ -44,9 +46,11 @@ public class TransactionConstants {
 
     public static final int DIRECT_ENCODING_TRANSACTIONS_SCHEMA_VERSION = 1;
     public static final int TICKETS_ENCODING_TRANSACTIONS_SCHEMA_VERSION = 2;
+    public static final int PACKED_TICKETS_ENCODING_TRANSACTIONS_SCHEMA_VERSION = 3;
     public static final Set<Integer> SUPPORTED_TRANSACTIONS_SCHEMA_VERSIONS = ImmutableSet.of(
             DIRECT_ENCODING_TRANSACTIONS_SCHEMA_VERSION,
-            TICKETS_ENCODING_TRANSACTIONS_SCHEMA_VERSION);
+            TICKETS_ENCODING_TRANSACTIONS_SCHEMA_VERSION,
+            PACKED_TICKETS_ENCODING_TRANSACTIONS_SCHEMA_VERSION);
 
     public static byte[] getValueForTimestamp(long transactionTimestamp) {
         return EncodingUtils.encodeVarLong(transactionTimestamp);
@@ -75,4 +79,15 @@ public class TransactionConstants {
             .explicitCompressionBlockSizeKB(64)
             .denselyAccessedWideRows(true)
             .build();
+
+    /**
+     * Metadata for the _transactions2_packed table, which holds blocks of the _transactions2 table packed into a
+     * single cell each. Blocks are only ever read whole, by point lookups.
+     */
+    public static final TableMetadata TRANSACTIONS2_PACKED_TABLE_METADATA = TableMetadata.internal()
+            .singleSafeRowComponent("block_row", ValueType.BLOB)
+            .singleNamedColumn("b", "packed_block", ValueType.BLOB)
+            .nameLogSafety(TableMetadataPersistence.LogSafety.SAFE)
+            .sweepStrategy(TableMetadataPersistence.SweepStrategy.NOTHING)
+            .build();
 }
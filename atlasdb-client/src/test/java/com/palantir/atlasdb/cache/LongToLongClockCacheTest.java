@@ -0,0 +1,106 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.stream.LongStream;
+
+import org.junit.Test;
+
+public class LongToLongClockCacheTest {
+    private static final long ABSENT = -17L;
+
+    private final LongToLongClockCache cache = new LongToLongClockCache(1000);
+
+    @Test
+    public void returnsDefaultForAbsentKeys() {
+        assertThat(cache.getOrDefault(1L, ABSENT)).isEqualTo(ABSENT);
+    }
+
+    @Test
+    public void returnsStoredValues() {
+        cache.put(1L, 2L);
+        cache.put(3L, -1L);
+
+        assertThat(cache.getOrDefault(1L, ABSENT)).isEqualTo(2L);
+        assertThat(cache.getOrDefault(3L, ABSENT)).isEqualTo(-1L);
+        assertThat(cache.estimatedSize()).isEqualTo(2L);
+    }
+
+    @Test
+    public void overwritesExistingValuesWithoutGrowing() {
+        cache.put(1L, 2L);
+        cache.put(1L, 5L);
+
+        assertThat(cache.getOrDefault(1L, ABSENT)).isEqualTo(5L);
+        assertThat(cache.estimatedSize()).isEqualTo(1L);
+    }
+
+    @Test
+    public void ignoresReservedKey() {
+        cache.put(Long.MIN_VALUE, 2L);
+
+        assertThat(cache.getOrDefault(Long.MIN_VALUE, ABSENT)).isEqualTo(ABSENT);
+        assertThat(cache.estimatedSize()).isZero();
+    }
+
+    @Test
+    public void neverExceedsCapacityRoundedUpToWholeSets() {
+        LongStream.range(0, 100_000).forEach(key -> cache.put(key, key + 1));
+
+        long capacity = ((1000 + LongToLongClockCache.WAYS - 1) / LongToLongClockCache.WAYS)
+                * LongToLongClockCache.WAYS;
+        assertThat(cache.estimatedSize()).isLessThanOrEqualTo(capacity);
+        assertThat(cache.evictionCount()).isEqualTo(100_000 - cache.estimatedSize());
+        assertThat(LongStream.range(0, 100_000).filter(key -> cache.getOrDefault(key, ABSENT) == key + 1).count())
+                .isEqualTo(cache.estimatedSize());
+    }
+
+    @Test
+    public void prefersEvictingEntriesThatWereNotRecentlyRead() {
+        LongToLongClockCache smallCache = new LongToLongClockCache(LongToLongClockCache.WAYS);
+        LongStream.range(0, LongToLongClockCache.WAYS).forEach(key -> smallCache.put(key, key));
+
+        // First insertion past capacity clears every reference bit in the single set, and evicts key 0.
+        smallCache.put(100L, 100L);
+        smallCache.getOrDefault(1L, ABSENT);
+        smallCache.put(101L, 101L);
+
+        assertThat(smallCache.getOrDefault(0L, ABSENT)).isEqualTo(ABSENT);
+        assertThat(smallCache.getOrDefault(1L, ABSENT)).isEqualTo(1L);
+        assertThat(smallCache.getOrDefault(2L, ABSENT)).isEqualTo(ABSENT);
+    }
+
+    @Test
+    public void clearRemovesAllEntries() {
+        cache.put(1L, 2L);
+        cache.clear();
+
+        assertThat(cache.getOrDefault(1L, ABSENT)).isEqualTo(ABSENT);
+        assertThat(cache.estimatedSize()).isZero();
+    }
+
+    @Test
+    public void copiesEntriesToAnotherCache() {
+        LongStream.range(0, 100).forEach(key -> cache.put(key, key * 2));
+        LongToLongClockCache target = new LongToLongClockCache(2000);
+
+        cache.copyTo(target);
+
+        LongStream.range(0, 100).forEach(key -> assertThat(target.getOrDefault(key, ABSENT)).isEqualTo(key * 2));
+    }
+}
@@ -21,28 +21,31 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 
+import java.nio.file.Path;
 import java.util.SortedMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricFilter;
 import com.codahale.metrics.MetricRegistry;
-import com.github.benmanes.caffeine.cache.Cache;
 import com.palantir.atlasdb.AtlasDbConstants;
-import com.palantir.atlasdb.util.AtlasDbMetrics;
 
 public class TimestampCacheTest {
     private static final String TEST_CACHE_NAME = MetricRegistry.name(TimestampCacheTest.class, "test");
 
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private final MetricRegistry metrics = new MetricRegistry();
 
     @Test
     public void cacheExposesMetrics() throws Exception {
-        Cache<Long, Long> cache = TimestampCache.createCache(AtlasDbConstants.DEFAULT_TIMESTAMP_CACHE_SIZE);
-        AtlasDbMetrics.registerCache(metrics, cache, TEST_CACHE_NAME);
-
-        TimestampCache timestampCache = new TimestampCache(cache);
+        TimestampCache timestampCache = new TimestampCache(
+                metrics, () -> AtlasDbConstants.DEFAULT_TIMESTAMP_CACHE_SIZE, TEST_CACHE_NAME);
 
         SortedMap<String, Gauge> gauges = metrics.getGauges(startsWith(TimestampCache.class.getName()));
         assertThat(gauges.keySet(), hasItems(cacheMetricName("hit.count"), cacheMetricName("miss.ratio")));
@@ -66,6 +69,75 @@ public class TimestampCacheTest {
         assertThat(gauges.get(cacheMetricName("request.count")).getValue(), equalTo(5L));
     }
 
+    @Test
+    public void retainsEntriesWhenResized() {
+        AtomicLong size = new AtomicLong(100L);
+        TimestampCache timestampCache = new TimestampCache(metrics, size::get, TEST_CACHE_NAME);
+
+        timestampCache.putAlreadyCommittedTransaction(1L, 2L);
+        size.set(200L);
+
+        assertThat(timestampCache.getCommitTimestampIfPresent(1L), is(2L));
+    }
+
+    @Test
+    public void persistentCacheRetainsEntriesWhenReopened() {
+        Path file = temporaryFolder.getRoot().toPath().resolve("timestamps");
+        TimestampCache timestampCache = TimestampCache.createPersistent(metrics, () -> 100L, file, "atlas");
+        timestampCache.putAlreadyCommittedTransaction(1L, 2L);
+        timestampCache.putAlreadyCommittedTransaction(3L, 4L);
+        timestampCache.close();
+
+        TimestampCache reopened = TimestampCache.createPersistent(new MetricRegistry(), () -> 100L, file, "atlas");
+        assertThat(reopened.getCommitTimestampIfPresent(1L), is(2L));
+        assertThat(reopened.getCommitTimestampIfPresent(3L), is(4L));
+        reopened.close();
+    }
+
+    @Test
+    public void persistentCacheDiscardsEntriesForDifferentIdentifierOrSize() {
+        Path file = temporaryFolder.getRoot().toPath().resolve("timestamps");
+        TimestampCache timestampCache = TimestampCache.createPersistent(metrics, () -> 100L, file, "atlas");
+        timestampCache.putAlreadyCommittedTransaction(1L, 2L);
+        timestampCache.close();
+
+        TimestampCache otherIdentifier = TimestampCache.createPersistent(
+                new MetricRegistry(), () -> 100L, file, "other");
+        assertThat(otherIdentifier.getCommitTimestampIfPresent(1L), is(nullValue()));
+        otherIdentifier.putAlreadyCommittedTransaction(1L, 2L);
+        otherIdentifier.close();
+
+        TimestampCache otherSize = TimestampCache.createPersistent(new MetricRegistry(), () -> 200L, file, "other");
+        assertThat(otherSize.getCommitTimestampIfPresent(1L), is(nullValue()));
+        otherSize.close();
+    }
+
+    @Test
+    public void persistentCacheFallsBackToHeapIfFileIsInUse() {
+        Path file = temporaryFolder.getRoot().toPath().resolve("timestamps");
+        TimestampCache timestampCache = TimestampCache.createPersistent(metrics, () -> 100L, file, "atlas");
+        timestampCache.putAlreadyCommittedTransaction(1L, 2L);
+
+        TimestampCache fallback = TimestampCache.createPersistent(new MetricRegistry(), () -> 100L, file, "atlas");
+        assertThat(fallback.getCommitTimestampIfPresent(1L), is(nullValue()));
+        fallback.putAlreadyCommittedTransaction(5L, 6L);
+        assertThat(fallback.getCommitTimestampIfPresent(5L), is(6L));
+
+        fallback.close();
+        timestampCache.close();
+    }
+
+    @Test
+    public void closedCacheDoesNotAcceptNewEntries() {
+        TimestampCache timestampCache = new TimestampCache(metrics, () -> 100L, TEST_CACHE_NAME);
+        timestampCache.putAlreadyCommittedTransaction(1L, 2L);
+        timestampCache.close();
+        timestampCache.putAlreadyCommittedTransaction(3L, 4L);
+
+        assertThat(timestampCache.getCommitTimestampIfPresent(1L), is(2L));
+        assertThat(timestampCache.getCommitTimestampIfPresent(3L), is(nullValue()));
+    }
+
     private static String cacheMetricName(String name) {
         return TEST_CACHE_NAME + ".cache." + name;
     }
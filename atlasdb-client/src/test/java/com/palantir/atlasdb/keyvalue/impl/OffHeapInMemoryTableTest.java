@@ -0,0 +1,152 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.impl.InMemoryKeyValueService.Key;
+
+public class OffHeapInMemoryTableTest {
+    private static final int CHUNK_SIZE = 4096;
+    private static final int NUM_ENTRIES = 1_000;
+    private static final byte[] COLUMN = PtBytes.toBytes("col");
+    private static final byte[] VALUE = PtBytes.toBytes("value");
+    private static final byte[] OTHER_VALUE = PtBytes.toBytes("another value");
+
+    private final OffHeapInMemoryTable table = new OffHeapInMemoryTable(CHUNK_SIZE);
+
+    @Test
+    public void putIfAbsentDoesNotOverwrite() {
+        assertThat(table.putIfAbsent(key(1, 1), VALUE)).isNull();
+        assertThat(table.putIfAbsent(key(1, 1), OTHER_VALUE)).isEqualTo(VALUE);
+        assertThat(table.get(key(1, 1))).isEqualTo(VALUE);
+    }
+
+    @Test
+    public void replaceOnlySucceedsIfValueMatches() {
+        table.put(key(1, 1), VALUE);
+
+        assertThat(table.replace(key(1, 1), OTHER_VALUE, VALUE)).isFalse();
+        assertThat(table.replace(key(1, 1), VALUE, OTHER_VALUE)).isTrue();
+        assertThat(table.get(key(1, 1))).isEqualTo(OTHER_VALUE);
+        assertThat(table.replace(key(2, 1), VALUE, OTHER_VALUE)).isFalse();
+    }
+
+    @Test
+    public void lowerEntryReturnsGreatestSmallerKey() {
+        table.put(key(1, 1), VALUE);
+        table.put(key(1, 3), OTHER_VALUE);
+
+        assertThat(table.lowerEntry(key(1, 3)).getKey()).isEqualTo(key(1, 1));
+        assertThat(table.lowerEntry(key(1, 4)).getValue()).isEqualTo(OTHER_VALUE);
+        assertThat(table.lowerEntry(key(1, 1))).isNull();
+    }
+
+    @Test
+    public void iteratesInBothDirectionsAcrossBatches() {
+        putEntries(NUM_ENTRIES);
+
+        assertThat(keys(table.entries(null, true, null, true, false)))
+                .hasSize(NUM_ENTRIES)
+                .isSorted();
+        assertThat(Lists.reverse(keys(table.entries(null, true, null, true, true))))
+                .hasSize(NUM_ENTRIES)
+                .isSorted();
+    }
+
+    @Test
+    public void respectsIterationBounds() {
+        putEntries(10);
+
+        assertThat(keys(table.entries(key(2, 0), true, key(5, 0), false, false)))
+                .containsExactly(key(2, 0), key(3, 0), key(4, 0));
+        assertThat(keys(table.entries(key(5, 0), false, key(2, 0), true, true)))
+                .containsExactly(key(4, 0), key(3, 0), key(2, 0));
+    }
+
+    @Test
+    public void removeRangeRemovesInclusiveBounds() {
+        for (long ts = 0; ts < 5; ts++) {
+            table.put(key(1, ts), VALUE);
+        }
+
+        table.removeRange(key(1, 1), key(1, 3));
+
+        assertThat(keys(table.entries(null, true, null, true, false)))
+                .containsExactly(key(1, 0), key(1, 4));
+    }
+
+    @Test
+    public void valuesLargerThanChunkAreStored() {
+        byte[] largeValue = new byte[3 * CHUNK_SIZE];
+        largeValue[largeValue.length - 1] = 1;
+
+        table.put(key(1, 1), largeValue);
+        table.put(key(2, 1), VALUE);
+
+        assertThat(table.get(key(1, 1))).isEqualTo(largeValue);
+        assertThat(table.get(key(2, 1))).isEqualTo(VALUE);
+    }
+
+    @Test
+    public void reclaimsSpaceOfRemovedEntries() {
+        putEntries(NUM_ENTRIES);
+        long allocatedBeforeRemoval = table.allocatedBytes();
+
+        for (int row = 0; row < NUM_ENTRIES - 1; row++) {
+            table.remove(key(row, 0));
+        }
+
+        assertThat(table.size()).isEqualTo(1);
+        assertThat(table.allocatedBytes()).isLessThan(allocatedBeforeRemoval / 2);
+        assertThat(table.get(key(NUM_ENTRIES - 1, 0))).isEqualTo(VALUE);
+    }
+
+    @Test
+    public void clearRemovesAllEntries() {
+        putEntries(NUM_ENTRIES);
+
+        table.clear();
+
+        assertThat(table.size()).isZero();
+        assertThat(table.entries(null, true, null, true, false).hasNext()).isFalse();
+    }
+
+    private void putEntries(int numEntries) {
+        for (int row = 0; row < numEntries; row++) {
+            table.put(key(row, 0), VALUE);
+        }
+    }
+
+    private static Key key(int row, long timestamp) {
+        return new Key(PtBytes.toBytes(String.format("row%05d", row)), COLUMN, timestamp);
+    }
+
+    private static List<Key> keys(Iterator<Entry<Key, byte[]>> entries) {
+        ImmutableList.Builder<Key> keys = ImmutableList.builder();
+        entries.forEachRemaining(entry -> keys.add(entry.getKey()));
+        return keys.build();
+    }
+}
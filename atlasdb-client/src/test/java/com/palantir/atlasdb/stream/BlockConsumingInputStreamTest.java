@@ -17,6 +17,7 @@ package com.palantir.atlasdb.stream;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
@@ -29,7 +30,14 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
-
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -91,6 +99,8 @@ public class BlockConsumingInputStreamTest {
         }
     };
 
+    private final ExecutorService readAheadExecutor = Executors.newFixedThreadPool(2);
+
     private BlockConsumingInputStream dataStream;
 
     @Before
@@ -98,6 +108,11 @@ public class BlockConsumingInputStreamTest {
         dataStream = BlockConsumingInputStream.create(dataConsumer, 1, 1);
     }
 
+    @After
+    public void tearDown() {
+        readAheadExecutor.shutdownNow();
+    }
+
     @Test(expected = NullPointerException.class)
     public void cantReadToNullArray() throws IOException {
         dataStream.read(null, 1, 1);
@@ -291,6 +306,86 @@ public class BlockConsumingInputStreamTest {
         verify(spiedGetter, times(1)).get(anyLong(), eq(1L), any());
     }
 
+    @Test
+    public void canReadAllBlocksWithReadAhead() throws IOException {
+        BlockConsumingInputStream stream = BlockConsumingInputStream.createWithReadAhead(
+                threeByteConsumer, 3, 2, readAheadExecutor);
+        expectNextBytesFromStream(stream, "di");
+        expectNextBytesFromStream(stream, "vi");
+        expectNextBytesFromStream(stream, "si");
+        expectNextBytesFromStream(stream, "bl");
+        assertEquals('e', stream.read());
+        assertEquals(-1, stream.read());
+    }
+
+    @Test
+    public void readAheadLoadsBlocksOnExecutor() throws IOException {
+        Set<String> loadingThreads = ConcurrentHashMap.newKeySet();
+        BlockGetter recordingGetter = new BlockGetter() {
+            @Override
+            public void get(long firstBlock, long numBlocks, OutputStream destination) {
+                loadingThreads.add(Thread.currentThread().getName());
+                singleByteConsumer.get(firstBlock, numBlocks, destination);
+            }
+
+            @Override
+            public int expectedBlockLength() {
+                return 1;
+            }
+        };
+
+        BlockConsumingInputStream stream = BlockConsumingInputStream.createWithReadAhead(
+                recordingGetter, DATA_SIZE, 2, readAheadExecutor);
+        byte[] result = new byte[DATA_SIZE];
+        assertEquals(DATA_SIZE, stream.read(result));
+        assertArrayEquals(data, result);
+        assertFalse(loadingThreads.contains(Thread.currentThread().getName()));
+    }
+
+    @Test
+    public void readAheadFallsBackToReadingThreadIfExecutorRejectsTasks() throws IOException {
+        BlockConsumingInputStream stream = BlockConsumingInputStream.createWithReadAhead(
+                singleByteConsumer, DATA_SIZE, 2, task -> {
+                    throw new RejectedExecutionException();
+                });
+        byte[] result = new byte[DATA_SIZE];
+        assertEquals(DATA_SIZE, stream.read(result));
+        assertArrayEquals(data, result);
+    }
+
+    @Test
+    public void readAheadRetriesBlocksThatFailedToLoad() throws IOException {
+        AtomicBoolean failedOnce = new AtomicBoolean(false);
+        BlockGetter flakyGetter = new BlockGetter() {
+            @Override
+            public void get(long firstBlock, long numBlocks, OutputStream destination) {
+                if (failedOnce.compareAndSet(false, true)) {
+                    throw new IllegalStateException("transient failure");
+                }
+                singleByteConsumer.get(firstBlock, numBlocks, destination);
+            }
+
+            @Override
+            public int expectedBlockLength() {
+                return 1;
+            }
+        };
+
+        BlockConsumingInputStream stream = BlockConsumingInputStream.createWithReadAhead(
+                flakyGetter, DATA_SIZE, 2, readAheadExecutor);
+        byte[] result = new byte[DATA_SIZE];
+        assertEquals(DATA_SIZE, stream.read(result));
+        assertArrayEquals(data, result);
+        assertTrue(failedOnce.get());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void readAheadPropagatesFailuresOnReadingThread() throws IOException {
+        BlockConsumingInputStream stream = BlockConsumingInputStream.createWithReadAhead(
+                singleByteConsumer, DATA_SIZE_PLUS_ONE, 2, readAheadExecutor);
+        stream.read(new byte[DATA_SIZE_PLUS_ONE]);
+    }
+
     private void expectNextBytesFromStream(BlockConsumingInputStream stream, String expectedOutput) throws IOException {
         byte[] chunk = new byte[2];
         int read = stream.read(chunk);
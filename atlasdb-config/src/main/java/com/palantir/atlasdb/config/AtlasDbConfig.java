@@ -168,6 +168,27 @@ public abstract class AtlasDbConfig {
         return AtlasDbConstants.DEFAULT_INITIALIZE_ASYNC;
     }
 
+    /**
+     * If present, the cache of start to commit timestamps shared by transactions and targeted sweep is kept in a
+     * memory-mapped file at this path rather than on heap, so that it survives restarts and can be larger than the heap
+     * allows. The file must only be used by a single process, and its size is fixed to the runtime
+     * timestampCacheSize at startup. Cached timestamps are discarded if the process was not shut down cleanly.
+     * <p>
+     * The file is only tied to the namespace, so it cannot tell that the underlying key value service was restored
+     * from a backup or reset. It must be deleted before starting the service after either, since it could otherwise
+     * report commits that are not present in the restored _transactions table.
+     */
+    public abstract Optional<String> timestampCacheFile();
+
+    /**
+     * Batching policies for the autobatchers that coalesce requests to the transactions table and to the timestamp
+     * service.
+     */
+    @Value.Default
+    public AutobatchersConfig autobatchers() {
+        return AutobatchersConfig.defaultConfig();
+    }
+
     /**
      * Install time configurations for targeted sweep.
      */
@@ -0,0 +1,79 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.config;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.immutables.value.Value;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.palantir.atlasdb.autobatch.BatchingPolicy;
+import com.palantir.atlasdb.autobatch.ImmutableBatchingPolicy;
+
+/**
+ * Configures the {@link BatchingPolicy} of an autobatcher that coalesces concurrent requests into batches.
+ */
+@JsonDeserialize(as = ImmutableAutobatcherConfig.class)
+@JsonSerialize(as = ImmutableAutobatcherConfig.class)
+@Value.Immutable
+public abstract class AutobatcherConfig {
+    /**
+     * Size of the buffer that requests are queued in; must be a power of two.
+     */
+    @Value.Default
+    public int bufferSize() {
+        return BatchingPolicy.DEFAULT_BUFFER_SIZE;
+    }
+
+    /**
+     * Maximum number of requests in a batch, which must not be greater than the buffer size. Defaults to the buffer
+     * size.
+     */
+    public abstract Optional<Integer> maxBatchSize();
+
+    /**
+     * How long, in milliseconds, to wait for more requests to arrive before processing a partial batch.
+     */
+    @Value.Default
+    public long lingerTimeMillis() {
+        return 0L;
+    }
+
+    /**
+     * If present, the maximum batch size is adapted so that batches take about this long, in milliseconds, to process.
+     */
+    public abstract Optional<Long> targetProcessingTimeMillis();
+
+    @Value.Check
+    void check() {
+        toBatchingPolicy();
+    }
+
+    public BatchingPolicy toBatchingPolicy() {
+        ImmutableBatchingPolicy.Builder builder = BatchingPolicy.builder()
+                .bufferSize(bufferSize())
+                .lingerTime(Duration.ofMillis(lingerTimeMillis()))
+                .targetProcessingTime(targetProcessingTimeMillis().map(Duration::ofMillis));
+        maxBatchSize().ifPresent(builder::maxBatchSize);
+        return builder.build();
+    }
+
+    public static AutobatcherConfig defaultConfig() {
+        return ImmutableAutobatcherConfig.builder().build();
+    }
+}
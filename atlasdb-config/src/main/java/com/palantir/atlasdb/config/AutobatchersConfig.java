@@ -0,0 +1,60 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.config;
+
+import org.immutables.value.Value;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * Batching policies of the autobatchers that coalesce concurrent requests to the transactions table and to the
+ * timestamp service. Metrics describing the batches of each autobatcher are registered under its name, so that these
+ * can be tuned.
+ */
+@JsonDeserialize(as = ImmutableAutobatchersConfig.class)
+@JsonSerialize(as = ImmutableAutobatchersConfig.class)
+@Value.Immutable
+public abstract class AutobatchersConfig {
+    /**
+     * Batching of lookups of commit timestamps in the transactions table.
+     */
+    @Value.Default
+    public AutobatcherConfig transactionServiceReads() {
+        return AutobatcherConfig.defaultConfig();
+    }
+
+    /**
+     * Batching of writes of commit timestamps to the transactions table, for transactions schema versions that
+     * batch writes.
+     */
+    @Value.Default
+    public AutobatcherConfig transactionServiceWrites() {
+        return AutobatcherConfig.defaultConfig();
+    }
+
+    /**
+     * Batching of requests for fresh timestamps.
+     */
+    @Value.Default
+    public AutobatcherConfig timestamps() {
+        return AutobatcherConfig.defaultConfig();
+    }
+
+    public static AutobatchersConfig defaultConfig() {
+        return ImmutableAutobatchersConfig.builder().build();
+    }
+}
@@ -45,12 +45,31 @@ public abstract class TargetedSweepRuntimeConfig {
         return AtlasDbConstants.DEFAULT_SWEEP_QUEUE_SHARDS;
     }
 
+    /**
+     * The maximum number of fine partitions of the sweep queue that a single iteration of targeted sweep may read
+     * from, as long as the batch of writes to sweep is not yet full. Increasing this reduces the number of round trips
+     * to the key value service when the sweep queue is sparse, for example after a period of low write volume. The
+     * maximum allowed value is 100.
+     */
+    @Value.Default
+    public int maximumPartitionsToBatchInSingleRead() {
+        return 1;
+    }
+
     @Value.Check
     void checkShardSize() {
         Preconditions.checkArgument(shards() >= 1 && shards() <= 256,
                 "Shard number must be between 1 and 256 inclusive, but it is %s.", shards());
     }
 
+    @Value.Check
+    void checkPartitionsToBatch() {
+        Preconditions.checkArgument(maximumPartitionsToBatchInSingleRead() >= 1
+                        && maximumPartitionsToBatchInSingleRead() <= 100,
+                "Number of partitions to read in a batch must be between 1 and 100 inclusive, but it is %s.",
+                maximumPartitionsToBatchInSingleRead());
+    }
+
     public static TargetedSweepRuntimeConfig defaultTargetedSweepRuntimeConfig() {
         return ImmutableTargetedSweepRuntimeConfig.builder().build();
     }
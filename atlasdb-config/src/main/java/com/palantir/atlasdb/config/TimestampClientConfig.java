@@ -34,6 +34,27 @@ public abstract class TimestampClientConfig {
         return true;
     }
 
+    /**
+     * Number of timestamps to lease from the timestamp service at once for the start timestamps of read-only
+     * transactions. Read-only transactions are then started with timestamps from the leased range while it is valid,
+     * which are greater than any timestamp this client has previously obtained but may be slightly stale with respect
+     * to other clients. Values of 1 or less disable leasing, so that every read-only transaction is started with a
+     * fresh timestamp.
+     */
+    @Value.Default
+    public int readOnlyTransactionTimestampLeaseSize() {
+        return 0;
+    }
+
+    /**
+     * How long, in milliseconds, a leased range of timestamps may be used for the start timestamps of read-only
+     * transactions. This bounds how stale such timestamps may be.
+     */
+    @Value.Default
+    public long readOnlyTransactionTimestampLeaseValidityMillis() {
+        return 100L;
+    }
+
     // TODO (jkong): Make timestamp wait intervals configurable.
     // This should ONLY be done once the timestamp client supports nanosecond precision;
     // millisecond precision isn't too useful (realistically it's very unlikely you want to set this beyond
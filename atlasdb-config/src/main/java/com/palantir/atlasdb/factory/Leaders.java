@@ -15,6 +15,7 @@
  */
 package com.palantir.atlasdb.factory;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.IdentityHashMap;
 import java.util.List;
@@ -57,6 +58,7 @@ import com.palantir.leader.PaxosLeaderElectionService;
 import com.palantir.leader.PaxosLeaderElectionServiceBuilder;
 import com.palantir.leader.PaxosLeadershipEventRecorder;
 import com.palantir.leader.PingableLeader;
+import com.palantir.paxos.LeaseGrantingPaxosAcceptor;
 import com.palantir.paxos.PaxosAcceptor;
 import com.palantir.paxos.PaxosAcceptorImpl;
 import com.palantir.paxos.PaxosLearner;
@@ -123,7 +125,7 @@ public final class Leaders {
 
         PaxosAcceptor ourAcceptor = AtlasDbMetrics.instrument(metricsManager.getRegistry(),
                 PaxosAcceptor.class,
-                PaxosAcceptorImpl.newAcceptor(config.acceptorLogDir().getPath()));
+                createAcceptor(config));
         PaxosLearner ourLearner = AtlasDbMetrics.instrument(metricsManager.getRegistry(),
                 PaxosLearner.class,
                 PaxosLearnerImpl.newLearner(config.learnerLogDir().getPath(), leadershipEventRecorder));
@@ -189,12 +191,20 @@ public final class Leaders {
         return ImmutableLocalPaxosServices.builder()
                 .ourAcceptor(ourAcceptor)
                 .ourLearner(ourLearner)
-                .leaderElectionService(new BatchingLeaderElectionService(leaderElectionService))
+                .leaderElectionService(
+                        new BatchingLeaderElectionService(leaderElectionService, metricsManager.getRegistry()))
                 .pingableLeader(pingableLeader)
                 .leadershipObserver(leadershipObserver)
                 .build();
     }
 
+    private static PaxosAcceptor createAcceptor(LeaderConfig config) {
+        PaxosAcceptor acceptor = PaxosAcceptorImpl.newAcceptor(config.acceptorLogDir().getPath());
+        return config.leaderLeaseDurationMs()
+                .map(leaseMs -> LeaseGrantingPaxosAcceptor.create(acceptor, Duration.ofMillis(leaseMs)))
+                .orElse(acceptor);
+    }
+
     private static ThreadFactory daemonThreadFactory(String name) {
         return new ThreadFactoryBuilder()
                 .setNameFormat(name + "-%d")
@@ -15,6 +15,7 @@
  */
 package com.palantir.atlasdb.factory;
 
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -344,7 +345,11 @@ public abstract class TransactionManagers {
         TransactionService transactionService = initializeCloseable(() -> AtlasDbMetrics.instrument(
                 metricsManager.getRegistry(),
                 TransactionService.class,
-                TransactionServices.createTransactionService(keyValueService, transactionSchemaManager)),
+                TransactionServices.createTransactionService(keyValueService, transactionSchemaManager,
+                        lockAndTimestampServices.timelock()::getImmutableTimestamp,
+                        metricsManager.getRegistry(),
+                        config().autobatchers().transactionServiceReads().toBatchingPolicy(),
+                        config().autobatchers().transactionServiceWrites().toBatchingPolicy())),
                 closeables);
         TransactionSchemaInstaller schemaInstaller = initializeTransactionSchemaInstaller(
                 closeables, runtimeConfigSupplier, transactionSchemaManager);
@@ -366,9 +371,14 @@ public abstract class TransactionManagers {
                                 .buildCleaner(),
                 closeables);
 
+        TimestampCache timestampCache = initializeCloseable(
+                () -> createTimestampCache(metricsManager, runtimeConfigSupplier),
+                closeables);
+
         MultiTableSweepQueueWriter targetedSweep = initializeCloseable(
                 () -> uninitializedTargetedSweeper(metricsManager, config().targetedSweep(), follower,
-                        Suppliers.compose(AtlasDbRuntimeConfig::targetedSweep, runtimeConfigSupplier::get)),
+                        Suppliers.compose(AtlasDbRuntimeConfig::targetedSweep, runtimeConfigSupplier::get),
+                        timestampCache),
                 closeables);
 
         Callback<TransactionManager> callbacks = new Callback.CallChain<>(
@@ -395,8 +405,7 @@ public abstract class TransactionManagers {
                         config().keyValueService().concurrentGetRangesThreadPoolSize(),
                         config().keyValueService().defaultGetRangesConcurrency(),
                         config().initializeAsync(),
-                        new TimestampCache(metricsManager.getRegistry(),
-                                () -> runtimeConfigSupplier.get().getTimestampCacheSize()),
+                        timestampCache,
                         targetedSweep,
                         callbacks,
                         validateLocksOnReads(),
@@ -702,7 +711,8 @@ public abstract class TransactionManagers {
                 userAgent);
         return withMetrics(metricsManager,
                 withCorroboratingTimestampService(
-                        withRefreshingLockService(lockAndTimestampServices)));
+                        withRefreshingLockService(
+                                metricsManager, config, lockAndTimestampServices, runtimeConfigSupplier)));
     }
 
     private static LockAndTimestampServices withCorroboratingTimestampService(
@@ -719,8 +729,16 @@ public abstract class TransactionManagers {
     }
 
     private static LockAndTimestampServices withRefreshingLockService(
-            LockAndTimestampServices lockAndTimestampServices) {
-        TimeLockClient timeLockClient = TimeLockClient.createDefault(lockAndTimestampServices.timelock());
+            MetricsManager metricsManager,
+            AtlasDbConfig config,
+            LockAndTimestampServices lockAndTimestampServices,
+            java.util.function.Supplier<AtlasDbRuntimeConfig> runtimeConfigSupplier) {
+        TimeLockClient timeLockClient = TimeLockClient.createDefault(
+                lockAndTimestampServices.timelock(),
+                () -> runtimeConfigSupplier.get().timestampClient().readOnlyTransactionTimestampLeaseSize(),
+                () -> runtimeConfigSupplier.get().timestampClient().readOnlyTransactionTimestampLeaseValidityMillis(),
+                config.autobatchers().timestamps().toBatchingPolicy(),
+                metricsManager.getRegistry());
         return ImmutableLockAndTimestampServices.builder()
                 .from(lockAndTimestampServices)
                 .timestamp(new TimelockTimestampServiceAdapter(timeLockClient))
@@ -831,7 +849,8 @@ public abstract class TransactionManagers {
         ServiceCreator creator = ServiceCreator.withPayloadLimiter(metricsManager, userAgent, timelockServerListConfig);
         LockService lockService = creator.createService(LockService.class);
         TimelockRpcClient timelockClient = creator.createService(TimelockRpcClient.class);
-        RemoteTimelockServiceAdapter remoteTimelockServiceAdapter = RemoteTimelockServiceAdapter.create(timelockClient);
+        RemoteTimelockServiceAdapter remoteTimelockServiceAdapter = RemoteTimelockServiceAdapter.create(
+                timelockClient, metricsManager.getRegistry());
         TimestampManagementService timestampManagementService = creator.createService(TimestampManagementService.class);
 
         return ImmutableLockAndTimestampServices.builder()
@@ -988,11 +1007,22 @@ public abstract class TransactionManagers {
                 .build();
     }
 
+    private TimestampCache createTimestampCache(
+            MetricsManager metricsManager,
+            Supplier<AtlasDbRuntimeConfig> runtimeConfigSupplier) {
+        Supplier<Long> size = () -> runtimeConfigSupplier.get().getTimestampCacheSize();
+        return config().timestampCacheFile()
+                .map(file -> TimestampCache.createPersistent(
+                        metricsManager.getRegistry(), size::get, Paths.get(file), config().getNamespaceString()))
+                .orElseGet(() -> new TimestampCache(metricsManager.getRegistry(), size::get));
+    }
+
     private MultiTableSweepQueueWriter uninitializedTargetedSweeper(
             MetricsManager metricsManager,
             TargetedSweepInstallConfig config,
             Follower follower,
-            Supplier<TargetedSweepRuntimeConfig> runtime) {
+            Supplier<TargetedSweepRuntimeConfig> runtime,
+            TimestampCache timestampCache) {
         if (!config.enableSweepQueueWrites()) {
             return MultiTableSweepQueueWriter.NO_OP;
         }
@@ -1000,6 +1030,8 @@ public abstract class TransactionManagers {
                 metricsManager,
                 Suppliers.compose(TargetedSweepRuntimeConfig::enabled, runtime::get),
                 Suppliers.compose(TargetedSweepRuntimeConfig::shards, runtime::get),
+                Suppliers.compose(TargetedSweepRuntimeConfig::maximumPartitionsToBatchInSingleRead, runtime::get),
+                timestampCache,
                 config.conservativeThreads(),
                 config.thoroughThreads(),
                 ImmutableList.of(follower));
@@ -60,6 +60,11 @@ public final class TimestampCorroboratingTimelockService implements AutoDelegate
                 TimestampRange::getUpperBound);
     }
 
+    @Override
+    public long getTimestampForReadOnlyTransaction() {
+        return checkAndUpdateLowerBound(delegate::getTimestampForReadOnlyTransaction, x -> x, x -> x);
+    }
+
     @Override
     public StartIdentifiedAtlasDbTransactionResponse startIdentifiedAtlasDbTransaction() {
         return checkAndUpdateLowerBound(delegate::startIdentifiedAtlasDbTransaction,
@@ -0,0 +1,69 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import com.palantir.atlasdb.autobatch.BatchingPolicy;
+
+public class AutobatcherConfigTest {
+    @Test
+    public void defaultConfigHasDefaultPolicy() {
+        assertThat(AutobatcherConfig.defaultConfig().toBatchingPolicy()).isEqualTo(BatchingPolicy.builder().build());
+    }
+
+    @Test
+    public void convertsToBatchingPolicy() {
+        AutobatcherConfig config = ImmutableAutobatcherConfig.builder()
+                .bufferSize(256)
+                .maxBatchSize(64)
+                .lingerTimeMillis(2L)
+                .targetProcessingTimeMillis(50L)
+                .build();
+
+        BatchingPolicy policy = config.toBatchingPolicy();
+
+        assertThat(policy.bufferSize()).isEqualTo(256);
+        assertThat(policy.maxBatchSize()).isEqualTo(64);
+        assertThat(policy.lingerTime()).isEqualTo(Duration.ofMillis(2L));
+        assertThat(policy.targetProcessingTime()).isEqualTo(Optional.of(Duration.ofMillis(50L)));
+    }
+
+    @Test
+    public void maxBatchSizeDefaultsToBufferSize() {
+        AutobatcherConfig config = ImmutableAutobatcherConfig.builder()
+                .bufferSize(256)
+                .build();
+
+        assertThat(config.toBatchingPolicy().maxBatchSize()).isEqualTo(256);
+    }
+
+    @Test
+    public void rejectsInvalidPolicies() {
+        assertThatThrownBy(() -> ImmutableAutobatcherConfig.builder().bufferSize(100).build())
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ImmutableAutobatcherConfig.builder().bufferSize(64).maxBatchSize(128).build())
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ImmutableAutobatcherConfig.builder().lingerTimeMillis(-1L).build())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -15,11 +15,14 @@
  */
 package com.palantir.atlasdb.keyvalue.dbkvs;
 
+import java.util.Optional;
+
 import org.immutables.value.Value;
 
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.google.common.base.Preconditions;
 import com.palantir.atlasdb.AtlasDbConstants;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
 import com.palantir.conjure.java.api.config.service.HumanReadableDuration;
@@ -51,4 +54,19 @@ public abstract class PostgresDdlConfig extends DdlConfig {
     public HumanReadableDuration compactInterval() {
         return HumanReadableDuration.seconds(0);
     }
+
+    /**
+     * If set, batches of at least this many cells are written by copying them into a temporary staging table with
+     * {@code COPY ... FROM STDIN (FORMAT binary)} and then inserting them from the staging table, rather than with
+     * batched insert statements. This is considerably faster for bulk writes, but requires that the connections are
+     * to a database on which temporary tables may be created. Writes are split into batches of at most
+     * {@link #mutationBatchCount()} cells, so this should not be greater than that.
+     */
+    public abstract Optional<Integer> copyWriteThreshold();
+
+    @Value.Check
+    protected final void checkCopyWriteThreshold() {
+        copyWriteThreshold().ifPresent(threshold -> Preconditions.checkState(
+                threshold > 0, "'copyWriteThreshold' must be positive if set, but was %s", threshold));
+    }
 }
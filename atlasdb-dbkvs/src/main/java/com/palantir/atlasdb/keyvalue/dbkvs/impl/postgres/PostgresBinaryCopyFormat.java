@@ -0,0 +1,85 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import com.palantir.common.base.Throwables;
+
+/**
+ * Encodes rows of the form {row_name, col_name, ts, val} in the binary format of the Postgres COPY command, for
+ * copying into a table with columns (row_name BYTEA, col_name BYTEA, ts INT8, val BYTEA).
+ */
+final class PostgresBinaryCopyFormat {
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    private static final int FIELD_COUNT = 4;
+    private static final int NULL_LENGTH = -1;
+    private static final int TRAILER = -1;
+    // Each row has a 2 byte field count, a 4 byte length for each field, and an 8 byte timestamp.
+    private static final int ROW_OVERHEAD_BYTES = 2 + FIELD_COUNT * 4 + Long.BYTES;
+
+    private PostgresBinaryCopyFormat() {
+        // utility
+    }
+
+    static byte[] encode(List<Object[]> rows) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(estimateSize(rows));
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.write(SIGNATURE);
+            // flags and header extension length
+            out.writeInt(0);
+            out.writeInt(0);
+            for (Object[] row : rows) {
+                out.writeShort(FIELD_COUNT);
+                writeBytes(out, (byte[]) row[0]);
+                writeBytes(out, (byte[]) row[1]);
+                out.writeInt(Long.BYTES);
+                out.writeLong(((Number) row[2]).longValue());
+                writeBytes(out, (byte[]) row[3]);
+            }
+            out.writeShort(TRAILER);
+            out.flush();
+        } catch (IOException e) {
+            throw Throwables.rewrapAndThrowUncheckedException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+        } else {
+            out.writeInt(value.length);
+            out.write(value);
+        }
+    }
+
+    private static int estimateSize(List<Object[]> rows) {
+        long size = SIGNATURE.length + 2 * Integer.BYTES + Short.BYTES;
+        for (Object[] row : rows) {
+            size += ROW_OVERHEAD_BYTES + length(row[0]) + length(row[1]) + length(row[3]);
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE - 8);
+    }
+
+    private static int length(Object value) {
+        return value == null ? 0 : ((byte[]) value).length;
+    }
+}
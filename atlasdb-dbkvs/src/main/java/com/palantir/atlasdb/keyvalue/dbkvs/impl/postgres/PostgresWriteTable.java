@@ -15,18 +15,152 @@
  */
 package com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+
+import org.postgresql.PGConnection;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
-import com.palantir.atlasdb.keyvalue.dbkvs.DdlConfig;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.keyvalue.dbkvs.PostgresDdlConfig;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.AbstractDbWriteTable;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.ConnectionSupplier;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.PrefixedTableNames;
+import com.palantir.common.base.Throwables;
+import com.palantir.exception.PalantirSqlException;
+import com.palantir.nexus.db.sql.ExceptionCheck;
 
+/**
+ * Writes batches of at least {@link PostgresDdlConfig#copyWriteThreshold()} cells by copying them into a temporary
+ * staging table with the binary COPY protocol, and then inserting them into the table from the staging table with a
+ * single statement. This avoids the per-row overhead of batched insert statements, while keeping their semantics:
+ * the whole batch fails with a {@link KeyAlreadyExistsException} if any of its cells already exist.
+ *
+ * The staging table is a temporary table, so is private to the connection (and dropped when it is closed), and may
+ * be shared by writes to all tables, since they have the same columns.
+ */
 public class PostgresWriteTable extends AbstractDbWriteTable {
+    static final String STAGING_TABLE = "at_copy_staging";
+
+    private final Optional<Integer> copyWriteThreshold;
+    private final PrefixedTableNames prefixedTableNames;
+
     public PostgresWriteTable(
-            DdlConfig config,
+            PostgresDdlConfig config,
             ConnectionSupplier conns,
             TableReference tableRef,
             PrefixedTableNames prefixedTableNames) {
         super(config, conns, tableRef, prefixedTableNames);
+        this.copyWriteThreshold = config.copyWriteThreshold();
+        this.prefixedTableNames = prefixedTableNames;
+    }
+
+    @Override
+    protected void put(List<Object[]> args) {
+        Optional<PGConnection> pgConnection = getConnectionForCopy(args.size());
+        if (!pgConnection.isPresent()) {
+            super.put(args);
+            return;
+        }
+
+        String prefixedTableName = prefixedTableNames.get(tableRef, conns);
+        try {
+            copyIntoStagingTable(pgConnection.get(), args);
+            conns.get().executeUnregisteredQuery("/* INSERT_FROM_STAGING (" + prefixedTableName + ") */"
+                    + " INSERT INTO " + prefixedTableName + " (row_name, col_name, ts, val)"
+                    + " SELECT row_name, col_name, ts, val FROM " + STAGING_TABLE);
+            truncateStagingTable();
+        } catch (PalantirSqlException e) {
+            if (ExceptionCheck.isUniqueConstraintViolation(e)) {
+                throw new KeyAlreadyExistsException("primary key violation", e);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void putSentinels(Iterable<Cell> cells) {
+        List<Cell> distinctCells = ImmutableSet.copyOf(cells).asList();
+        Optional<PGConnection> pgConnection = getConnectionForCopy(distinctCells.size());
+        if (!pgConnection.isPresent()) {
+            super.putSentinels(distinctCells);
+            return;
+        }
+
+        byte[] value = new byte[0];
+        long ts = Value.INVALID_VALUE_TIMESTAMP;
+        List<Object[]> args = Lists.newArrayListWithCapacity(distinctCells.size());
+        for (Cell cell : distinctCells) {
+            args.add(new Object[] {cell.getRowName(), cell.getColumnName(), ts, value});
+        }
+        copyIntoStagingTable(pgConnection.get(), args);
+
+        String prefixedTableName = prefixedTableNames.get(tableRef, conns);
+        while (true) {
+            try {
+                conns.get().executeUnregisteredQuery(
+                        "/* INSERT_FROM_STAGING_WHERE_NOT_EXISTS (" + prefixedTableName + ") */"
+                                + " INSERT INTO " + prefixedTableName + " (row_name, col_name, ts, val)"
+                                + " SELECT s.row_name, s.col_name, s.ts, s.val FROM " + STAGING_TABLE + " s"
+                                + " WHERE NOT EXISTS (SELECT * FROM " + prefixedTableName + " m WHERE"
+                                + " m.row_name = s.row_name AND"
+                                + " m.col_name = s.col_name AND"
+                                + " m.ts = s.ts)");
+                break;
+            } catch (PalantirSqlException e) {
+                // as for batched inserts, retry if we race with a concurrent write of the same sentinels
+                if (!ExceptionCheck.isUniqueConstraintViolation(e)) {
+                    throw e;
+                }
+            }
+        }
+        truncateStagingTable();
+    }
+
+    private Optional<PGConnection> getConnectionForCopy(int numRows) {
+        if (!copyWriteThreshold.isPresent() || numRows < copyWriteThreshold.get()) {
+            return Optional.empty();
+        }
+        try {
+            Connection connection = conns.get().getUnderlyingConnection();
+            if (!connection.isWrapperFor(PGConnection.class)) {
+                return Optional.empty();
+            }
+            return Optional.of(connection.unwrap(PGConnection.class));
+        } catch (SQLException e) {
+            throw PalantirSqlException.create(e);
+        }
+    }
+
+    private void copyIntoStagingTable(PGConnection pgConnection, List<Object[]> args) {
+        conns.get().executeUnregisteredQuery("/* CREATE_STAGING_TABLE */"
+                + " CREATE TEMPORARY TABLE IF NOT EXISTS " + STAGING_TABLE + " ("
+                + "  row_name   BYTEA NOT NULL,"
+                + "  col_name   BYTEA NOT NULL,"
+                + "  ts         INT8 NOT NULL,"
+                + "  val        BYTEA)");
+        // The staging table may hold rows from an earlier write on this connection that failed.
+        truncateStagingTable();
+        try {
+            pgConnection.getCopyAPI().copyIn(
+                    "COPY " + STAGING_TABLE + " (row_name, col_name, ts, val) FROM STDIN (FORMAT binary)",
+                    new ByteArrayInputStream(PostgresBinaryCopyFormat.encode(args)));
+        } catch (SQLException e) {
+            throw PalantirSqlException.create(e);
+        } catch (IOException e) {
+            throw Throwables.rewrapAndThrowUncheckedException(e);
+        }
+    }
+
+    private void truncateStagingTable() {
+        conns.get().executeUnregisteredQuery("TRUNCATE " + STAGING_TABLE);
     }
 }
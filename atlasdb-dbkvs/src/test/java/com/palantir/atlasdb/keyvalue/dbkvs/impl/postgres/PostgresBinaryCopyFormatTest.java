@@ -0,0 +1,74 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class PostgresBinaryCopyFormatTest {
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    private static final byte[] ROW = {1, 2};
+    private static final byte[] COLUMN = {3};
+    private static final byte[] VALUE = {4, 5, 6};
+    private static final long TIMESTAMP = 1_234_567_890_123L;
+
+    @Test
+    public void encodesEmptyCopy() {
+        ByteBuffer expected = ByteBuffer.allocate(SIGNATURE.length + 10)
+                .put(SIGNATURE)
+                .putInt(0)
+                .putInt(0)
+                .putShort((short) -1);
+
+        assertThat(PostgresBinaryCopyFormat.encode(ImmutableList.of())).isEqualTo(expected.array());
+    }
+
+    @Test
+    public void encodesRowsWithLengthPrefixedFields() {
+        ByteBuffer expected = ByteBuffer.allocate(SIGNATURE.length + 8 + 2 * 2 + 2 * 16 + 2 * 8 + 2 * 3 + 3 + 2)
+                .put(SIGNATURE)
+                .putInt(0)
+                .putInt(0);
+        putRow(expected, VALUE);
+        putRow(expected, null);
+        expected.putShort((short) -1);
+
+        assertThat(PostgresBinaryCopyFormat.encode(ImmutableList.of(
+                new Object[] {ROW, COLUMN, TIMESTAMP, VALUE},
+                new Object[] {ROW, COLUMN, TIMESTAMP, null})))
+                .isEqualTo(expected.array());
+    }
+
+    private static void putRow(ByteBuffer buffer, byte[] value) {
+        buffer.putShort((short) 4)
+                .putInt(ROW.length)
+                .put(ROW)
+                .putInt(COLUMN.length)
+                .put(COLUMN)
+                .putInt(Long.BYTES)
+                .putLong(TIMESTAMP);
+        if (value == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(value.length).put(value);
+        }
+    }
+}
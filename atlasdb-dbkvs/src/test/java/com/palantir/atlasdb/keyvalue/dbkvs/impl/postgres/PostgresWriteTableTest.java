@@ -0,0 +1,141 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.dbkvs.ImmutablePostgresDdlConfig;
+import com.palantir.atlasdb.keyvalue.dbkvs.PostgresDdlConfig;
+import com.palantir.atlasdb.keyvalue.dbkvs.impl.ConnectionSupplier;
+import com.palantir.atlasdb.keyvalue.dbkvs.impl.DbWriteTable;
+import com.palantir.exception.PalantirSqlException;
+import com.palantir.nexus.db.sql.SqlConnection;
+
+public class PostgresWriteTableTest {
+    private static final TableReference TEST_TABLE = TableReference.createFromFullyQualifiedName("ns.test");
+    private static final String PREFIXED_TABLE_NAME = "at_ns__test";
+    private static final long TIMESTAMP = 100L;
+    private static final Collection<Map.Entry<Cell, byte[]>> TWO_CELLS = ImmutableMap.of(
+            Cell.create(new byte[] {1}, new byte[] {2}), new byte[] {3},
+            Cell.create(new byte[] {4}, new byte[] {5}), new byte[] {6}).entrySet();
+
+    private final ConnectionSupplier conns = mock(ConnectionSupplier.class);
+    private final SqlConnection sqlConnection = mock(SqlConnection.class);
+    private final Connection connection = mock(Connection.class);
+    private final PGConnection pgConnection = mock(PGConnection.class);
+    private final CopyManager copyManager = mock(CopyManager.class);
+
+    @Before
+    public void setUp() throws SQLException {
+        when(conns.get()).thenReturn(sqlConnection);
+        when(sqlConnection.getUnderlyingConnection()).thenReturn(connection);
+        when(connection.isWrapperFor(PGConnection.class)).thenReturn(true);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+    }
+
+    @Test
+    public void insertsWithoutCopyIfThresholdIsNotSet() throws Exception {
+        writeTable(ImmutablePostgresDdlConfig.builder().build()).put(TWO_CELLS, TIMESTAMP);
+
+        verify(sqlConnection).insertManyUnregisteredQuery(contains("VALUES (?, ?, ?, ?)"), any());
+        verify(copyManager, never()).copyIn(anyString(), any(InputStream.class));
+    }
+
+    @Test
+    public void insertsWithoutCopyForBatchesSmallerThanThreshold() throws Exception {
+        writeTable(configWithCopyWriteThreshold(3)).put(TWO_CELLS, TIMESTAMP);
+
+        verify(sqlConnection).insertManyUnregisteredQuery(contains("VALUES (?, ?, ?, ?)"), any());
+        verify(copyManager, never()).copyIn(anyString(), any(InputStream.class));
+    }
+
+    @Test
+    public void copiesBatchesAtLeastThresholdIntoStagingTableAndInsertsFromIt() throws Exception {
+        writeTable(configWithCopyWriteThreshold(2)).put(TWO_CELLS, TIMESTAMP);
+
+        verify(copyManager).copyIn(
+                eq("COPY " + PostgresWriteTable.STAGING_TABLE + " (row_name, col_name, ts, val)"
+                        + " FROM STDIN (FORMAT binary)"),
+                any(InputStream.class));
+        verify(sqlConnection).executeUnregisteredQuery(
+                contains("INSERT INTO " + PREFIXED_TABLE_NAME + " (row_name, col_name, ts, val)"
+                        + " SELECT row_name, col_name, ts, val FROM " + PostgresWriteTable.STAGING_TABLE));
+        verify(sqlConnection, never()).insertManyUnregisteredQuery(anyString(), any());
+    }
+
+    @Test
+    public void throwsKeyAlreadyExistsIfInsertFromStagingTableViolatesPrimaryKey() {
+        doThrow(PalantirSqlException.create("ERROR: duplicate key value violates unique constraint"))
+                .when(sqlConnection).executeUnregisteredQuery(startsWith("/* INSERT_FROM_STAGING"));
+
+        assertThatThrownBy(() -> writeTable(configWithCopyWriteThreshold(1)).put(TWO_CELLS, TIMESTAMP))
+                .isInstanceOf(KeyAlreadyExistsException.class);
+    }
+
+    @Test
+    public void insertsWithoutCopyIfConnectionIsNotToPostgres() throws Exception {
+        when(connection.isWrapperFor(PGConnection.class)).thenReturn(false);
+
+        writeTable(configWithCopyWriteThreshold(1)).put(TWO_CELLS, TIMESTAMP);
+
+        verify(sqlConnection).insertManyUnregisteredQuery(contains("VALUES (?, ?, ?, ?)"), any());
+        verify(copyManager, never()).copyIn(anyString(), any(InputStream.class));
+    }
+
+    @Test
+    public void copiesSentinelsIntoStagingTableAndInsertsThoseThatDoNotExist() throws Exception {
+        writeTable(configWithCopyWriteThreshold(1)).putSentinels(ImmutableList.of(Cell.create(new byte[] {1},
+                new byte[] {2})));
+
+        verify(copyManager).copyIn(startsWith("COPY " + PostgresWriteTable.STAGING_TABLE), any(InputStream.class));
+        verify(sqlConnection).executeUnregisteredQuery(contains("WHERE NOT EXISTS"));
+    }
+
+    private DbWriteTable writeTable(PostgresDdlConfig config) {
+        return new PostgresWriteTable(config, conns, TEST_TABLE, (tableRef, connectionSupplier) -> PREFIXED_TABLE_NAME);
+    }
+
+    private static PostgresDdlConfig configWithCopyWriteThreshold(int threshold) {
+        return ImmutablePostgresDdlConfig.builder().copyWriteThreshold(threshold).build();
+    }
+}
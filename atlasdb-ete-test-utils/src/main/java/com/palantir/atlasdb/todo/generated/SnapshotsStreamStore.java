@@ -8,6 +8,8 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.util.Arrays;
@@ -133,7 +135,7 @@ public final class SnapshotsStreamStore extends AbstractPersistentStreamStore {
         StreamMetadata metadata = metaTable.getMetadatas(ImmutableSet.of(row)).values().iterator().next();
         Preconditions.checkState(metadata.getStatus() == Status.STORING, "This stream is being cleaned up while storing blocks: %s", id);
         Builder builder = StreamMetadata.newBuilder(metadata);
-        builder.setLength(blockNumber * BLOCK_SIZE_IN_BYTES + 1);
+        builder.setLength(Math.max(metadata.getLength(), blockNumber * BLOCK_SIZE_IN_BYTES + 1));
         metaTable.putMetadata(row, builder.build());
     }
 
@@ -394,6 +396,7 @@ public final class SnapshotsStreamStore extends AbstractPersistentStreamStore {
      * {@link ByteStreams}
      * {@link ByteString}
      * {@link Cell}
+     * {@link Channels}
      * {@link CheckForNull}
      * {@link Collection}
      * {@link Collections2}
@@ -446,6 +449,7 @@ public final class SnapshotsStreamStore extends AbstractPersistentStreamStore {
      * {@link TransactionManager}
      * {@link TransactionTask}
      * {@link TxTask}
+     * {@link WritableByteChannel}
      */
     static final int dummy = 0;
 }
\ No newline at end of file
@@ -23,6 +23,7 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 import com.google.common.collect.ForwardingObject;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
@@ -38,8 +39,10 @@ import com.palantir.atlasdb.keyvalue.api.CheckAndSetRequest;
 import com.palantir.atlasdb.keyvalue.api.ClusterAvailabilityStatus;
 import com.palantir.atlasdb.keyvalue.api.ColumnRangeSelection;
 import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
+import com.palantir.atlasdb.keyvalue.api.ImmutableMultiCheckAndSetResult;
 import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.MultiCheckAndSetResult;
 import com.palantir.atlasdb.keyvalue.api.RangeRequest;
 import com.palantir.atlasdb.keyvalue.api.RowColumnRangeIterator;
 import com.palantir.atlasdb.keyvalue.api.RowResult;
@@ -388,6 +391,32 @@ public final class TableRemappingKeyValueService extends ForwardingObject implem
         }
     }
 
+    @Override
+    public MultiCheckAndSetResult multiCheckAndSet(List<CheckAndSetRequest> checkAndSetRequests) {
+        try {
+            Map<CheckAndSetRequest, CheckAndSetRequest> originalRequests = Maps.newLinkedHashMap();
+            for (CheckAndSetRequest checkAndSetRequest : checkAndSetRequests) {
+                CheckAndSetRequest request = new CheckAndSetRequest.Builder()
+                        .from(checkAndSetRequest)
+                        .table(tableMapper.getMappedTableName(checkAndSetRequest.table()))
+                        .build();
+                originalRequests.put(request, checkAndSetRequest);
+            }
+            MultiCheckAndSetResult result = delegate().multiCheckAndSet(
+                    ImmutableList.copyOf(originalRequests.keySet()));
+            ImmutableMultiCheckAndSetResult.Builder unmappedResult = MultiCheckAndSetResult.builder();
+            result.successfulRequests().forEach(request ->
+                    unmappedResult.addSuccessfulRequests(originalRequests.get(request)));
+            result.failedRequests().forEach((request, values) ->
+                    unmappedResult.putFailedRequests(originalRequests.get(request), values));
+            result.unappliedRequests().forEach(request ->
+                    unmappedResult.addUnappliedRequests(originalRequests.get(request)));
+            return unmappedResult.build();
+        } catch (TableMappingNotFoundException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
     @Override
     public void putWithTimestamps(TableReference tableRef, Multimap<Cell, Value> values) {
         try {
@@ -15,6 +15,7 @@
  */
 package com.palantir.atlasdb.keyvalue.impl;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.IdentityHashMap;
 import java.util.List;
@@ -42,6 +43,7 @@ import com.palantir.atlasdb.keyvalue.api.ColumnRangeSelection;
 import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
 import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.MultiCheckAndSetResult;
 import com.palantir.atlasdb.keyvalue.api.Namespace;
 import com.palantir.atlasdb.keyvalue.api.RangeRequest;
 import com.palantir.atlasdb.keyvalue.api.RowColumnRangeIterator;
@@ -337,6 +339,18 @@ public final class TableSplittingKeyValueService implements KeyValueService {
         getDelegate(checkAndSetRequest.table()).checkAndSet(checkAndSetRequest);
     }
 
+    @Override
+    public MultiCheckAndSetResult multiCheckAndSet(List<CheckAndSetRequest> checkAndSetRequests) {
+        Map<KeyValueService, List<CheckAndSetRequest>> requestsByDelegate = new IdentityHashMap<>();
+        for (CheckAndSetRequest request : checkAndSetRequests) {
+            requestsByDelegate.computeIfAbsent(getDelegate(request.table()), unused -> new ArrayList<>())
+                    .add(request);
+        }
+        List<MultiCheckAndSetResult> results = new ArrayList<>();
+        requestsByDelegate.forEach((delegate, requests) -> results.add(delegate.multiCheckAndSet(requests)));
+        return MultiCheckAndSetResult.merge(results);
+    }
+
     @Override
     public void putWithTimestamps(TableReference tableRef, Multimap<Cell, Value> values) {
         getDelegate(tableRef).putWithTimestamps(tableRef, values);
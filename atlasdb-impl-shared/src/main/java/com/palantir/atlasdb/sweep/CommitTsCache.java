@@ -15,34 +15,54 @@
  */
 package com.palantir.atlasdb.sweep;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ExecutionException;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.LoadingCache;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.ImmutableMap;
+import com.palantir.atlasdb.cache.TimestampCache;
 import com.palantir.atlasdb.transaction.service.TransactionService;
-import com.palantir.common.base.Throwables;
 
+/**
+ * Loads commit timestamps for sweep, rolling back transactions that have not committed. Loaded commit timestamps are
+ * final, so they are cached in a {@link TimestampCache}, which may be shared with the transaction manager so that
+ * sweep and transactional reads benefit from each other's lookups.
+ */
 public final class CommitTsCache {
-    private static final Long ONE_MILLION = 1_000_000L;
-    private LoadingCache<Long, Long> cache;
+    private static final long ONE_MILLION = 1_000_000L;
+
+    private final AbortingCommitTsLoader loader;
+    private final TimestampCache cache;
 
-    private CommitTsCache(TransactionService transactionService, long maxSize) {
-        cache = CacheBuilder.newBuilder().maximumSize(maxSize).build(new AbortingCommitTsLoader(transactionService));
+    private CommitTsCache(TransactionService transactionService, TimestampCache cache) {
+        this.loader = new AbortingCommitTsLoader(transactionService);
+        this.cache = cache;
     }
 
     public static CommitTsCache create(TransactionService transactionService) {
-        return new CommitTsCache(transactionService, ONE_MILLION);
+        return create(transactionService, new TimestampCache(new MetricRegistry(), () -> ONE_MILLION));
+    }
+
+    public static CommitTsCache create(TransactionService transactionService, TimestampCache timestampCache) {
+        return new CommitTsCache(transactionService, timestampCache);
     }
 
     public Optional<Long> loadIfCached(long startTs) {
-        return Optional.ofNullable(cache.getIfPresent(startTs));
+        return Optional.ofNullable(cache.getCommitTimestampIfPresent(startTs));
     }
 
     public long load(long startTs) {
-        return cache.getUnchecked(startTs);
+        Long cached = cache.getCommitTimestampIfPresent(startTs);
+        if (cached != null) {
+            return cached;
+        }
+        long commitTs = loader.load(startTs);
+        cache.putAlreadyCommittedTransaction(startTs, commitTs);
+        return commitTs;
     }
 
     /**
@@ -50,10 +70,25 @@ public final class CommitTsCache {
      * does batched lookups for non-cached start timestamps.
      */
     public Map<Long, Long> loadBatch(Collection<Long> timestamps) {
-        try {
-            return cache.getAll(timestamps);
-        } catch (ExecutionException e) {
-            throw Throwables.rewrapAndThrowUncheckedException(e);
+        if (timestamps.isEmpty()) {
+            return ImmutableMap.of();
+        }
+        Map<Long, Long> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long startTs : timestamps) {
+            Long cached = cache.getCommitTimestampIfPresent(startTs);
+            if (cached != null) {
+                result.put(startTs, cached);
+            } else {
+                missing.add(startTs);
+            }
+        }
+        if (!missing.isEmpty()) {
+            loader.loadAll(missing).forEach((startTs, commitTs) -> {
+                cache.putAlreadyCommittedTransaction(startTs, commitTs);
+                result.put(startTs, commitTs);
+            });
         }
+        return result;
     }
 }
@@ -18,6 +18,7 @@ package com.palantir.atlasdb.sweep.metrics;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -102,6 +103,14 @@ public class TargetedSweepMetrics {
         getMetrics(shardStrategy).updateProgressForShard(shardStrategy.shard(), lastSweptTs);
     }
 
+    /**
+     * Records how many timestamps below the sweep timestamp are yet to be swept for the given shard and strategy.
+     * Unlike the other metrics, this is reported separately for every shard.
+     */
+    public void updateLagForShard(ShardAndStrategy shardStrategy, long timestampsBehind) {
+        getMetrics(shardStrategy).updateLagForShard(shardStrategy.shard(), timestampsBehind);
+    }
+
     public void registerOccurrenceOf(SweepOutcome outcome) {
         outcomeMetrics.registerOccurrenceOf(outcome);
     }
@@ -116,17 +125,20 @@ public class TargetedSweepMetrics {
 
     private static final class MetricsForStrategy {
         private final MetricsManager manager;
+        private final String strategy;
         private final AccumulatingValueMetric enqueuedWrites;
         private final AccumulatingValueMetric entriesRead;
         private final AccumulatingValueMetric tombstonesPut;
         private final AccumulatingValueMetric abortedWritesDeleted;
         private final CurrentValueMetric<Long> sweepTimestamp;
         private final AggregatingVersionedMetric<Long> lastSweptTs;
+        private final Map<Integer, CurrentValueMetric<Long>> lagByShard = new ConcurrentHashMap<>();
 
         private MetricsForStrategy(MetricsManager manager, String strategy, Function<Long, Long> tsToMillis,
                 Clock wallClock, long recomputeMillis) {
             Map<String, String> tag = ImmutableMap.of(AtlasDbMetricNames.TAG_STRATEGY, strategy);
             this.manager = manager;
+            this.strategy = strategy;
             enqueuedWrites = registerAccumulating(AtlasDbMetricNames.ENQUEUED_WRITES, tag);
             entriesRead = registerAccumulating(AtlasDbMetricNames.ENTRIES_READ, tag);
             tombstonesPut = registerAccumulating(AtlasDbMetricNames.TOMBSTONES_PUT, tag);
@@ -193,5 +205,16 @@ public class TargetedSweepMetrics {
         private void updateProgressForShard(int shard, long sweptTs) {
             lastSweptTs.update(shard, sweptTs);
         }
+
+        private void updateLagForShard(int shard, long timestampsBehind) {
+            lagByShard.computeIfAbsent(shard, this::registerLagForShard).setValue(timestampsBehind);
+        }
+
+        private CurrentValueMetric<Long> registerLagForShard(int shard) {
+            Map<String, String> tags = ImmutableMap.of(
+                    AtlasDbMetricNames.TAG_STRATEGY, strategy,
+                    AtlasDbMetricNames.TAG_SHARD, Integer.toString(shard));
+            return register(AtlasDbMetricNames.LAG_TIMESTAMPS, new CurrentValueMetric<>(), tags);
+        }
     }
 }
@@ -0,0 +1,116 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.sweep.queue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.palantir.common.time.Clock;
+
+/**
+ * Tracks, for a single sweep strategy, how many timestamps each shard had left to sweep after this node last swept
+ * it, so that background sweep threads can favour the shards that are furthest behind.
+ * <p>
+ * Shards that were fully swept are skipped for a while, with the wait doubling for as long as they keep being found
+ * idle. Shards that have not been swept yet are tried before all others, since their backlog is unknown.
+ */
+final class ShardBacklogs {
+    @VisibleForTesting
+    static final long MIN_IDLE_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(5);
+    @VisibleForTesting
+    static final long MAX_IDLE_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final ShardState UNKNOWN = new ShardState(Long.MAX_VALUE, 0, 0L);
+
+    private final Clock clock;
+    private final Map<Integer, ShardState> states = new ConcurrentHashMap<>();
+    private final AtomicLong rotation = new AtomicLong();
+
+    ShardBacklogs(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the shards that are not backing off, in the order in which they should be tried: largest backlog
+     * first. Shards with the same backlog are rotated between calls, so that concurrent threads start from
+     * different shards.
+     */
+    List<Integer> getShardsInPriorityOrder(int numShards) {
+        long now = clock.getTimeMillis();
+        int offset = (int) (rotation.getAndIncrement() % numShards);
+        List<ShardAndBacklog> candidates = new ArrayList<>(numShards);
+        for (int i = 0; i < numShards; i++) {
+            int shard = (offset + i) % numShards;
+            ShardState state = states.getOrDefault(shard, UNKNOWN);
+            if (state.eligibleFromMillis <= now) {
+                candidates.add(new ShardAndBacklog(shard, state.backlog));
+            }
+        }
+        candidates.sort(Comparator.comparingLong((ShardAndBacklog candidate) -> candidate.backlog).reversed());
+
+        List<Integer> shards = new ArrayList<>(candidates.size());
+        candidates.forEach(candidate -> shards.add(candidate.shard));
+        return shards;
+    }
+
+    /**
+     * Records the number of timestamps left to sweep for the given shard after sweeping a batch of it.
+     */
+    void updateBacklog(int shard, long timestampsBehind) {
+        long now = clock.getTimeMillis();
+        states.compute(shard, (unused, previous) -> {
+            if (timestampsBehind > 0) {
+                return new ShardState(timestampsBehind, 0, now);
+            }
+            int idleIterations = previous == null ? 1 : previous.idleIterations + 1;
+            return new ShardState(0L, idleIterations, now + getIdleBackoffMillis(idleIterations));
+        });
+    }
+
+    @VisibleForTesting
+    static long getIdleBackoffMillis(int idleIterations) {
+        int doublings = Math.min(idleIterations - 1, Long.numberOfLeadingZeros(MIN_IDLE_BACKOFF_MILLIS) - 1);
+        return Math.min(MIN_IDLE_BACKOFF_MILLIS << doublings, MAX_IDLE_BACKOFF_MILLIS);
+    }
+
+    private static final class ShardState {
+        private final long backlog;
+        private final int idleIterations;
+        private final long eligibleFromMillis;
+
+        private ShardState(long backlog, int idleIterations, long eligibleFromMillis) {
+            this.backlog = backlog;
+            this.idleIterations = idleIterations;
+            this.eligibleFromMillis = eligibleFromMillis;
+        }
+    }
+
+    private static final class ShardAndBacklog {
+        private final int shard;
+        private final long backlog;
+
+        private ShardAndBacklog(int shard, long backlog) {
+            this.shard = shard;
+            this.backlog = backlog;
+        }
+    }
+}
@@ -17,18 +17,21 @@ package com.palantir.atlasdb.sweep.queue;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 import org.immutables.value.Value;
 
 /**
  * Contains information on a batch to sweep: a possibly empty list of WriteInfos to sweep for and the maximum timestamp
- * guaranteed to have been swept once the batch is processed.
+ * guaranteed to have been swept once the batch is processed, as well as the fine partitions of the sweep queue that
+ * were read to build the batch.
  */
 @Value.Immutable
 public interface SweepBatch {
     List<WriteInfo> writes();
     DedicatedRows dedicatedRows();
     long lastSweptTimestamp();
+    Set<Long> finePartitions();
 
     default boolean isEmpty() {
         return writes().isEmpty();
@@ -40,4 +43,13 @@ public interface SweepBatch {
                 .dedicatedRows(dedicatedRows)
                 .lastSweptTimestamp(timestamp).build();
     }
+
+    static SweepBatch of(Collection<WriteInfo> writes, DedicatedRows dedicatedRows, long timestamp,
+            Collection<Long> finePartitions) {
+        return ImmutableSweepBatch.builder()
+                .writes(writes)
+                .dedicatedRows(dedicatedRows)
+                .lastSweptTimestamp(timestamp)
+                .finePartitions(finePartitions).build();
+    }
 }
@@ -25,6 +25,7 @@ import org.slf4j.LoggerFactory;
 import com.google.common.base.Suppliers;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.schema.TargetedSweepSchema;
+import com.palantir.atlasdb.sweep.CommitTsCache;
 import com.palantir.atlasdb.sweep.Sweeper;
 import com.palantir.atlasdb.sweep.metrics.SweepOutcome;
 import com.palantir.atlasdb.sweep.metrics.TargetedSweepMetrics;
@@ -46,10 +47,11 @@ public final class SweepQueue implements MultiTableSweepQueueWriter {
     private final Supplier<Integer> numShards;
     private final TargetedSweepMetrics metrics;
 
-    private SweepQueue(SweepQueueFactory factory, TargetedSweepFollower follower) {
+    private SweepQueue(SweepQueueFactory factory, Supplier<Integer> maxPartitionsToBatch,
+            TargetedSweepFollower follower) {
         this.progress = factory.progress;
         this.writer = factory.createWriter();
-        this.reader = factory.createReader();
+        this.reader = factory.createReader(maxPartitionsToBatch);
         this.deleter = factory.createDeleter(follower);
         this.cleaner = factory.createCleaner();
         this.numShards = factory.numShards;
@@ -61,9 +63,11 @@ public final class SweepQueue implements MultiTableSweepQueueWriter {
             KeyValueService kvs,
             TimelockService timelock,
             Supplier<Integer> shardsConfig,
-            TransactionService transaction,
+            Supplier<Integer> maxPartitionsToBatchConfig,
+            CommitTsCache commitTsCache,
             TargetedSweepFollower follower) {
-        return new SweepQueue(SweepQueueFactory.create(metrics, kvs, timelock, shardsConfig, transaction), follower);
+        return new SweepQueue(SweepQueueFactory.create(metrics, kvs, timelock, shardsConfig, commitTsCache),
+                maxPartitionsToBatchConfig, follower);
     }
 
     /**
@@ -106,13 +110,15 @@ public final class SweepQueue implements MultiTableSweepQueueWriter {
      *
      * @param shardStrategy shard and strategy to use
      * @param sweepTs sweep timestamp, the upper limit to the start timestamp of writes to sweep
+     * @return the number of timestamps below the sweep timestamp that remain to be swept after this batch
      */
-    public void sweepNextBatch(ShardAndStrategy shardStrategy, long sweepTs) {
+    public long sweepNextBatch(ShardAndStrategy shardStrategy, long sweepTs) {
         metrics.updateSweepTimestamp(shardStrategy, sweepTs);
         long lastSweptTs = progress.getLastSweptTimestamp(shardStrategy);
 
         if (lastSweptTs + 1 >= sweepTs) {
-            return;
+            metrics.updateLagForShard(shardStrategy, 0L);
+            return 0L;
         }
 
         log.debug("Beginning iteration of targeted sweep for {}, and sweep timestamp {}. Last previously swept "
@@ -131,16 +137,21 @@ public final class SweepQueue implements MultiTableSweepQueueWriter {
                     SafeArg.of("shardStrategy", shardStrategy.toText()));
         }
 
-        cleaner.clean(shardStrategy, lastSweptTs, sweepBatch.lastSweptTimestamp(), sweepBatch.dedicatedRows());
+        cleaner.clean(shardStrategy, sweepBatch.finePartitions(), lastSweptTs, sweepBatch.lastSweptTimestamp(),
+                sweepBatch.dedicatedRows());
 
         metrics.updateNumberOfTombstones(shardStrategy, sweepBatch.writes().size());
         metrics.updateProgressForShard(shardStrategy, sweepBatch.lastSweptTimestamp());
 
+        long timestampsBehind = Math.max(0L, sweepTs - 1 - sweepBatch.lastSweptTimestamp());
+        metrics.updateLagForShard(shardStrategy, timestampsBehind);
+
         if (sweepBatch.isEmpty()) {
             metrics.registerOccurrenceOf(SweepOutcome.NOTHING_TO_SWEEP);
         } else {
             metrics.registerOccurrenceOf(SweepOutcome.SUCCESS);
         }
+        return timestampsBehind;
     }
 
     /**
@@ -183,7 +194,7 @@ public final class SweepQueue implements MultiTableSweepQueueWriter {
                     kvs,
                     new TimelockTimestampServiceAdapter(timelock),
                     false);
-            return create(metrics, kvs, timelock, shardsConfig, transaction);
+            return create(metrics, kvs, timelock, shardsConfig, CommitTsCache.create(transaction));
         }
 
         static SweepQueueFactory create(
@@ -191,13 +202,13 @@ public final class SweepQueue implements MultiTableSweepQueueWriter {
                 KeyValueService kvs,
                 TimelockService timelock,
                 Supplier<Integer> shardsConfig,
-                TransactionService transaction) {
+                CommitTsCache commitTsCache) {
             Schemas.createTablesAndIndexes(TargetedSweepSchema.INSTANCE.getLatestSchema(), kvs);
             ShardProgress shardProgress = new ShardProgress(kvs);
             Supplier<Integer> shards = createProgressUpdatingSupplier(shardsConfig, shardProgress,
                     SweepQueueUtils.REFRESH_TIME);
             WriteInfoPartitioner partitioner = new WriteInfoPartitioner(kvs, shards);
-            SweepableCells cells = new SweepableCells(kvs, partitioner, metrics, transaction);
+            SweepableCells cells = new SweepableCells(kvs, partitioner, metrics, commitTsCache);
             SweepableTimestamps timestamps = new SweepableTimestamps(kvs, partitioner);
             return new SweepQueueFactory(shardProgress, shards, cells, timestamps, metrics, kvs, timelock);
         }
@@ -206,8 +217,8 @@ public final class SweepQueue implements MultiTableSweepQueueWriter {
             return new SweepQueueWriter(timestamps, cells);
         }
 
-        private SweepQueueReader createReader() {
-            return new SweepQueueReader(timestamps, cells);
+        private SweepQueueReader createReader(Supplier<Integer> maxPartitionsToBatch) {
+            return new SweepQueueReader(timestamps, cells, maxPartitionsToBatch);
         }
 
         private SweepQueueDeleter createDeleter(TargetedSweepFollower follower) {
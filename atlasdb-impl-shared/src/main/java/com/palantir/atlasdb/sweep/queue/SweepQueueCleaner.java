@@ -15,9 +15,12 @@
  */
 package com.palantir.atlasdb.sweep.queue;
 
+import java.util.Set;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.ImmutableSet;
 import com.palantir.atlasdb.logging.LoggingArgs;
 import com.palantir.atlasdb.schema.generated.TargetedSweepTableFactory;
 import com.palantir.logsafe.SafeArg;
@@ -43,8 +46,21 @@ public class SweepQueueCleaner {
      * @param dedicatedRows the dedicated rows that have now been swept that should now be removed.
      */
     public void clean(ShardAndStrategy shardStrategy, long oldProgress, long newProgress, DedicatedRows dedicatedRows) {
+        clean(shardStrategy, ImmutableSet.of(), oldProgress, newProgress, dedicatedRows);
+    }
+
+    /**
+     * Same as {@link #clean(ShardAndStrategy, long, long, DedicatedRows)}, but additionally cleans up the given fine
+     * partitions that were read in this iteration of sweep and have been swept completely. This is required when a
+     * single iteration of sweep reads from multiple fine partitions, as only the partition of the last swept timestamp
+     * is otherwise cleaned up in the subsequent iteration.
+     * @param finePartitions the fine partitions that were read in this iteration of sweep.
+     */
+    public void clean(ShardAndStrategy shardStrategy, Set<Long> finePartitions, long oldProgress, long newProgress,
+            DedicatedRows dedicatedRows) {
         cleanDedicatedRows(dedicatedRows);
         cleanSweepableCells(shardStrategy, oldProgress, newProgress);
+        cleanFullySweptPartitions(shardStrategy, finePartitions, oldProgress, newProgress);
         cleanSweepableTimestamps(shardStrategy, oldProgress, newProgress);
         progressTo(shardStrategy, newProgress);
     }
@@ -65,6 +81,23 @@ public class SweepQueueCleaner {
         }
     }
 
+    private void cleanFullySweptPartitions(ShardAndStrategy shardStrategy, Set<Long> finePartitions, long oldProgress,
+            long newProgress) {
+        long lastSweptPartitionPreviously = SweepQueueUtils.tsPartitionFine(oldProgress);
+        long lastSweptPartitionNow = SweepQueueUtils.tsPartitionFine(newProgress);
+        finePartitions.stream()
+                .filter(partition -> partition < lastSweptPartitionNow)
+                .filter(partition -> firstIterationOfSweep(oldProgress) || partition != lastSweptPartitionPreviously)
+                .forEach(partition -> {
+                    cleanDedicatedRows(shardStrategy, partition);
+                    cleanNonDedicatedRow(shardStrategy, partition);
+                    log.info("Deleted persisted sweep queue information in table {} for partition {}.",
+                            LoggingArgs.tableRef(
+                                    TargetedSweepTableFactory.of().getSweepableCellsTable(null).getTableRef()),
+                            SafeArg.of("partition", partition));
+                });
+    }
+
     private void cleanDedicatedRows(DedicatedRows dedicatedRows) {
         sweepableCells.deleteDedicatedRows(dedicatedRows);
     }
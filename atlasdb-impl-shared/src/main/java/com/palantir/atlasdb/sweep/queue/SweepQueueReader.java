@@ -15,21 +15,30 @@
  */
 package com.palantir.atlasdb.sweep.queue;
 
+import java.util.List;
+import java.util.function.Supplier;
+
 import com.google.common.collect.ImmutableList;
 
 class SweepQueueReader {
     private final SweepableTimestamps sweepableTimestamps;
     private final SweepableCells sweepableCells;
+    private final Supplier<Integer> maxPartitionsToBatch;
 
     SweepQueueReader(SweepableTimestamps sweepableTimestamps,
-            SweepableCells sweepableCells) {
+            SweepableCells sweepableCells,
+            Supplier<Integer> maxPartitionsToBatch) {
         this.sweepableTimestamps = sweepableTimestamps;
         this.sweepableCells = sweepableCells;
+        this.maxPartitionsToBatch = maxPartitionsToBatch;
     }
 
     SweepBatch getNextBatchToSweep(ShardAndStrategy shardStrategy, long lastSweptTs, long sweepTs) {
-        return sweepableTimestamps.nextSweepableTimestampPartition(shardStrategy, lastSweptTs, sweepTs)
-                .map(fine -> sweepableCells.getBatchForPartition(shardStrategy, fine, lastSweptTs, sweepTs))
-                .orElse(SweepBatch.of(ImmutableList.of(), DedicatedRows.of(ImmutableList.of()), sweepTs - 1L));
+        List<Long> partitions = sweepableTimestamps.nextSweepableTimestampPartitions(
+                shardStrategy, lastSweptTs, sweepTs, maxPartitionsToBatch.get());
+        if (partitions.isEmpty()) {
+            return SweepBatch.of(ImmutableList.of(), DedicatedRows.of(ImmutableList.of()), sweepTs - 1L);
+        }
+        return sweepableCells.getBatchForPartitions(shardStrategy, partitions, lastSweptTs, sweepTs);
     }
 }
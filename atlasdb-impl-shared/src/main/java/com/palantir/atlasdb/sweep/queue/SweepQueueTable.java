@@ -20,12 +20,15 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Stream;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Streams;
+import com.google.common.collect.Iterators;
+import com.google.common.primitives.UnsignedBytes;
 import com.palantir.atlasdb.keyvalue.api.BatchColumnRangeSelection;
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.ColumnRangeSelection;
@@ -37,6 +40,9 @@ import com.palantir.atlasdb.keyvalue.impl.LocalRowColumnRangeIterator;
 import com.palantir.atlasdb.sweep.metrics.TargetedSweepMetrics;
 
 public abstract class SweepQueueTable {
+    private static final RowColumnRangeIterator EMPTY_ITERATOR =
+            new LocalRowColumnRangeIterator(Collections.emptyIterator());
+
     final KeyValueService kvs;
     private final TableReference tableRef;
     private final WriteInfoPartitioner partitioner;
@@ -105,17 +111,28 @@ public abstract class SweepQueueTable {
     }
 
     RowColumnRangeIterator getRowsColumnRange(Iterable<byte[]> rows, ColumnRangeSelection columnRange, int batchSize) {
-        return new LocalRowColumnRangeIterator(Streams.stream(rows)
-                .flatMap(row -> getBatchForRow(row, columnRange, batchSize))
-                .flatMap(Streams::stream)
-                .iterator());
+        return new LocalRowColumnRangeIterator(
+                Iterators.concat(getRowsColumnRangePerRow(rows, columnRange, batchSize).iterator()));
     }
 
-    private Stream<RowColumnRangeIterator> getBatchForRow(byte[] row, ColumnRangeSelection columnRange, int batchSize) {
-        return kvs.getRowsColumnRange(
-                tableRef, Collections.singleton(row),
+    /**
+     * Reads the given rows with a single call to the key value service, returning an iterator over the entries of each
+     * row in the order in which the rows were supplied.
+     */
+    List<RowColumnRangeIterator> getRowsColumnRangePerRow(Iterable<byte[]> rows, ColumnRangeSelection columnRange,
+            int batchSize) {
+        List<byte[]> rowsList = ImmutableList.copyOf(rows);
+        if (rowsList.isEmpty()) {
+            return ImmutableList.of();
+        }
+        Map<byte[], RowColumnRangeIterator> iteratorsByRow = new TreeMap<>(UnsignedBytes.lexicographicalComparator());
+        iteratorsByRow.putAll(kvs.getRowsColumnRange(
+                tableRef, rowsList,
                 BatchColumnRangeSelection.create(columnRange, batchSize),
-                SweepQueueUtils.READ_TS).values().stream();
+                SweepQueueUtils.READ_TS));
+        return rowsList.stream()
+                .map(row -> iteratorsByRow.getOrDefault(row, EMPTY_ITERATOR))
+                .collect(Collectors.toList());
     }
 
     void deleteRange(RangeRequest request) {
@@ -76,8 +76,16 @@ public class SweepableCells extends SweepQueueTable {
             WriteInfoPartitioner partitioner,
             TargetedSweepMetrics metrics,
             TransactionService transactionService) {
+        this(kvs, partitioner, metrics, CommitTsCache.create(transactionService));
+    }
+
+    public SweepableCells(
+            KeyValueService kvs,
+            WriteInfoPartitioner partitioner,
+            TargetedSweepMetrics metrics,
+            CommitTsCache commitTsCache) {
         super(kvs, TargetedSweepTableFactory.of().getSweepableCellsTable(null).getTableRef(), partitioner, metrics);
-        this.commitTsCache = CommitTsCache.create(transactionService);
+        this.commitTsCache = commitTsCache;
         this.writeReferencePersister = new WriteReferencePersister(new SweepTableIndices(kvs));
     }
 
@@ -158,19 +166,66 @@ public class SweepableCells extends SweepQueueTable {
 
     SweepBatch getBatchForPartition(ShardAndStrategy shardStrategy, long partitionFine, long minTsExclusive,
             long sweepTs) {
-        SweepableCellsRow row = computeRow(partitionFine, shardStrategy);
-        RowColumnRangeIterator resultIterator = getRowColumnRange(row, partitionFine, minTsExclusive, sweepTs);
-        PeekingIterator<Map.Entry<Cell, Value>> peekingResultIterator = Iterators.peekingIterator(resultIterator);
-        WriteBatch writeBatch = getBatchOfWrites(row, peekingResultIterator, sweepTs);
+        return getBatchForPartitions(shardStrategy, ImmutableList.of(partitionFine), minTsExclusive, sweepTs);
+    }
+
+    /**
+     * Reads a batch of writes to sweep from the given fine partitions, which must be in increasing order with no other
+     * partition between any two of them having entries after minTsExclusive. The first partition is read on its own,
+     * since only its range starts after minTsExclusive; if the batch is not full once it has been exhausted, all the
+     * remaining partitions are read in a single call to the key value service, and consumed in order for as long as
+     * the batch is not full. Commit timestamps for the whole batch are then loaded at once.
+     */
+    SweepBatch getBatchForPartitions(ShardAndStrategy shardStrategy, List<Long> partitionsFine, long minTsExclusive,
+            long sweepTs) {
+        checkState(!partitionsFine.isEmpty(), "Must read at least one partition");
+        WriteBatch writeBatch = new WriteBatch();
+        long firstPartition = partitionsFine.get(0);
+        SweepableCellsRow firstRow = computeRow(firstPartition, shardStrategy);
+        PeekingIterator<Map.Entry<Cell, Value>> peekingResultIterator = Iterators.peekingIterator(
+                getRowColumnRange(firstRow, firstPartition, minTsExclusive, sweepTs));
+        getBatchOfWrites(firstRow, peekingResultIterator, sweepTs, writeBatch);
+        int partitionsRead = 1;
+
+        if (partitionsFine.size() > 1 && canReadNextPartition(peekingResultIterator, writeBatch)) {
+            List<SweepableCellsRow> rows = partitionsFine.subList(1, partitionsFine.size()).stream()
+                    .map(partitionFine -> computeRow(partitionFine, shardStrategy))
+                    .collect(Collectors.toList());
+            List<RowColumnRangeIterator> rowIterators = getRowsColumnRangePerRow(
+                    Lists.transform(rows, SweepableCellsRow::persistToBytes),
+                    SweepQueueUtils.ALL_COLUMNS,
+                    SweepQueueUtils.BATCH_SIZE_KVS);
+            for (int i = 0; i < rows.size(); i++) {
+                SweepableCellsRow row = rows.get(i);
+                peekingResultIterator = Iterators.peekingIterator(Iterators.filter(rowIterators.get(i),
+                        entry -> getTimestamp(row, computeColumn(entry)) < sweepTs));
+                getBatchOfWrites(row, peekingResultIterator, sweepTs, writeBatch);
+                partitionsRead++;
+                if (!canReadNextPartition(peekingResultIterator, writeBatch)) {
+                    break;
+                }
+            }
+        }
+
+        List<Long> partitionsFineRead = partitionsFine.subList(0, partitionsRead);
         Multimap<Long, WriteInfo> writesByStartTs = writeBatch.writesByStartTs;
         maybeMetrics.ifPresent(metrics -> metrics.updateEntriesRead(shardStrategy, writesByStartTs.size()));
-        log.debug("Read {} entries from the sweep queue.", SafeArg.of("number", writesByStartTs.size()));
+        log.debug("Read {} entries from {} partitions of the sweep queue.",
+                SafeArg.of("number", writesByStartTs.size()),
+                SafeArg.of("partitions", partitionsRead));
         TimestampsToSweep tsToSweep = getTimestampsToSweepDescendingAndCleanupAborted(
                 shardStrategy, minTsExclusive, sweepTs, writesByStartTs);
         Collection<WriteInfo> writes = getWritesToSweep(writesByStartTs, tsToSweep.timestampsDescending());
         DedicatedRows filteredDedicatedRows = getDedicatedRowsToClear(writeBatch.dedicatedRows, tsToSweep);
-        long lastSweptTs = getLastSweptTs(tsToSweep, peekingResultIterator, partitionFine, sweepTs);
-        return SweepBatch.of(writes, filteredDedicatedRows, lastSweptTs);
+        long lastSweptTs = getLastSweptTs(tsToSweep, peekingResultIterator,
+                partitionsFineRead.get(partitionsRead - 1), sweepTs);
+        return SweepBatch.of(writes, filteredDedicatedRows, lastSweptTs, partitionsFineRead);
+    }
+
+    private boolean canReadNextPartition(Iterator<Map.Entry<Cell, Value>> resultIterator, WriteBatch writeBatch) {
+        return exhaustedAllColumns(resultIterator)
+                && !writeBatch.hasWriteCommittedAfterSweepTs
+                && writeBatch.writesByStartTs.size() < SweepQueueUtils.SWEEP_BATCH_SIZE;
     }
 
     private DedicatedRows getDedicatedRowsToClear(List<SweepableCellsRow> rows, TimestampsToSweep tsToSweep) {
@@ -184,16 +239,16 @@ public class SweepableCells extends SweepQueueTable {
             }).collect(Collectors.toList()));
     }
 
-    private WriteBatch getBatchOfWrites(SweepableCellsRow row,
-            PeekingIterator<Map.Entry<Cell, Value>> resultIterator, long sweepTs) {
-        WriteBatch writeBatch = new WriteBatch();
+    private void getBatchOfWrites(SweepableCellsRow row,
+            PeekingIterator<Map.Entry<Cell, Value>> resultIterator, long sweepTs, WriteBatch writeBatch) {
         while (resultIterator.hasNext() && writeBatch.writesByStartTs.size() < SweepQueueUtils.SWEEP_BATCH_SIZE) {
             Map.Entry<Cell, Value> entry = resultIterator.next();
             SweepableCellsTable.SweepableCellsColumn col = computeColumn(entry);
             long startTs = getTimestamp(row, col);
             if (knownToBeCommittedAfterSweepTs(startTs, sweepTs)) {
                 writeBatch.add(ImmutableList.of(getWriteInfo(startTs, entry.getValue())));
-                return writeBatch;
+                writeBatch.hasWriteCommittedAfterSweepTs = true;
+                return;
             }
             writeBatch.merge(getWrites(row, col, entry.getValue()));
         }
@@ -210,12 +265,12 @@ public class SweepableCells extends SweepQueueTable {
                 break;
             }
         }
-        return writeBatch;
     }
 
     private static class WriteBatch {
         private final Multimap<Long, WriteInfo> writesByStartTs = HashMultimap.create();
         private final List<SweepableCellsRow> dedicatedRows = new ArrayList<>();
+        private boolean hasWriteCommittedAfterSweepTs = false;
 
         WriteBatch merge(WriteBatch other) {
             writesByStartTs.putAll(other.writesByStartTs);
@@ -77,39 +77,54 @@ public class SweepableTimestamps extends SweepQueueTable {
      * sweepTs
      */
     Optional<Long> nextSweepableTimestampPartition(ShardAndStrategy shardStrategy, long lastSweptTs, long sweepTs) {
+        return nextSweepableTimestampPartitions(shardStrategy, lastSweptTs, sweepTs, 1).stream().findFirst();
+    }
+
+    /**
+     * Returns up to the specified number of fine partitions, in increasing order, that should have unprocessed entries
+     * in the Sweepable Cells table. All returned partitions belong to the first coarse partition that has candidates,
+     * so there are no entries in the Sweepable Cells table between any two consecutive returned partitions.
+     *
+     * @param shardStrategy desired shard and strategy
+     * @param lastSweptTs exclusive minimum timestamp to check for
+     * @param sweepTs exclusive maximum timestamp to check for
+     * @param maxPartitions maximum number of fine partitions to return
+     * @return list of fine partitions, which is empty if there are no more candidates before sweepTs
+     */
+    List<Long> nextSweepableTimestampPartitions(ShardAndStrategy shardStrategy, long lastSweptTs, long sweepTs,
+            int maxPartitions) {
         long minFineInclusive = SweepQueueUtils.tsPartitionFine(lastSweptTs + 1);
         long maxFineInclusive = SweepQueueUtils.tsPartitionFine(sweepTs - 1);
-        return nextSweepablePartition(shardStrategy, minFineInclusive, maxFineInclusive);
+        return nextSweepablePartitions(shardStrategy, minFineInclusive, maxFineInclusive, maxPartitions);
     }
 
-    private Optional<Long> nextSweepablePartition(ShardAndStrategy shardAndStrategy, long minFineInclusive,
-            long maxFineInclusive) {
+    private List<Long> nextSweepablePartitions(ShardAndStrategy shardAndStrategy, long minFineInclusive,
+            long maxFineInclusive, int maxPartitions) {
         ColumnRangeSelection range = getColRangeSelection(minFineInclusive, maxFineInclusive + 1);
 
         long current = SweepQueueUtils.partitionFineToCoarse(minFineInclusive);
         long maxCoarseInclusive = SweepQueueUtils.partitionFineToCoarse(maxFineInclusive);
 
         while (current <= maxCoarseInclusive) {
-            Optional<Long> candidateFine = getCandidatesInCoarsePartition(shardAndStrategy, current, range);
-            if (candidateFine.isPresent()) {
-                return candidateFine;
+            List<Long> candidatesFine = getCandidatesInCoarsePartition(shardAndStrategy, current, range, maxPartitions);
+            if (!candidatesFine.isEmpty()) {
+                return candidatesFine;
             }
             current++;
         }
-        return Optional.empty();
+        return ImmutableList.of();
     }
 
-    private Optional<Long> getCandidatesInCoarsePartition(ShardAndStrategy shardStrategy, long partitionCoarse,
-            ColumnRangeSelection colRange) {
+    private List<Long> getCandidatesInCoarsePartition(ShardAndStrategy shardStrategy, long partitionCoarse,
+            ColumnRangeSelection colRange, int maxPartitions) {
         byte[] rowBytes = computeRowBytes(shardStrategy, partitionCoarse);
 
-        RowColumnRangeIterator colIterator = getRowsColumnRange(ImmutableList.of(rowBytes), colRange, 1);
-        if (!colIterator.hasNext()) {
-            return Optional.empty();
+        RowColumnRangeIterator colIterator = getRowsColumnRange(ImmutableList.of(rowBytes), colRange, maxPartitions);
+        ImmutableList.Builder<Long> candidates = ImmutableList.builder();
+        for (int i = 0; i < maxPartitions && colIterator.hasNext(); i++) {
+            candidates.add(getFinePartitionFromEntry(colIterator.next()));
         }
-        Map.Entry<Cell, Value> firstColumnEntry = colIterator.next();
-
-        return Optional.of(getFinePartitionFromEntry(firstColumnEntry));
+        return candidates.build();
     }
 
     private ColumnRangeSelection getColRangeSelection(long minFineInclusive, long maxFineExclusive) {
@@ -19,9 +19,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
-import java.util.stream.IntStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,11 +27,13 @@ import org.slf4j.LoggerFactory;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.palantir.atlasdb.cache.TimestampCache;
 import com.palantir.atlasdb.cleaner.Follower;
 import com.palantir.atlasdb.keyvalue.api.InsufficientConsistencyException;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.protos.generated.TableMetadataPersistence;
 import com.palantir.atlasdb.sweep.BackgroundSweeper;
+import com.palantir.atlasdb.sweep.CommitTsCache;
 import com.palantir.atlasdb.sweep.Sweeper;
 import com.palantir.atlasdb.sweep.metrics.SweepOutcome;
 import com.palantir.atlasdb.sweep.metrics.TargetedSweepMetrics;
@@ -43,6 +43,7 @@ import com.palantir.atlasdb.util.MetricsManager;
 import com.palantir.atlasdb.util.MetricsManagers;
 import com.palantir.common.concurrent.NamedThreadFactory;
 import com.palantir.common.concurrent.PTExecutors;
+import com.palantir.common.time.SystemClock;
 import com.palantir.exception.NotInitializedException;
 import com.palantir.lock.v2.TimelockService;
 import com.palantir.logsafe.SafeArg;
@@ -52,6 +53,8 @@ public class TargetedSweeper implements MultiTableSweepQueueWriter, BackgroundSw
     private static final Logger log = LoggerFactory.getLogger(TargetedSweeper.class);
     private final Supplier<Boolean> runSweep;
     private final Supplier<Integer> shardsConfig;
+    private final Supplier<Integer> maxPartitionsToBatchConfig;
+    private final Optional<TimestampCache> timestampCache;
     private final List<Follower> followers;
     private final MetricsManager metricsManager;
 
@@ -65,10 +68,13 @@ public class TargetedSweeper implements MultiTableSweepQueueWriter, BackgroundSw
     private volatile boolean isInitialized = false;
 
     private TargetedSweeper(MetricsManager metricsManager, Supplier<Boolean> runSweep, Supplier<Integer> shardsConfig,
+            Supplier<Integer> maxPartitionsToBatchConfig, Optional<TimestampCache> timestampCache,
             int conservativeThreads, int thoroughThreads, List<Follower> followers) {
         this.metricsManager = metricsManager;
         this.runSweep = runSweep;
         this.shardsConfig = shardsConfig;
+        this.maxPartitionsToBatchConfig = maxPartitionsToBatchConfig;
+        this.timestampCache = timestampCache;
         this.conservativeScheduler = new BackgroundSweepScheduler(conservativeThreads,
                 TableMetadataPersistence.SweepStrategy.CONSERVATIVE);
         this.thoroughScheduler = new BackgroundSweepScheduler(thoroughThreads,
@@ -92,13 +98,37 @@ public class TargetedSweeper implements MultiTableSweepQueueWriter, BackgroundSw
      */
     public static TargetedSweeper createUninitialized(MetricsManager metrics, Supplier<Boolean> enabled,
             Supplier<Integer> shardsConfig, int conservativeThreads, int thoroughThreads, List<Follower> followers) {
-        return new TargetedSweeper(metrics, enabled, shardsConfig, conservativeThreads, thoroughThreads, followers);
+        return new TargetedSweeper(metrics, enabled, shardsConfig, () -> 1, Optional.empty(), conservativeThreads,
+                thoroughThreads, followers);
+    }
+
+    /**
+     * Same as {@link #createUninitialized(MetricsManager, Supplier, Supplier, int, int, List)}, but additionally
+     * allowing each iteration of targeted sweep to read from multiple fine partitions of the sweep queue, and caching
+     * commit timestamps in the given cache.
+     *
+     * @param maxPartitionsToBatchConfig live reloadable config specifying the maximum number of fine partitions of the
+     * sweep queue to read from in a single iteration of targeted sweep.
+     * @param timestampCache cache of commit timestamps, which should be shared with the transaction manager.
+     */
+    public static TargetedSweeper createUninitialized(MetricsManager metrics, Supplier<Boolean> enabled,
+            Supplier<Integer> shardsConfig, Supplier<Integer> maxPartitionsToBatchConfig,
+            TimestampCache timestampCache, int conservativeThreads, int thoroughThreads, List<Follower> followers) {
+        return new TargetedSweeper(metrics, enabled, shardsConfig, maxPartitionsToBatchConfig,
+                Optional.of(timestampCache), conservativeThreads, thoroughThreads, followers);
     }
 
     @VisibleForTesting
     static TargetedSweeper createUninitializedForTest(MetricsManager metricsManager, Supplier<Boolean> enabled,
             Supplier<Integer> shards) {
-        return createUninitialized(metricsManager, enabled, shards, 0, 0, ImmutableList.of());
+        return createUninitializedForTest(metricsManager, enabled, shards, () -> 1);
+    }
+
+    @VisibleForTesting
+    static TargetedSweeper createUninitializedForTest(MetricsManager metricsManager, Supplier<Boolean> enabled,
+            Supplier<Integer> shards, Supplier<Integer> maxPartitionsToBatch) {
+        return new TargetedSweeper(metricsManager, enabled, shards, maxPartitionsToBatch, Optional.empty(), 0, 0,
+                ImmutableList.of());
     }
 
     public static TargetedSweeper createUninitializedForTest(Supplier<Integer> shards) {
@@ -140,7 +170,11 @@ public class TargetedSweeper implements MultiTableSweepQueueWriter, BackgroundSw
         Preconditions.checkState(kvs.isInitialized(),
                 "Attempted to initialize targeted sweeper with an uninitialized backing KVS.");
         metrics = TargetedSweepMetrics.create(metricsManager, timelockService, kvs, SweepQueueUtils.REFRESH_TIME);
-        queue = SweepQueue.create(metrics, kvs, timelockService, shardsConfig, transaction, follower);
+        CommitTsCache commitTsCache = timestampCache
+                .map(cache -> CommitTsCache.create(transaction, cache))
+                .orElseGet(() -> CommitTsCache.create(transaction));
+        queue = SweepQueue.create(metrics, kvs, timelockService, shardsConfig, maxPartitionsToBatchConfig,
+                commitTsCache, follower);
         timestampsSupplier = timestamps;
         timeLock = timelockService;
         isInitialized = true;
@@ -164,17 +198,19 @@ public class TargetedSweeper implements MultiTableSweepQueueWriter, BackgroundSw
      * writes from the sweep queue and then update the sweep queue progress accordingly.
      *
      * @param shardStrategy shard and strategy to use
+     * @return the number of timestamps below the sweep timestamp that remain to be swept for the shard and strategy,
+     * or 0 if sweep is disabled
      */
     @SuppressWarnings("checkstyle:RegexpMultiline") // Suppress VisibleForTesting warning
     @VisibleForTesting
-    public void sweepNextBatch(ShardAndStrategy shardStrategy) {
+    public long sweepNextBatch(ShardAndStrategy shardStrategy) {
         assertInitialized();
         if (!runSweep.get()) {
             metrics.registerOccurrenceOf(SweepOutcome.DISABLED);
-            return;
+            return 0L;
         }
         long maxTsExclusive = Sweeper.of(shardStrategy).getSweepTimestamp(timestampsSupplier);
-        queue.sweepNextBatch(shardStrategy, maxTsExclusive);
+        return queue.sweepNextBatch(shardStrategy, maxTsExclusive);
     }
 
     @Override
@@ -194,12 +230,20 @@ public class TargetedSweeper implements MultiTableSweepQueueWriter, BackgroundSw
         }
     }
 
+    /**
+     * Runs a fixed number of background threads sweeping shards of one strategy. Each iteration a thread sweeps one
+     * batch of the shard with the largest known backlog that it can lock, skipping shards recently found to be fully
+     * swept (see {@link ShardBacklogs}). A thread keeps sweeping for as long as the shard it swept is still behind,
+     * and otherwise waits before its next iteration, so that threads concentrate on lagging shards instead of
+     * polling idle ones.
+     */
     private class BackgroundSweepScheduler implements AutoCloseable {
         private final int numThreads;
         private final TableMetadataPersistence.SweepStrategy sweepStrategy;
-        private final AtomicLong counter = new AtomicLong(0);
+        private final ShardBacklogs backlogs = new ShardBacklogs(new SystemClock());
 
         private ScheduledExecutorService executorService;
+        private volatile boolean isClosed = false;
 
         private BackgroundSweepScheduler(int numThreads, TableMetadataPersistence.SweepStrategy sweepStrategy) {
             this.numThreads = numThreads;
@@ -211,16 +255,32 @@ public class TargetedSweeper implements MultiTableSweepQueueWriter, BackgroundSw
                 executorService = PTExecutors
                         .newScheduledThreadPoolExecutor(numThreads, new NamedThreadFactory("Targeted Sweep", true));
                 for (int i = 0; i < numThreads; i++) {
-                    executorService.scheduleWithFixedDelay(this::runOneIteration, 1, 5, TimeUnit.SECONDS);
+                    executorService.scheduleWithFixedDelay(this::runIterationsWhileLagging, 1, 5, TimeUnit.SECONDS);
                 }
             }
         }
 
-        private void runOneIteration() {
+        private void runIterationsWhileLagging() {
+            boolean shardIsLagging = true;
+            while (shardIsLagging && !isClosed) {
+                shardIsLagging = runOneIteration();
+            }
+        }
+
+        /**
+         * Returns true if and only if a batch was swept, and the shard it was swept from still has more to sweep.
+         */
+        private boolean runOneIteration() {
             Optional<TargetedSweeperLock> maybeLock = Optional.empty();
             try {
                 maybeLock = tryToAcquireLockForNextShardAndStrategy();
-                maybeLock.ifPresent(lock -> sweepNextBatch(lock.getShardAndStrategy()));
+                if (!maybeLock.isPresent()) {
+                    return false;
+                }
+                ShardAndStrategy shardStrategy = maybeLock.get().getShardAndStrategy();
+                long timestampsBehind = sweepNextBatch(shardStrategy);
+                backlogs.updateBacklog(shardStrategy.shard(), timestampsBehind);
+                return timestampsBehind > 0;
             } catch (InsufficientConsistencyException e) {
                 metrics.registerOccurrenceOf(SweepOutcome.NOT_ENOUGH_DB_NODES_ONLINE);
                 logException(e, maybeLock);
@@ -234,21 +294,17 @@ public class TargetedSweeper implements MultiTableSweepQueueWriter, BackgroundSw
                     logUnlockException(th, maybeLock);
                 }
             }
+            return false;
         }
 
         private Optional<TargetedSweeperLock> tryToAcquireLockForNextShardAndStrategy() {
-            return IntStream.range(0, queue.getNumShards())
-                    .map(ignore -> getShardAndIncrement())
-                    .mapToObj(shard -> TargetedSweeperLock.tryAcquire(shard, sweepStrategy, timeLock))
+            return backlogs.getShardsInPriorityOrder(queue.getNumShards()).stream()
+                    .map(shard -> TargetedSweeperLock.tryAcquire(shard, sweepStrategy, timeLock))
                     .filter(Optional::isPresent)
                     .map(Optional::get)
                     .findFirst();
         }
 
-        private int getShardAndIncrement() {
-            return (int) (counter.getAndIncrement() % queue.getNumShards());
-        }
-
         private void logException(Throwable th, Optional<TargetedSweeperLock> maybeLock) {
             if (maybeLock.isPresent()) {
                 log.warn("Targeted sweep for {} failed and will be retried later.",
@@ -271,6 +327,7 @@ public class TargetedSweeper implements MultiTableSweepQueueWriter, BackgroundSw
 
         @Override
         public void close() {
+            isClosed = true;
             if (executorService != null) {
                 executorService.shutdown();
             }
@@ -41,4 +41,13 @@ public abstract class TransactionConfig {
     public TransactionRetryStrategy retryStrategy() {
         return TransactionRetryStrategy.Strategies.LEGACY.get();
     }
+
+    /**
+     * If true, serializable transactions record fingerprints of large values they read, rather than the values
+     * themselves, for checking read-write conflicts at commit time.
+     */
+    @Value.Default
+    public boolean compactSerializableReadSets() {
+        return false;
+    }
 }
@@ -0,0 +1,179 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.encoding;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.ColumnRangeSelection;
+import com.palantir.atlasdb.keyvalue.api.RangeRequests;
+import com.palantir.atlasdb.ptobject.EncodingUtils;
+import com.palantir.atlasdb.transaction.impl.TransactionConstants;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+
+/**
+ * Packs the entries of the tickets-encoded transactions table for a block of BLOCK_SIZE consecutive start timestamps
+ * into a single cell, so that the commit timestamp of any start timestamp in the block may be resolved with a single
+ * read of a value that is small enough to be cached.
+ *
+ * BLOCK_SIZE divides {@link TicketsEncodingStrategy#PARTITIONING_QUANTUM} and is a multiple of
+ * {@link TicketsEncodingStrategy#ROWS_PER_QUANTUM}, so the tickets for a block are spread over exactly
+ * ROWS_PER_QUANTUM rows, and in each of these rows occupy a contiguous range of columns; a block can thus be read from
+ * the tickets cells with a single column range read.
+ *
+ * A packed block is encoded as a format version, then a bitmap of the start timestamps in the block that have an
+ * entry, then a bitmap of the start timestamps that were rolled back, and finally the differences between the commit
+ * and start timestamps of committed transactions, in order of start timestamp. The bitmaps are variable length, as
+ * usually only a small fraction of timestamps are start timestamps, and the differences are VAR_LONGs, as they are
+ * expected to be small.
+ *
+ * Blocks are stored in rows named by the bit-wise reversed block index, for the same reasons as in
+ * {@link TicketsEncodingStrategy}.
+ */
+public enum PackedBlocksEncodingStrategy {
+    INSTANCE;
+
+    // DO NOT change the following without a transactions table migration!
+    public static final int BLOCK_SIZE = 10_000;
+    private static final byte FORMAT_VERSION = 1;
+    private static final byte[] PACKED_BLOCK_COLUMN = PtBytes.toBytes("b");
+
+    public long getBlockIndex(long startTimestamp) {
+        return startTimestamp / BLOCK_SIZE;
+    }
+
+    public long getFirstTimestampInBlock(long blockIndex) {
+        return blockIndex * BLOCK_SIZE;
+    }
+
+    public Cell encodeBlockIndexAsCell(long blockIndex) {
+        return Cell.create(PtBytes.toBytes(Long.reverse(blockIndex)), PACKED_BLOCK_COLUMN);
+    }
+
+    public long decodeCellAsBlockIndex(Cell cell) {
+        return Long.reverse(PtBytes.toLong(cell.getRowName()));
+    }
+
+    /**
+     * Returns the rows of the tickets-encoded transactions table holding the entries for the provided block.
+     */
+    public List<byte[]> getTicketsRowsForBlock(long blockIndex) {
+        long firstTimestamp = getFirstTimestampInBlock(blockIndex);
+        return LongStream.range(firstTimestamp, firstTimestamp + TicketsEncodingStrategy.ROWS_PER_QUANTUM)
+                .mapToObj(timestamp -> TicketsEncodingStrategy.INSTANCE.encodeStartTimestampAsCell(timestamp)
+                        .getRowName())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the range of columns in each of the {@link #getTicketsRowsForBlock(long)} holding the entries for the
+     * provided block.
+     */
+    public ColumnRangeSelection getTicketsColumnsForBlock(long blockIndex) {
+        long firstTimestamp = getFirstTimestampInBlock(blockIndex);
+        byte[] startColumn = TicketsEncodingStrategy.INSTANCE.encodeStartTimestampAsCell(firstTimestamp)
+                .getColumnName();
+        byte[] lastColumn = TicketsEncodingStrategy.INSTANCE.encodeStartTimestampAsCell(
+                firstTimestamp + BLOCK_SIZE - 1).getColumnName();
+        return new ColumnRangeSelection(startColumn, RangeRequests.nextLexicographicName(lastColumn));
+    }
+
+    public byte[] encodeBlock(long blockIndex, Map<Long, Long> startToCommitTimestamps) {
+        long firstTimestamp = getFirstTimestampInBlock(blockIndex);
+        long[] commitTimestamps = new long[BLOCK_SIZE];
+        startToCommitTimestamps.forEach((startTimestamp, commitTimestamp) -> {
+            Preconditions.checkArgument(getBlockIndex(startTimestamp) == blockIndex,
+                    "Start timestamp is not in the block being packed",
+                    SafeArg.of("startTimestamp", startTimestamp),
+                    SafeArg.of("blockIndex", blockIndex));
+            commitTimestamps[PackedTransactionBlock.offsetInBlock(startTimestamp)] = commitTimestamp;
+        });
+
+        BitSet present = new BitSet(BLOCK_SIZE);
+        BitSet aborted = new BitSet(BLOCK_SIZE);
+        ByteArrayOutputStream commitOffsets = new ByteArrayOutputStream();
+        for (int offset = 0; offset < BLOCK_SIZE; offset++) {
+            long commitTimestamp = commitTimestamps[offset];
+            if (!PackedTransactionBlock.hasEntry(commitTimestamp)) {
+                continue;
+            }
+            present.set(offset);
+            if (commitTimestamp == TransactionConstants.FAILED_COMMIT_TS) {
+                aborted.set(offset);
+            } else {
+                writeBytes(commitOffsets, EncodingUtils.encodeVarLong(commitTimestamp - (firstTimestamp + offset)));
+            }
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        output.write(FORMAT_VERSION);
+        writeBitSet(output, present);
+        writeBitSet(output, aborted);
+        writeBytes(output, commitOffsets.toByteArray());
+        return output.toByteArray();
+    }
+
+    public PackedTransactionBlock decodeBlock(long blockIndex, byte[] value) {
+        Preconditions.checkArgument(value.length > 0 && value[0] == FORMAT_VERSION,
+                "Unrecognised format of packed transaction block",
+                SafeArg.of("blockIndex", blockIndex));
+        int[] position = {1};
+        BitSet present = readBitSet(value, position);
+        BitSet aborted = readBitSet(value, position);
+
+        long firstTimestamp = getFirstTimestampInBlock(blockIndex);
+        long[] commitTimestamps = new long[BLOCK_SIZE];
+        for (int offset = present.nextSetBit(0); offset >= 0; offset = present.nextSetBit(offset + 1)) {
+            if (aborted.get(offset)) {
+                commitTimestamps[offset] = TransactionConstants.FAILED_COMMIT_TS;
+            } else {
+                commitTimestamps[offset] = firstTimestamp + offset + readVarLong(value, position);
+            }
+        }
+        return new PackedTransactionBlock(blockIndex, commitTimestamps);
+    }
+
+    private static void writeBitSet(ByteArrayOutputStream output, BitSet bitSet) {
+        byte[] bytes = bitSet.toByteArray();
+        writeBytes(output, EncodingUtils.encodeVarLong(bytes.length));
+        writeBytes(output, bytes);
+    }
+
+    private static BitSet readBitSet(byte[] value, int[] position) {
+        int length = (int) readVarLong(value, position);
+        BitSet bitSet = BitSet.valueOf(Arrays.copyOfRange(value, position[0], position[0] + length));
+        position[0] += length;
+        return bitSet;
+    }
+
+    private static long readVarLong(byte[] value, int[] position) {
+        long result = EncodingUtils.decodeVarLong(value, position[0]);
+        position[0] += EncodingUtils.sizeOfVarLong(result);
+        return result;
+    }
+
+    private static void writeBytes(ByteArrayOutputStream output, byte[] bytes) {
+        output.write(bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.encoding;
+
+import javax.annotation.CheckForNull;
+
+import com.palantir.atlasdb.transaction.impl.TransactionConstants;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+
+/**
+ * The decoded contents of a packed block of the transactions table; see {@link PackedBlocksEncodingStrategy}.
+ *
+ * A block only records the transactions that had committed or aborted when it was packed. A start timestamp in the
+ * block that has no entry may still have an entry in the underlying tickets cells.
+ */
+public final class PackedTransactionBlock {
+    private static final long NO_ENTRY = 0L;
+
+    private final long blockIndex;
+    private final long[] commitTimestamps;
+
+    PackedTransactionBlock(long blockIndex, long[] commitTimestamps) {
+        Preconditions.checkArgument(commitTimestamps.length == PackedBlocksEncodingStrategy.BLOCK_SIZE,
+                "Packed transaction block has the wrong size",
+                SafeArg.of("size", commitTimestamps.length));
+        this.blockIndex = blockIndex;
+        this.commitTimestamps = commitTimestamps;
+    }
+
+    public long getBlockIndex() {
+        return blockIndex;
+    }
+
+    /**
+     * Returns the commit timestamp recorded in this block for the provided start timestamp, which may be
+     * {@link TransactionConstants#FAILED_COMMIT_TS} if the transaction was rolled back, or null if this block has no
+     * entry for the start timestamp.
+     */
+    @CheckForNull
+    public Long getCommitTimestamp(long startTimestamp) {
+        Preconditions.checkArgument(
+                PackedBlocksEncodingStrategy.INSTANCE.getBlockIndex(startTimestamp) == blockIndex,
+                "Start timestamp is not in this block",
+                SafeArg.of("startTimestamp", startTimestamp),
+                SafeArg.of("blockIndex", blockIndex));
+        long commitTimestamp = commitTimestamps[offsetInBlock(startTimestamp)];
+        return commitTimestamp == NO_ENTRY ? null : commitTimestamp;
+    }
+
+    static int offsetInBlock(long startTimestamp) {
+        return (int) (startTimestamp % PackedBlocksEncodingStrategy.BLOCK_SIZE);
+    }
+
+    static boolean hasEntry(long commitTimestamp) {
+        return commitTimestamp != NO_ENTRY;
+    }
+}
@@ -57,6 +57,11 @@ public class InstrumentedTimelockService implements TimelockService {
         return executeWithRecord(() -> timelockService.getFreshTimestamps(numTimestampsRequested));
     }
 
+    @Override
+    public long getTimestampForReadOnlyTransaction() {
+        return executeWithRecord(timelockService::getTimestampForReadOnlyTransaction);
+    }
+
     @Override
     public LockImmutableTimestampResponse lockImmutableTimestamp() {
         return executeWithRecord(timelockService::lockImmutableTimestamp);
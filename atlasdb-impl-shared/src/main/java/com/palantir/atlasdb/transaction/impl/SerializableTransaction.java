@@ -16,6 +16,8 @@
 package com.palantir.atlasdb.transaction.impl;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -28,7 +30,11 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.annotation.Nullable;
 
@@ -36,11 +42,13 @@ import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Functions;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -52,6 +60,7 @@ import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
 import com.google.common.collect.Ordering;
 import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
 import com.google.common.primitives.UnsignedBytes;
 import com.palantir.atlasdb.cache.TimestampCache;
 import com.palantir.atlasdb.cleaner.NoOpCleaner;
@@ -96,12 +105,25 @@ import com.palantir.util.Pair;
  * If every table was marked as Serializable then we wouldn't need to also do write write conflict checking.
  * However, it is very common that we will be running in a mixed mode so this implementation does the standard
  * write/write conflict checking as well as preventing read/write conflicts to attain serializability.
+ * <p>
+ * If {@link TransactionConfig#compactSerializableReadSets()} is set, values of {@link #FINGERPRINT_SIZE_BYTES} or more
+ * bytes are not kept in the read set; only a fingerprint of each value is, and values read at commit time are
+ * fingerprinted in the same way before being compared. Memory use then depends on the number of cells read rather than
+ * on the size of their values.
  */
 public class SerializableTransaction extends SnapshotTransaction {
     private static final Logger log = LoggerFactory.getLogger(SerializableTransaction.class);
 
     private static final int BATCH_SIZE = 1000;
 
+    /**
+     * Values at least this long are replaced by a fingerprint of exactly this length when reads are recorded compactly.
+     * Shorter values are recorded as they are, so a recorded value can never be mistaken for a fingerprint.
+     */
+    static final int FINGERPRINT_SIZE_BYTES = 16;
+
+    private static final Comparator<byte[]> ROW_COMPARATOR = UnsignedBytes.lexicographicalComparator();
+
     final ConcurrentMap<TableReference, ConcurrentNavigableMap<Cell, byte[]>> readsByTable = Maps.newConcurrentMap();
     final ConcurrentMap<TableReference, ConcurrentMap<RangeRequest, byte[]>> rangeEndByTable = Maps.newConcurrentMap();
     final ConcurrentMap<TableReference, ConcurrentMap<ByteBuffer, ConcurrentMap<BatchColumnRangeSelection, byte[]>>>
@@ -109,6 +131,8 @@ public class SerializableTransaction extends SnapshotTransaction {
     final ConcurrentMap<TableReference, Set<Cell>> cellsRead = Maps.newConcurrentMap();
     final ConcurrentMap<TableReference, Set<RowRead>> rowsRead = Maps.newConcurrentMap();
 
+    private final boolean compactReadSets;
+
     public SerializableTransaction(MetricsManager metricsManager,
                                    KeyValueService keyValueService,
                                    TimelockService timelockService,
@@ -153,6 +177,7 @@ public class SerializableTransaction extends SnapshotTransaction {
               deleteExecutor,
               validateLocksOnReads,
               transactionConfig);
+        this.compactReadSets = transactionConfig.get().compactSerializableReadSets();
     }
 
     @Override
@@ -315,11 +340,31 @@ public class SerializableTransaction extends SnapshotTransaction {
         return map;
     }
 
+    private Map<Cell, byte[]> toRecordedValues(Map<Cell, byte[]> values) {
+        Map<Cell, byte[]> transformed = transformGetsForTesting(values);
+        if (!compactReadSets) {
+            return transformed;
+        }
+        return Maps.transformValues(transformed, SerializableTransaction::fingerprintIfLarge);
+    }
+
+    private byte[] toRecordedValue(byte[] value) {
+        return compactReadSets ? fingerprintIfLarge(value) : value;
+    }
+
+    @VisibleForTesting
+    static byte[] fingerprintIfLarge(byte[] value) {
+        if (value.length < FINGERPRINT_SIZE_BYTES) {
+            return value;
+        }
+        return Arrays.copyOf(Hashing.sha256().hashBytes(value).asBytes(), FINGERPRINT_SIZE_BYTES);
+    }
+
     private void markCellsRead(TableReference table, Set<Cell> searched, Map<Cell, byte[]> result) {
         if (!isSerializableTable(table)) {
             return;
         }
-        getReadsForTable(table).putAll(transformGetsForTesting(result));
+        getReadsForTable(table).putAll(toRecordedValues(result));
         Set<Cell> cellsForTable = cellsRead.computeIfAbsent(table, unused -> Sets.newConcurrentHashSet());
         cellsForTable.addAll(searched);
     }
@@ -331,8 +376,7 @@ public class SerializableTransaction extends SnapshotTransaction {
         ConcurrentNavigableMap<Cell, byte[]> reads = getReadsForTable(table);
         for (RowResult<byte[]> row : result) {
             Map<Cell, byte[]> map = Maps2.fromEntries(row.getCells());
-            map = transformGetsForTesting(map);
-            reads.putAll(map);
+            reads.putAll(toRecordedValues(map));
         }
         setRangeEnd(table, range, Iterables.getLast(result).getRowName());
     }
@@ -347,7 +391,7 @@ public class SerializableTransaction extends SnapshotTransaction {
         }
         ConcurrentNavigableMap<Cell, byte[]> reads = getReadsForTable(table);
         Map<Cell, byte[]> map = Maps2.fromEntries(result);
-        reads.putAll(transformGetsForTesting(map));
+        reads.putAll(toRecordedValues(map));
         setColumnRangeEnd(table, row, range, Iterables.getLast(result).getKey().getColumnName());
     }
 
@@ -372,7 +416,7 @@ public class SerializableTransaction extends SnapshotTransaction {
         ConcurrentNavigableMap<Cell, byte[]> reads = getReadsForTable(table);
         for (RowResult<byte[]> row : result) {
             Map<Cell, byte[]> map = Maps2.fromEntries(row.getCells());
-            reads.putAll(transformGetsForTesting(map));
+            reads.putAll(toRecordedValues(map));
         }
 
         Set<RowRead> rowReads = rowsRead.computeIfAbsent(table, unused -> Sets.newConcurrentHashSet());
@@ -405,13 +449,80 @@ public class SerializableTransaction extends SnapshotTransaction {
     @Override
     protected void throwIfReadWriteConflictForSerializable(long commitTimestamp) {
         Transaction ro = getReadOnlyTransaction(commitTimestamp);
-        verifyRanges(ro);
-        verifyColumnRanges(ro);
-        verifyCells(ro);
-        verifyRows(ro);
+        List<Runnable> checks = Lists.newArrayList();
+        addRangeChecks(ro, checks);
+        addColumnRangeChecks(ro, checks);
+        addCellChecks(ro, checks);
+        addRowChecks(ro, checks);
+        runConflictChecks(checks);
     }
 
-    private void verifyRows(Transaction ro) {
+    /**
+     * Runs the given checks, each of which re-reads part of our read set and throws if it changed, on up to
+     * {@link #defaultGetRangesConcurrency} threads. The calling thread takes part too, so the checks complete even if
+     * the executor is saturated. Once a check fails, no further checks are started, and its exception is rethrown
+     * once the checks already in progress have completed.
+     */
+    private void runConflictChecks(List<Runnable> checks) {
+        int parallelism = Math.min(defaultGetRangesConcurrency, checks.size());
+        if (parallelism <= 1) {
+            checks.forEach(Runnable::run);
+            return;
+        }
+
+        ConflictChecks conflictChecks = new ConflictChecks(checks);
+        for (int i = 1; i < parallelism; i++) {
+            try {
+                getRangesExecutor.execute(conflictChecks::runUntilDone);
+            } catch (RejectedExecutionException e) {
+                break;
+            }
+        }
+        conflictChecks.runUntilDone();
+        conflictChecks.awaitCompletion();
+    }
+
+    private static final class ConflictChecks {
+        private final List<Runnable> checks;
+        private final AtomicInteger nextCheck = new AtomicInteger();
+        private final CountDownLatch completedChecks;
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        ConflictChecks(List<Runnable> checks) {
+            this.checks = checks;
+            this.completedChecks = new CountDownLatch(checks.size());
+        }
+
+        void runUntilDone() {
+            for (int index = nextCheck.getAndIncrement(); index < checks.size(); index = nextCheck.getAndIncrement()) {
+                try {
+                    if (failure.get() == null) {
+                        checks.get(index).run();
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                } finally {
+                    completedChecks.countDown();
+                }
+            }
+        }
+
+        void awaitCompletion() {
+            try {
+                completedChecks.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+            Throwable error = failure.get();
+            if (error != null) {
+                Throwables.throwIfUnchecked(error);
+                throw new RuntimeException(error);
+            }
+        }
+    }
+
+    private void addRowChecks(Transaction ro, List<Runnable> checks) {
         for (Map.Entry<TableReference, Set<RowRead>> tableAndRowsEntry : rowsRead.entrySet()) {
             TableReference table = tableAndRowsEntry.getKey();
             Set<RowRead> rows = tableAndRowsEntry.getValue();
@@ -424,7 +535,9 @@ public class SerializableTransaction extends SnapshotTransaction {
                 rowsReadByColumns.putAll(r.cols, r.rows);
             }
             for (ColumnSelection cols : rowsReadByColumns.keySet()) {
-                verifyColumns(ro, table, readsForTable, rowsReadByColumns, cols);
+                for (List<byte[]> batch : Iterables.partition(rowsReadByColumns.get(cols), BATCH_SIZE)) {
+                    checks.add(() -> verifyColumns(ro, table, readsForTable, batch, cols));
+                }
             }
 
         }
@@ -434,50 +547,49 @@ public class SerializableTransaction extends SnapshotTransaction {
             Transaction ro,
             TableReference table,
             ConcurrentNavigableMap<Cell, byte[]> readsForTable,
-            Multimap<ColumnSelection, byte[]> rowsReadByColumns,
+            List<byte[]> batch,
             ColumnSelection columns) {
-        for (List<byte[]> batch : Iterables.partition(rowsReadByColumns.get(columns), BATCH_SIZE)) {
-            SortedMap<byte[], RowResult<byte[]>> currentRows = ro.getRows(table, batch, columns);
-            for (byte[] row : batch) {
-                RowResult<byte[]> currentRow = currentRows.get(row);
-                Map<Cell, byte[]> orignalReads = readsForTable
-                        .tailMap(Cells.createSmallestCellForRow(row), true)
-                        .headMap(Cells.createLargestCellForRow(row), true);
-
-                // We want to filter out all our reads to just the set that matches our column selection.
-                orignalReads = Maps.filterKeys(orignalReads, input -> columns.contains(input.getColumnName()));
-
-                if (writesByTable.get(table) != null) {
-                    // We don't want to verify any reads that we wrote to cause
-                    // we will just read our own values.
-                    // NB: We filter our write set out here because our normal SI
-                    // checking handles this case to ensure the value hasn't changed.
-                    orignalReads = Maps.filterKeys(
-                            orignalReads,
-                            Predicates.not(Predicates.in(writesByTable.get(table).keySet())));
-                }
+        SortedMap<byte[], RowResult<byte[]>> currentRows = ro.getRows(table, batch, columns);
+        for (byte[] row : batch) {
+            RowResult<byte[]> currentRow = currentRows.get(row);
+            Map<Cell, byte[]> orignalReads = readsForTable
+                    .tailMap(Cells.createSmallestCellForRow(row), true)
+                    .headMap(Cells.createLargestCellForRow(row), true);
+
+            // We want to filter out all our reads to just the set that matches our column selection.
+            orignalReads = Maps.filterKeys(orignalReads, input -> columns.contains(input.getColumnName()));
+
+            if (writesByTable.get(table) != null) {
+                // We don't want to verify any reads that we wrote to cause
+                // we will just read our own values.
+                // NB: We filter our write set out here because our normal SI
+                // checking handles this case to ensure the value hasn't changed.
+                orignalReads = Maps.filterKeys(
+                        orignalReads,
+                        Predicates.not(Predicates.in(writesByTable.get(table).keySet())));
+            }
 
-                if (currentRow == null && orignalReads.isEmpty()) {
-                    continue;
-                }
+            if (currentRow == null && orignalReads.isEmpty()) {
+                continue;
+            }
 
-                if (currentRow == null) {
-                    handleTransactionConflict(table);
-                }
+            if (currentRow == null) {
+                handleTransactionConflict(table);
+            }
 
-                Map<Cell, byte[]> currentCells = Maps2.fromEntries(currentRow.getCells());
-                if (writesByTable.get(table) != null) {
-                    // We don't want to verify any reads that we wrote to cause
-                    // we will just read our own values.
-                    // NB: We filter our write set out here because our normal SI
-                    // checking handles this case to ensure the value hasn't changed.
-                    currentCells = Maps.filterKeys(
-                            currentCells,
-                            Predicates.not(Predicates.in(writesByTable.get(table).keySet())));
-                }
-                if (!areMapsEqual(orignalReads, currentCells)) {
-                    handleTransactionConflict(table);
-                }
+            Map<Cell, byte[]> currentCells = Maps.transformValues(
+                    Maps2.fromEntries(currentRow.getCells()), this::toRecordedValue);
+            if (writesByTable.get(table) != null) {
+                // We don't want to verify any reads that we wrote to cause
+                // we will just read our own values.
+                // NB: We filter our write set out here because our normal SI
+                // checking handles this case to ensure the value hasn't changed.
+                currentCells = Maps.filterKeys(
+                        currentCells,
+                        Predicates.not(Predicates.in(writesByTable.get(table).keySet())));
+            }
+            if (!areMapsEqual(orignalReads, currentCells)) {
+                handleTransactionConflict(table);
             }
         }
     }
@@ -497,36 +609,46 @@ public class SerializableTransaction extends SnapshotTransaction {
         return true;
     }
 
-    private void verifyCells(Transaction readOnlyTransaction) {
+    private void addCellChecks(Transaction readOnlyTransaction, List<Runnable> checks) {
         for (Entry<TableReference, Set<Cell>> tableAndCellsEntry : cellsRead.entrySet()) {
             TableReference table = tableAndCellsEntry.getKey();
             Set<Cell> cells = tableAndCellsEntry.getValue();
 
             final ConcurrentNavigableMap<Cell, byte[]> readsForTable = getReadsForTable(table);
-            for (Iterable<Cell> batch : Iterables.partition(cells, BATCH_SIZE)) {
-                // We don't want to verify any reads that we wrote to cause we will just read our own values.
-                // NB: If the value has changed between read and write, our normal SI checking handles this case
-                Iterable<Cell> batchWithoutWrites = writesByTable.get(table) != null
-                        ? Iterables.filter(batch, Predicates.not(Predicates.in(writesByTable.get(table).keySet())))
-                        : batch;
-                ImmutableSet<Cell> batchWithoutWritesSet = ImmutableSet.copyOf(batchWithoutWrites);
-                Map<Cell, byte[]> currentBatch = readOnlyTransaction.get(table, batchWithoutWritesSet);
-                ImmutableMap<Cell, byte[]> originalReads = Maps.toMap(
-                        Sets.intersection(batchWithoutWritesSet, readsForTable.keySet()),
-                        Functions.forMap(readsForTable));
-                if (!areMapsEqual(currentBatch, originalReads)) {
-                    handleTransactionConflict(table);
-                }
+            for (List<Cell> batch : Iterables.partition(cells, BATCH_SIZE)) {
+                checks.add(() -> verifyCells(readOnlyTransaction, table, readsForTable, batch));
             }
         }
     }
 
-    private void verifyRanges(Transaction readOnlyTransaction) {
+    private void verifyCells(
+            Transaction readOnlyTransaction,
+            TableReference table,
+            ConcurrentNavigableMap<Cell, byte[]> readsForTable,
+            List<Cell> batch) {
+        // We don't want to verify any reads that we wrote to cause we will just read our own values.
+        // NB: If the value has changed between read and write, our normal SI checking handles this case
+        Iterable<Cell> batchWithoutWrites = writesByTable.get(table) != null
+                ? Iterables.filter(batch, Predicates.not(Predicates.in(writesByTable.get(table).keySet())))
+                : batch;
+        ImmutableSet<Cell> batchWithoutWritesSet = ImmutableSet.copyOf(batchWithoutWrites);
+        Map<Cell, byte[]> currentBatch = Maps.transformValues(
+                readOnlyTransaction.get(table, batchWithoutWritesSet), this::toRecordedValue);
+        ImmutableMap<Cell, byte[]> originalReads = Maps.toMap(
+                Sets.intersection(batchWithoutWritesSet, readsForTable.keySet()),
+                Functions.forMap(readsForTable));
+        if (!areMapsEqual(currentBatch, originalReads)) {
+            handleTransactionConflict(table);
+        }
+    }
+
+    private void addRangeChecks(Transaction readOnlyTransaction, List<Runnable> checks) {
         // verify each set of reads to ensure they are the same.
         for (Entry<TableReference, ConcurrentMap<RangeRequest, byte[]>> tableAndRange : rangeEndByTable.entrySet()) {
             TableReference table = tableAndRange.getKey();
             Map<RangeRequest, byte[]> rangeEnds = tableAndRange.getValue();
 
+            List<RangeRequest> rangesRead = Lists.newArrayListWithExpectedSize(rangeEnds.size());
             for (Entry<RangeRequest, byte[]> rangeAndRangeEndEntry : rangeEnds.entrySet()) {
                 RangeRequest range = rangeAndRangeEndEntry.getKey();
                 byte[] rangeEnd = rangeAndRangeEndEntry.getValue();
@@ -536,18 +658,73 @@ public class SerializableTransaction extends SnapshotTransaction {
                             .endRowExclusive(RangeRequests.getNextStartRow(range.isReverse(), rangeEnd))
                             .build();
                 }
+                rangesRead.add(range);
+            }
 
-                ConcurrentNavigableMap<Cell, byte[]> writes = writesByTable.get(table);
-                BatchingVisitableView<RowResult<byte[]>> bv = BatchingVisitableView.of(
-                        readOnlyTransaction.getRange(table, range));
-                NavigableMap<Cell, ByteBuffer> readsInRange = Maps.transformValues(
-                        getReadsInRange(table, range),
-                        ByteBuffer::wrap);
-                if (!bv.transformBatch(input -> filterWritesFromRows(input, writes)).isEqual(readsInRange.entrySet())) {
-                    handleTransactionConflict(table);
-                }
+            for (RangeRequest range : mergeOverlappingRanges(rangesRead)) {
+                checks.add(() -> verifyRange(readOnlyTransaction, table, range));
+            }
+        }
+    }
+
+    private void verifyRange(Transaction readOnlyTransaction, TableReference table, RangeRequest range) {
+        ConcurrentNavigableMap<Cell, byte[]> writes = writesByTable.get(table);
+        BatchingVisitableView<RowResult<byte[]>> bv = BatchingVisitableView.of(
+                readOnlyTransaction.getRange(table, range));
+        NavigableMap<Cell, ByteBuffer> readsInRange = Maps.transformValues(
+                getReadsInRange(table, range),
+                ByteBuffer::wrap);
+        if (!bv.transformBatch(input -> filterWritesFromRows(input, writes)).isEqual(readsInRange.entrySet())) {
+            handleTransactionConflict(table);
+        }
+    }
+
+    /**
+     * Merges forward ranges over all columns that overlap or abut into single ranges, so that rows read by several
+     * ranges are only read once more at commit time. Other ranges are returned unchanged.
+     */
+    @VisibleForTesting
+    static List<RangeRequest> mergeOverlappingRanges(List<RangeRequest> ranges) {
+        List<RangeRequest> result = Lists.newArrayList();
+        List<RangeRequest> mergeable = Lists.newArrayList();
+        for (RangeRequest range : ranges) {
+            if (range.isReverse() || !range.getColumnNames().isEmpty()) {
+                result.add(range);
+            } else {
+                mergeable.add(range);
+            }
+        }
+        mergeable.sort(Comparator.comparing(RangeRequest::getStartInclusive, ROW_COMPARATOR));
+
+        RangeRequest current = null;
+        for (RangeRequest range : mergeable) {
+            if (current == null) {
+                current = range;
+            } else if (overlapsOrAbuts(current, range)) {
+                current = current.getBuilder()
+                        .endRowExclusive(maxEnd(current.getEndExclusive(), range.getEndExclusive()))
+                        .build();
+            } else {
+                result.add(current);
+                current = range;
             }
         }
+        if (current != null) {
+            result.add(current);
+        }
+        return result;
+    }
+
+    private static boolean overlapsOrAbuts(RangeRequest earlier, RangeRequest later) {
+        byte[] earlierEnd = earlier.getEndExclusive();
+        return earlierEnd.length == 0 || ROW_COMPARATOR.compare(later.getStartInclusive(), earlierEnd) <= 0;
+    }
+
+    private static byte[] maxEnd(byte[] first, byte[] second) {
+        if (first.length == 0 || second.length == 0) {
+            return PtBytes.EMPTY_BYTE_ARRAY;
+        }
+        return ROW_COMPARATOR.compare(first, second) >= 0 ? first : second;
     }
 
     private NavigableMap<Cell, byte[]> getReadsInColumnRangeSkippingWrites(
@@ -574,7 +751,7 @@ public class SerializableTransaction extends SnapshotTransaction {
         return reads;
     }
 
-    private void verifyColumnRanges(Transaction readOnlyTransaction) {
+    private void addColumnRangeChecks(Transaction readOnlyTransaction, List<Runnable> checks) {
         // verify each set of reads to ensure they are the same.
         for (Entry<TableReference,
                 ConcurrentMap<ByteBuffer, ConcurrentMap<BatchColumnRangeSelection, byte[]>>> tableAndColumnRangeEnds :
@@ -596,24 +773,31 @@ public class SerializableTransaction extends SnapshotTransaction {
             }
 
             TableReference table = tableAndColumnRangeEnds.getKey();
-            rangesToRows.asMap().forEach((columnRange, rows) -> {
-                Map<byte[], BatchingVisitable<Map.Entry<Cell, byte[]>>> result =
-                        readOnlyTransaction.getRowsColumnRange(table, rows, columnRange);
-
-                for (Entry<byte[], BatchingVisitable<Map.Entry<Cell, byte[]>>> cellValuesForRow : result.entrySet()) {
-                    byte[] row = cellValuesForRow.getKey();
-                    BatchingVisitableView<Entry<Cell, byte[]>> visitable =
-                            BatchingVisitableView.of(cellValuesForRow.getValue());
-                    NavigableMap<Cell, ByteBuffer> readsInRange = Maps.transformValues(
-                            getReadsInColumnRangeSkippingWrites(table, row, columnRange),
-                            ByteBuffer::wrap);
-                    boolean isEqual = visitable.transformBatch(cellValues -> filterWritesFromCells(cellValues, table))
-                            .isEqual(readsInRange.entrySet());
-                    if (!isEqual) {
-                        handleTransactionConflict(table);
-                    }
-                }
-            });
+            rangesToRows.asMap().forEach((columnRange, rows) ->
+                    checks.add(() -> verifyColumnRange(readOnlyTransaction, table, rows, columnRange)));
+        }
+    }
+
+    private void verifyColumnRange(
+            Transaction readOnlyTransaction,
+            TableReference table,
+            Iterable<byte[]> rows,
+            BatchColumnRangeSelection columnRange) {
+        Map<byte[], BatchingVisitable<Map.Entry<Cell, byte[]>>> result =
+                readOnlyTransaction.getRowsColumnRange(table, rows, columnRange);
+
+        for (Entry<byte[], BatchingVisitable<Map.Entry<Cell, byte[]>>> cellValuesForRow : result.entrySet()) {
+            byte[] row = cellValuesForRow.getKey();
+            BatchingVisitableView<Entry<Cell, byte[]>> visitable =
+                    BatchingVisitableView.of(cellValuesForRow.getValue());
+            NavigableMap<Cell, ByteBuffer> readsInRange = Maps.transformValues(
+                    getReadsInColumnRangeSkippingWrites(table, row, columnRange),
+                    ByteBuffer::wrap);
+            boolean isEqual = visitable.transformBatch(cellValues -> filterWritesFromCells(cellValues, table))
+                    .isEqual(readsInRange.entrySet());
+            if (!isEqual) {
+                handleTransactionConflict(table);
+            }
         }
     }
 
@@ -636,7 +820,7 @@ public class SerializableTransaction extends SnapshotTransaction {
         return filterWritesFromCells(cells, writesByTable.get(table));
     }
 
-    private static List<Entry<Cell, ByteBuffer>> filterWritesFromCells(
+    private List<Entry<Cell, ByteBuffer>> filterWritesFromCells(
             Iterable<Entry<Cell, byte[]>> cells,
             @Nullable Map<Cell, byte[]> writes) {
         List<Entry<Cell, ByteBuffer>> cellsWithoutWrites = Lists.newArrayList();
@@ -644,7 +828,9 @@ public class SerializableTransaction extends SnapshotTransaction {
             // NB: We filter our write set out here because our normal SI
             // checking handles this case to ensure the value hasn't changed.
             if (writes == null || !writes.containsKey(cell.getKey())) {
-                cellsWithoutWrites.add(Maps.immutableEntry(cell.getKey(), ByteBuffer.wrap(cell.getValue())));
+                cellsWithoutWrites.add(Maps.immutableEntry(
+                        cell.getKey(),
+                        ByteBuffer.wrap(toRecordedValue(cell.getValue()))));
             }
         }
         return cellsWithoutWrites;
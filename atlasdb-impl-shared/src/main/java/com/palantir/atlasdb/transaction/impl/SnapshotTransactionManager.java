@@ -346,7 +346,7 @@ import com.palantir.timestamp.TimestampService;
 
     private Supplier<Long> getStartTimestampSupplier() {
         return Suppliers.memoize(() -> {
-            long freshTimestamp = timelockService.getFreshTimestamp();
+            long freshTimestamp = timelockService.getTimestampForReadOnlyTransaction();
             cleaner.punch(freshTimestamp);
             return freshTimestamp;
         });
@@ -0,0 +1,235 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.annotation.CheckForNull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.RowColumnRangeIterator;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.transaction.encoding.PackedBlocksEncodingStrategy;
+import com.palantir.atlasdb.transaction.encoding.PackedTransactionBlock;
+import com.palantir.atlasdb.transaction.encoding.TicketsEncodingStrategy;
+import com.palantir.atlasdb.transaction.impl.TransactionConstants;
+import com.palantir.logsafe.SafeArg;
+
+/**
+ * A {@link TransactionService} for the packed tickets transactions schema. Writes go to the tickets-encoded
+ * _transactions2 table, exactly as in the tickets schema. Once all transactions starting in a block of
+ * {@link PackedBlocksEncodingStrategy#BLOCK_SIZE} timestamps have finished, the block is packed into a single cell of
+ * the _transactions2_packed table the first time it is read, and subsequent lookups for any start timestamp in the
+ * block are served by reading (and caching) that one cell.
+ *
+ * Entries in the transactions table are never changed once written, so a packed block is always consistent with the
+ * tickets cells, although it may be missing entries that were written after it was packed. Lookups for start
+ * timestamps that have no entry in their packed block thus fall back to the tickets cells, which are retained.
+ *
+ * Whether a block may be packed is determined by the packing bound, a timestamp below which all transactions are
+ * expected to have finished (such as the immutable timestamp). Packing a block too early only means that more
+ * lookups fall back to the tickets cells. Blocks that are not below the packing bound are looked up in the tickets
+ * cells directly, so lookups of recent transactions are not slowed down.
+ */
+public final class PackedBlocksTransactionService implements TransactionService {
+    private static final Logger log = LoggerFactory.getLogger(PackedBlocksTransactionService.class);
+
+    // All entries in transaction tables are stored with timestamp 0
+    private static final long MAX_TIMESTAMP = 1L;
+    private static final int MAXIMUM_CACHED_BLOCKS = 64;
+    private static final int MAXIMUM_BLOCKS_PACKED_PER_READ = 1;
+    private static final int TICKETS_CELL_BATCH_HINT = 1_000;
+    private static final long PACKING_BOUND_REFRESH_MILLIS = 10_000;
+
+    private final KeyValueService kvs;
+    private final TransactionService ticketsService;
+    private final Supplier<Long> packingBound;
+    private final PackedBlocksEncodingStrategy strategy = PackedBlocksEncodingStrategy.INSTANCE;
+    private final Cache<Long, PackedTransactionBlock> packedBlocks =
+            Caffeine.newBuilder().maximumSize(MAXIMUM_CACHED_BLOCKS).build();
+
+    @VisibleForTesting
+    PackedBlocksTransactionService(
+            KeyValueService kvs, TransactionService ticketsService, Supplier<Long> packingBound) {
+        this.kvs = kvs;
+        this.ticketsService = ticketsService;
+        this.packingBound = packingBound;
+    }
+
+    /**
+     * Creates a packed tickets transaction service.
+     *
+     * @param kvs key value service holding the transactions tables
+     * @param ticketsService transaction service for the tickets-encoded _transactions2 table
+     * @param packingBound timestamp below which all transactions are expected to have finished; this is only
+     * queried periodically
+     */
+    public static TransactionService create(
+            KeyValueService kvs, TransactionService ticketsService, LongSupplier packingBound) {
+        return new PackedBlocksTransactionService(kvs, ticketsService, Suppliers.memoizeWithExpiration(
+                () -> getPackingBound(packingBound), PACKING_BOUND_REFRESH_MILLIS, TimeUnit.MILLISECONDS)::get);
+    }
+
+    @CheckForNull
+    @Override
+    public Long get(long startTimestamp) {
+        return get(ImmutableList.of(startTimestamp)).get(startTimestamp);
+    }
+
+    @Override
+    public Map<Long, Long> get(Iterable<Long> startTimestamps) {
+        long bound = packingBound.get();
+        Map<Long, List<Long>> closedBlocks = new HashMap<>();
+        List<Long> unresolved = new ArrayList<>();
+        for (Long startTimestamp : startTimestamps) {
+            long blockIndex = strategy.getBlockIndex(startTimestamp);
+            if (isClosed(blockIndex, bound)) {
+                closedBlocks.computeIfAbsent(blockIndex, unused -> new ArrayList<>()).add(startTimestamp);
+            } else {
+                unresolved.add(startTimestamp);
+            }
+        }
+
+        Map<Long, Long> result = new HashMap<>();
+        Map<Long, PackedTransactionBlock> blocks = getPackedBlocks(closedBlocks.keySet());
+        int blocksPacked = 0;
+        for (Map.Entry<Long, List<Long>> blockAndTimestamps : closedBlocks.entrySet()) {
+            PackedTransactionBlock block = blocks.get(blockAndTimestamps.getKey());
+            if (block == null && blocksPacked < MAXIMUM_BLOCKS_PACKED_PER_READ) {
+                block = packBlock(blockAndTimestamps.getKey());
+                blocksPacked++;
+            }
+            for (Long startTimestamp : blockAndTimestamps.getValue()) {
+                Long commitTimestamp = block == null ? null : block.getCommitTimestamp(startTimestamp);
+                if (commitTimestamp != null) {
+                    result.put(startTimestamp, commitTimestamp);
+                } else {
+                    unresolved.add(startTimestamp);
+                }
+            }
+        }
+
+        if (!unresolved.isEmpty()) {
+            result.putAll(ticketsService.get(unresolved));
+        }
+        return result;
+    }
+
+    @Override
+    public void putUnlessExists(long startTimestamp, long commitTimestamp) throws KeyAlreadyExistsException {
+        ticketsService.putUnlessExists(startTimestamp, commitTimestamp);
+    }
+
+    @Override
+    public void putUnlessExistsMultiple(Map<Long, Long> startTimestampToCommitTimestamp) {
+        ticketsService.putUnlessExistsMultiple(startTimestampToCommitTimestamp);
+    }
+
+    @Override
+    public void close() {
+        ticketsService.close();
+    }
+
+    private boolean isClosed(long blockIndex, long bound) {
+        return strategy.getFirstTimestampInBlock(blockIndex + 1) <= bound;
+    }
+
+    private Map<Long, PackedTransactionBlock> getPackedBlocks(Set<Long> blockIndices) {
+        if (blockIndices.isEmpty()) {
+            return ImmutableMap.of();
+        }
+        Map<Long, PackedTransactionBlock> blocks = new HashMap<>(packedBlocks.getAllPresent(blockIndices));
+        Map<Cell, Long> cellsToLoad = blockIndices.stream()
+                .filter(blockIndex -> !blocks.containsKey(blockIndex))
+                .collect(Collectors.toMap(strategy::encodeBlockIndexAsCell, unused -> MAX_TIMESTAMP));
+        if (cellsToLoad.isEmpty()) {
+            return blocks;
+        }
+
+        for (Map.Entry<Cell, Value> entry : kvs.get(TransactionConstants.TRANSACTIONS2_PACKED_TABLE, cellsToLoad)
+                .entrySet()) {
+            long blockIndex = strategy.decodeCellAsBlockIndex(entry.getKey());
+            PackedTransactionBlock block = strategy.decodeBlock(blockIndex, entry.getValue().getContents());
+            packedBlocks.put(blockIndex, block);
+            blocks.put(blockIndex, block);
+        }
+        return blocks;
+    }
+
+    private PackedTransactionBlock packBlock(long blockIndex) {
+        RowColumnRangeIterator tickets = kvs.getRowsColumnRange(
+                TransactionConstants.TRANSACTIONS2_TABLE,
+                strategy.getTicketsRowsForBlock(blockIndex),
+                strategy.getTicketsColumnsForBlock(blockIndex),
+                TICKETS_CELL_BATCH_HINT,
+                MAX_TIMESTAMP);
+        Map<Long, Long> entries = new HashMap<>();
+        tickets.forEachRemaining(entry -> {
+            long startTimestamp = TicketsEncodingStrategy.INSTANCE.decodeCellAsStartTimestamp(entry.getKey());
+            entries.put(startTimestamp, TicketsEncodingStrategy.INSTANCE.decodeValueAsCommitTimestamp(
+                    startTimestamp, entry.getValue().getContents()));
+        });
+
+        byte[] packedBlock = strategy.encodeBlock(blockIndex, entries);
+        try {
+            kvs.putUnlessExists(TransactionConstants.TRANSACTIONS2_PACKED_TABLE,
+                    ImmutableMap.of(strategy.encodeBlockIndexAsCell(blockIndex), packedBlock));
+            log.debug("Packed block {} of the transactions table, which has {} entries, into {} bytes.",
+                    SafeArg.of("blockIndex", blockIndex),
+                    SafeArg.of("entries", entries.size()),
+                    SafeArg.of("bytes", packedBlock.length));
+        } catch (KeyAlreadyExistsException e) {
+            // Another client packed this block concurrently. Either version only holds entries that are present in
+            // the tickets cells, so we may use our own.
+            log.debug("Block {} of the transactions table was packed concurrently.",
+                    SafeArg.of("blockIndex", blockIndex));
+        }
+
+        PackedTransactionBlock block = strategy.decodeBlock(blockIndex, packedBlock);
+        packedBlocks.put(blockIndex, block);
+        return block;
+    }
+
+    private static long getPackingBound(LongSupplier packingBound) {
+        try {
+            return packingBound.getAsLong();
+        } catch (RuntimeException e) {
+            log.info("Failed to determine which blocks of the transactions table may be packed; not reading or"
+                    + " packing blocks until this next succeeds.", e);
+            return AtlasDbConstants.STARTING_TS;
+        }
+    }
+}
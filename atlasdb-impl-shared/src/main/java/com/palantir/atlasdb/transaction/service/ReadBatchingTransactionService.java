@@ -0,0 +1,147 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.transaction.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+import javax.annotation.CheckForNull;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.palantir.atlasdb.autobatch.AutobatcherMetrics;
+import com.palantir.atlasdb.autobatch.BatchElement;
+import com.palantir.atlasdb.autobatch.BatchingPolicy;
+import com.palantir.atlasdb.autobatch.DisruptorAutobatcher;
+import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
+
+/**
+ * This class coalesces read (that is, get) requests to an underlying {@link TransactionService}, such that there
+ * is at most one read request in flight at a given time. Concurrent lookups from different threads are merged into
+ * a single call to {@link TransactionService#get(Iterable)}; start timestamps requested by more than one caller are
+ * only looked up once. Write requests (put-unless-exists) are passed straight through to the delegate.
+ */
+public final class ReadBatchingTransactionService implements TransactionService {
+    private final TransactionService delegate;
+    private final DisruptorAutobatcher<Set<Long>, Map<Long, Long>> autobatcher;
+
+    private ReadBatchingTransactionService(
+            TransactionService delegate, DisruptorAutobatcher<Set<Long>, Map<Long, Long>> autobatcher) {
+        this.delegate = delegate;
+        this.autobatcher = autobatcher;
+    }
+
+    public static TransactionService create(TransactionService delegate) {
+        DisruptorAutobatcher<Set<Long>, Map<Long, Long>> autobatcher = DisruptorAutobatcher.create(
+                elements -> processBatch(delegate, elements));
+        return new ReadBatchingTransactionService(delegate, autobatcher);
+    }
+
+    /**
+     * Creates a service whose reads are batched according to the given policy, with metrics describing the batches
+     * registered with the given registry.
+     */
+    public static TransactionService create(
+            TransactionService delegate, BatchingPolicy policy, MetricRegistry metricRegistry) {
+        DisruptorAutobatcher<Set<Long>, Map<Long, Long>> autobatcher = DisruptorAutobatcher.create(
+                elements -> processBatch(delegate, elements),
+                policy,
+                AutobatcherMetrics.create(metricRegistry, "transactionServiceReads"));
+        return new ReadBatchingTransactionService(delegate, autobatcher);
+    }
+
+    @CheckForNull
+    @Override
+    public Long get(long startTimestamp) {
+        return getBatched(ImmutableSet.of(startTimestamp)).get(startTimestamp);
+    }
+
+    @Override
+    public Map<Long, Long> get(Iterable<Long> startTimestamps) {
+        return getBatched(ImmutableSet.copyOf(startTimestamps));
+    }
+
+    @Override
+    public void putUnlessExists(long startTimestamp, long commitTimestamp) throws KeyAlreadyExistsException {
+        delegate.putUnlessExists(startTimestamp, commitTimestamp);
+    }
+
+    @Override
+    public void putUnlessExistsMultiple(Map<Long, Long> startTimestampToCommitTimestamp) {
+        delegate.putUnlessExistsMultiple(startTimestampToCommitTimestamp);
+    }
+
+    @Override
+    public void close() {
+        autobatcher.close();
+        delegate.close();
+    }
+
+    private Map<Long, Long> getBatched(Set<Long> startTimestamps) {
+        if (startTimestamps.isEmpty()) {
+            return ImmutableMap.of();
+        }
+        try {
+            return autobatcher.apply(startTimestamps).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Semantics for batch processing:
+     *
+     * - All start timestamps requested by elements of the batch are deduplicated and looked up in a single call to
+     *   {@link TransactionService#get(Iterable)} on the delegate.
+     * - Each element is completed with the subset of the results that it asked for. As with
+     *   {@link TransactionService#get(Iterable)}, start timestamps without a commit timestamp are absent from the
+     *   returned map.
+     * - If the delegate throws, every element in the batch is failed with that exception.
+     */
+    @VisibleForTesting
+    static void processBatch(
+            TransactionService delegate, List<BatchElement<Set<Long>, Map<Long, Long>>> batchElements) {
+        Set<Long> allStartTimestamps = Sets.newHashSet();
+        batchElements.forEach(batchElement -> allStartTimestamps.addAll(batchElement.argument()));
+
+        Map<Long, Long> commitTimestamps = delegate.get(allStartTimestamps);
+
+        for (BatchElement<Set<Long>, Map<Long, Long>> batchElement : batchElements) {
+            Map<Long, Long> result = Maps.newHashMapWithExpectedSize(batchElement.argument().size());
+            for (Long startTimestamp : batchElement.argument()) {
+                Long commitTimestamp = commitTimestamps.get(startTimestamp);
+                if (commitTimestamp != null) {
+                    result.put(startTimestamp, commitTimestamp);
+                }
+            }
+            batchElement.result().set(result);
+        }
+    }
+}
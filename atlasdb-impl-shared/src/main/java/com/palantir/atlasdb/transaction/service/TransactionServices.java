@@ -15,7 +15,14 @@
  */
 package com.palantir.atlasdb.transaction.service;
 
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.UnaryOperator;
+
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.ImmutableMap;
+import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.autobatch.BatchingPolicy;
 import com.palantir.atlasdb.coordination.CoordinationService;
 import com.palantir.atlasdb.internalschema.InternalSchemaMetadata;
 import com.palantir.atlasdb.internalschema.ReadOnlyTransactionSchemaManager;
@@ -34,33 +41,105 @@ public final class TransactionServices {
 
     public static TransactionService createTransactionService(
             KeyValueService keyValueService, TransactionSchemaManager transactionSchemaManager) {
+        return createTransactionService(keyValueService, transactionSchemaManager, () -> AtlasDbConstants.STARTING_TS);
+    }
+
+    /**
+     * Creates a transaction service that supports all transactions schema versions.
+     *
+     * @param packingBound timestamp below which all transactions are expected to have finished, such as the immutable
+     * timestamp; blocks of the transactions table below this timestamp may be packed, if the packed tickets schema
+     * version is in use
+     */
+    public static TransactionService createTransactionService(
+            KeyValueService keyValueService,
+            TransactionSchemaManager transactionSchemaManager,
+            LongSupplier packingBound) {
+        return createTransactionService(keyValueService, transactionSchemaManager, packingBound,
+                ReadBatchingTransactionService::create, WriteBatchingTransactionService::create);
+    }
+
+    /**
+     * Creates a transaction service that supports all transactions schema versions, whose reads and writes are
+     * batched according to the given policies. Metrics describing the batches are registered with the given registry.
+     *
+     * @param packingBound timestamp below which all transactions are expected to have finished, such as the immutable
+     * timestamp; blocks of the transactions table below this timestamp may be packed, if the packed tickets schema
+     * version is in use
+     */
+    public static TransactionService createTransactionService(
+            KeyValueService keyValueService,
+            TransactionSchemaManager transactionSchemaManager,
+            LongSupplier packingBound,
+            MetricRegistry metricRegistry,
+            BatchingPolicy readBatchingPolicy,
+            BatchingPolicy writeBatchingPolicy) {
+        return createTransactionService(keyValueService, transactionSchemaManager, packingBound,
+                delegate -> ReadBatchingTransactionService.create(delegate, readBatchingPolicy, metricRegistry),
+                delegate -> WriteBatchingTransactionService.create(delegate, writeBatchingPolicy, metricRegistry));
+    }
+
+    private static TransactionService createTransactionService(
+            KeyValueService keyValueService,
+            TransactionSchemaManager transactionSchemaManager,
+            LongSupplier packingBound,
+            UnaryOperator<TransactionService> readBatching,
+            Function<EncodingTransactionService, TransactionService> writeBatching) {
         if (keyValueService.getCheckAndSetCompatibility() == CheckAndSetCompatibility.SUPPORTED_DETAIL_ON_FAILURE) {
-            return createSplitKeyTransactionService(keyValueService, transactionSchemaManager);
+            return createSplitKeyTransactionService(
+                    keyValueService, transactionSchemaManager, packingBound, readBatching, writeBatching);
         }
-        return createV1TransactionService(keyValueService);
+        return createV1TransactionService(keyValueService, readBatching);
     }
 
     private static TransactionService createSplitKeyTransactionService(
             KeyValueService keyValueService,
-            TransactionSchemaManager transactionSchemaManager) {
+            TransactionSchemaManager transactionSchemaManager,
+            LongSupplier packingBound,
+            UnaryOperator<TransactionService> readBatching,
+            Function<EncodingTransactionService, TransactionService> writeBatching) {
         // TODO (jkong): Is there a way to disallow DIRECT -> V2 transaction service in the map?
         return new PreStartHandlingTransactionService(
                 new SplitKeyDelegatingTransactionService<>(
                         transactionSchemaManager::getTransactionsSchemaVersion,
                         ImmutableMap.of(
                                 TransactionConstants.DIRECT_ENCODING_TRANSACTIONS_SCHEMA_VERSION,
-                                createV1TransactionService(keyValueService),
+                                createV1TransactionService(keyValueService, readBatching),
                                 TransactionConstants.TICKETS_ENCODING_TRANSACTIONS_SCHEMA_VERSION,
-                                createV2TransactionService(keyValueService))));
+                                createV2TransactionService(keyValueService, readBatching, writeBatching),
+                                TransactionConstants.PACKED_TICKETS_ENCODING_TRANSACTIONS_SCHEMA_VERSION,
+                                createV3TransactionService(
+                                        keyValueService, packingBound, readBatching, writeBatching))));
     }
 
     public static TransactionService createV1TransactionService(KeyValueService keyValueService) {
-        return new PreStartHandlingTransactionService(SimpleTransactionService.createV1(keyValueService));
+        return createV1TransactionService(keyValueService, ReadBatchingTransactionService::create);
     }
 
-    private static TransactionService createV2TransactionService(KeyValueService keyValueService) {
-        return new PreStartHandlingTransactionService(WriteBatchingTransactionService.create(
-                        SimpleTransactionService.createV2(keyValueService)));
+    private static TransactionService createV1TransactionService(
+            KeyValueService keyValueService, UnaryOperator<TransactionService> readBatching) {
+        return new PreStartHandlingTransactionService(readBatching.apply(
+                SimpleTransactionService.createV1(keyValueService)));
+    }
+
+    private static TransactionService createV2TransactionService(
+            KeyValueService keyValueService,
+            UnaryOperator<TransactionService> readBatching,
+            Function<EncodingTransactionService, TransactionService> writeBatching) {
+        return new PreStartHandlingTransactionService(readBatching.apply(
+                writeBatching.apply(SimpleTransactionService.createV2(keyValueService))));
+    }
+
+    private static TransactionService createV3TransactionService(
+            KeyValueService keyValueService,
+            LongSupplier packingBound,
+            UnaryOperator<TransactionService> readBatching,
+            Function<EncodingTransactionService, TransactionService> writeBatching) {
+        return new PreStartHandlingTransactionService(readBatching.apply(
+                PackedBlocksTransactionService.create(
+                        keyValueService,
+                        writeBatching.apply(SimpleTransactionService.createV2(keyValueService)),
+                        packingBound)));
     }
 
     /**
@@ -29,6 +29,7 @@ import org.immutables.value.Value;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Maps;
@@ -36,7 +37,9 @@ import com.google.common.collect.Multimap;
 import com.google.common.collect.MultimapBuilder;
 import com.google.common.collect.Multimaps;
 import com.google.common.util.concurrent.SettableFuture;
+import com.palantir.atlasdb.autobatch.AutobatcherMetrics;
 import com.palantir.atlasdb.autobatch.BatchElement;
+import com.palantir.atlasdb.autobatch.BatchingPolicy;
 import com.palantir.atlasdb.autobatch.DisruptorAutobatcher;
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
@@ -72,6 +75,19 @@ public final class WriteBatchingTransactionService implements TransactionService
         return new WriteBatchingTransactionService(delegate, autobatcher);
     }
 
+    /**
+     * Creates a service whose writes are batched according to the given policy, with metrics describing the batches
+     * registered with the given registry.
+     */
+    public static TransactionService create(
+            EncodingTransactionService delegate, BatchingPolicy policy, MetricRegistry metricRegistry) {
+        DisruptorAutobatcher<TimestampPair, Void> autobatcher = DisruptorAutobatcher.create(
+                elements -> processBatch(delegate, elements),
+                policy,
+                AutobatcherMetrics.create(metricRegistry, "transactionServiceWrites"));
+        return new WriteBatchingTransactionService(delegate, autobatcher);
+    }
+
     @CheckForNull
     @Override
     public Long get(long startTimestamp) {
@@ -37,8 +37,10 @@ import java.util.stream.LongStream;
 import org.junit.Test;
 import org.mockito.invocation.InvocationOnMock;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.Sets;
 import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.cache.TimestampCache;
 import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
 import com.palantir.atlasdb.transaction.impl.TransactionConstants;
 import com.palantir.atlasdb.transaction.service.TransactionService;
@@ -178,6 +180,23 @@ public class CommitTsCacheTest {
         assertThat(loader.loadIfCached(VALID_START_TIMESTAMP)).contains(ROLLBACK_TIMESTAMP);
     }
 
+    @Test
+    public void sharesEntriesWithTimestampCache() {
+        TimestampCache timestampCache = new TimestampCache(new MetricRegistry(), () -> 1000L);
+        CommitTsCache sharedLoader = CommitTsCache.create(mockTransactionService, timestampCache);
+        timestampCache.putAlreadyCommittedTransaction(VALID_START_TIMESTAMP, VALID_COMMIT_TIMESTAMP);
+        when(mockTransactionService.get(VALID_START_TIMESTAMP + 1)).thenReturn(VALID_COMMIT_TIMESTAMP + 1);
+
+        assertThat(sharedLoader.loadIfCached(VALID_START_TIMESTAMP)).contains(VALID_COMMIT_TIMESTAMP);
+        assertThat(sharedLoader.load(VALID_START_TIMESTAMP)).isEqualTo(VALID_COMMIT_TIMESTAMP);
+        assertThat(sharedLoader.load(VALID_START_TIMESTAMP + 1)).isEqualTo(VALID_COMMIT_TIMESTAMP + 1);
+        assertThat(timestampCache.getCommitTimestampIfPresent(VALID_START_TIMESTAMP + 1))
+                .isEqualTo(VALID_COMMIT_TIMESTAMP + 1);
+
+        verify(mockTransactionService).get(VALID_START_TIMESTAMP + 1);
+        verifyNoMoreInteractions(mockTransactionService);
+    }
+
     @SuppressWarnings("unchecked")
     private Map<Long, Long> assertRequestedTimestampsAndMapIdentity(InvocationOnMock invocation,
             Collection<Long> expected) {
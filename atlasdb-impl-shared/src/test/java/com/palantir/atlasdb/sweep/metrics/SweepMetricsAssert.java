@@ -74,6 +74,14 @@ public final class SweepMetricsAssert extends AbstractAssert<SweepMetricsAssert,
         objects.assertEqual(info, getGaugeConservative(AtlasDbMetricNames.LAG_MILLIS).getValue(), value);
     }
 
+    public void hasLagTimestampsConservativeEqualTo(int shard, long value) {
+        Map<String, String> tags = ImmutableMap.of(
+                AtlasDbMetricNames.TAG_STRATEGY, AtlasDbMetricNames.TAG_CONSERVATIVE,
+                AtlasDbMetricNames.TAG_SHARD, Integer.toString(shard));
+        objects.assertEqual(info,
+                getGauge(TargetedSweepMetrics.class, AtlasDbMetricNames.LAG_TIMESTAMPS, tags).getValue(), value);
+    }
+
     public void hasEnqueuedWritesThoroughEqualTo(long value) {
         objects.assertEqual(info, getGaugeThorough(AtlasDbMetricNames.ENQUEUED_WRITES).getValue(), value);
     }
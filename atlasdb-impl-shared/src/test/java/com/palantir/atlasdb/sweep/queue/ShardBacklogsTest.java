@@ -0,0 +1,104 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.sweep.queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static com.palantir.atlasdb.sweep.queue.ShardBacklogs.MAX_IDLE_BACKOFF_MILLIS;
+import static com.palantir.atlasdb.sweep.queue.ShardBacklogs.MIN_IDLE_BACKOFF_MILLIS;
+
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+public class ShardBacklogsTest {
+    private static final int SHARDS = 4;
+
+    private long currentTimeMillis = 1_000L;
+    private final ShardBacklogs backlogs = new ShardBacklogs(() -> currentTimeMillis);
+
+    @Test
+    public void initiallyReturnsAllShards() {
+        assertThat(backlogs.getShardsInPriorityOrder(SHARDS)).containsExactlyInAnyOrder(0, 1, 2, 3);
+    }
+
+    @Test
+    public void rotatesShardsWithEqualBacklogs() {
+        assertThat(backlogs.getShardsInPriorityOrder(SHARDS)).containsExactly(0, 1, 2, 3);
+        assertThat(backlogs.getShardsInPriorityOrder(SHARDS)).containsExactly(1, 2, 3, 0);
+        assertThat(backlogs.getShardsInPriorityOrder(SHARDS)).containsExactly(2, 3, 0, 1);
+    }
+
+    @Test
+    public void ordersShardsByBacklogWithUnknownShardsFirst() {
+        backlogs.updateBacklog(0, 10L);
+        backlogs.updateBacklog(1, 1_000L);
+        backlogs.updateBacklog(3, 100L);
+
+        assertThat(backlogs.getShardsInPriorityOrder(SHARDS)).containsExactly(2, 1, 3, 0);
+    }
+
+    @Test
+    public void skipsIdleShardsUntilBackoffExpires() {
+        backlogs.updateBacklog(1, 0L);
+        assertThat(backlogs.getShardsInPriorityOrder(SHARDS)).doesNotContain(1);
+
+        currentTimeMillis += MIN_IDLE_BACKOFF_MILLIS - 1;
+        assertThat(backlogs.getShardsInPriorityOrder(SHARDS)).doesNotContain(1);
+
+        currentTimeMillis += 1;
+        assertThat(backlogs.getShardsInPriorityOrder(SHARDS)).contains(1);
+    }
+
+    @Test
+    public void idleShardsAreTriedAfterShardsWithBacklog() {
+        backlogs.updateBacklog(0, 0L);
+        backlogs.updateBacklog(1, 5L);
+        backlogs.updateBacklog(2, 0L);
+        backlogs.updateBacklog(3, 7L);
+        currentTimeMillis += MIN_IDLE_BACKOFF_MILLIS;
+
+        assertThat(backlogs.getShardsInPriorityOrder(SHARDS).subList(0, 2)).containsExactly(3, 1);
+    }
+
+    @Test
+    public void shardWithBacklogIsNotBackedOff() {
+        backlogs.updateBacklog(1, 0L);
+        backlogs.updateBacklog(1, 50L);
+
+        assertThat(backlogs.getShardsInPriorityOrder(SHARDS).get(0)).isEqualTo(1);
+    }
+
+    @Test
+    public void backoffDoublesWhileShardStaysIdleUpToMaximum() {
+        assertThat(ShardBacklogs.getIdleBackoffMillis(1)).isEqualTo(MIN_IDLE_BACKOFF_MILLIS);
+        assertThat(ShardBacklogs.getIdleBackoffMillis(2)).isEqualTo(2 * MIN_IDLE_BACKOFF_MILLIS);
+        assertThat(ShardBacklogs.getIdleBackoffMillis(3)).isEqualTo(4 * MIN_IDLE_BACKOFF_MILLIS);
+        IntStream.of(5, 100, Integer.MAX_VALUE).forEach(idleIterations ->
+                assertThat(ShardBacklogs.getIdleBackoffMillis(idleIterations)).isEqualTo(MAX_IDLE_BACKOFF_MILLIS));
+    }
+
+    @Test
+    public void backoffResetsOnceShardHasBacklogAgain() {
+        backlogs.updateBacklog(1, 0L);
+        backlogs.updateBacklog(1, 0L);
+        backlogs.updateBacklog(1, 3L);
+        backlogs.updateBacklog(1, 0L);
+
+        currentTimeMillis += MIN_IDLE_BACKOFF_MILLIS;
+        assertThat(backlogs.getShardsInPriorityOrder(SHARDS)).contains(1);
+    }
+}
@@ -27,6 +27,7 @@ import static com.palantir.atlasdb.sweep.queue.ShardAndStrategy.thorough;
 import static com.palantir.atlasdb.sweep.queue.SweepQueueUtils.MAX_CELLS_DEDICATED;
 import static com.palantir.atlasdb.sweep.queue.SweepQueueUtils.MAX_CELLS_GENERIC;
 import static com.palantir.atlasdb.sweep.queue.SweepQueueUtils.SWEEP_BATCH_SIZE;
+import static com.palantir.atlasdb.sweep.queue.SweepQueueUtils.TS_FINE_GRANULARITY;
 import static com.palantir.atlasdb.sweep.queue.SweepQueueUtils.tsPartitionFine;
 
 import java.util.ArrayList;
@@ -258,6 +259,46 @@ public class SweepableCellsTest extends AbstractSweepQueueTest {
                 .containsExactly(WriteInfo.write(TABLE_CONS, DEFAULT_CELL, TS));
     }
 
+    @Test
+    public void canReadFromMultiplePartitionsInSingleBatch() {
+        useSingleShard();
+        List<WriteInfo> writes = new ArrayList<>();
+        for (long partition = 0; partition < 3; partition++) {
+            writes.addAll(writeCommittedConservativeRowForTimestamp(partition * TS_FINE_GRANULARITY + 10L, 2));
+        }
+        SweepBatch conservativeBatch = readConservative(0, ImmutableList.of(0L, 1L, 2L), -1L, SMALL_SWEEP_TS);
+        assertThat(conservativeBatch.writes()).hasSameElementsAs(writes);
+        assertThat(conservativeBatch.lastSweptTimestamp()).isEqualTo(SweepQueueUtils.maxTsForFinePartition(2L));
+        assertThat(conservativeBatch.finePartitions()).containsExactlyInAnyOrder(0L, 1L, 2L);
+    }
+
+    @Test
+    public void readFromMultiplePartitionsDoesNotReturnEntriesAtOrAfterSweepTs() {
+        useSingleShard();
+        List<WriteInfo> expected = writeCommittedConservativeRowForTimestamp(10L, 1);
+        expected.addAll(writeCommittedConservativeRowForTimestamp(TS_FINE_GRANULARITY + 10L, 1));
+        writeCommittedConservativeRowForTimestamp(TS_FINE_GRANULARITY + 20L, 1);
+
+        SweepBatch conservativeBatch = readConservative(0, ImmutableList.of(0L, 1L), -1L, TS_FINE_GRANULARITY + 15L);
+        assertThat(conservativeBatch.writes()).hasSameElementsAs(expected);
+        assertThat(conservativeBatch.lastSweptTimestamp()).isEqualTo(TS_FINE_GRANULARITY + 14L);
+    }
+
+    @Test
+    public void doesNotReadFurtherPartitionsOnceBatchIsFull() {
+        useSingleShard();
+        long iterationWrites = 1 + SWEEP_BATCH_SIZE / 5;
+        for (int i = 1; i <= 6; i++) {
+            writeCommittedConservativeRowForTimestamp(i, iterationWrites);
+        }
+        writeCommittedConservativeRowForTimestamp(TS_FINE_GRANULARITY + 10L, 1);
+
+        SweepBatch conservativeBatch = readConservative(0, ImmutableList.of(0L, 1L), -1L, SMALL_SWEEP_TS);
+        assertThat(conservativeBatch.writes().size()).isEqualTo(SWEEP_BATCH_SIZE + 5);
+        assertThat(conservativeBatch.lastSweptTimestamp()).isEqualTo(5);
+        assertThat(conservativeBatch.finePartitions()).containsExactly(0L);
+    }
+
     // We read 5 dedicated entries until we pass SWEEP_BATCH_SIZE, for a total of SWEEP_BATCH_SIZE + 5 writes
     @Test
     public void returnWhenMoreThanSweepBatchSize() {
@@ -418,6 +459,10 @@ public class SweepableCellsTest extends AbstractSweepQueueTest {
         return sweepableCells.getBatchForPartition(conservative(shard), partition, minExclusive, maxExclusive);
     }
 
+    private SweepBatch readConservative(int shard, List<Long> partitions, long minExclusive, long maxExclusive) {
+        return sweepableCells.getBatchForPartitions(conservative(shard), partitions, minExclusive, maxExclusive);
+    }
+
     private SweepBatch readThorough(long partition, long minExclusive, long maxExclusive) {
         return sweepableCells.getBatchForPartition(thorough(shardThor), partition, minExclusive, maxExclusive);
     }
@@ -24,6 +24,7 @@ import static com.palantir.atlasdb.sweep.queue.SweepQueueUtils.maxTsForFineParti
 import static com.palantir.atlasdb.sweep.queue.SweepQueueUtils.minTsForFinePartition;
 import static com.palantir.atlasdb.sweep.queue.SweepQueueUtils.tsPartitionFine;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.Before;
@@ -192,6 +193,27 @@ public class SweepableTimestampsTest extends AbstractSweepQueueTest {
         assertThat(readConservative(shardCons)).contains(tsPartitionFine(2L * TS_FINE_GRANULARITY + 1000L));
     }
 
+    @Test
+    public void canReadMultipleNextPartitionsInOrder() {
+        for (long timestamp = 1000L; tsPartitionFine(timestamp) < 10L; timestamp += TS_FINE_GRANULARITY / 5) {
+            writeToDefaultCellCommitted(sweepableTimestamps, timestamp, TABLE_CONS);
+        }
+        assertThat(readConservative(shardCons, 3)).containsExactly(0L, 1L, 2L);
+
+        progress.updateLastSweptTimestamp(conservative(shardCons), 2L * TS_FINE_GRANULARITY);
+        assertThat(readConservative(shardCons, 3)).containsExactly(2L, 3L, 4L);
+    }
+
+    @Test
+    public void readingMultiplePartitionsDoesNotSkipToLaterCoarsePartition() {
+        for (long timestamp = 1000L; tsPartitionFine(timestamp) < 10L; timestamp += TS_FINE_GRANULARITY / 5) {
+            writeToDefaultCellCommitted(sweepableTimestamps, timestamp, TABLE_CONS);
+        }
+        assertThat(readConservative(shardCons, 100))
+                .containsExactly(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L)
+                .doesNotContain(TS_FINE_PARTITION);
+    }
+
     private Optional<Long> readConservative(int shardNumber) {
         return sweepableTimestamps.nextSweepableTimestampPartition(
                 conservative(shardNumber),
@@ -199,6 +221,14 @@ public class SweepableTimestampsTest extends AbstractSweepQueueTest {
                 Sweeper.CONSERVATIVE.getSweepTimestamp(timestampsSupplier));
     }
 
+    private List<Long> readConservative(int shardNumber, int maxPartitions) {
+        return sweepableTimestamps.nextSweepableTimestampPartitions(
+                conservative(shardNumber),
+                progress.getLastSweptTimestamp(ShardAndStrategy.conservative(shardNumber)),
+                Sweeper.CONSERVATIVE.getSweepTimestamp(timestampsSupplier),
+                maxPartitions);
+    }
+
     private Optional<Long> readThorough(int shardNumber) {
         return sweepableTimestamps.nextSweepableTimestampPartition(
                 thorough(shardNumber),
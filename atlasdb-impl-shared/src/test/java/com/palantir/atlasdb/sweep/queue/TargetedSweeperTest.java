@@ -408,6 +408,27 @@ public class TargetedSweeperTest extends AbstractSweepQueueTest {
         assertThat(metricsManager).hasMillisSinceLastSweptConservativeEqualTo(5000L - 400L);
     }
 
+    @Test
+    public void sweepCanReadMultipleFinePartitionsInSingleIterationAndCleansThemUp() {
+        TargetedSweeper batchingSweeper = TargetedSweeper.createUninitializedForTest(
+                metricsManager, () -> true, () -> DEFAULT_SHARDS, () -> 10);
+        batchingSweeper.initializeWithoutRunning(timestampsSupplier, timelockService, spiedKvs, txnService,
+                mockFollower);
+        long tsFineTwo = LOW_TS + TS_FINE_GRANULARITY;
+        long tsFineFour = LOW_TS + 3 * TS_FINE_GRANULARITY;
+        enqueueWriteCommitted(TABLE_CONS, LOW_TS);
+        enqueueWriteCommitted(TABLE_CONS, tsFineTwo);
+        enqueueWriteCommitted(TABLE_CONS, tsFineFour);
+
+        batchingSweeper.sweepNextBatch(ShardAndStrategy.conservative(CONS_SHARD));
+        assertProgressUpdatedToTimestamp(maxTsForFinePartition(tsPartitionFine(tsFineFour)));
+        assertReadAtTimestampReturnsSentinel(TABLE_CONS, tsFineFour);
+        assertTestValueEnqueuedAtGivenTimestampStillPresent(TABLE_CONS, tsFineFour);
+        assertSweepableCellsHasNoEntriesInPartitionOfTimestamp(LOW_TS);
+        assertSweepableCellsHasNoEntriesInPartitionOfTimestamp(tsFineTwo);
+        assertSweepableCellsHasEntryForTimestamp(tsFineFour);
+    }
+
     @Test
     public void sweepProgressesAcrossCoarsePartitions() {
         long tsCoarseTwo = LOW_TS + TS_FINE_GRANULARITY + TS_COARSE_GRANULARITY;
@@ -449,6 +470,20 @@ public class TargetedSweeperTest extends AbstractSweepQueueTest {
         assertProgressUpdatedToTimestamp(getSweepTsCons() - 1L);
     }
 
+    @Test
+    public void sweepNextBatchReturnsAndReportsTimestampsLeftToSweep() {
+        long writeTs = getSweepTsCons() - 3 * TS_FINE_GRANULARITY;
+        enqueueWriteCommitted(TABLE_CONS, writeTs);
+
+        long timestampsBehind = sweepQueue.sweepNextBatch(ShardAndStrategy.conservative(CONS_SHARD));
+        assertThat(timestampsBehind)
+                .isEqualTo(getSweepTsCons() - 1L - maxTsForFinePartition(tsPartitionFine(writeTs)));
+        assertThat(metricsManager).hasLagTimestampsConservativeEqualTo(CONS_SHARD, timestampsBehind);
+
+        assertThat(sweepQueue.sweepNextBatch(ShardAndStrategy.conservative(CONS_SHARD))).isEqualTo(0L);
+        assertThat(metricsManager).hasLagTimestampsConservativeEqualTo(CONS_SHARD, 0L);
+    }
+
     @Test
     public void sweepCellOnlyOnceWhenInLastPartitionBeforeSweepTs() {
         immutableTs = 2 * TS_COARSE_GRANULARITY - TS_FINE_GRANULARITY;
@@ -0,0 +1,151 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.encoding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.primitives.UnsignedBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.ColumnRangeSelection;
+import com.palantir.atlasdb.transaction.impl.TransactionConstants;
+
+public class PackedBlocksEncodingStrategyTest {
+    private static final PackedBlocksEncodingStrategy STRATEGY = PackedBlocksEncodingStrategy.INSTANCE;
+    private static final long BLOCK_INDEX = 31_415L;
+    private static final long FIRST_TIMESTAMP = STRATEGY.getFirstTimestampInBlock(BLOCK_INDEX);
+
+    @Test
+    public void blocksAlignWithTicketsPartitioning() {
+        assertThat(TicketsEncodingStrategy.PARTITIONING_QUANTUM % PackedBlocksEncodingStrategy.BLOCK_SIZE).isZero();
+        assertThat(PackedBlocksEncodingStrategy.BLOCK_SIZE % TicketsEncodingStrategy.ROWS_PER_QUANTUM).isZero();
+    }
+
+    @Test
+    public void blockCellEncodeAndDecodeAreInverses() {
+        for (int trial = 0; trial < 1000; trial++) {
+            long blockIndex = ThreadLocalRandom.current().nextLong(
+                    0, Long.MAX_VALUE / PackedBlocksEncodingStrategy.BLOCK_SIZE);
+            assertThat(STRATEGY.decodeCellAsBlockIndex(STRATEGY.encodeBlockIndexAsCell(blockIndex)))
+                    .isEqualTo(blockIndex);
+        }
+    }
+
+    @Test
+    public void ticketsRangeForBlockCoversExactlyTheBlock() {
+        assertTicketsRangeCoversExactlyTheBlock(BLOCK_INDEX);
+        assertTicketsRangeCoversExactlyTheBlock(0);
+        assertTicketsRangeCoversExactlyTheBlock(
+                TicketsEncodingStrategy.PARTITIONING_QUANTUM / PackedBlocksEncodingStrategy.BLOCK_SIZE - 1);
+    }
+
+    @Test
+    public void packedBlockEncodeAndDecodeAreInverses() {
+        Map<Long, Long> entries = ImmutableMap.of(
+                FIRST_TIMESTAMP, FIRST_TIMESTAMP + 5,
+                FIRST_TIMESTAMP + 7, TransactionConstants.FAILED_COMMIT_TS,
+                FIRST_TIMESTAMP + 20, FIRST_TIMESTAMP + 10_000_000,
+                FIRST_TIMESTAMP + PackedBlocksEncodingStrategy.BLOCK_SIZE - 1, TransactionConstants.FAILED_COMMIT_TS);
+
+        PackedTransactionBlock block = STRATEGY.decodeBlock(BLOCK_INDEX, STRATEGY.encodeBlock(BLOCK_INDEX, entries));
+
+        LongStream.range(FIRST_TIMESTAMP, FIRST_TIMESTAMP + PackedBlocksEncodingStrategy.BLOCK_SIZE)
+                .forEach(startTs -> assertThat(block.getCommitTimestamp(startTs)).isEqualTo(entries.get(startTs)));
+    }
+
+    @Test
+    public void canEncodeEmptyAndFullBlocks() {
+        PackedTransactionBlock emptyBlock = STRATEGY.decodeBlock(
+                BLOCK_INDEX, STRATEGY.encodeBlock(BLOCK_INDEX, ImmutableMap.of()));
+        assertThat(emptyBlock.getCommitTimestamp(FIRST_TIMESTAMP)).isNull();
+
+        Map<Long, Long> fullBlock = new HashMap<>();
+        for (long startTs = FIRST_TIMESTAMP; startTs < FIRST_TIMESTAMP + PackedBlocksEncodingStrategy.BLOCK_SIZE;
+                startTs++) {
+            fullBlock.put(startTs, startTs % 3 == 0
+                    ? TransactionConstants.FAILED_COMMIT_TS
+                    : startTs + ThreadLocalRandom.current().nextLong(1, 1_000_000));
+        }
+        PackedTransactionBlock block = STRATEGY.decodeBlock(BLOCK_INDEX, STRATEGY.encodeBlock(BLOCK_INDEX, fullBlock));
+        fullBlock.forEach((startTs, commitTs) -> assertThat(block.getCommitTimestamp(startTs)).isEqualTo(commitTs));
+    }
+
+    @Test
+    public void packedBlocksAreSmallerThanTheirTickets() {
+        Map<Long, Long> entries = new HashMap<>();
+        for (long startTs = FIRST_TIMESTAMP; startTs < FIRST_TIMESTAMP + PackedBlocksEncodingStrategy.BLOCK_SIZE;
+                startTs += 2) {
+            entries.put(startTs, startTs + 1);
+        }
+        long ticketsBytes = entries.entrySet().stream()
+                .mapToLong(entry -> {
+                    Cell cell = TicketsEncodingStrategy.INSTANCE.encodeStartTimestampAsCell(entry.getKey());
+                    return cell.getRowName().length + cell.getColumnName().length
+                            + TicketsEncodingStrategy.INSTANCE.encodeCommitTimestampAsValue(
+                                    entry.getKey(), entry.getValue()).length;
+                })
+                .sum();
+
+        assertThat(STRATEGY.encodeBlock(BLOCK_INDEX, entries).length).isLessThan((int) (ticketsBytes / 5));
+    }
+
+    @Test
+    public void cannotEncodeTimestampsOutsideTheBlock() {
+        assertThatThrownBy(() -> STRATEGY.encodeBlock(BLOCK_INDEX, ImmutableMap.of(FIRST_TIMESTAMP - 1, 1L)))
+                .isInstanceOf(IllegalArgumentException.class);
+        PackedTransactionBlock block = STRATEGY.decodeBlock(
+                BLOCK_INDEX, STRATEGY.encodeBlock(BLOCK_INDEX, ImmutableMap.of()));
+        assertThatThrownBy(() -> block.getCommitTimestamp(FIRST_TIMESTAMP + PackedBlocksEncodingStrategy.BLOCK_SIZE))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void assertTicketsRangeCoversExactlyTheBlock(long blockIndex) {
+        long firstTimestamp = STRATEGY.getFirstTimestampInBlock(blockIndex);
+        List<byte[]> rows = STRATEGY.getTicketsRowsForBlock(blockIndex);
+        ColumnRangeSelection columns = STRATEGY.getTicketsColumnsForBlock(blockIndex);
+
+        Set<Long> timestampsInRange = LongStream.range(firstTimestamp - 100,
+                firstTimestamp + PackedBlocksEncodingStrategy.BLOCK_SIZE + 100)
+                .filter(timestamp -> timestamp >= 0)
+                .filter(timestamp -> isInRange(
+                        TicketsEncodingStrategy.INSTANCE.encodeStartTimestampAsCell(timestamp), rows, columns))
+                .boxed()
+                .collect(Collectors.toSet());
+
+        assertThat(timestampsInRange).isEqualTo(LongStream.range(
+                firstTimestamp, firstTimestamp + PackedBlocksEncodingStrategy.BLOCK_SIZE)
+                .boxed()
+                .collect(Collectors.toSet()));
+    }
+
+    private static boolean isInRange(Cell cell, List<byte[]> rows, ColumnRangeSelection columns) {
+        return rows.stream().anyMatch(row -> Arrays.equals(row, cell.getRowName()))
+                && UnsignedBytes.lexicographicalComparator().compare(columns.getStartCol(), cell.getColumnName()) <= 0
+                && UnsignedBytes.lexicographicalComparator().compare(cell.getColumnName(), columns.getEndCol()) < 0;
+    }
+}
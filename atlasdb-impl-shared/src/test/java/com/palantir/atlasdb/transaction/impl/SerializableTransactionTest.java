@@ -0,0 +1,101 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+
+public class SerializableTransactionTest {
+    private static final RangeRequest A_TO_C = range("a", "c");
+    private static final RangeRequest B_TO_D = range("b", "d");
+    private static final RangeRequest D_TO_E = range("d", "e");
+    private static final RangeRequest F_TO_G = range("f", "g");
+
+    @Test
+    public void smallValuesAreRecordedAsTheyAre() {
+        byte[] value = new byte[SerializableTransaction.FINGERPRINT_SIZE_BYTES - 1];
+
+        assertThat(SerializableTransaction.fingerprintIfLarge(value)).isSameAs(value);
+    }
+
+    @Test
+    public void largeValuesAreRecordedAsFixedSizeFingerprints() {
+        byte[] value = new byte[1000];
+        byte[] otherValue = new byte[1000];
+        otherValue[999] = 1;
+
+        byte[] fingerprint = SerializableTransaction.fingerprintIfLarge(value);
+        assertThat(fingerprint).hasSize(SerializableTransaction.FINGERPRINT_SIZE_BYTES);
+        assertThat(SerializableTransaction.fingerprintIfLarge(value.clone())).isEqualTo(fingerprint);
+        assertThat(SerializableTransaction.fingerprintIfLarge(otherValue)).isNotEqualTo(fingerprint);
+    }
+
+    @Test
+    public void mergesOverlappingAndAbuttingRanges() {
+        List<RangeRequest> merged = SerializableTransaction.mergeOverlappingRanges(
+                ImmutableList.of(F_TO_G, D_TO_E, B_TO_D, A_TO_C));
+
+        assertThat(bounds(merged)).containsExactlyInAnyOrder("a-e", "f-g");
+    }
+
+    @Test
+    public void unboundedRangeAbsorbsLaterRanges() {
+        RangeRequest fromB = RangeRequest.builder().startRowInclusive(PtBytes.toBytes("b")).build();
+
+        List<RangeRequest> merged = SerializableTransaction.mergeOverlappingRanges(
+                ImmutableList.of(fromB, D_TO_E, A_TO_C));
+
+        assertThat(bounds(merged)).containsExactly("a-");
+    }
+
+    @Test
+    public void doesNotMergeReverseRangesOrRangesOverSomeColumns() {
+        RangeRequest reverse = RangeRequest.reverseBuilder()
+                .startRowInclusive(PtBytes.toBytes("c"))
+                .endRowExclusive(PtBytes.toBytes("a"))
+                .build();
+        RangeRequest someColumns = A_TO_C.getBuilder()
+                .retainColumns(ImmutableList.of(PtBytes.toBytes("col")))
+                .build();
+
+        List<RangeRequest> merged = SerializableTransaction.mergeOverlappingRanges(
+                ImmutableList.of(reverse, someColumns, B_TO_D));
+
+        assertThat(merged).containsExactlyInAnyOrder(reverse, someColumns, B_TO_D);
+    }
+
+    private static RangeRequest range(String start, String end) {
+        return RangeRequest.builder()
+                .startRowInclusive(PtBytes.toBytes(start))
+                .endRowExclusive(PtBytes.toBytes(end))
+                .build();
+    }
+
+    private static List<String> bounds(List<RangeRequest> ranges) {
+        return ranges.stream()
+                .map(range -> PtBytes.toString(range.getStartInclusive()) + "-"
+                        + PtBytes.toString(range.getEndExclusive()))
+                .collect(Collectors.toList());
+    }
+}
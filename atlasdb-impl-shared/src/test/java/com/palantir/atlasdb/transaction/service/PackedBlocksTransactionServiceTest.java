@@ -0,0 +1,141 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.palantir.atlasdb.keyvalue.api.ColumnRangeSelection;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.impl.InMemoryKeyValueService;
+import com.palantir.atlasdb.transaction.encoding.PackedBlocksEncodingStrategy;
+import com.palantir.atlasdb.transaction.impl.TransactionConstants;
+import com.palantir.atlasdb.transaction.impl.TransactionTables;
+
+public class PackedBlocksTransactionServiceTest {
+    private static final long BLOCK_SIZE = PackedBlocksEncodingStrategy.BLOCK_SIZE;
+    private static final long START_TS = 5 * BLOCK_SIZE + 17;
+    private static final long OTHER_START_TS = START_TS + 1;
+    private static final long ABORTED_START_TS = START_TS + 2;
+    private static final long COMMIT_TS = START_TS + 100;
+
+    private final KeyValueService keyValueService = spy(new InMemoryKeyValueService(false));
+    private final AtomicLong packingBound = new AtomicLong();
+    private final TransactionService transactionService = new PackedBlocksTransactionService(
+            keyValueService, SimpleTransactionService.createV2(keyValueService), packingBound::get);
+
+    @Before
+    public void setUp() {
+        TransactionTables.createTables(keyValueService);
+        transactionService.putUnlessExists(START_TS, COMMIT_TS);
+        transactionService.putUnlessExists(ABORTED_START_TS, TransactionConstants.FAILED_COMMIT_TS);
+        clearInvocations(keyValueService);
+    }
+
+    @Test
+    public void doesNotPackBlocksThatAreNotClosed() {
+        packingBound.set(6 * BLOCK_SIZE - 1);
+
+        assertThat(transactionService.get(START_TS)).isEqualTo(COMMIT_TS);
+        assertThat(transactionService.get(ABORTED_START_TS)).isEqualTo(TransactionConstants.FAILED_COMMIT_TS);
+        assertThat(transactionService.get(OTHER_START_TS)).isNull();
+
+        verify(keyValueService, never()).get(eq(TransactionConstants.TRANSACTIONS2_PACKED_TABLE), anyMap());
+        verify(keyValueService, never()).putUnlessExists(eq(TransactionConstants.TRANSACTIONS2_PACKED_TABLE), anyMap());
+    }
+
+    @Test
+    public void packsClosedBlocksOnFirstReadAndServesLaterReadsFromThePackedBlock() {
+        packingBound.set(6 * BLOCK_SIZE);
+
+        assertThat(transactionService.get(START_TS)).isEqualTo(COMMIT_TS);
+        verifyTicketsRangeReads(1);
+        verify(keyValueService).putUnlessExists(eq(TransactionConstants.TRANSACTIONS2_PACKED_TABLE), anyMap());
+        clearInvocations(keyValueService);
+
+        assertThat(transactionService.get(ImmutableList.of(START_TS, ABORTED_START_TS))).isEqualTo(ImmutableMap.of(
+                START_TS, COMMIT_TS,
+                ABORTED_START_TS, TransactionConstants.FAILED_COMMIT_TS));
+        verify(keyValueService, never()).get(eq(TransactionConstants.TRANSACTIONS2_TABLE), anyMap());
+        verify(keyValueService, never()).get(eq(TransactionConstants.TRANSACTIONS2_PACKED_TABLE), anyMap());
+        verifyTicketsRangeReads(0);
+    }
+
+    @Test
+    public void readsBlocksPackedByOtherServices() {
+        packingBound.set(6 * BLOCK_SIZE);
+        assertThat(transactionService.get(START_TS)).isEqualTo(COMMIT_TS);
+        clearInvocations(keyValueService);
+
+        TransactionService otherService = new PackedBlocksTransactionService(
+                keyValueService, SimpleTransactionService.createV2(keyValueService), packingBound::get);
+        assertThat(otherService.get(ABORTED_START_TS)).isEqualTo(TransactionConstants.FAILED_COMMIT_TS);
+
+        verify(keyValueService).get(eq(TransactionConstants.TRANSACTIONS2_PACKED_TABLE), anyMap());
+        verify(keyValueService, never()).get(eq(TransactionConstants.TRANSACTIONS2_TABLE), anyMap());
+        verifyTicketsRangeReads(0);
+    }
+
+    @Test
+    public void fallsBackToTicketsForEntriesWrittenAfterPacking() {
+        packingBound.set(6 * BLOCK_SIZE);
+        assertThat(transactionService.get(OTHER_START_TS)).isNull();
+
+        transactionService.putUnlessExists(OTHER_START_TS, COMMIT_TS);
+        assertThat(transactionService.get(OTHER_START_TS)).isEqualTo(COMMIT_TS);
+        assertThat(transactionService.get(START_TS)).isEqualTo(COMMIT_TS);
+    }
+
+    @Test
+    public void packsAtMostOneBlockPerRead() {
+        long startTsInNextBlock = START_TS + BLOCK_SIZE;
+        transactionService.putUnlessExists(startTsInNextBlock, startTsInNextBlock + 1);
+        clearInvocations(keyValueService);
+        packingBound.set(10 * BLOCK_SIZE);
+
+        assertThat(transactionService.get(ImmutableList.of(START_TS, startTsInNextBlock))).isEqualTo(ImmutableMap.of(
+                START_TS, COMMIT_TS,
+                startTsInNextBlock, startTsInNextBlock + 1));
+        verifyTicketsRangeReads(1);
+
+        assertThat(transactionService.get(ImmutableList.of(START_TS, startTsInNextBlock))).isEqualTo(ImmutableMap.of(
+                START_TS, COMMIT_TS,
+                startTsInNextBlock, startTsInNextBlock + 1));
+        verifyTicketsRangeReads(2);
+    }
+
+    private void verifyTicketsRangeReads(int times) {
+        verify(keyValueService, times(times)).getRowsColumnRange(
+                eq(TransactionConstants.TRANSACTIONS2_TABLE), any(), any(ColumnRangeSelection.class), anyInt(),
+                anyLong());
+    }
+}
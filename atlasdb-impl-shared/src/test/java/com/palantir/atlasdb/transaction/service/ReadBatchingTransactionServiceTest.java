@@ -0,0 +1,132 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.transaction.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.immutables.value.Value;
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
+import com.palantir.atlasdb.autobatch.BatchElement;
+
+public class ReadBatchingTransactionServiceTest {
+    private final TransactionService mockTransactionService = mock(TransactionService.class);
+    private final TransactionService readBatchingTransactionService = ReadBatchingTransactionService.create(
+            mockTransactionService);
+
+    @After
+    public void verifyMocks() {
+        verifyNoMoreInteractions(mockTransactionService);
+    }
+
+    @Test
+    public void getsSingleValueFromUnderlyingViaBatch() {
+        when(mockTransactionService.get(anyIterable())).thenReturn(ImmutableMap.of(3L, 5L));
+
+        assertThat(readBatchingTransactionService.get(3L)).isEqualTo(5L);
+
+        verify(mockTransactionService).get(ImmutableSet.of(3L));
+    }
+
+    @Test
+    public void returnsNullForUncommittedSingleValue() {
+        when(mockTransactionService.get(anyIterable())).thenReturn(ImmutableMap.of());
+
+        assertThat(readBatchingTransactionService.get(3L)).isNull();
+
+        verify(mockTransactionService).get(ImmutableSet.of(3L));
+    }
+
+    @Test
+    public void doesNotCallUnderlyingForEmptyRequests() {
+        assertThat(readBatchingTransactionService.get(ImmutableList.of())).isEmpty();
+    }
+
+    @Test
+    public void putsUnlessExistsDirectlyToUnderlying() {
+        readBatchingTransactionService.putUnlessExists(7L, 66L);
+
+        verify(mockTransactionService).putUnlessExists(7L, 66L);
+    }
+
+    @Test
+    public void deduplicatesStartTimestampsAcrossBatchElements() {
+        when(mockTransactionService.get(anyIterable())).thenReturn(ImmutableMap.of(1L, 10L, 2L, 20L, 3L, 30L));
+
+        TestReadBatchElement first = TestReadBatchElement.of(1L, 2L);
+        TestReadBatchElement second = TestReadBatchElement.of(2L, 3L);
+        TestReadBatchElement third = TestReadBatchElement.of(2L);
+
+        ReadBatchingTransactionService.processBatch(mockTransactionService, ImmutableList.of(first, second, third));
+
+        verify(mockTransactionService).get(ImmutableSet.of(1L, 2L, 3L));
+        assertThat(first.getNow()).isEqualTo(ImmutableMap.of(1L, 10L, 2L, 20L));
+        assertThat(second.getNow()).isEqualTo(ImmutableMap.of(2L, 20L, 3L, 30L));
+        assertThat(third.getNow()).isEqualTo(ImmutableMap.of(2L, 20L));
+    }
+
+    @Test
+    public void omitsUncommittedTimestampsFromEachResult() {
+        when(mockTransactionService.get(anyIterable())).thenReturn(ImmutableMap.of(1L, 10L));
+
+        TestReadBatchElement element = TestReadBatchElement.of(1L, 2L);
+
+        ReadBatchingTransactionService.processBatch(mockTransactionService, ImmutableList.of(element));
+
+        verify(mockTransactionService).get(ImmutableSet.of(1L, 2L));
+        assertThat(element.getNow()).isEqualTo(ImmutableMap.of(1L, 10L));
+    }
+
+    @Test
+    public void propagatesExceptionsFromUnderlying() {
+        RuntimeException exception = new IllegalStateException("boo");
+        when(mockTransactionService.get(anyIterable())).thenThrow(exception);
+
+        assertThatThrownBy(() -> readBatchingTransactionService.get(ImmutableList.of(1L, 2L))).isEqualTo(exception);
+
+        verify(mockTransactionService).get(ImmutableSet.of(1L, 2L));
+    }
+
+    @Value.Immutable
+    interface TestReadBatchElement extends BatchElement<Set<Long>, Map<Long, Long>> {
+        static TestReadBatchElement of(Long... startTimestamps) {
+            return ImmutableTestReadBatchElement.builder()
+                    .argument(ImmutableSet.copyOf(startTimestamps))
+                    .result(SettableFuture.create())
+                    .build();
+        }
+
+        default Map<Long, Long> getNow() {
+            return Futures.getUnchecked(result());
+        }
+    }
+}
@@ -81,6 +81,14 @@ public class TransactionServicesTest {
         assertThat(transactionService.get(startTs)).isEqualTo(commitTs);
     }
 
+    @Test
+    public void valuesPutMayBeSubsequentlyRetrievedV3() {
+        forceInstallVersion(3);
+        initializeTimestamps();
+        transactionService.putUnlessExists(startTs, commitTs);
+        assertThat(transactionService.get(startTs)).isEqualTo(commitTs);
+    }
+
     @Test
     public void cannotPutValuesTwiceV1() {
         initializeTimestamps();
@@ -94,6 +102,13 @@ public class TransactionServicesTest {
         assertCannotPutValuesTwice();
     }
 
+    @Test
+    public void cannotPutValuesTwiceV3() {
+        forceInstallVersion(3);
+        initializeTimestamps();
+        assertCannotPutValuesTwice();
+    }
+
     private void assertCannotPutValuesTwice() {
         transactionService.putUnlessExists(startTs, commitTs);
         assertThatThrownBy(() -> transactionService.putUnlessExists(startTs, commitTs))
@@ -125,20 +140,36 @@ public class TransactionServicesTest {
         verify(keyValueService, never()).putUnlessExists(eq(TransactionConstants.TRANSACTION_TABLE), anyMap());
     }
 
+    @Test
+    public void canCommitV3TransactionToTicketsTable() {
+        forceInstallVersion(3);
+        initializeTimestamps();
+        transactionService.putUnlessExists(startTs, commitTs);
+
+        Map<Cell, byte[]> actualArgument = verifyPueInTableAndReturnArgument(TransactionConstants.TRANSACTIONS2_TABLE);
+        assertExpectedArgument(actualArgument, TicketsEncodingStrategy.INSTANCE);
+
+        verify(keyValueService, never()).putUnlessExists(eq(TransactionConstants.TRANSACTION_TABLE), anyMap());
+    }
+
     private void initializeTimestamps() {
         startTs = timestampService.getFreshTimestamp();
         commitTs = timestampService.getFreshTimestamp();
     }
 
     private void forceInstallV2() {
+        forceInstallVersion(2);
+    }
+
+    private void forceInstallVersion(int version) {
         TransactionSchemaManager transactionSchemaManager = new TransactionSchemaManager(coordinationService);
         Awaitility.await().atMost(1, TimeUnit.SECONDS)
                 .until(() -> {
-                    transactionSchemaManager.tryInstallNewTransactionsSchemaVersion(2);
+                    transactionSchemaManager.tryInstallNewTransactionsSchemaVersion(version);
                     ((TimestampManagementService) timestampService).fastForwardTimestamp(
                             timestampService.getFreshTimestamp() + 1_000_000);
                     return transactionSchemaManager
-                            .getTransactionsSchemaVersion(timestampService.getFreshTimestamp()) == 2;
+                            .getTransactionsSchemaVersion(timestampService.getFreshTimestamp()) == version;
                 });
     }
 
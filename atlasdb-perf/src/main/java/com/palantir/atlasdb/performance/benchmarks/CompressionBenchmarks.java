@@ -0,0 +1,192 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.performance.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Lists;
+import com.palantir.atlasdb.compress.CompressionUtils;
+import com.palantir.atlasdb.compress.ZstdDictionary;
+import com.palantir.atlasdb.table.description.ColumnValueDescription.Compression;
+import com.palantir.logsafe.SafeArg;
+
+/**
+ * Compares the compression algorithms available for table values on rows shaped like typical stored values: small
+ * JSON-like records, where compressing against a dictionary trained on other rows pays off most, and larger records
+ * with more redundancy of their own. Compression ratios are logged at setup, since JMH only reports throughput.
+ */
+@State(Scope.Benchmark)
+public class CompressionBenchmarks {
+    private static final Logger log = LoggerFactory.getLogger(CompressionBenchmarks.class);
+
+    private static final int NUM_ROWS = 10_000;
+    private static final int DICTIONARY_SIZE = 16 * 1024;
+    private static final int DICTIONARY_ID = 1;
+
+    @Param({"200", "4096"})
+    public int rowSize;
+
+    private byte[][] rows;
+    private byte[][] snappyRows;
+    private byte[][] lz4Rows;
+    private byte[][] zstdRows;
+    private byte[][] zstdDictionaryRows;
+    private ZstdDictionary dictionary;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(0);
+        List<byte[]> samples = Lists.newArrayListWithCapacity(NUM_ROWS);
+        rows = new byte[NUM_ROWS][];
+        for (int i = 0; i < NUM_ROWS; i++) {
+            rows[i] = createRow(random, rowSize);
+            samples.add(rows[i]);
+        }
+        dictionary = ZstdDictionary.train(DICTIONARY_ID, samples, DICTIONARY_SIZE);
+
+        snappyRows = new byte[NUM_ROWS][];
+        lz4Rows = new byte[NUM_ROWS][];
+        zstdRows = new byte[NUM_ROWS][];
+        zstdDictionaryRows = new byte[NUM_ROWS][];
+        for (int i = 0; i < NUM_ROWS; i++) {
+            snappyRows[i] = CompressionUtils.compressWithSnappy(rows[i]);
+            lz4Rows[i] = CompressionUtils.compressWithLz4(rows[i]);
+            zstdRows[i] = CompressionUtils.compressWithZstd(rows[i]);
+            zstdDictionaryRows[i] = CompressionUtils.compressWithZstd(rows[i], dictionary);
+        }
+
+        long uncompressedSize = totalSize(rows);
+        log.info("Compression ratios for rows of about {} bytes: Snappy {}, LZ4 {}, Zstd {}, Zstd with dictionary {}",
+                SafeArg.of("rowSize", rowSize),
+                SafeArg.of("snappy", ratio(uncompressedSize, snappyRows)),
+                SafeArg.of("lz4", ratio(uncompressedSize, lz4Rows)),
+                SafeArg.of("zstd", ratio(uncompressedSize, zstdRows)),
+                SafeArg.of("zstdWithDictionary", ratio(uncompressedSize, zstdDictionaryRows)));
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    public byte[] snappyCompress() {
+        return CompressionUtils.compressWithSnappy(randomElement(rows));
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    public byte[] lz4Compress() {
+        return CompressionUtils.compressWithLz4(randomElement(rows));
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    public byte[] zstdCompress() {
+        return CompressionUtils.compressWithZstd(randomElement(rows));
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    public byte[] zstdWithDictionaryCompress() {
+        return CompressionUtils.compressWithZstd(randomElement(rows), dictionary);
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    public byte[] snappyDecompress() {
+        return CompressionUtils.decompress(randomElement(snappyRows), Compression.SNAPPY);
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    public byte[] lz4Decompress() {
+        return CompressionUtils.decompress(randomElement(lz4Rows), Compression.LZ4);
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    public byte[] zstdDecompress() {
+        return CompressionUtils.decompress(randomElement(zstdRows), Compression.ZSTD);
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    public byte[] zstdWithDictionaryDecompress() {
+        return CompressionUtils.decompress(randomElement(zstdDictionaryRows), Compression.ZSTD);
+    }
+
+    private static byte[] randomElement(byte[][] values) {
+        return values[ThreadLocalRandom.current().nextInt(values.length)];
+    }
+
+    private static byte[] createRow(Random random, int approximateSize) {
+        StringBuilder row = new StringBuilder("[");
+        while (row.length() < approximateSize) {
+            if (row.length() > 1) {
+                row.append(',');
+            }
+            row.append("{\"id\":").append(random.nextInt(1_000_000))
+                    .append(",\"type\":\"").append(random.nextBoolean() ? "ACCOUNT" : "TRANSFER")
+                    .append("\",\"amount\":").append(random.nextInt(100_000))
+                    .append(",\"currency\":\"").append(random.nextInt(4) == 0 ? "EUR" : "USD")
+                    .append("\",\"createdAt\":").append(1_500_000_000_000L + random.nextInt())
+                    .append('}');
+        }
+        return row.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long totalSize(byte[][] values) {
+        long size = 0;
+        for (byte[] value : values) {
+            size += value.length;
+        }
+        return size;
+    }
+
+    private static String ratio(long uncompressedSize, byte[][] compressedValues) {
+        return String.format("%.2f", (double) uncompressedSize / totalSize(compressedValues));
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.performance.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.keyvalue.impl.InMemoryKeyValueService;
+import com.palantir.common.base.ClosableIterator;
+
+/**
+ * Compares the on-heap and off-heap variants of {@link InMemoryKeyValueService}. Both are loaded with the same table
+ * of {@value #NUM_ROWS} rows before measurement; run with {@code -prof gc} to also compare allocation rates and time
+ * spent in garbage collection.
+ */
+@State(Scope.Benchmark)
+public class InMemoryKeyValueServiceBenchmarks {
+    private static final TableReference TABLE = TableReference.createFromFullyQualifiedName("benchmarks.inmemory");
+    private static final int NUM_ROWS = 500_000;
+    private static final int VALUE_SIZE = 100;
+    private static final int GET_BATCH_SIZE = 100;
+    private static final int RANGE_SIZE = 1_000;
+    private static final byte[] COLUMN = PtBytes.toBytes("col");
+    private static final long TIMESTAMP = 100L;
+
+    private KeyValueService onHeapKvs;
+    private KeyValueService offHeapKvs;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        onHeapKvs = createAndLoad(new InMemoryKeyValueService(false));
+        offHeapKvs = createAndLoad(InMemoryKeyValueService.createOffHeap(false));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        onHeapKvs.close();
+        offHeapKvs.close();
+    }
+
+    @Benchmark
+    @Threads(8)
+    @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    public Map<Cell, Value> onHeapGet() {
+        return onHeapKvs.get(TABLE, randomCells());
+    }
+
+    @Benchmark
+    @Threads(8)
+    @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    public Map<Cell, Value> offHeapGet() {
+        return offHeapKvs.get(TABLE, randomCells());
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    public int onHeapGetRange() {
+        return scanRandomRange(onHeapKvs);
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    public int offHeapGetRange() {
+        return scanRandomRange(offHeapKvs);
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    public Cell onHeapPut() {
+        return putRandomCell(onHeapKvs);
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    public Cell offHeapPut() {
+        return putRandomCell(offHeapKvs);
+    }
+
+    private static KeyValueService createAndLoad(KeyValueService kvs) {
+        kvs.createTable(TABLE, AtlasDbConstants.GENERIC_TABLE_METADATA);
+        byte[] value = new byte[VALUE_SIZE];
+        Map<Cell, byte[]> batch = Maps.newHashMap();
+        for (int row = 0; row < NUM_ROWS; row++) {
+            batch.put(cell(row), value);
+            if (batch.size() == 10_000) {
+                kvs.put(TABLE, batch, TIMESTAMP);
+                batch.clear();
+            }
+        }
+        kvs.put(TABLE, batch, TIMESTAMP);
+        return kvs;
+    }
+
+    private static Map<Cell, Long> randomCells() {
+        Map<Cell, Long> cells = Maps.newHashMapWithExpectedSize(GET_BATCH_SIZE);
+        for (int i = 0; i < GET_BATCH_SIZE; i++) {
+            cells.put(cell(ThreadLocalRandom.current().nextInt(NUM_ROWS)), Long.MAX_VALUE);
+        }
+        return cells;
+    }
+
+    private static int scanRandomRange(KeyValueService kvs) {
+        int startRow = ThreadLocalRandom.current().nextInt(NUM_ROWS - RANGE_SIZE);
+        RangeRequest range = RangeRequest.builder()
+                .startRowInclusive(row(startRow))
+                .endRowExclusive(row(startRow + RANGE_SIZE))
+                .build();
+        int numRows = 0;
+        try (ClosableIterator<RowResult<Value>> rows = kvs.getRange(TABLE, range, Long.MAX_VALUE)) {
+            while (rows.hasNext()) {
+                rows.next();
+                numRows++;
+            }
+        }
+        return numRows;
+    }
+
+    private static Cell putRandomCell(KeyValueService kvs) {
+        Cell cell = cell(ThreadLocalRandom.current().nextInt(NUM_ROWS));
+        long timestamp = ThreadLocalRandom.current().nextLong(TIMESTAMP + 1, Long.MAX_VALUE);
+        kvs.put(TABLE, ImmutableMap.of(cell, new byte[VALUE_SIZE]), timestamp);
+        return cell;
+    }
+
+    private static Cell cell(int row) {
+        return Cell.create(row(row), COLUMN);
+    }
+
+    private static byte[] row(int row) {
+        return PtBytes.toBytes(String.format("row%08d", row));
+    }
+}
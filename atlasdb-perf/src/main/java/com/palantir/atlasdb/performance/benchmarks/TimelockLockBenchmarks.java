@@ -0,0 +1,140 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.performance.benchmarks;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.palantir.atlasdb.timelock.lock.AsyncResult;
+import com.palantir.atlasdb.timelock.lock.ExclusiveLock;
+import com.palantir.atlasdb.timelock.lock.ImmutableTimestampTracker;
+import com.palantir.lock.StringLockDescriptor;
+
+/**
+ * Measures how the in-memory TimeLock lock structures scale with the number of concurrent callers.
+ *
+ * The immutable timestamp benchmarks mimic starting and finishing a transaction: lock a fresh timestamp, read the
+ * immutable timestamp, and unlock the timestamp. The exclusive lock benchmarks repeatedly lock and unlock a single,
+ * hot lock descriptor; requests that find the lock held are queued and spun on until they are granted.
+ */
+@State(Scope.Benchmark)
+public class TimelockLockBenchmarks {
+    private final AtomicLong timestamps = new AtomicLong();
+
+    private ImmutableTimestampTracker tracker;
+    private ExclusiveLock exclusiveLock;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        tracker = new ImmutableTimestampTracker();
+        exclusiveLock = new ExclusiveLock(StringLockDescriptor.of("hot-lock"));
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    public Optional<Long> immutableTimestampOneThread() {
+        return lockAndUnlockImmutableTimestamp();
+    }
+
+    @Benchmark
+    @Threads(4)
+    @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    public Optional<Long> immutableTimestampFourThreads() {
+        return lockAndUnlockImmutableTimestamp();
+    }
+
+    @Benchmark
+    @Threads(16)
+    @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    public Optional<Long> immutableTimestampSixteenThreads() {
+        return lockAndUnlockImmutableTimestamp();
+    }
+
+    @Benchmark
+    @Threads(64)
+    @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    public Optional<Long> immutableTimestampSixtyFourThreads() {
+        return lockAndUnlockImmutableTimestamp();
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    public UUID exclusiveLockOneThread() {
+        return lockAndUnlockExclusiveLock();
+    }
+
+    @Benchmark
+    @Threads(4)
+    @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    public UUID exclusiveLockFourThreads() {
+        return lockAndUnlockExclusiveLock();
+    }
+
+    @Benchmark
+    @Threads(16)
+    @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    public UUID exclusiveLockSixteenThreads() {
+        return lockAndUnlockExclusiveLock();
+    }
+
+    @Benchmark
+    @Threads(64)
+    @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    public UUID exclusiveLockSixtyFourThreads() {
+        return lockAndUnlockExclusiveLock();
+    }
+
+    private Optional<Long> lockAndUnlockImmutableTimestamp() {
+        long timestamp = timestamps.incrementAndGet();
+        UUID requestId = UUID.randomUUID();
+        tracker.lock(timestamp, requestId);
+        Optional<Long> immutableTimestamp = tracker.getImmutableTimestamp();
+        tracker.unlock(timestamp, requestId);
+        return immutableTimestamp;
+    }
+
+    private UUID lockAndUnlockExclusiveLock() {
+        UUID requestId = UUID.randomUUID();
+        AsyncResult<Void> result = exclusiveLock.lock(requestId);
+        while (!result.isComplete()) {
+            Thread.yield();
+        }
+        exclusiveLock.unlock(requestId);
+        return requestId;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.performance.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.codahale.metrics.MetricRegistry;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.palantir.atlasdb.cache.TimestampCache;
+
+/**
+ * Compares the primitive {@link TimestampCache} against a Caffeine cache of boxed longs, which is how the timestamp
+ * cache used to be implemented. Keys are drawn from a range twice the size of the cache, so roughly half of the
+ * reads miss and half of the writes evict.
+ */
+@State(Scope.Benchmark)
+public class TimestampCacheBenchmarks {
+    private static final long CACHE_SIZE = 1_000_000;
+    private static final long KEY_RANGE = 2 * CACHE_SIZE;
+
+    private TimestampCache timestampCache;
+    private Cache<Long, Long> caffeineCache;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        timestampCache = new TimestampCache(new MetricRegistry(), () -> CACHE_SIZE);
+        caffeineCache = Caffeine.newBuilder()
+                .maximumSize(CACHE_SIZE)
+                .recordStats()
+                .build();
+        for (long key = 0; key < KEY_RANGE; key++) {
+            timestampCache.putAlreadyCommittedTransaction(key, key + 1);
+            caffeineCache.put(key, key + 1);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    public Long primitiveCacheGet() {
+        return timestampCache.getCommitTimestampIfPresent(randomKey());
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    public Long caffeineCacheGet() {
+        return caffeineCache.getIfPresent(randomKey());
+    }
+
+    @Benchmark
+    @Threads(32)
+    @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    public Long primitiveCacheGetAndPutManyThreads() {
+        long key = randomKey();
+        Long commitTimestamp = timestampCache.getCommitTimestampIfPresent(key);
+        if (commitTimestamp == null) {
+            timestampCache.putAlreadyCommittedTransaction(key, key + 1);
+        }
+        return commitTimestamp;
+    }
+
+    @Benchmark
+    @Threads(32)
+    @Warmup(time = 3, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    public Long caffeineCacheGetAndPutManyThreads() {
+        long key = randomKey();
+        Long commitTimestamp = caffeineCache.getIfPresent(key);
+        if (commitTimestamp == null) {
+            caffeineCache.put(key, key + 1);
+        }
+        return commitTimestamp;
+    }
+
+    private static long randomKey() {
+        return ThreadLocalRandom.current().nextLong(KEY_RANGE);
+    }
+}
@@ -17,6 +17,7 @@ package com.palantir.atlasdb.keyvalue.impl;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.is;
@@ -74,6 +75,7 @@ import com.palantir.atlasdb.keyvalue.api.ColumnRangeSelection;
 import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
 import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.MultiCheckAndSetResult;
 import com.palantir.atlasdb.keyvalue.api.RangeRequest;
 import com.palantir.atlasdb.keyvalue.api.RangeRequests;
 import com.palantir.atlasdb.keyvalue.api.RowColumnRangeIterator;
@@ -1674,6 +1676,44 @@ public abstract class AbstractKeyValueServiceTest {
         verifyCheckAndSet(nextTestCell, val(0, 1));
     }
 
+    @Test
+    public void testMultiCheckAndSetAppliesRequestsForDifferentRows() {
+        Assume.assumeTrue(checkAndSetSupported());
+        Cell firstTestCell = Cell.create(row(0), column(0));
+        Cell nextTestCell = Cell.create(row(1), column(0));
+        keyValueService.checkAndSet(CheckAndSetRequest.newCell(TEST_TABLE, nextTestCell, val(0, 0)));
+
+        CheckAndSetRequest firstRequest = CheckAndSetRequest.newCell(TEST_TABLE, firstTestCell, val(0, 1));
+        CheckAndSetRequest nextRequest = CheckAndSetRequest.singleCell(TEST_TABLE, nextTestCell, val(0, 0), val(0, 1));
+        MultiCheckAndSetResult result = keyValueService.multiCheckAndSet(ImmutableList.of(firstRequest, nextRequest));
+
+        assertThat(result.successfulRequests(), containsInAnyOrder(firstRequest, nextRequest));
+        assertTrue(result.failedRequests().isEmpty());
+        assertTrue(result.unappliedRequests().isEmpty());
+        Map<Cell, Value> values = keyValueService.get(TEST_TABLE, ImmutableMap.of(firstTestCell, 1L, nextTestCell, 1L));
+        assertArrayEquals(val(0, 1), values.get(firstTestCell).getContents());
+        assertArrayEquals(val(0, 1), values.get(nextTestCell).getContents());
+    }
+
+    @Test
+    public void testMultiCheckAndSetReportsFailedRequestsWithExistingValues() {
+        Assume.assumeTrue(checkAndSetSupported());
+        Cell firstTestCell = Cell.create(row(0), column(0));
+        Cell nextTestCell = Cell.create(row(1), column(0));
+        keyValueService.checkAndSet(CheckAndSetRequest.newCell(TEST_TABLE, firstTestCell, val(0, 0)));
+
+        CheckAndSetRequest failingRequest = CheckAndSetRequest.newCell(TEST_TABLE, firstTestCell, val(0, 1));
+        CheckAndSetRequest succeedingRequest = CheckAndSetRequest.newCell(TEST_TABLE, nextTestCell, val(0, 1));
+        MultiCheckAndSetResult result = keyValueService.multiCheckAndSet(
+                ImmutableList.of(failingRequest, succeedingRequest));
+
+        assertThat(result.successfulRequests(), contains(succeedingRequest));
+        assertThat(result.failedRequests().keySet(), contains(failingRequest));
+        assertThat(result.failedRequests().get(failingRequest), contains(val(0, 0)));
+        assertTrue(result.unappliedRequests().isEmpty());
+        verifyCheckAndSet(firstTestCell, val(0, 0));
+    }
+
     @Test
     public void testAddGcSentinelValues() {
         putTestDataForMultipleTimestamps();
@@ -45,6 +45,10 @@ public class TestResourceManager extends ExternalResource implements KvsManager,
         return new TestResourceManager(() -> new InMemoryKeyValueService(false));
     }
 
+    public static TestResourceManager inMemoryOffHeap() {
+        return new TestResourceManager(() -> InMemoryKeyValueService.createOffHeap(false));
+    }
+
     @Override
     public KeyValueService getDefaultKvs() {
         return getKvsSupplier.get();
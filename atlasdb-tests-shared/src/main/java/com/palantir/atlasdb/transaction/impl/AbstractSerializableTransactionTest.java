@@ -21,6 +21,7 @@ import static org.junit.Assert.fail;
 
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CyclicBarrier;
@@ -38,6 +39,7 @@ import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Ordering;
+import com.google.common.collect.Sets;
 import com.google.common.primitives.UnsignedBytes;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.palantir.atlasdb.cleaner.NoOpCleaner;
@@ -53,6 +55,7 @@ import com.palantir.atlasdb.keyvalue.impl.TransactionManagerManager;
 import com.palantir.atlasdb.sweep.queue.MultiTableSweepQueueWriter;
 import com.palantir.atlasdb.table.description.ValueType;
 import com.palantir.atlasdb.transaction.ImmutableTransactionConfig;
+import com.palantir.atlasdb.transaction.TransactionConfig;
 import com.palantir.atlasdb.transaction.api.AtlasDbConstraintCheckingMode;
 import com.palantir.atlasdb.transaction.api.ConflictHandler;
 import com.palantir.atlasdb.transaction.api.Transaction;
@@ -69,6 +72,9 @@ import com.palantir.lock.impl.LegacyTimelockService;
 
 public abstract class AbstractSerializableTransactionTest extends AbstractTransactionTest {
 
+    // Enough rows for the reads to be verified in several batches, and so on several threads.
+    private static final int NUM_ROWS_SPANNING_MANY_BATCHES = 2_500;
+
     public AbstractSerializableTransactionTest(KvsManager kvsManager, TransactionManagerManager tmManager) {
         super(kvsManager, tmManager);
     }
@@ -124,7 +130,7 @@ public abstract class AbstractSerializableTransactionTest extends AbstractTransa
                 getSweepQueueWriterInitialized(),
                 MoreExecutors.newDirectExecutorService(),
                 true,
-                () -> ImmutableTransactionConfig.builder().build()) {
+                this::getTransactionConfig) {
             @Override
             protected Map<Cell, byte[]> transformGetsForTesting(Map<Cell, byte[]> map) {
                 return Maps.transformValues(map, input -> input.clone());
@@ -132,6 +138,10 @@ public abstract class AbstractSerializableTransactionTest extends AbstractTransa
         };
     }
 
+    protected TransactionConfig getTransactionConfig() {
+        return ImmutableTransactionConfig.builder().build();
+    }
+
     protected MultiTableSweepQueueWriter getSweepQueueWriterUninitialized() {
         return MultiTableSweepQueueWriter.NO_OP;
     }
@@ -541,6 +551,49 @@ public abstract class AbstractSerializableTransactionTest extends AbstractTransa
         t1.commit();
     }
 
+    @Test
+    public void testReadsSpanningManyBatchesCanCommit() {
+        Set<Cell> cells = writeManyRows();
+
+        Transaction t1 = startTransaction();
+        t1.get(TEST_TABLE, cells);
+        BatchingVisitables.copyToList(t1.getRange(TEST_TABLE, RangeRequest.builder().build()));
+        put(t1, "row0", "col1", "101");
+
+        t1.commit();
+    }
+
+    @Test
+    public void testConflictInOneOfManyReadBatchesIsDetected() {
+        Set<Cell> cells = writeManyRows();
+
+        Transaction t1 = startTransaction();
+        t1.get(TEST_TABLE, cells);
+        put(t1, "row0", "col1", "101");
+
+        Transaction t2 = startTransaction();
+        put(t2, "row" + (NUM_ROWS_SPANNING_MANY_BATCHES - 1), "col1", "101");
+        t2.commit();
+
+        try {
+            t1.commit();
+            fail();
+        } catch (TransactionSerializableConflictException e) {
+            // expected
+        }
+    }
+
+    private Set<Cell> writeManyRows() {
+        Transaction t0 = startTransaction();
+        Set<Cell> cells = Sets.newHashSet();
+        for (int i = 0; i < NUM_ROWS_SPANNING_MANY_BATCHES; i++) {
+            put(t0, "row" + i, "col1", "100");
+            cells.add(Cell.create(PtBytes.toBytes("row" + i), PtBytes.toBytes("col1")));
+        }
+        t0.commit();
+        return cells;
+    }
+
     private BatchingVisitable<RowResult<byte[]>> getRangeRetainingCol(Transaction txn, String col) {
         return txn.getRange(TEST_TABLE,
                 RangeRequest.builder().retainColumns(ImmutableList.of(PtBytes.toBytes(col))).build());
@@ -16,16 +16,23 @@
 package com.palantir.atlasdb.compress;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import org.junit.Test;
 
+import com.google.common.collect.Lists;
 import com.palantir.atlasdb.table.description.ColumnValueDescription.Compression;
 
 public class CompressionUtilsTest {
+    private static final int DICTIONARY_ID = 17;
     @Test
     public void testCompressAndDecompress() {
         byte[] original = new byte[] { 1, 1, 1, 1, 1, 1, 1, 1, 1, 1 };
@@ -73,4 +80,153 @@ public class CompressionUtilsTest {
         }
         assertTrue(threwIllegalArgumentException);
     }
+
+    @Test
+    public void testCompressAndDecompressWithLz4() {
+        byte[] original = new byte[1024];
+        byte[] compressed = CompressionUtils.compress(original, Compression.LZ4);
+        assertTrue(compressed.length < original.length);
+        byte[] decompressed = CompressionUtils.decompress(compressed, Compression.LZ4);
+        assertArrayEquals(original, decompressed);
+    }
+
+    @Test
+    public void testCompressAndDecompressWithZstd() {
+        byte[] original = new byte[1024];
+        byte[] compressed = CompressionUtils.compress(original, Compression.ZSTD);
+        assertTrue(compressed.length < original.length);
+        byte[] decompressed = CompressionUtils.decompress(compressed, Compression.ZSTD);
+        assertArrayEquals(original, decompressed);
+    }
+
+    @Test
+    public void testCompressAndDecompressEmptyValues() {
+        for (Compression compression : Compression.values()) {
+            byte[] compressed = CompressionUtils.compress(new byte[0], compression);
+            assertArrayEquals(new byte[0], CompressionUtils.decompress(compressed, compression));
+        }
+    }
+
+    @Test
+    public void testCompressAndDecompressWithZstdDictionary() {
+        List<byte[]> samples = sampleRows(2_000);
+        ZstdDictionary dictionary = ZstdDictionary.train(DICTIONARY_ID, samples, 4096);
+        byte[] original = sampleRow(123_456);
+
+        byte[] compressed = CompressionUtils.compressWithZstd(original, dictionary);
+        assertTrue(compressed.length < CompressionUtils.compressWithZstd(original).length);
+        byte[] decompressed = CompressionUtils.decompress(compressed, Compression.ZSTD);
+        assertArrayEquals(original, decompressed);
+    }
+
+    @Test
+    public void testCannotRegisterDifferentDictionariesWithSameId() {
+        CompressionUtils.registerZstdDictionary(ZstdDictionary.train(DICTIONARY_ID + 1, sampleRows(2_000), 4096));
+        boolean threwIllegalArgumentException = false;
+        try {
+            CompressionUtils.registerZstdDictionary(ZstdDictionary.of(DICTIONARY_ID + 1, new byte[] { 1, 2, 3 }));
+        } catch (IllegalArgumentException e) {
+            threwIllegalArgumentException = true;
+        }
+        assertTrue(threwIllegalArgumentException);
+    }
+
+    @Test
+    public void testCompressAndDecompressDirectBuffers() {
+        byte[] original = sampleRow(42);
+        for (Compression compression : Compression.values()) {
+            ByteBuffer source = ByteBuffer.allocateDirect(original.length);
+            source.put(original).flip();
+            ByteBuffer compressed = ByteBuffer.allocateDirect(
+                    CompressionUtils.maxCompressedLength(original.length, compression));
+            int compressedLength = CompressionUtils.compress(source, compressed, compression);
+            assertEquals(compressedLength, compressed.position());
+            assertFalse(source.hasRemaining());
+
+            compressed.flip();
+            assertEquals(original.length, CompressionUtils.getDecompressedLength(compressed, compression));
+            ByteBuffer decompressed = ByteBuffer.allocateDirect(original.length);
+            assertEquals(original.length, CompressionUtils.decompress(compressed, decompressed, compression));
+
+            byte[] result = new byte[original.length];
+            decompressed.flip();
+            decompressed.get(result);
+            assertArrayEquals(original, result);
+        }
+    }
+
+    @Test
+    public void testCompressAndDecompressHeapBuffersWithZstd() {
+        byte[] original = sampleRow(42);
+        ByteBuffer compressed = ByteBuffer.allocate(
+                CompressionUtils.maxCompressedLength(original.length, Compression.ZSTD));
+        CompressionUtils.compress(ByteBuffer.wrap(original), compressed, Compression.ZSTD);
+        compressed.flip();
+
+        byte[] result = new byte[original.length];
+        CompressionUtils.decompress(compressed, ByteBuffer.wrap(result), Compression.ZSTD);
+        assertArrayEquals(original, result);
+    }
+
+    @Test
+    public void testDecompressExceptionWithLz4() {
+        byte[] compressed = new byte[] { 0, 0, 0, 8, 1, 2, 3 };  // invalid
+        boolean threwIllegalArgumentException = false;
+        try {
+            CompressionUtils.decompress(compressed, Compression.LZ4);
+        } catch (IllegalArgumentException e) {
+            threwIllegalArgumentException = true;
+        }
+        assertTrue(threwIllegalArgumentException);
+    }
+
+    @Test
+    public void testDecompressExceptionWithZstd() {
+        byte[] compressed = new byte[] { 0, 0, 0, 0, 0, 0, 0, 8, 1, 2, 3 };  // invalid
+        boolean threwIllegalArgumentException = false;
+        try {
+            CompressionUtils.decompress(compressed, Compression.ZSTD);
+        } catch (IllegalArgumentException e) {
+            threwIllegalArgumentException = true;
+        }
+        assertTrue(threwIllegalArgumentException);
+    }
+
+    @Test
+    public void testDecompressExceptionWithZstdHeaderClaimingTooLongValue() {
+        byte[] compressed = new byte[] { 0, 0, 0, 0, 0x7f, -1, -1, -1, 1, 2, 3 };  // claims 2 GiB decompressed
+        boolean threwIllegalArgumentException = false;
+        try {
+            CompressionUtils.decompress(compressed, Compression.ZSTD);
+        } catch (IllegalArgumentException e) {
+            threwIllegalArgumentException = true;
+        }
+        assertTrue(threwIllegalArgumentException);
+    }
+
+    @Test
+    public void testTrainZstdDictionaryRejectsSamplesTotallingMoreThanTwoGibibytes() {
+        List<byte[]> samples = Collections.nCopies(33, new byte[64 * 1024 * 1024]);
+        boolean threwIllegalArgumentException = false;
+        try {
+            ZstdDictionary.train(DICTIONARY_ID + 2, samples, 4096);
+        } catch (IllegalArgumentException e) {
+            threwIllegalArgumentException = true;
+        }
+        assertTrue(threwIllegalArgumentException);
+    }
+
+    private static List<byte[]> sampleRows(int numRows) {
+        List<byte[]> rows = Lists.newArrayListWithCapacity(numRows);
+        for (int i = 0; i < numRows; i++) {
+            rows.add(sampleRow(i));
+        }
+        return rows;
+    }
+
+    private static byte[] sampleRow(int id) {
+        return String.format("{\"id\":%d,\"name\":\"user-%d\",\"status\":\"%s\",\"createdAt\":%d}",
+                id, id * 31, id % 3 == 0 ? "ACTIVE" : "INACTIVE", 1_500_000_000_000L + id)
+                .getBytes(StandardCharsets.UTF_8);
+    }
 }
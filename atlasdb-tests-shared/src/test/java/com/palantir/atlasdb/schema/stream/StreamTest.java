@@ -31,6 +31,9 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
@@ -84,6 +87,8 @@ import com.palantir.atlasdb.schema.stream.generated.TestHashComponentsStreamMeta
 import com.palantir.atlasdb.schema.stream.generated.TestHashComponentsStreamMetadataTable.TestHashComponentsStreamMetadataRow;
 import com.palantir.atlasdb.schema.stream.generated.TestHashComponentsStreamStore;
 import com.palantir.atlasdb.schema.stream.generated.TestHashComponentsStreamValueTable.TestHashComponentsStreamValueRow;
+import com.palantir.atlasdb.stream.GenericStreamStore;
+import com.palantir.atlasdb.stream.ImmutableStreamStorePersistenceConfiguration;
 import com.palantir.atlasdb.stream.PersistentStreamStore;
 import com.palantir.atlasdb.table.description.Schemas;
 import com.palantir.atlasdb.transaction.api.Transaction;
@@ -299,6 +304,25 @@ public class StreamTest extends AtlasDbTestCase {
         storeAndCheckByteStreams(maxMemStore, getIncompressibleBytes(20_000_000));
     }
 
+    @Test
+    public void testStoreLargeStreamsWithConcurrentWrites() throws IOException {
+        PersistentStreamStore concurrentStore = StreamTestStreamStore.of(txManager, StreamTestTableFactory.of(),
+                () -> ImmutableStreamStorePersistenceConfiguration.builder().numBlocksToWriteConcurrently(3).build());
+        for (int size : ImmutableList.of(100, 3 * GenericStreamStore.BLOCK_SIZE_IN_BYTES, 7_500_000)) {
+            byte[] bytesToStore = getIncompressibleBytes(size);
+            Pair<Long, Sha256Hash> idAndHash = concurrentStore.storeStream(new ByteArrayInputStream(bytesToStore));
+            assertEquals(Sha256Hash.computeHash(bytesToStore), idAndHash.getRhSide());
+            verifyLoadingStreams(concurrentStore, idAndHash.getLhSide(), bytesToStore);
+        }
+    }
+
+    @Test
+    public void testLoadLargeStreamsWithReadAhead() throws IOException {
+        PersistentStreamStore readAheadStore = StreamTestStreamStore.of(txManager, StreamTestTableFactory.of(),
+                () -> ImmutableStreamStorePersistenceConfiguration.builder().numBlocksToReadAhead(3).build());
+        storeAndCheckByteStreams(readAheadStore, getIncompressibleBytes(7_500_000));
+    }
+
     private long storeAndCheckByteStreams(PersistentStreamStore store, byte[] bytesToStore) throws IOException {
         byte[] reference = PtBytes.toBytes("ref");
 
@@ -328,6 +352,8 @@ public class StreamTest extends AtlasDbTestCase {
         verifyLoadSingleStream(store, id, bytesToStore);
         verifyLoadStreams(store, id, bytesToStore);
         verifyLoadStreamAsFile(store, id, bytesToStore);
+        verifyLoadStreamToChannel(store, id, bytesToStore);
+        verifyLoadStreamToFileChannel(store, id, bytesToStore);
     }
 
     @SuppressWarnings("deprecation")
@@ -353,6 +379,34 @@ public class StreamTest extends AtlasDbTestCase {
         assertArrayEquals(bytesToStore, FileUtils.readFileToByteArray(file));
     }
 
+    private void verifyLoadStreamToChannel(PersistentStreamStore store, long id, byte[] bytesToStore) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        txManager.runTaskThrowOnConflict(t -> {
+            store.loadStreamToChannel(t, id, Channels.newChannel(outputStream));
+            return null;
+        });
+        assertArrayEquals(bytesToStore, outputStream.toByteArray());
+    }
+
+    private void verifyLoadStreamToFileChannel(PersistentStreamStore store, long id, byte[] bytesToStore)
+            throws IOException {
+        byte[] prefix = PtBytes.toBytes("prefix");
+        File file = temporaryFolder.newFile();
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+                FileChannel channel = randomAccessFile.getChannel()) {
+            randomAccessFile.write(prefix);
+            txManager.runTaskThrowOnConflict(t -> {
+                store.loadStreamToChannel(t, id, channel);
+                return null;
+            });
+            assertEquals(prefix.length + bytesToStore.length, channel.position());
+        }
+
+        byte[] fileContents = FileUtils.readFileToByteArray(file);
+        assertArrayEquals(prefix, Arrays.copyOf(fileContents, prefix.length));
+        assertArrayEquals(bytesToStore, Arrays.copyOfRange(fileContents, prefix.length, fileContents.length));
+    }
+
     private void assertStreamHasBytes(InputStream stream, byte[] bytes) throws IOException {
         byte[] streamAsBytes = IOUtils.toByteArray(stream);
         assertArrayEquals(bytes, streamAsBytes);
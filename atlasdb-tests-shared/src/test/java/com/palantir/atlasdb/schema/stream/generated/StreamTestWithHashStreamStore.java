@@ -8,6 +8,8 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.util.Arrays;
@@ -133,7 +135,7 @@ public final class StreamTestWithHashStreamStore extends AbstractPersistentStrea
         StreamMetadata metadata = metaTable.getMetadatas(ImmutableSet.of(row)).values().iterator().next();
         Preconditions.checkState(metadata.getStatus() == Status.STORING, "This stream is being cleaned up while storing blocks: %s", id);
         Builder builder = StreamMetadata.newBuilder(metadata);
-        builder.setLength(blockNumber * BLOCK_SIZE_IN_BYTES + 1);
+        builder.setLength(Math.max(metadata.getLength(), blockNumber * BLOCK_SIZE_IN_BYTES + 1));
         metaTable.putMetadata(row, builder.build());
     }
 
@@ -243,6 +245,14 @@ public final class StreamTestWithHashStreamStore extends AbstractPersistentStrea
         }
     }
 
+    @Override
+    protected void tryWriteStreamToChannel(Transaction transaction, Long id, StreamMetadata metadata, WritableByteChannel channel) throws IOException {
+        try (InputStream blockStream = makeStreamUsingTransaction(transaction, id, metadata);
+                InputStream decompressingStream = new LZ4BlockInputStream(blockStream)) {
+            ByteStreams.copy(decompressingStream, Channels.newOutputStream(channel));
+        }
+    }
+
     private InputStream makeStreamUsingTransaction(Transaction parent, Long id, StreamMetadata metadata) {
         BiConsumer<Long, OutputStream> singleBlockLoader = (index, destination) ->
                 loadSingleBlockToOutputStream(parent, id, index, destination);
@@ -452,6 +462,7 @@ public final class StreamTestWithHashStreamStore extends AbstractPersistentStrea
      * {@link ByteStreams}
      * {@link ByteString}
      * {@link Cell}
+     * {@link Channels}
      * {@link CheckForNull}
      * {@link Collection}
      * {@link Collections2}
@@ -504,6 +515,7 @@ public final class StreamTestWithHashStreamStore extends AbstractPersistentStrea
      * {@link TransactionManager}
      * {@link TransactionTask}
      * {@link TxTask}
+     * {@link WritableByteChannel}
      */
     static final int dummy = 0;
 }
\ No newline at end of file
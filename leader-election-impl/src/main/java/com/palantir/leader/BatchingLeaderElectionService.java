@@ -21,8 +21,11 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.net.HostAndPort;
+import com.palantir.atlasdb.autobatch.AutobatcherMetrics;
 import com.palantir.atlasdb.autobatch.BatchElement;
+import com.palantir.atlasdb.autobatch.BatchingPolicy;
 import com.palantir.atlasdb.autobatch.DisruptorAutobatcher;
 
 public class BatchingLeaderElectionService implements LeaderElectionService {
@@ -34,6 +37,14 @@ public class BatchingLeaderElectionService implements LeaderElectionService {
         this.batcher = DisruptorAutobatcher.create(this::processBatch);
     }
 
+    public BatchingLeaderElectionService(LeaderElectionService delegate, MetricRegistry metricRegistry) {
+        this.delegate = delegate;
+        this.batcher = DisruptorAutobatcher.create(
+                this::processBatch,
+                BatchingPolicy.builder().build(),
+                AutobatcherMetrics.create(metricRegistry, "leaderElection"));
+    }
+
     @Override
     public LeadershipToken blockOnBecomingLeader() throws InterruptedException {
         try {
@@ -25,6 +25,7 @@ import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
 
 import javax.annotation.Nullable;
 
@@ -54,10 +55,27 @@ public final class AwaitingLeadershipProxy<T> extends AbstractInvocationHandler
     public static <U> U newProxyInstance(Class<U> interfaceClass,
                                          Supplier<U> delegateSupplier,
                                          LeaderElectionService leaderElectionService) {
+        return newProxyInstance(interfaceClass, delegateSupplier, leaderElectionService, Optional.empty(), () -> false);
+    }
+
+    /**
+     * Creates a proxy that, after verifying that it is still leading, skips verification for subsequent calls for
+     * half of the lease duration, as long as leasesPermitted returns true. This is only safe if every acceptor used
+     * for leader election grants leases of the same duration (see {@code LeaseGrantingPaxosAcceptor}), and if
+     * leasesPermitted only returns true while the clocks of the nodes in the cluster progress at similar rates.
+     */
+    public static <U> U newProxyInstance(Class<U> interfaceClass,
+                                         Supplier<U> delegateSupplier,
+                                         LeaderElectionService leaderElectionService,
+                                         Optional<Duration> leaseDuration,
+                                         BooleanSupplier leasesPermitted) {
         AwaitingLeadershipProxy<U> proxy = new AwaitingLeadershipProxy<>(
                 delegateSupplier,
                 leaderElectionService,
-                interfaceClass);
+                interfaceClass,
+                new AtomicReference<>(),
+                leaseDuration,
+                leasesPermitted);
         proxy.tryToGainLeadership();
 
         return (U) Proxy.newProxyInstance(
@@ -72,7 +90,7 @@ public final class AwaitingLeadershipProxy<T> extends AbstractInvocationHandler
             Class<T> interfaceClass,
             AtomicReference<LeadershipToken> leadershipTokenRef) {
         return new AwaitingLeadershipProxy<>(delegateSupplier, leaderElectionService, interfaceClass,
-                leadershipTokenRef);
+                leadershipTokenRef, Optional.empty(), () -> false);
     }
 
     final Supplier<T> delegateSupplier;
@@ -86,16 +104,17 @@ public final class AwaitingLeadershipProxy<T> extends AbstractInvocationHandler
     final AtomicReference<LeadershipToken> leadershipTokenRef;
     final AtomicReference<T> delegateRef;
     final Class<T> interfaceClass;
+    final Optional<Long> trustedLeaseNanos;
+    final BooleanSupplier leasesPermitted;
+    /**
+     * The latest lease obtained by verifying leadership, or null if there is none.
+     */
+    volatile Lease lease;
     volatile boolean isClosed;
 
-    private AwaitingLeadershipProxy(Supplier<T> delegateSupplier,
-                                    LeaderElectionService leaderElectionService,
-                                    Class<T> interfaceClass) {
-        this(delegateSupplier, leaderElectionService, interfaceClass, new AtomicReference<>());
-    }
-
     private AwaitingLeadershipProxy(Supplier<T> delegateSupplier, LeaderElectionService leaderElectionService,
-            Class<T> interfaceClass, AtomicReference<LeadershipToken> leadershipTokenRef) {
+            Class<T> interfaceClass, AtomicReference<LeadershipToken> leadershipTokenRef,
+            Optional<Duration> leaseDuration, BooleanSupplier leasesPermitted) {
         Preconditions.checkNotNull(delegateSupplier,
                 "Unable to create an AwaitingLeadershipProxy with no supplier");
         this.delegateSupplier = delegateSupplier;
@@ -104,6 +123,9 @@ public final class AwaitingLeadershipProxy<T> extends AbstractInvocationHandler
         this.leadershipTokenRef = leadershipTokenRef;
         this.delegateRef = new AtomicReference<>();
         this.interfaceClass = interfaceClass;
+        // We only trust half of the lease, leaving the rest as a margin for clock drift between the nodes.
+        this.trustedLeaseNanos = leaseDuration.map(duration -> duration.toNanos() / 2);
+        this.leasesPermitted = leasesPermitted;
         this.isClosed = false;
     }
 
@@ -203,19 +225,8 @@ public final class AwaitingLeadershipProxy<T> extends AbstractInvocationHandler
         final LeadershipToken leadershipToken = getLeadershipToken();
 
         Object delegate = delegateRef.get();
-        StillLeadingStatus leading = null;
-        for (int i = 0; i < MAX_NO_QUORUM_RETRIES; i++) {
-            // TODO(nziebart): check if leadershipTokenRef has been nulled out between iterations?
-            leading = leaderElectionService.isStillLeading(leadershipToken);
-            if (leading != StillLeadingStatus.NO_QUORUM) {
-                break;
-            }
-        }
-
-        // treat a repeated NO_QUORUM as NOT_LEADING; likely we've been cut off from the other nodes
-        // and should assume we're not the leader
-        if (leading == StillLeadingStatus.NOT_LEADING || leading == StillLeadingStatus.NO_QUORUM) {
-            markAsNotLeading(leadershipToken, null /* cause */);
+        if (!hasValidLease(leadershipToken)) {
+            verifyStillLeading(leadershipToken);
         }
 
         if (isClosed) {
@@ -240,6 +251,39 @@ public final class AwaitingLeadershipProxy<T> extends AbstractInvocationHandler
         }
     }
 
+    private void verifyStillLeading(LeadershipToken leadershipToken) {
+        StillLeadingStatus leading = null;
+        long verificationStartNanos = 0;
+        for (int i = 0; i < MAX_NO_QUORUM_RETRIES; i++) {
+            // TODO(nziebart): check if leadershipTokenRef has been nulled out between iterations?
+            verificationStartNanos = System.nanoTime();
+            leading = leaderElectionService.isStillLeading(leadershipToken);
+            if (leading != StillLeadingStatus.NO_QUORUM) {
+                break;
+            }
+        }
+
+        // treat a repeated NO_QUORUM as NOT_LEADING; likely we've been cut off from the other nodes
+        // and should assume we're not the leader
+        if (leading == StillLeadingStatus.NOT_LEADING || leading == StillLeadingStatus.NO_QUORUM) {
+            markAsNotLeading(leadershipToken, null /* cause */);
+        }
+
+        if (trustedLeaseNanos.isPresent()) {
+            // The lease is measured from before the verification started, as the acceptors may have granted it at
+            // any point after that.
+            lease = new Lease(leadershipToken, verificationStartNanos + trustedLeaseNanos.get());
+        }
+    }
+
+    private boolean hasValidLease(LeadershipToken leadershipToken) {
+        Lease currentLease = lease;
+        return currentLease != null
+                && currentLease.leadershipToken == leadershipToken
+                && System.nanoTime() - currentLease.expiryNanos < 0
+                && leasesPermitted.getAsBoolean();
+    }
+
     @VisibleForTesting
     LeadershipToken getLeadershipToken() {
         LeadershipToken leadershipToken = leadershipTokenRef.get();
@@ -302,4 +346,13 @@ public final class AwaitingLeadershipProxy<T> extends AbstractInvocationHandler
         throw notCurrentLeaderException("method invoked on a non-leader (leadership lost)", cause);
     }
 
+    private static final class Lease {
+        private final LeadershipToken leadershipToken;
+        private final long expiryNanos;
+
+        private Lease(LeadershipToken leadershipToken, long expiryNanos) {
+            this.leadershipToken = leadershipToken;
+            this.expiryNanos = expiryNanos;
+        }
+    }
 }
@@ -0,0 +1,88 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.paxos;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * A {@link PaxosAcceptor} for leader election that grants leases to the leader. Each time the acceptor reports the
+ * latest sequence it has prepared or accepted, which the leader does when verifying that it is still leading, it
+ * promises not to prepare or accept any later sequence for the lease duration.
+ *
+ * If a quorum of acceptors reports that the leader's round is the latest, then no other node can become leader until
+ * the lease duration has elapsed from the start of the leader's verification, as any quorum of acceptors it could use
+ * to do so overlaps with the quorum that granted the lease. The leader may thus continue to serve requests without
+ * verifying its leadership for (somewhat less than) the lease duration, provided that the clocks of the nodes in the
+ * cluster progress at similar rates.
+ *
+ * Leases are only held in memory, so a newly created acceptor assumes that it may have granted a lease just before
+ * it was (re)started, and does not prepare or accept any sequence until the lease duration has elapsed.
+ *
+ * All acceptors used for leader election must grant leases before any leader relies on them.
+ */
+public final class LeaseGrantingPaxosAcceptor implements PaxosAcceptor {
+    private final PaxosAcceptor delegate;
+    private final long leaseDurationNanos;
+    private final LongSupplier clock;
+
+    private long leasedSequence = PaxosAcceptor.NO_LOG_ENTRY;
+    private long leaseExpiryNanos;
+
+    @VisibleForTesting
+    LeaseGrantingPaxosAcceptor(PaxosAcceptor delegate, Duration leaseDuration, LongSupplier clock) {
+        this.delegate = delegate;
+        this.leaseDurationNanos = leaseDuration.toNanos();
+        this.clock = clock;
+        this.leaseExpiryNanos = clock.getAsLong() + leaseDurationNanos;
+    }
+
+    public static PaxosAcceptor create(PaxosAcceptor delegate, Duration leaseDuration) {
+        return new LeaseGrantingPaxosAcceptor(delegate, leaseDuration, System::nanoTime);
+    }
+
+    @Override
+    public synchronized PaxosPromise prepare(long seq, PaxosProposalId pid) {
+        if (isLeased(seq)) {
+            return PaxosPromise.reject(pid);
+        }
+        return delegate.prepare(seq, pid);
+    }
+
+    @Override
+    public synchronized BooleanPaxosResponse accept(long seq, PaxosProposal proposal) {
+        if (isLeased(seq)) {
+            return new BooleanPaxosResponse(false);
+        }
+        return delegate.accept(seq, proposal);
+    }
+
+    @Override
+    public synchronized long getLatestSequencePreparedOrAccepted() {
+        // The lease starts before we read the latest sequence, so that it covers the leader's view of it.
+        long leaseStartNanos = clock.getAsLong();
+        long latestSequence = delegate.getLatestSequencePreparedOrAccepted();
+        leasedSequence = latestSequence;
+        leaseExpiryNanos = leaseStartNanos + leaseDurationNanos;
+        return latestSequence;
+    }
+
+    private boolean isLeased(long seq) {
+        return seq > leasedSequence && clock.getAsLong() - leaseExpiryNanos < 0;
+    }
+}
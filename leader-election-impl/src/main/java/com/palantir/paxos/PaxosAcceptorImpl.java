@@ -27,7 +27,11 @@ public final class PaxosAcceptorImpl implements PaxosAcceptor {
     private static final Logger logger = LoggerFactory.getLogger(PaxosAcceptorImpl.class);
 
     public static PaxosAcceptor newAcceptor(String logDir) {
-        PaxosStateLog<PaxosAcceptorState> log = new PaxosStateLogImpl<PaxosAcceptorState>(logDir);
+        return newAcceptor(logDir, PaxosStateLogFormat.FILE_PER_ROUND);
+    }
+
+    public static PaxosAcceptor newAcceptor(String logDir, PaxosStateLogFormat logFormat) {
+        PaxosStateLog<PaxosAcceptorState> log = logFormat.createLog(logDir);
         return new PaxosAcceptorImpl(
                 new ConcurrentSkipListMap<Long, PaxosAcceptorState>(),
                 log,
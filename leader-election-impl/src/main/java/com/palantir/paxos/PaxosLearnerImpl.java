@@ -37,7 +37,14 @@ public final class PaxosLearnerImpl implements PaxosLearner {
     }
 
     public static PaxosLearner newLearner(String logDir, PaxosKnowledgeEventRecorder eventRecorder) {
-        PaxosStateLogImpl<PaxosValue> log = new PaxosStateLogImpl<PaxosValue>(logDir);
+        return newLearner(logDir, eventRecorder, PaxosStateLogFormat.FILE_PER_ROUND);
+    }
+
+    public static PaxosLearner newLearner(
+            String logDir,
+            PaxosKnowledgeEventRecorder eventRecorder,
+            PaxosStateLogFormat logFormat) {
+        PaxosStateLog<PaxosValue> log = logFormat.createLog(logDir);
         ConcurrentSkipListMap<Long, PaxosValue> state = new ConcurrentSkipListMap<Long, PaxosValue>();
 
         byte[] greatestValidValue = PaxosStateLogs.getGreatestValidLogEntry(log);
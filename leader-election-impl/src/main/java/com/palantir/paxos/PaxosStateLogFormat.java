@@ -0,0 +1,43 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.paxos;
+
+import com.palantir.common.persist.Persistable;
+
+public enum PaxosStateLogFormat {
+    /**
+     * One file per round; see {@link PaxosStateLogImpl}.
+     */
+    FILE_PER_ROUND {
+        @Override
+        public <V extends Persistable & Versionable> PaxosStateLog<V> createLog(String logDir) {
+            return new PaxosStateLogImpl<>(logDir);
+        }
+    },
+    /**
+     * Append-only segment files; see {@link SegmentedPaxosStateLog}. Logs in the {@link #FILE_PER_ROUND} format
+     * are migrated on startup, and this cannot be undone.
+     */
+    SEGMENTED {
+        @Override
+        public <V extends Persistable & Versionable> PaxosStateLog<V> createLog(String logDir) {
+            return new SegmentedPaxosStateLog<>(logDir);
+        }
+    };
+
+    public abstract <V extends Persistable & Versionable> PaxosStateLog<V> createLog(String logDir);
+}
@@ -0,0 +1,562 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.paxos;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
+import com.palantir.common.base.Throwables;
+import com.palantir.common.persist.Persistable;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.UnsafeArg;
+import com.palantir.util.crypto.Sha256Hash;
+
+/**
+ * A {@link PaxosStateLog} that appends rounds to a small number of large segment files, rather than writing one file
+ * per round as {@link PaxosStateLogImpl} does.
+ *
+ * Each record in a segment consists of a header (record type, sequence number and payload length), the payload, and
+ * a SHA-256 checksum of the header and payload. An in-memory index from sequence number to record location is
+ * rebuilt by replaying the segments on startup; a torn record at the end of the last segment (for example, after a
+ * crash during a write) is discarded, but any other invalid record fails startup with a
+ * {@link PaxosStateLog.CorruptLogFileException}, as {@link PaxosStateLogImpl} does.
+ *
+ * Writers append under a lock, but fsync outside of it: a writer that finds its record has not yet been synced
+ * syncs everything appended so far, so concurrent writers share a single fsync (group commit).
+ *
+ * Truncation is persisted as a record of its own, and whole segments are deleted once every round in them has been
+ * truncated and the truncation record is durable.
+ *
+ * On startup, rounds stored in the format of {@link PaxosStateLogImpl} in the same directory are imported into
+ * the segmented log and then deleted. Note that this migration is one-way: {@link PaxosStateLogImpl} does not read
+ * segment files.
+ */
+public class SegmentedPaxosStateLog<V extends Persistable & Versionable> implements PaxosStateLog<V> {
+    private static final Logger log = LoggerFactory.getLogger(SegmentedPaxosStateLog.class);
+
+    @VisibleForTesting
+    static final long DEFAULT_SEGMENT_SIZE_BYTES = 64 * 1024 * 1024;
+
+    private static final Pattern SEGMENT_FILE_NAME = Pattern.compile("segment-(\\d+)\\.log");
+    private static final String LEGACY_TMP_FILE_SUFFIX = ".tmp";
+
+    private static final byte ROUND_RECORD = 1;
+    private static final byte TRUNCATE_RECORD = 2;
+    private static final int HEADER_SIZE = Byte.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int CHECKSUM_SIZE = 32;
+
+    private final File directory;
+    private final long segmentSizeBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final NavigableMap<Long, RecordLocation> index = new TreeMap<>();
+    private final NavigableMap<Long, Segment> segments = new TreeMap<>();
+    private final Map<Long, Long> seqToVersionMap = Maps.newHashMap();
+    private Segment currentSegment;
+    private long truncatedUpToInclusive = PaxosAcceptor.NO_LOG_ENTRY - 1;
+    private boolean everTruncated = false;
+
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private long appendedBytes = 0;
+    private final AtomicLong durableBytes = new AtomicLong();
+
+    public SegmentedPaxosStateLog(String path) {
+        this(path, DEFAULT_SEGMENT_SIZE_BYTES);
+    }
+
+    @VisibleForTesting
+    SegmentedPaxosStateLog(String path, long segmentSizeBytes) {
+        this.directory = new File(path);
+        this.segmentSizeBytes = segmentSizeBytes;
+        try {
+            FileUtils.forceMkdir(directory);
+            loadSegments();
+            if (currentSegment == null) {
+                currentSegment = openSegment(0);
+            }
+            migrateLegacyEntries();
+        } catch (IOException e) {
+            throw new RuntimeException("IO problem related to the path " + directory.getAbsolutePath(), e);
+        }
+    }
+
+    @Override
+    public void writeRound(long seq, V round) {
+        long position;
+        lock.lock();
+        try {
+            // reject old state
+            Long latestVersion = seqToVersionMap.get(seq);
+            if (latestVersion != null && round.getVersion() < latestVersion) {
+                return;
+            }
+
+            position = append(ROUND_RECORD, seq, round.persistToBytes());
+            seqToVersionMap.put(seq, round.getVersion());
+        } catch (IOException e) {
+            log.error("problem writing paxos state", e);
+            throw Throwables.throwUncheckedException(e);
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(position);
+    }
+
+    @Override
+    public byte[] readRound(long seq) throws IOException {
+        lock.lock();
+        try {
+            RecordLocation location = index.get(seq);
+            if (location == null) {
+                return null;
+            }
+            ByteBuffer record = location.segment.read(location.offset, recordSize(location.payloadLength));
+            if (!hasValidChecksum(record)) {
+                log.error("Problem reading paxos state, specifically when reading sequence {} from segment {}",
+                        SafeArg.of("sequence", seq),
+                        UnsafeArg.of("segment", location.segment.file.getAbsolutePath()));
+                throw new CorruptLogFileException();
+            }
+            return Arrays.copyOfRange(record.array(), HEADER_SIZE, HEADER_SIZE + location.payloadLength);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getLeastLogEntry() {
+        lock.lock();
+        try {
+            if (!everTruncated || index.isEmpty()) {
+                return PaxosAcceptor.NO_LOG_ENTRY;
+            }
+            return index.firstKey();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getGreatestLogEntry() {
+        lock.lock();
+        try {
+            return index.isEmpty() ? PaxosAcceptor.NO_LOG_ENTRY : index.lastKey();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void truncate(long toDeleteInclusive) {
+        long position;
+        long bound;
+        lock.lock();
+        try {
+            bound = toDeleteInclusive;
+            long greatestLogEntry = getGreatestLogEntry();
+            if (greatestLogEntry >= 0) {
+                // We never want to remove our most recent entry
+                bound = Math.min(greatestLogEntry - 1, bound);
+            }
+            bound = Math.max(bound, truncatedUpToInclusive);
+
+            position = append(TRUNCATE_RECORD, bound, new byte[0]);
+            applyTruncation(bound);
+        } catch (IOException e) {
+            log.error("problem truncating paxos state", e);
+            throw Throwables.throwUncheckedException(e);
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(position);
+
+        // Only delete segments once the truncation is durable, or we might replay rounds that were overwritten or
+        // truncated by records in the deleted segments.
+        lock.lock();
+        try {
+            deleteFullyTruncatedSegments(bound);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void applyTruncation(long bound) {
+        truncatedUpToInclusive = Math.max(truncatedUpToInclusive, bound);
+        everTruncated = true;
+        index.headMap(truncatedUpToInclusive, true).clear();
+        seqToVersionMap.keySet().removeIf(seq -> seq <= truncatedUpToInclusive);
+    }
+
+    private void deleteFullyTruncatedSegments(long durableTruncationBound) {
+        Iterator<Segment> iterator = segments.values().iterator();
+        while (iterator.hasNext()) {
+            Segment segment = iterator.next();
+            if (segment == currentSegment || segment.greatestRoundSeq > durableTruncationBound) {
+                // Segments are replayed in order, so we can only drop a prefix of them.
+                return;
+            }
+            segment.closeQuietly();
+            if (!segment.file.delete()) {
+                log.warn("failed to delete paxos log segment {}", UnsafeArg.of("path", segment.file.getAbsolutePath()));
+            }
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Appends a record to the current segment, rolling over to a new segment if necessary. Returns the logical
+     * position that must be durable for the record to have been persisted.
+     */
+    private long append(byte recordType, long seq, byte[] payload) throws IOException {
+        if (currentSegment.size >= segmentSizeBytes) {
+            rollSegment();
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(recordSize(payload.length));
+        record.put(recordType).putLong(seq).putInt(payload.length).put(payload);
+        record.put(Sha256Hash.computeHash(Arrays.copyOf(record.array(), HEADER_SIZE + payload.length)).getBytes());
+        record.flip();
+
+        long offset = currentSegment.append(record);
+        if (recordType == ROUND_RECORD) {
+            currentSegment.greatestRoundSeq = Math.max(currentSegment.greatestRoundSeq, seq);
+            index.put(seq, new RecordLocation(currentSegment, offset, payload.length));
+        }
+        appendedBytes += record.limit();
+        return appendedBytes;
+    }
+
+    private void rollSegment() throws IOException {
+        // Everything appended so far lives in segments other than the new one, so make it durable now; syncs
+        // only ever force the current segment.
+        currentSegment.force();
+        durableBytes.accumulateAndGet(appendedBytes, Math::max);
+        currentSegment = openSegment(currentSegment.id + 1);
+    }
+
+    private void awaitDurable(long position) {
+        while (durableBytes.get() < position) {
+            syncLock.lock();
+            try {
+                if (durableBytes.get() >= position) {
+                    return;
+                }
+                Segment segment;
+                long target;
+                lock.lock();
+                try {
+                    segment = currentSegment;
+                    target = appendedBytes;
+                } finally {
+                    lock.unlock();
+                }
+                segment.force();
+                durableBytes.accumulateAndGet(target, Math::max);
+            } catch (ClosedChannelException e) {
+                // The segment was rolled (and thus forced) and then deleted while we were syncing; try again.
+                log.debug("Paxos log segment was closed while syncing", e);
+            } catch (IOException e) {
+                log.error("problem syncing paxos state", e);
+                throw Throwables.throwUncheckedException(e);
+            } finally {
+                syncLock.unlock();
+            }
+        }
+    }
+
+    private Segment openSegment(long id) throws IOException {
+        File file = new File(directory, String.format("segment-%020d.log", id));
+        FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Segment segment = new Segment(id, file, channel);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private void loadSegments() throws IOException {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        NavigableMap<Long, File> segmentFiles = new TreeMap<>();
+        for (File file : files) {
+            Matcher matcher = SEGMENT_FILE_NAME.matcher(file.getName());
+            if (matcher.matches()) {
+                segmentFiles.put(Long.parseLong(matcher.group(1)), file);
+            }
+        }
+        for (Map.Entry<Long, File> entry : segmentFiles.entrySet()) {
+            Segment segment = openSegment(entry.getKey());
+            replay(segment, entry.getKey().equals(segmentFiles.lastKey()));
+            currentSegment = segment;
+        }
+    }
+
+    private void replay(Segment segment, boolean isLastSegment) throws IOException {
+        long offset = 0;
+        while (offset < segment.size) {
+            ByteBuffer record = readRecordAt(segment, offset);
+            if (record == null) {
+                // Segments are forced before we roll over to the next one, and records are only acknowledged once
+                // forced, so the only invalid data we may find is a torn write at the very end of the log. Anything
+                // else could lose promises or accepted values, so we refuse to start.
+                if (!isLastSegment || hasValidRecordAfter(segment, offset)) {
+                    log.error("Found a corrupt record in the middle of the paxos log, in segment {}",
+                            UnsafeArg.of("path", segment.file.getAbsolutePath()),
+                            SafeArg.of("offset", offset));
+                    throw new CorruptLogFileException();
+                }
+                log.warn("Discarding incomplete record at the end of paxos log segment {}",
+                        UnsafeArg.of("path", segment.file.getAbsolutePath()),
+                        SafeArg.of("offset", offset),
+                        SafeArg.of("discardedBytes", segment.size - offset));
+                segment.truncateTo(offset);
+                return;
+            }
+            byte recordType = record.get(0);
+            long seq = record.getLong(Byte.BYTES);
+            int payloadLength = record.getInt(Byte.BYTES + Long.BYTES);
+            if (recordType == ROUND_RECORD) {
+                segment.greatestRoundSeq = Math.max(segment.greatestRoundSeq, seq);
+                if (seq > truncatedUpToInclusive) {
+                    index.put(seq, new RecordLocation(segment, offset, payloadLength));
+                }
+            } else if (recordType == TRUNCATE_RECORD) {
+                applyTruncation(seq);
+            }
+            offset += record.limit();
+        }
+    }
+
+    private static boolean hasValidRecordAfter(Segment segment, long offset) throws IOException {
+        for (long candidate = offset + 1; candidate < segment.size; candidate++) {
+            if (readRecordAt(segment, candidate) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the full record at the given offset, or null if there is no complete, valid record there.
+     */
+    private static ByteBuffer readRecordAt(Segment segment, long offset) throws IOException {
+        if (segment.size - offset < HEADER_SIZE + CHECKSUM_SIZE) {
+            return null;
+        }
+        ByteBuffer header = segment.read(offset, HEADER_SIZE);
+        byte recordType = header.get(0);
+        int payloadLength = header.getInt(Byte.BYTES + Long.BYTES);
+        if ((recordType != ROUND_RECORD && recordType != TRUNCATE_RECORD)
+                || payloadLength < 0
+                || payloadLength > segment.size - offset - HEADER_SIZE - CHECKSUM_SIZE) {
+            return null;
+        }
+        ByteBuffer record = segment.read(offset, recordSize(payloadLength));
+        return hasValidChecksum(record) ? record : null;
+    }
+
+    private static boolean hasValidChecksum(ByteBuffer record) {
+        int checksumOffset = record.limit() - CHECKSUM_SIZE;
+        byte[] expected = Sha256Hash.computeHash(Arrays.copyOf(record.array(), checksumOffset)).getBytes();
+        byte[] actual = Arrays.copyOfRange(record.array(), checksumOffset, record.limit());
+        return Arrays.equals(expected, actual);
+    }
+
+    private static int recordSize(int payloadLength) {
+        return HEADER_SIZE + payloadLength + CHECKSUM_SIZE;
+    }
+
+    /**
+     * Imports rounds written by {@link PaxosStateLogImpl} into this log, and then deletes them. If we crash part way
+     * through, the remaining legacy files are imported again on the next startup; rounds already present in the
+     * segmented log are not overwritten.
+     */
+    private void migrateLegacyEntries() throws IOException {
+        List<Long> legacySequences = getLegacySequences();
+        if (legacySequences.isEmpty()) {
+            deleteLegacyTmpFiles();
+            return;
+        }
+
+        PaxosStateLogImpl<V> legacyLog = new PaxosStateLogImpl<>(directory.getPath());
+        long legacyLeast = legacyLog.getLeastLogEntry();
+        if (legacyLeast != PaxosAcceptor.NO_LOG_ENTRY && !everTruncated) {
+            append(TRUNCATE_RECORD, legacyLeast - 1, new byte[0]);
+            applyTruncation(legacyLeast - 1);
+        }
+
+        int imported = 0;
+        for (long seq : legacySequences) {
+            if (seq == PaxosAcceptor.NO_LOG_ENTRY || index.containsKey(seq) || seq <= truncatedUpToInclusive) {
+                continue;
+            }
+            try {
+                byte[] bytes = legacyLog.readRound(seq);
+                if (bytes != null) {
+                    append(ROUND_RECORD, seq, bytes);
+                    imported++;
+                }
+            } catch (IOException e) {
+                log.warn("Skipping unreadable legacy paxos log entry during migration",
+                        SafeArg.of("sequence", seq), e);
+            }
+        }
+        currentSegment.force();
+        durableBytes.accumulateAndGet(appendedBytes, Math::max);
+
+        for (long seq : legacySequences) {
+            File legacyFile = new File(directory, Long.toString(seq));
+            if (!legacyFile.delete()) {
+                log.warn("failed to delete legacy paxos log file {}",
+                        UnsafeArg.of("path", legacyFile.getAbsolutePath()));
+            }
+        }
+        deleteLegacyTmpFiles();
+        log.info("Migrated {} paxos log entries in {} to the segmented log format",
+                SafeArg.of("importedEntries", imported),
+                UnsafeArg.of("path", directory.getAbsolutePath()));
+    }
+
+    private List<Long> getLegacySequences() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return Arrays.asList();
+        }
+        return Arrays.stream(files)
+                .map(File::getName)
+                .filter(SegmentedPaxosStateLog::isLong)
+                .map(Long::parseLong)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private void deleteLegacyTmpFiles() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(LEGACY_TMP_FILE_SUFFIX)
+                    && isLong(name.substring(0, name.length() - LEGACY_TMP_FILE_SUFFIX.length()))) {
+                if (!file.delete()) {
+                    log.warn("failed to delete legacy paxos log file {}", UnsafeArg.of("path", file.getAbsolutePath()));
+                }
+            }
+        }
+    }
+
+    private static boolean isLong(String name) {
+        try {
+            Long.parseLong(name);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static final class RecordLocation {
+        private final Segment segment;
+        private final long offset;
+        private final int payloadLength;
+
+        private RecordLocation(Segment segment, long offset, int payloadLength) {
+            this.segment = segment;
+            this.offset = offset;
+            this.payloadLength = payloadLength;
+        }
+    }
+
+    private static final class Segment {
+        private final long id;
+        private final File file;
+        private final FileChannel channel;
+        private long size;
+        private long greatestRoundSeq = PaxosAcceptor.NO_LOG_ENTRY;
+
+        private Segment(long id, File file, FileChannel channel) throws IOException {
+            this.id = id;
+            this.file = file;
+            this.channel = channel;
+            this.size = channel.size();
+        }
+
+        private long append(ByteBuffer record) throws IOException {
+            long offset = size;
+            long position = offset;
+            while (record.hasRemaining()) {
+                position += channel.write(record, position);
+            }
+            size = position;
+            return offset;
+        }
+
+        private ByteBuffer read(long offset, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            long position = offset;
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new CorruptLogFileException();
+                }
+                position += read;
+            }
+            buffer.flip();
+            return buffer;
+        }
+
+        private void truncateTo(long newSize) throws IOException {
+            channel.truncate(newSize);
+            channel.force(true);
+            size = newSize;
+        }
+
+        private void force() throws IOException {
+            channel.force(false);
+        }
+
+        private void closeQuietly() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("failed to close paxos log segment {}", UnsafeArg.of("path", file.getAbsolutePath()), e);
+            }
+        }
+    }
+}
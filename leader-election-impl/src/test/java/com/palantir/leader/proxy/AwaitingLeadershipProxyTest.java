@@ -23,9 +23,11 @@ import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
 import java.util.Optional;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
@@ -35,6 +37,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -214,6 +217,51 @@ public class AwaitingLeadershipProxyTest {
         verify(leaderElectionService, atLeast(2)).blockOnBecomingLeader();
     }
 
+    @Test
+    public void shouldNotVerifyLeadershipWhileLeaseIsValid() throws Exception {
+        Callable proxy = leasedProxyFor(() -> null, Duration.ofMinutes(10), () -> true);
+        waitForLeadershipToBeGained();
+
+        proxy.call();
+        proxy.call();
+        proxy.call();
+
+        verify(leaderElectionService, times(1)).isStillLeading(leadershipToken);
+    }
+
+    @Test
+    public void shouldVerifyLeadershipOnceLeaseHasExpired() throws Exception {
+        Callable proxy = leasedProxyFor(() -> null, Duration.ofMillis(2), () -> true);
+        waitForLeadershipToBeGained();
+
+        proxy.call();
+        Uninterruptibles.sleepUninterruptibly(5L, TimeUnit.MILLISECONDS);
+        proxy.call();
+
+        verify(leaderElectionService, times(2)).isStillLeading(leadershipToken);
+    }
+
+    @Test
+    public void shouldVerifyLeadershipIfLeasesAreNotPermitted() throws Exception {
+        Callable proxy = leasedProxyFor(() -> null, Duration.ofMinutes(10), () -> false);
+        waitForLeadershipToBeGained();
+
+        proxy.call();
+        proxy.call();
+
+        verify(leaderElectionService, times(2)).isStillLeading(leadershipToken);
+    }
+
+    @Test
+    public void shouldNotTakeLeaseIfNoLongerLeading() throws Exception {
+        Callable proxy = leasedProxyFor(() -> null, Duration.ofMinutes(10), () -> true);
+        waitForLeadershipToBeGained();
+
+        loseLeadership(proxy);
+
+        assertThatThrownBy(proxy::call).isInstanceOf(NotCurrentLeaderException.class);
+    }
+
     @SuppressWarnings("IllegalThrows")
     private Void loseLeadershipDuringCallToProxyFor(Callable<Void> delegate) throws Throwable {
         CountDownLatch delegateCallStarted = new CountDownLatch(1);
@@ -259,6 +307,11 @@ public class AwaitingLeadershipProxyTest {
         return AwaitingLeadershipProxy.newProxyInstance(Callable.class, () -> fn, leaderElectionService);
     }
 
+    private Callable leasedProxyFor(Callable fn, Duration leaseDuration, BooleanSupplier leasesPermitted) {
+        return AwaitingLeadershipProxy.newProxyInstance(
+                Callable.class, () -> fn, leaderElectionService, Optional.of(leaseDuration), leasesPermitted);
+    }
+
     private void waitForLeadershipToBeGained() throws InterruptedException {
         verify(leaderElectionService, timeout(5_000)).blockOnBecomingLeader();
         Uninterruptibles.sleepUninterruptibly(100L, TimeUnit.MILLISECONDS);
@@ -0,0 +1,120 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.paxos;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class LeaseGrantingPaxosAcceptorTest {
+    private static final Duration LEASE_DURATION = Duration.ofSeconds(2);
+    private static final long LATEST_SEQUENCE = 5L;
+    private static final PaxosProposalId PROPOSAL_ID = new PaxosProposalId(10L, "uuid");
+    private static final PaxosProposal PROPOSAL = new PaxosProposal(
+            PROPOSAL_ID, new PaxosValue("leader", LATEST_SEQUENCE + 1, null));
+
+    private final PaxosAcceptor delegate = mock(PaxosAcceptor.class);
+    private final AtomicLong clock = new AtomicLong();
+    private final PaxosAcceptor acceptor = new LeaseGrantingPaxosAcceptor(delegate, LEASE_DURATION, clock::get);
+
+    @Before
+    public void setUp() {
+        when(delegate.getLatestSequencePreparedOrAccepted()).thenReturn(LATEST_SEQUENCE);
+        when(delegate.prepare(anyLong(), any())).thenReturn(PaxosPromise.accept(PROPOSAL_ID, null, null));
+        when(delegate.accept(anyLong(), any())).thenReturn(new BooleanPaxosResponse(true));
+    }
+
+    @Test
+    public void rejectsAllSequencesForLeaseDurationAfterCreation() {
+        clock.addAndGet(LEASE_DURATION.toNanos() - 1);
+
+        assertThat(acceptor.prepare(0L, PROPOSAL_ID).isSuccessful()).isFalse();
+        assertThat(acceptor.accept(LATEST_SEQUENCE + 1, PROPOSAL).isSuccessful()).isFalse();
+        verify(delegate, never()).prepare(anyLong(), any());
+        verify(delegate, never()).accept(anyLong(), any());
+    }
+
+    @Test
+    public void delegatesOnceLeaseDurationHasElapsedSinceCreationWithoutGrantingLease() {
+        clock.addAndGet(LEASE_DURATION.toNanos());
+
+        assertThat(acceptor.prepare(LATEST_SEQUENCE + 1, PROPOSAL_ID).isSuccessful()).isTrue();
+        assertThat(acceptor.accept(LATEST_SEQUENCE + 1, PROPOSAL).isSuccessful()).isTrue();
+    }
+
+    @Test
+    public void restartedAcceptorHonoursLeaseGrantedBeforeRestart() {
+        acceptor.getLatestSequencePreparedOrAccepted();
+        clock.addAndGet(LEASE_DURATION.toNanos() / 2);
+
+        PaxosAcceptor restarted = new LeaseGrantingPaxosAcceptor(delegate, LEASE_DURATION, clock::get);
+        clock.addAndGet(LEASE_DURATION.toNanos() / 2);
+        assertThat(restarted.prepare(LATEST_SEQUENCE + 1, PROPOSAL_ID).isSuccessful()).isFalse();
+        assertThat(restarted.accept(LATEST_SEQUENCE + 1, PROPOSAL).isSuccessful()).isFalse();
+        verify(delegate, never()).prepare(anyLong(), any());
+
+        clock.addAndGet(LEASE_DURATION.toNanos() / 2);
+        assertThat(restarted.prepare(LATEST_SEQUENCE + 1, PROPOSAL_ID).isSuccessful()).isTrue();
+    }
+
+    @Test
+    public void rejectsLaterSequencesWhileLeaseIsHeld() {
+        assertThat(acceptor.getLatestSequencePreparedOrAccepted()).isEqualTo(LATEST_SEQUENCE);
+        clock.addAndGet(LEASE_DURATION.toNanos() - 1);
+
+        assertThat(acceptor.prepare(LATEST_SEQUENCE + 1, PROPOSAL_ID).isSuccessful()).isFalse();
+        assertThat(acceptor.accept(LATEST_SEQUENCE + 1, PROPOSAL).isSuccessful()).isFalse();
+        verify(delegate, never()).prepare(anyLong(), any());
+        verify(delegate, never()).accept(anyLong(), any());
+    }
+
+    @Test
+    public void delegatesForLeasedSequenceWhileLeaseIsHeld() {
+        acceptor.getLatestSequencePreparedOrAccepted();
+
+        assertThat(acceptor.prepare(LATEST_SEQUENCE, PROPOSAL_ID).isSuccessful()).isTrue();
+        verify(delegate).prepare(LATEST_SEQUENCE, PROPOSAL_ID);
+    }
+
+    @Test
+    public void delegatesOnceLeaseHasExpired() {
+        acceptor.getLatestSequencePreparedOrAccepted();
+        clock.addAndGet(LEASE_DURATION.toNanos());
+
+        assertThat(acceptor.prepare(LATEST_SEQUENCE + 1, PROPOSAL_ID).isSuccessful()).isTrue();
+        assertThat(acceptor.accept(LATEST_SEQUENCE + 1, PROPOSAL).isSuccessful()).isTrue();
+    }
+
+    @Test
+    public void leaseIsExtendedByEachVerification() {
+        acceptor.getLatestSequencePreparedOrAccepted();
+        clock.addAndGet(LEASE_DURATION.toNanos() - 1);
+        acceptor.getLatestSequencePreparedOrAccepted();
+        clock.addAndGet(LEASE_DURATION.toNanos() - 1);
+
+        assertThat(acceptor.prepare(LATEST_SEQUENCE + 1, PROPOSAL_ID).isSuccessful()).isFalse();
+    }
+}
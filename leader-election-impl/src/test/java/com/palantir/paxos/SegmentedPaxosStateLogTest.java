@@ -0,0 +1,227 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.paxos;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SegmentedPaxosStateLogTest {
+    private static final String LEADER_UUID = "leader";
+    private static final long SMALL_SEGMENT_SIZE_BYTES = 1024;
+    private static final long FIRST_PAYLOAD_OFFSET = Byte.BYTES + Long.BYTES + Integer.BYTES + 1;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private String path;
+
+    @Before
+    public void setUp() {
+        path = folder.getRoot().getPath();
+    }
+
+    @Test
+    public void newLogHasNoEntries() {
+        PaxosStateLog<PaxosValue> log = createLog();
+
+        assertThat(log.getLeastLogEntry()).isEqualTo(PaxosAcceptor.NO_LOG_ENTRY);
+        assertThat(log.getGreatestLogEntry()).isEqualTo(PaxosAcceptor.NO_LOG_ENTRY);
+    }
+
+    @Test
+    public void readsBackWrittenRounds() throws IOException {
+        PaxosStateLog<PaxosValue> log = createLog();
+        writeRounds(log, 0, 100);
+
+        assertThat(readValue(log, 42)).isEqualTo(value(42));
+        assertThat(log.readRound(100)).isNull();
+        assertThat(log.getGreatestLogEntry()).isEqualTo(99L);
+    }
+
+    @Test
+    public void laterWritesForTheSameSequenceWin() throws IOException {
+        PaxosStateLog<PaxosValue> log = createLog();
+        log.writeRound(5, value(5));
+        PaxosValue newValue = new PaxosValue("other-leader", 5, null);
+        log.writeRound(5, newValue);
+
+        assertThat(readValue(log, 5)).isEqualTo(newValue);
+        assertThat(readValue(createLog(), 5)).isEqualTo(newValue);
+    }
+
+    @Test
+    public void handlesConcurrentWriters() throws Exception {
+        PaxosStateLog<PaxosValue> log = createLog();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> futures = LongStream.range(0, 500)
+                    .mapToObj(seq -> executor.submit(() -> log.writeRound(seq, value(seq))))
+                    .collect(Collectors.toList());
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        PaxosStateLog<PaxosValue> reopened = createLog();
+        for (long seq = 0; seq < 500; seq++) {
+            assertThat(readValue(reopened, seq)).isEqualTo(value(seq));
+        }
+    }
+
+    @Test
+    public void recoversStateAfterRestart() throws IOException {
+        writeRounds(createLog(), 0, 100);
+
+        PaxosStateLog<PaxosValue> reopened = createLog();
+        assertThat(reopened.getGreatestLogEntry()).isEqualTo(99L);
+        assertThat(readValue(reopened, 0)).isEqualTo(value(0));
+        assertThat(readValue(reopened, 99)).isEqualTo(value(99));
+    }
+
+    @Test
+    public void truncationIsPersistedAndDeletesWholeSegments() throws IOException {
+        PaxosStateLog<PaxosValue> log = createLog();
+        writeRounds(log, 0, 200);
+        int segmentsBeforeTruncation = segmentFiles().size();
+
+        log.truncate(150);
+
+        assertThat(segmentFiles().size()).isLessThan(segmentsBeforeTruncation);
+        assertThat(log.getLeastLogEntry()).isEqualTo(151L);
+        assertThat(log.readRound(150)).isNull();
+
+        PaxosStateLog<PaxosValue> reopened = createLog();
+        assertThat(reopened.getLeastLogEntry()).isEqualTo(151L);
+        assertThat(reopened.getGreatestLogEntry()).isEqualTo(199L);
+        assertThat(reopened.readRound(150)).isNull();
+        assertThat(readValue(reopened, 151)).isEqualTo(value(151));
+    }
+
+    @Test
+    public void truncationNeverRemovesGreatestEntry() {
+        PaxosStateLog<PaxosValue> log = createLog();
+        writeRounds(log, 0, 10);
+
+        log.truncate(100);
+
+        assertThat(log.getLeastLogEntry()).isEqualTo(9L);
+        assertThat(log.getGreatestLogEntry()).isEqualTo(9L);
+    }
+
+    @Test
+    public void discardsTornRecordAtEndOfLog() throws IOException {
+        writeRounds(createLog(), 0, 10);
+        List<File> segments = segmentFiles();
+        try (FileOutputStream out = new FileOutputStream(segments.get(segments.size() - 1), true)) {
+            out.write(new byte[] {1, 0, 0, 0, 0, 0, 0, 0, 10, 0, 0});
+        }
+
+        PaxosStateLog<PaxosValue> reopened = createLog();
+        assertThat(reopened.getGreatestLogEntry()).isEqualTo(9L);
+        reopened.writeRound(10, value(10));
+        assertThat(readValue(createLog(), 10)).isEqualTo(value(10));
+    }
+
+    @Test
+    public void failsToStartIfRecordInEarlierSegmentIsCorrupt() throws IOException {
+        writeRounds(createLog(), 0, 100);
+        List<File> segments = segmentFiles();
+        assertThat(segments.size()).isGreaterThan(1);
+        corruptFirstRecord(segments.get(0));
+
+        assertThatThrownBy(this::createLog).hasCauseInstanceOf(PaxosStateLog.CorruptLogFileException.class);
+    }
+
+    @Test
+    public void failsToStartIfCorruptRecordInLastSegmentIsFollowedByValidRecords() throws IOException {
+        writeRounds(createLog(), 0, 5);
+        List<File> segments = segmentFiles();
+        corruptFirstRecord(segments.get(segments.size() - 1));
+
+        assertThatThrownBy(this::createLog).hasCauseInstanceOf(PaxosStateLog.CorruptLogFileException.class);
+    }
+
+    @Test
+    public void migratesLegacyLog() throws IOException {
+        PaxosStateLog<PaxosValue> legacyLog = new PaxosStateLogImpl<>(path);
+        writeRounds(legacyLog, 0, 20);
+        legacyLog.truncate(9);
+
+        PaxosStateLog<PaxosValue> log = createLog();
+
+        assertThat(log.getLeastLogEntry()).isEqualTo(10L);
+        assertThat(log.getGreatestLogEntry()).isEqualTo(19L);
+        assertThat(readValue(log, 15)).isEqualTo(value(15));
+        assertThat(folder.getRoot().list()).allMatch(name -> name.startsWith("segment-"));
+
+        PaxosStateLog<PaxosValue> reopened = createLog();
+        assertThat(reopened.getLeastLogEntry()).isEqualTo(10L);
+        assertThat(readValue(reopened, 19)).isEqualTo(value(19));
+    }
+
+    private PaxosStateLog<PaxosValue> createLog() {
+        return new SegmentedPaxosStateLog<>(path, SMALL_SEGMENT_SIZE_BYTES);
+    }
+
+    private static void corruptFirstRecord(File segment) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            // flip a byte in the payload of the first record
+            file.seek(FIRST_PAYLOAD_OFFSET);
+            int original = file.read();
+            file.seek(FIRST_PAYLOAD_OFFSET);
+            file.write(original ^ 0xFF);
+        }
+    }
+
+    private List<File> segmentFiles() {
+        return Arrays.stream(folder.getRoot().listFiles())
+                .filter(file -> file.getName().startsWith("segment-"))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static void writeRounds(PaxosStateLog<PaxosValue> log, long fromInclusive, long toExclusive) {
+        LongStream.range(fromInclusive, toExclusive).forEach(seq -> log.writeRound(seq, value(seq)));
+    }
+
+    private static PaxosValue readValue(PaxosStateLog<PaxosValue> log, long seq) throws IOException {
+        return PaxosValue.BYTES_HYDRATOR.hydrateFromBytes(log.readRound(seq));
+    }
+
+    private static PaxosValue value(long seq) {
+        return new PaxosValue(LEADER_UUID, seq, new byte[] {(byte) seq});
+    }
+}
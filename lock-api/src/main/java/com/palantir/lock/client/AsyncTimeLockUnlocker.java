@@ -16,13 +16,18 @@
 package com.palantir.lock.client;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.MetricRegistry;
+import com.palantir.atlasdb.autobatch.AutobatcherMetrics;
 import com.palantir.atlasdb.autobatch.BatchElement;
+import com.palantir.atlasdb.autobatch.BatchingPolicy;
 import com.palantir.atlasdb.autobatch.DisruptorAutobatcher;
 import com.palantir.lock.v2.LockToken;
 import com.palantir.lock.v2.TimelockService;
@@ -44,7 +49,21 @@ public final class AsyncTimeLockUnlocker implements TimeLockUnlocker, AutoClosea
     }
 
     public static AsyncTimeLockUnlocker create(TimelockService timelockService) {
-        return new AsyncTimeLockUnlocker(DisruptorAutobatcher.create(batch -> {
+        return new AsyncTimeLockUnlocker(DisruptorAutobatcher.create(unlockBatches(timelockService)));
+    }
+
+    /**
+     * Creates an unlocker that registers metrics describing its batches of unlocks with the given registry.
+     */
+    public static AsyncTimeLockUnlocker create(TimelockService timelockService, MetricRegistry metricRegistry) {
+        return new AsyncTimeLockUnlocker(DisruptorAutobatcher.create(
+                unlockBatches(timelockService),
+                BatchingPolicy.builder().build(),
+                AutobatcherMetrics.create(metricRegistry, "unlocks")));
+    }
+
+    private static Consumer<List<BatchElement<Set<LockToken>, Void>>> unlockBatches(TimelockService timelockService) {
+        return batch -> {
             Set<LockToken> allTokensToUnlock = batch.stream()
                     .map(BatchElement::argument)
                     .flatMap(Collection::stream)
@@ -57,7 +76,7 @@ public final class AsyncTimeLockUnlocker implements TimeLockUnlocker, AutoClosea
                         SafeArg.of("lockTokens", allTokensToUnlock), t);
             }
             batch.stream().map(BatchElement::result).forEach(f -> f.set(null));
-        }));
+        };
     }
 
     /**
@@ -18,6 +18,7 @@ package com.palantir.lock.client;
 
 import java.util.Set;
 
+import com.codahale.metrics.MetricRegistry;
 import com.palantir.lock.v2.LockImmutableTimestampResponse;
 import com.palantir.lock.v2.LockRequest;
 import com.palantir.lock.v2.LockResponse;
@@ -34,14 +35,29 @@ public final class RemoteTimelockServiceAdapter implements TimelockService, Auto
     private final LockLeaseService lockLeaseService;
     private final TransactionStarter transactionStarter;
 
-    private RemoteTimelockServiceAdapter(TimelockRpcClient timelockRpcClient) {
+    private RemoteTimelockServiceAdapter(
+            TimelockRpcClient timelockRpcClient,
+            LockLeaseService lockLeaseService,
+            TransactionStarter transactionStarter) {
         this.timelockRpcClient = timelockRpcClient;
-        this.lockLeaseService = LockLeaseService.create(timelockRpcClient);
-        this.transactionStarter = TransactionStarter.create(lockLeaseService);
+        this.lockLeaseService = lockLeaseService;
+        this.transactionStarter = transactionStarter;
     }
 
     public static RemoteTimelockServiceAdapter create(TimelockRpcClient timelockRpcClient) {
-        return new RemoteTimelockServiceAdapter(timelockRpcClient);
+        LockLeaseService lockLeaseService = LockLeaseService.create(timelockRpcClient);
+        return new RemoteTimelockServiceAdapter(
+                timelockRpcClient, lockLeaseService, TransactionStarter.create(lockLeaseService));
+    }
+
+    /**
+     * Creates an adapter that registers metrics describing its batches of transaction starts with the given registry.
+     */
+    public static RemoteTimelockServiceAdapter create(
+            TimelockRpcClient timelockRpcClient, MetricRegistry metricRegistry) {
+        LockLeaseService lockLeaseService = LockLeaseService.create(timelockRpcClient);
+        return new RemoteTimelockServiceAdapter(
+                timelockRpcClient, lockLeaseService, TransactionStarter.create(lockLeaseService, metricRegistry));
     }
 
     @Override
@@ -20,9 +20,13 @@ import java.net.UnknownHostException;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.palantir.atlasdb.autobatch.BatchingPolicy;
 import com.palantir.common.base.Throwables;
 import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.leader.NotCurrentLeaderException;
@@ -37,6 +41,7 @@ import com.palantir.lock.v2.WaitForLocksResponse;
 import com.palantir.timestamp.CloseableTimestampService;
 import com.palantir.timestamp.RequestBatchingTimestampService;
 import com.palantir.timestamp.TimestampRange;
+import com.palantir.timestamp.TimestampService;
 
 public class TimeLockClient implements AutoCloseable, TimelockService {
 
@@ -48,9 +53,42 @@ public class TimeLockClient implements AutoCloseable, TimelockService {
     private final TimeLockUnlocker unlocker;
 
     public static TimeLockClient createDefault(TimelockService timelockService) {
+        return createDefault(timelockService, () -> 0, () -> 0L);
+    }
+
+    /**
+     * Creates a client that serves timestamps for read-only transactions from leased ranges of timestamps; see
+     * {@link RequestBatchingTimestampService#create(TimestampService, IntSupplier, LongSupplier)}.
+     */
+    public static TimeLockClient createDefault(TimelockService timelockService,
+            IntSupplier readOnlyTimestampLeaseSize,
+            LongSupplier readOnlyTimestampLeaseValidityMillis) {
         AsyncTimeLockUnlocker asyncUnlocker = AsyncTimeLockUnlocker.create(timelockService);
-        RequestBatchingTimestampService timestampService =
-                RequestBatchingTimestampService.create(new TimelockServiceErrorDecorator(timelockService));
+        RequestBatchingTimestampService timestampService = RequestBatchingTimestampService.create(
+                new TimelockServiceErrorDecorator(timelockService),
+                readOnlyTimestampLeaseSize,
+                readOnlyTimestampLeaseValidityMillis);
+        return new TimeLockClient(
+                timelockService, timestampService, createLockRefresher(timelockService), asyncUnlocker);
+    }
+
+    /**
+     * As {@link #createDefault(TimelockService, IntSupplier, LongSupplier)}, but batching timestamp requests according
+     * to the given policy, with metrics describing the batches of timestamp requests and unlocks registered with the
+     * given registry.
+     */
+    public static TimeLockClient createDefault(TimelockService timelockService,
+            IntSupplier readOnlyTimestampLeaseSize,
+            LongSupplier readOnlyTimestampLeaseValidityMillis,
+            BatchingPolicy timestampBatchingPolicy,
+            MetricRegistry metricRegistry) {
+        AsyncTimeLockUnlocker asyncUnlocker = AsyncTimeLockUnlocker.create(timelockService, metricRegistry);
+        RequestBatchingTimestampService timestampService = RequestBatchingTimestampService.create(
+                new TimelockServiceErrorDecorator(timelockService),
+                readOnlyTimestampLeaseSize,
+                readOnlyTimestampLeaseValidityMillis,
+                timestampBatchingPolicy,
+                metricRegistry);
         return new TimeLockClient(
                 timelockService, timestampService, createLockRefresher(timelockService), asyncUnlocker);
     }
@@ -85,6 +123,11 @@ public class TimeLockClient implements AutoCloseable, TimelockService {
         return timestampService.getFreshTimestamps(numTimestampsRequested);
     }
 
+    @Override
+    public long getTimestampForReadOnlyTransaction() {
+        return timestampService.getTimestampForReadOnlyTransaction();
+    }
+
     @Override
     public LockImmutableTimestampResponse lockImmutableTimestamp() {
         LockImmutableTimestampResponse response = executeOnTimeLock(delegate::lockImmutableTimestamp);
@@ -97,6 +140,7 @@ public class TimeLockClient implements AutoCloseable, TimelockService {
         StartIdentifiedAtlasDbTransactionResponse response = executeOnTimeLock(
                 delegate::startIdentifiedAtlasDbTransaction);
         lockRefresher.registerLock(response.immutableTimestamp().getLock());
+        timestampService.reportTimestamp(response.startTimestampAndPartition().timestamp());
         return response;
     }
 
@@ -25,10 +25,13 @@ import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Sets;
 import com.google.common.collect.Streams;
+import com.palantir.atlasdb.autobatch.AutobatcherMetrics;
 import com.palantir.atlasdb.autobatch.BatchElement;
+import com.palantir.atlasdb.autobatch.BatchingPolicy;
 import com.palantir.atlasdb.autobatch.DisruptorAutobatcher;
 import com.palantir.common.base.Throwables;
 import com.palantir.lock.v2.LockImmutableTimestampResponse;
@@ -63,6 +66,14 @@ final class TransactionStarter implements AutoCloseable {
                 lockLeaseService);
     }
 
+    static TransactionStarter create(LockLeaseService lockLeaseService, MetricRegistry metricRegistry) {
+        return new TransactionStarter(DisruptorAutobatcher.create(
+                consumer(lockLeaseService),
+                BatchingPolicy.builder().build(),
+                AutobatcherMetrics.create(metricRegistry, "transactionStarts")),
+                lockLeaseService);
+    }
+
     StartIdentifiedAtlasDbTransactionResponse startIdentifiedAtlasDbTransaction() {
         try {
             return autobatcher.apply(null).get();
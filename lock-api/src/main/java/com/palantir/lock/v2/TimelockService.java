@@ -40,6 +40,17 @@ public interface TimelockService {
 
     TimestampRange getFreshTimestamps(@Safe @QueryParam("number") int numTimestampsRequested);
 
+    /**
+     * Returns a timestamp for use as the start timestamp of a read-only transaction. By default, this is a fresh
+     * timestamp. Clients may instead serve it from timestamps leased from the timestamp service, in which case it is
+     * greater than any timestamp the client has previously obtained, but need not be greater than timestamps handed
+     * out to other clients since. It must not be used where a fresh timestamp is required, such as for commit
+     * timestamps.
+     */
+    default long getTimestampForReadOnlyTransaction() {
+        return getFreshTimestamp();
+    }
+
     // TODO (jkong): Can this be deprecated? Are there users outside of Atlas transactions?
     LockImmutableTimestampResponse lockImmutableTimestamp();
 
@@ -137,6 +137,14 @@ public class TimeLockClientTest {
         assertThat(timelock.getFreshTimestamps(numTimestamps)).isEqualTo(timestamps);
     }
 
+    @Test
+    public void getTimestampForReadOnlyTransactionDelegates() {
+        long timestamp = 234L;
+        when(timestampService.getTimestampForReadOnlyTransaction()).thenReturn(timestamp);
+
+        assertThat(timelock.getTimestampForReadOnlyTransaction()).isEqualTo(timestamp);
+    }
+
     @Test
     public void currentTimeMillisDelegates() {
         long time = 456L;
@@ -29,18 +29,14 @@ import com.palantir.timelock.config.TimeLockInstallConfiguration;
 import com.palantir.timelock.paxos.PaxosRemotingUtils;
 
 public class ClockSkewMonitorCreator {
-    private final MetricsManager metricsManager;
-    private final Set<String> remoteServers;
-    private final Optional<TrustContext> optionalSecurity;
+    private final ClockSkewMonitor clockSkewMonitor;
     private final Consumer<Object> registrar;
 
     @VisibleForTesting
     ClockSkewMonitorCreator(MetricsManager metricsManager, Set<String> remoteServers,
             Optional<TrustContext> optionalSecurity,
             Consumer<Object> registrar) {
-        this.metricsManager = metricsManager;
-        this.remoteServers = remoteServers;
-        this.optionalSecurity = optionalSecurity;
+        this.clockSkewMonitor = ClockSkewMonitor.create(metricsManager, remoteServers, optionalSecurity);
         this.registrar = registrar;
     }
 
@@ -58,7 +54,11 @@ public class ClockSkewMonitorCreator {
         registrar.accept(new ClockServiceImpl());
     }
 
+    public boolean permitsLeaderLeases() {
+        return clockSkewMonitor.permitsLeaderLeases();
+    }
+
     private void runClockSkewMonitorInBackground() {
-        ClockSkewMonitor.create(metricsManager, remoteServers, optionalSecurity).runInBackground();
+        clockSkewMonitor.runInBackground();
     }
 }
@@ -16,6 +16,7 @@
 package com.palantir.timelock.config;
 
 import java.io.File;
+import java.util.Optional;
 
 import org.immutables.value.Value;
 
@@ -43,8 +44,45 @@ public interface PaxosInstallConfiguration {
     @JsonProperty("is-new-service")
     boolean isNewService();
 
+    /**
+     * Set to true to store Paxos state for timestamp bound agreement in append-only segment files, rather than in a
+     * file per round. Existing logs are migrated on startup; this migration is one-way, so once a node has started
+     * with this enabled it must not be set back to false.
+     */
+    @JsonProperty("use-segmented-log")
+    @Value.Default
+    default boolean useSegmentedLog() {
+        return false;
+    }
+
+    /**
+     * Set to true to batch the timestamp bound Paxos requests of all clients between each pair of nodes, and to run
+     * the Paxos instances of all clients on a shared thread pool. All nodes in the cluster must be running a version
+     * that serves batched Paxos requests before this is enabled on any node.
+     */
+    @JsonProperty("use-batch-paxos")
+    @Value.Default
+    default boolean useBatchPaxos() {
+        return false;
+    }
+
+    /**
+     * If set, the leader verifies its leadership with a quorum at most once every half of this duration, rather than
+     * on every request. Every node in the cluster must be running a version that supports leader leases, and must be
+     * configured with the same duration, before this is set on any node. After a leader fails, no other node can
+     * become leader until this duration has elapsed. Leases are not relied upon while clock skew is detected between
+     * the nodes.
+     */
+    @JsonProperty("leader-lease-duration-in-ms")
+    Optional<Long> leaderLeaseDurationMs();
+
     @Value.Check
     default void check() {
+        if (leaderLeaseDurationMs().isPresent() && leaderLeaseDurationMs().get() <= 0) {
+            throw new IllegalArgumentException("The leader lease duration must be positive, but was "
+                    + leaderLeaseDurationMs().get() + " ms.");
+        }
+
         if (isNewService() && dataDirectory().isDirectory()) {
             throw new IllegalArgumentException(
                     "This timelock server has been configured as a new stack (the 'is-new-service' property is set to "
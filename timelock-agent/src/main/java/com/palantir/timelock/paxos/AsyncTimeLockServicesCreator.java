@@ -15,6 +15,7 @@
  */
 package com.palantir.timelock.paxos;
 
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Predicate;
@@ -34,6 +35,7 @@ import com.palantir.atlasdb.timelock.AsyncTimelockService;
 import com.palantir.atlasdb.timelock.AsyncTimelockServiceImpl;
 import com.palantir.atlasdb.timelock.TimeLockServices;
 import com.palantir.atlasdb.timelock.lock.AsyncLockService;
+import com.palantir.atlasdb.timelock.lock.LockCollection;
 import com.palantir.atlasdb.timelock.lock.LockLog;
 import com.palantir.atlasdb.timelock.lock.NonTransactionalLockService;
 import com.palantir.atlasdb.timelock.paxos.ManagedTimestampService;
@@ -111,11 +113,20 @@ public class AsyncTimeLockServicesCreator implements TimeLockServicesCreator {
                         .setNameFormat("async-lock-timeouts-" + client + "-%d")
                         .setDaemon(true)
                         .build()), metricsManager.getRegistry(), "async-lock-timeouts");
+        LockCollection lockCollection = new LockCollection();
+        registerLockCollectionMetrics(client, lockCollection);
         return new AsyncTimelockServiceImpl(
-                AsyncLockService.createDefault(lockLog, reaperExecutor, timeoutExecutor),
+                AsyncLockService.createDefault(lockLog, reaperExecutor, timeoutExecutor, lockCollection),
                 timestampServiceSupplier.get());
     }
 
+    private void registerLockCollectionMetrics(String client, LockCollection lockCollection) {
+        Map<String, String> tags = ImmutableMap.of(AtlasDbMetricNames.TAG_CLIENT, client);
+        metricsManager.registerMetric(LockCollection.class, "liveLocks", lockCollection::getNumberOfLiveLocks, tags);
+        metricsManager.registerMetric(
+                LockCollection.class, "estimatedBytesPerLock", lockCollection::getEstimatedBytesPerLock, tags);
+    }
+
     private <T> T instrumentInLeadershipProxy(TaggedMetricRegistry taggedMetrics, Class<T> serviceClass,
             Supplier<T> serviceSupplier, String client) {
         return instrument(taggedMetrics, serviceClass,
@@ -16,7 +16,9 @@
 package com.palantir.timelock.paxos;
 
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Set;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -45,6 +47,7 @@ public class PaxosLeadershipCreator {
     private final TimeLockInstallConfiguration install;
     private final Supplier<PaxosRuntimeConfiguration> runtime;
     private final Consumer<Object> registrar;
+    private final BooleanSupplier leaderLeasesPermitted;
 
     private PingableLeader localPingableLeader;
     private LeaderElectionService leaderElectionService;
@@ -54,11 +57,13 @@ public class PaxosLeadershipCreator {
             MetricsManager metricsManager,
             TimeLockInstallConfiguration install,
             Supplier<TimeLockRuntimeConfiguration> runtime,
-            Consumer<Object> registrar) {
+            Consumer<Object> registrar,
+            BooleanSupplier leaderLeasesPermitted) {
         this.metricsManager = metricsManager;
         this.install = install;
         this.runtime = Suppliers.compose(TimeLockRuntimeConfiguration::paxos, runtime::get);
         this.registrar = registrar;
+        this.leaderLeasesPermitted = leaderLeasesPermitted;
     }
 
     public void registerLeaderElectionService() {
@@ -92,7 +97,9 @@ public class PaxosLeadershipCreator {
         return AwaitingLeadershipProxy.newProxyInstance(
                 clazz,
                 delegateSupplier::get,
-                leaderElectionService);
+                leaderElectionService,
+                install.paxos().leaderLeaseDurationMs().map(Duration::ofMillis),
+                leaderLeasesPermitted);
     }
 
     private LeaderConfig getLeaderConfig() {
@@ -113,6 +120,7 @@ public class PaxosLeadershipCreator {
                 .quorumSize(PaxosRemotingUtils.getQuorumSize(PaxosRemotingUtils.getClusterAddresses(install)))
                 .leaderPingResponseWaitMs(paxosRuntimeConfiguration.leaderPingResponseWaitMs())
                 .randomWaitBeforeProposingLeadershipMs(paxosRuntimeConfiguration.maximumWaitBeforeProposalMs())
+                .leaderLeaseDurationMs(install.paxos().leaderLeaseDurationMs())
                 .build();
     }
 
@@ -16,6 +16,7 @@
 package com.palantir.timelock.paxos;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -24,9 +25,16 @@ import java.util.function.Supplier;
 
 import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.palantir.atlasdb.config.LeaderConfig;
 import com.palantir.atlasdb.factory.Leaders;
+import com.palantir.atlasdb.http.AtlasDbHttpClients;
+import com.palantir.atlasdb.timelock.paxos.BatchPaxosAcceptor;
+import com.palantir.atlasdb.timelock.paxos.BatchPaxosLearner;
+import com.palantir.atlasdb.timelock.paxos.BatchingPaxosNode;
 import com.palantir.atlasdb.timelock.paxos.DelegatingManagedTimestampService;
 import com.palantir.atlasdb.timelock.paxos.ManagedTimestampService;
 import com.palantir.atlasdb.timelock.paxos.PaxosResource;
@@ -46,25 +54,36 @@ import com.palantir.timestamp.PersistentTimestampServiceImpl;
 import com.palantir.timestamp.TimestampBoundStore;
 
 public class PaxosTimestampCreator implements TimestampCreator {
+    private static final String BATCH_USER_AGENT = "timestamp-bound-store.batch";
+
     private final MetricRegistry metricRegistry;
     private final PaxosResource paxosResource;
     private final Set<String> remoteServers;
     private final Optional<TrustContext> optionalSecurity;
     private final Supplier<PaxosRuntimeConfiguration> paxosRuntime;
+    private final Optional<BatchPaxosComponents> batchPaxosComponents;
 
     public PaxosTimestampCreator(MetricRegistry metricRegistry, PaxosResource paxosResource,
             Set<String> remoteServers,
             Optional<TrustContext> optionalSecurity,
-            Supplier<PaxosRuntimeConfiguration> paxosRuntime) {
+            Supplier<PaxosRuntimeConfiguration> paxosRuntime,
+            boolean useBatchPaxos) {
         this.metricRegistry = metricRegistry;
         this.paxosResource = paxosResource;
         this.remoteServers = remoteServers;
         this.optionalSecurity = optionalSecurity;
         this.paxosRuntime = paxosRuntime;
+        this.batchPaxosComponents = useBatchPaxos
+                ? Optional.of(createBatchPaxosComponents())
+                : Optional.empty();
     }
 
     @Override
     public Supplier<ManagedTimestampService> createTimestampService(String client, LeaderConfig unused) {
+        if (batchPaxosComponents.isPresent()) {
+            return createBatchedTimestampService(client, batchPaxosComponents.get());
+        }
+
         ExecutorService executor = PTExecutors.newCachedThreadPool(new ThreadFactoryBuilder()
                 .setNameFormat("atlas-consensus-" + client + "-%d")
                 .setDaemon(true)
@@ -88,6 +107,41 @@ public class PaxosTimestampCreator implements TimestampCreator {
                 PaxosLearner.class,
                 "timestamp-bound-store." + client);
 
+        return createTimestampService(client, acceptors, learners, executor);
+    }
+
+    /**
+     * Creates a timestamp service whose requests to remote acceptors and learners are batched with those of all other
+     * clients, and which runs on the executor shared by all clients.
+     */
+    private Supplier<ManagedTimestampService> createBatchedTimestampService(
+            String client, BatchPaxosComponents components) {
+        ImmutableList.Builder<PaxosAcceptor> acceptors = ImmutableList.builder();
+        ImmutableList.Builder<PaxosLearner> learners = ImmutableList.builder();
+        components.nodesByServer().forEach((server, node) -> {
+            acceptors.add(node.acceptorForClient(client));
+            PaxosLearner unbatchedLearner = AtlasDbHttpClients.createProxy(
+                    metricRegistry,
+                    optionalSecurity,
+                    Iterables.getOnlyElement(
+                            PaxosTimeLockUriUtils.getClientPaxosUris(ImmutableSet.of(server), client)),
+                    PaxosLearner.class,
+                    "timestamp-bound-store." + client,
+                    false);
+            learners.add(node.learnerForClient(client, unbatchedLearner));
+        });
+        acceptors.add(paxosResource.getPaxosAcceptor(client));
+        learners.add(paxosResource.getPaxosLearner(client));
+
+        return createTimestampService(client, acceptors.build(), learners.build(), components.executor());
+    }
+
+    private Supplier<ManagedTimestampService> createTimestampService(
+            String client,
+            List<PaxosAcceptor> acceptors,
+            List<PaxosLearner> learners,
+            ExecutorService executor) {
+        PaxosLearner ourLearner = paxosResource.getPaxosLearner(client);
         PaxosProposer proposer = instrument(PaxosProposer.class,
                 PaxosProposerImpl.newProposer(
                         ourLearner,
@@ -100,14 +154,15 @@ public class PaxosTimestampCreator implements TimestampCreator {
 
         PaxosSynchronizer.synchronizeLearner(ourLearner, learners);
 
-        return () -> createManagedPaxosTimestampService(proposer, client, acceptors, learners);
+        return () -> createManagedPaxosTimestampService(proposer, client, acceptors, learners, executor);
     }
 
     private ManagedTimestampService createManagedPaxosTimestampService(
             PaxosProposer proposer,
             String client,
             List<PaxosAcceptor> acceptors,
-            List<PaxosLearner> learners) {
+            List<PaxosLearner> learners,
+            ExecutorService executor) {
         // TODO (jkong): live reload ping
         TimestampBoundStore boundStore = instrument(TimestampBoundStore.class,
                 new PaxosTimestampBoundStore(
@@ -115,14 +170,51 @@ public class PaxosTimestampCreator implements TimestampCreator {
                         paxosResource.getPaxosLearner(client),
                         ImmutableList.copyOf(acceptors),
                         ImmutableList.copyOf(learners),
-                        paxosRuntime.get().maximumWaitBeforeProposalMs()),
+                        paxosRuntime.get().maximumWaitBeforeProposalMs(),
+                        executor),
                 client);
         PersistentTimestampService persistentTimestampService = PersistentTimestampServiceImpl.create(boundStore);
         return new DelegatingManagedTimestampService(persistentTimestampService, persistentTimestampService);
     }
 
+    private BatchPaxosComponents createBatchPaxosComponents() {
+        Map<String, BatchingPaxosNode> nodesByServer = Maps.newHashMap();
+        for (String server : remoteServers) {
+            String uri = Iterables.getOnlyElement(PaxosTimeLockUriUtils.getBatchPaxosUris(ImmutableSet.of(server)));
+            nodesByServer.put(server, new BatchingPaxosNode(
+                    AtlasDbHttpClients.createProxy(
+                            metricRegistry, optionalSecurity, uri, BatchPaxosAcceptor.class, BATCH_USER_AGENT, false),
+                    AtlasDbHttpClients.createProxy(
+                            metricRegistry, optionalSecurity, uri, BatchPaxosLearner.class, BATCH_USER_AGENT, false),
+                    metricRegistry));
+        }
+        ExecutorService executor = PTExecutors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setNameFormat("atlas-consensus-batched-%d")
+                .setDaemon(true)
+                .build());
+        return new BatchPaxosComponents(nodesByServer, executor);
+    }
+
     private <T> T instrument(Class<T> serviceClass, T service, String client) {
         // TODO(nziebart): tag with the client name, when tritium supports it
         return AtlasDbMetrics.instrument(metricRegistry, serviceClass, service, MetricRegistry.name(serviceClass));
     }
+
+    private static final class BatchPaxosComponents {
+        private final Map<String, BatchingPaxosNode> nodesByServer;
+        private final ExecutorService executor;
+
+        private BatchPaxosComponents(Map<String, BatchingPaxosNode> nodesByServer, ExecutorService executor) {
+            this.nodesByServer = nodesByServer;
+            this.executor = executor;
+        }
+
+        private Map<String, BatchingPaxosNode> nodesByServer() {
+            return nodesByServer;
+        }
+
+        private ExecutorService executor() {
+            return executor;
+        }
+    }
 }
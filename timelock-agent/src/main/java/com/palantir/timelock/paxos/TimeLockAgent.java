@@ -28,11 +28,13 @@ import com.palantir.atlasdb.timelock.TimeLockResource;
 import com.palantir.atlasdb.timelock.TimeLockServices;
 import com.palantir.atlasdb.timelock.TooManyRequestsExceptionMapper;
 import com.palantir.atlasdb.timelock.lock.LockLog;
+import com.palantir.atlasdb.timelock.paxos.BatchPaxosResource;
 import com.palantir.atlasdb.timelock.paxos.ManagedTimestampService;
 import com.palantir.atlasdb.timelock.paxos.PaxosResource;
 import com.palantir.atlasdb.util.MetricsManager;
 import com.palantir.conjure.java.config.ssl.SslSocketFactories;
 import com.palantir.lock.LockService;
+import com.palantir.paxos.PaxosStateLogFormat;
 import com.palantir.timelock.TimeLockStatus;
 import com.palantir.timelock.clock.ClockSkewMonitorCreator;
 import com.palantir.timelock.config.DatabaseTsBoundPersisterConfiguration;
@@ -56,6 +58,7 @@ public class TimeLockAgent {
     private final LockCreator lockCreator;
     private final TimestampCreator timestampCreator;
     private final TimeLockServicesCreator timelockCreator;
+    private final ClockSkewMonitorCreator clockSkewMonitorCreator;
 
     private Supplier<LeaderPingHealthCheck> healthCheckSupplier;
     private TimeLockResource resource;
@@ -81,8 +84,13 @@ public class TimeLockAgent {
         this.registrar = registrar;
 
         this.paxosResource = PaxosResource.create(metricsManager.getRegistry(),
-                install.paxos().dataDirectory().toString());
-        this.leadershipCreator = new PaxosLeadershipCreator(this.metricsManager, install, runtime, registrar);
+                install.paxos().dataDirectory().toString(),
+                install.paxos().useSegmentedLog()
+                        ? PaxosStateLogFormat.SEGMENTED
+                        : PaxosStateLogFormat.FILE_PER_ROUND);
+        this.clockSkewMonitorCreator = ClockSkewMonitorCreator.create(metricsManager, install, registrar);
+        this.leadershipCreator = new PaxosLeadershipCreator(this.metricsManager, install, runtime, registrar,
+                clockSkewMonitorCreator::permitsLeaderLeases);
         this.lockCreator = new LockCreator(runtime, deprecated);
         this.timestampCreator = getTimestampCreator(metricsManager.getRegistry());
         LockLog lockLog = new LockLog(metricsManager.getRegistry(),
@@ -107,7 +115,8 @@ public class TimeLockAgent {
         return new PaxosTimestampCreator(metrics, paxosResource,
                 PaxosRemotingUtils.getRemoteServerPaths(install),
                 PaxosRemotingUtils.getSslConfigurationOptional(install).map(SslSocketFactories::createTrustContext),
-                Suppliers.compose(TimeLockRuntimeConfiguration::paxos, runtime::get));
+                Suppliers.compose(TimeLockRuntimeConfiguration::paxos, runtime::get),
+                install.paxos().useBatchPaxos());
     }
 
     private void createAndRegisterResources() {
@@ -123,7 +132,7 @@ public class TimeLockAgent {
                 Suppliers.compose(TimeLockRuntimeConfiguration::maxNumberOfClients, runtime::get));
         registrar.accept(resource);
 
-        ClockSkewMonitorCreator.create(metricsManager, install, registrar).registerClockServices();
+        clockSkewMonitorCreator.registerClockServices();
     }
 
     @SuppressWarnings("unused") // used by external health checks
@@ -160,6 +169,7 @@ public class TimeLockAgent {
     // No runtime configuration at the moment.
     private void registerPaxosResource() {
         registrar.accept(paxosResource);
+        registrar.accept(BatchPaxosResource.create(paxosResource));
     }
 
     private void registerExceptionMappers() {
@@ -15,12 +15,16 @@
  */
 package com.palantir.atlasdb.timelock.clock;
 
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.codahale.metrics.Counter;
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.MetricRegistry;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.RateLimiter;
 import com.palantir.logsafe.SafeArg;
 
@@ -30,6 +34,11 @@ public class ClockSkewEvents {
     private static final double SECONDS_BETWEEN_EXCEPTION_LOGS = 600; // 10 minutes
     private static final double EXCEPTION_PERMIT_RATE = 1.0 / SECONDS_BETWEEN_EXCEPTION_LOGS;
 
+    // Leader leases are only trusted for half of their duration, so this leaves a wide margin.
+    private static final double MAXIMUM_SKEW_RATIO_FOR_LEADER_LEASES = 0.1;
+    @VisibleForTesting
+    static final Duration LEADER_LEASE_HEALTH_WINDOW = Duration.ofSeconds(10);
+
     private final Logger log = LoggerFactory.getLogger(ClockSkewEvents.class);
 
     private final Histogram clockSkew;
@@ -38,10 +47,38 @@ public class ClockSkewEvents {
 
     private final RateLimiter exceptionLoggingRateLimiter = RateLimiter.create(EXCEPTION_PERMIT_RATE);
 
+    private final LongSupplier clock;
+    private volatile long lastSkewUnsafeForLeaderLeasesNanos;
+    private volatile long lastSkewSafeForLeaderLeasesNanos;
+
     public ClockSkewEvents(MetricRegistry metricRegistry) {
+        this(metricRegistry, System::nanoTime);
+    }
+
+    @VisibleForTesting
+    ClockSkewEvents(MetricRegistry metricRegistry, LongSupplier clock) {
         this.clockSkew = metricRegistry.histogram("clock.skew");
         this.clockWentBackwards = metricRegistry.counter("clock.went-backwards");
         this.exception = metricRegistry.counter("clock.monitor-exception");
+        this.clock = clock;
+        // Leader leases are not permitted until we have been monitoring the clocks for a while.
+        this.lastSkewUnsafeForLeaderLeasesNanos = clock.getAsLong();
+        this.lastSkewSafeForLeaderLeasesNanos = lastSkewUnsafeForLeaderLeasesNanos;
+    }
+
+    /**
+     * Returns true if, over the recent past, clock skew has been monitored and no clock has been seen to progress at a
+     * significantly different rate from the local clock, or to go backwards. Leader leases depend on this.
+     *
+     * Failures to reach a remote server are not taken into account, as a server that cannot be reached does not grant
+     * leases; once it can be reached again, its clock is checked within a couple of monitoring intervals.
+     */
+    public boolean permitsLeaderLeases() {
+        long now = clock.getAsLong();
+        long window = LEADER_LEASE_HEALTH_WINDOW.toNanos();
+        return now - lastSkewUnsafeForLeaderLeasesNanos >= window
+                && lastSkewSafeForLeaderLeasesNanos - lastSkewUnsafeForLeaderLeasesNanos > 0
+                && now - lastSkewSafeForLeaderLeasesNanos < window;
     }
 
     public void clockSkew(
@@ -56,6 +93,12 @@ public class ClockSkewEvents {
                     SafeArg.of("requestDuration", requestDuration));
         }
         clockSkew.update(event.getClockSkew());
+
+        if (event.getClockSkew() > event.minElapsedTime() * MAXIMUM_SKEW_RATIO_FOR_LEADER_LEASES) {
+            lastSkewUnsafeForLeaderLeasesNanos = clock.getAsLong();
+        } else {
+            lastSkewSafeForLeaderLeasesNanos = clock.getAsLong();
+        }
     }
 
     public void clockWentBackwards(String server, long amount) {
@@ -64,6 +107,7 @@ public class ClockSkewEvents {
                 SafeArg.of("amountNanos", amount));
 
         clockWentBackwards.inc();
+        lastSkewUnsafeForLeaderLeasesNanos = clock.getAsLong();
     }
 
     public void exception(Throwable throwable) {
@@ -82,6 +82,14 @@ public final class ClockSkewMonitor {
                 this::runOnce, 0, PAUSE_BETWEEN_REQUESTS.toNanos(), TimeUnit.NANOSECONDS);
     }
 
+    /**
+     * Returns true if the clocks of the other nodes in the cluster have recently progressed at a similar pace to the
+     * local clock, such that it is safe for this node to rely on leader leases.
+     */
+    public boolean permitsLeaderLeases() {
+        return events.permitsLeaderLeases();
+    }
+
     private void runOnce() {
         Map<String, RequestTime> newRequests = getRemoteRequestTimes();
         checkAndUpdatePreviousRequestTimes(newRequests);
@@ -48,11 +48,19 @@ public class AsyncLockService implements Closeable {
             LockLog lockLog,
             ScheduledExecutorService reaperExecutor,
             ScheduledExecutorService timeoutExecutor) {
+        return createDefault(lockLog, reaperExecutor, timeoutExecutor, new LockCollection());
+    }
+
+    public static AsyncLockService createDefault(
+            LockLog lockLog,
+            ScheduledExecutorService reaperExecutor,
+            ScheduledExecutorService timeoutExecutor,
+            LockCollection lockCollection) {
 
         LeaderClock clock = LeaderClock.create();
 
         return new AsyncLockService(
-                new LockCollection(),
+                lockCollection,
                 new ImmutableTimestampTracker(),
                 new LockAcquirer(lockLog, timeoutExecutor, clock),
                 HeldLocksCollection.create(clock),
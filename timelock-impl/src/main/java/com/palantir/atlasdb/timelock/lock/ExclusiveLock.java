@@ -18,6 +18,8 @@ package com.palantir.atlasdb.timelock.lock;
 import java.util.LinkedHashMap;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.NotThreadSafe;
@@ -28,40 +30,64 @@ import com.palantir.atlasdb.timelock.util.LoggableIllegalStateException;
 import com.palantir.lock.LockDescriptor;
 import com.palantir.logsafe.SafeArg;
 
+/**
+ * An exclusive lock that grants the lock to queued requests in FIFO order.
+ *
+ * The holder is tracked outside of the monitor, so that locking a free lock that nobody is queued on, and unlocking
+ * a lock that nobody is queued on, are a single compare-and-set and never contend on the monitor. Only requests that
+ * have to queue, and unlocks that have to hand the lock to a queued request, synchronize on the queue.
+ *
+ * This relies on the two sides checking each other's state in opposite orders: a queueing request publishes that it
+ * is queued before checking whether the lock is held, and an unlocking request releases the lock before checking
+ * whether anyone is queued. At least one of them therefore sees the other, and hands the lock over.
+ */
 public class ExclusiveLock implements AsyncLock {
 
     private final LockDescriptor descriptor;
 
+    private final AtomicReference<UUID> currentHolder = new AtomicReference<>();
+    private final AtomicInteger queuedRequests = new AtomicInteger();
+
     @GuardedBy("this")
     private final LockRequestQueue queue = new LockRequestQueue();
-    @GuardedBy("this")
-    private UUID currentHolder = null;
 
     public ExclusiveLock(LockDescriptor descriptor) {
         this.descriptor = descriptor;
     }
 
     @Override
-    public synchronized AsyncResult<Void> lock(UUID requestId) {
+    public AsyncResult<Void> lock(UUID requestId) {
+        if (queuedRequests.get() == 0 && currentHolder.compareAndSet(null, requestId)) {
+            return AsyncResult.completedResult();
+        }
         return submit(new LockRequest(requestId, false));
     }
 
     @Override
-    public synchronized AsyncResult<Void> waitUntilAvailable(UUID requestId) {
+    public AsyncResult<Void> waitUntilAvailable(UUID requestId) {
+        if (queuedRequests.get() == 0 && currentHolder.get() == null) {
+            return AsyncResult.completedResult();
+        }
         return submit(new LockRequest(requestId, true));
     }
 
     @Override
-    public synchronized void unlock(UUID requestId) {
-        if (Objects.equals(requestId, currentHolder)) {
-            currentHolder = null;
-            processQueue();
+    public void unlock(UUID requestId) {
+        UUID holder = currentHolder.get();
+        if (holder != null && Objects.equals(holder, requestId) && currentHolder.compareAndSet(holder, null)) {
+            if (queuedRequests.get() > 0) {
+                synchronized (this) {
+                    processQueue();
+                }
+            }
         }
     }
 
     @Override
     public synchronized void timeout(UUID requestId) {
-        queue.timeoutAndRemoveIfStillQueued(requestId);
+        if (queue.timeoutAndRemoveIfStillQueued(requestId)) {
+            queuedRequests.decrementAndGet();
+        }
     }
 
     @Override
@@ -70,13 +96,13 @@ public class ExclusiveLock implements AsyncLock {
     }
 
     @VisibleForTesting
-    synchronized UUID getCurrentHolder() {
-        return currentHolder;
+    UUID getCurrentHolder() {
+        return currentHolder.get();
     }
 
-    @GuardedBy("this")
-    private AsyncResult<Void> submit(LockRequest request) {
+    private synchronized AsyncResult<Void> submit(LockRequest request) {
         queue.enqueue(request);
+        queuedRequests.incrementAndGet();
         processQueue();
 
         return request.result;
@@ -84,13 +110,19 @@ public class ExclusiveLock implements AsyncLock {
 
     @GuardedBy("this")
     private void processQueue() {
-        while (!queue.isEmpty() && currentHolder == null) {
-            LockRequest head = queue.dequeue();
-
-            if (!head.releaseImmediately) {
-                currentHolder = head.requestId;
+        while (!queue.isEmpty()) {
+            LockRequest head = queue.peek();
+
+            if (head.releaseImmediately) {
+                if (currentHolder.get() != null) {
+                    return;
+                }
+            } else if (!currentHolder.compareAndSet(null, head.requestId)) {
+                return;
             }
 
+            queue.dequeue();
+            queuedRequests.decrementAndGet();
             head.result.complete(null);
         }
     }
@@ -126,15 +158,21 @@ public class ExclusiveLock implements AsyncLock {
             return queue.isEmpty();
         }
 
+        public LockRequest peek() {
+            return queue.values().iterator().next();
+        }
+
         public LockRequest dequeue() {
             return queue.remove(queue.keySet().iterator().next());
         }
 
-        public void timeoutAndRemoveIfStillQueued(UUID requestId) {
+        public boolean timeoutAndRemoveIfStillQueued(UUID requestId) {
             LockRequest request = queue.remove(requestId);
             if (request != null) {
                 request.result.timeout();
+                return true;
             }
+            return false;
         }
     }
 }
@@ -30,21 +30,38 @@ public class HeldLocks {
 
     private final LockLog lockLog;
     private final Collection<AsyncLock> acquiredLocks;
+    private final Runnable releaser;
     private final LockToken token;
     private final LeaseExpirationTimer expirationTimer;
 
     @GuardedBy("this")
     private boolean isUnlocked = false;
 
+    public HeldLocks(LockLog lockLog, OrderedLocks acquiredLocks, UUID requestId, LeaderClock leaderClock) {
+        this(lockLog, acquiredLocks.get(), acquiredLocks::release, requestId, leaderClock);
+    }
+
     public HeldLocks(LockLog lockLog, Collection<AsyncLock> acquiredLocks, UUID requestId, LeaderClock leaderClock) {
-        this(lockLog, acquiredLocks, requestId, new LeaseExpirationTimer(() -> leaderClock.time().currentTime()));
+        this(lockLog, acquiredLocks, () -> {}, requestId, leaderClock);
+    }
+
+    private HeldLocks(LockLog lockLog, Collection<AsyncLock> acquiredLocks, Runnable releaser,
+            UUID requestId, LeaderClock leaderClock) {
+        this(lockLog, acquiredLocks, releaser, requestId,
+                new LeaseExpirationTimer(() -> leaderClock.time().currentTime()));
     }
 
     @VisibleForTesting
     HeldLocks(LockLog lockLog, Collection<AsyncLock> acquiredLocks,
             UUID requestId, LeaseExpirationTimer expirationTimer) {
+        this(lockLog, acquiredLocks, () -> {}, requestId, expirationTimer);
+    }
+
+    private HeldLocks(LockLog lockLog, Collection<AsyncLock> acquiredLocks, Runnable releaser,
+            UUID requestId, LeaseExpirationTimer expirationTimer) {
         this.lockLog = lockLog;
         this.acquiredLocks = acquiredLocks;
+        this.releaser = releaser;
         this.token = LockToken.of(requestId);
         this.expirationTimer = expirationTimer;
     }
@@ -80,6 +97,7 @@ public class HeldLocks {
         for (AsyncLock lock : acquiredLocks) {
             lock.unlock(token.getRequestId());
         }
+        releaser.run();
 
         return true;
     }
@@ -18,45 +18,65 @@ package com.palantir.atlasdb.timelock.lock;
 import java.util.Optional;
 import java.util.SortedMap;
 import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Maps;
 import com.palantir.atlasdb.timelock.util.LoggableIllegalStateException;
+import com.palantir.logsafe.Preconditions;
 import com.palantir.logsafe.SafeArg;
 
 import net.jcip.annotations.GuardedBy;
 
+/**
+ * Tracks the timestamps locked by transactions, and hence the immutable timestamp.
+ *
+ * Timestamps are spread across independently locked shards, so that concurrent transactions starting and finishing
+ * rarely contend with each other. Each shard publishes its least locked timestamp, so computing the immutable
+ * timestamp only has to read one value per shard. The values are read optimistically and validated afterwards; if any
+ * shard was modified while they were being read, the read is retried holding every shard's lock, so the result is
+ * always the least timestamp that was locked at some single point in time.
+ */
 public class ImmutableTimestampTracker {
+    private static final int DEFAULT_NUM_SHARDS = 16;
 
-    @GuardedBy("this")
-    private final SortedMap<Long, UUID> holdersByTimestamp = Maps.newTreeMap();
-
-    public synchronized void lock(long timestamp, UUID requestId) {
-        boolean wasAdded = holdersByTimestamp.putIfAbsent(timestamp, requestId) == null;
-        if (!wasAdded) {
-            throw new LoggableIllegalStateException(
-                    "A request attempted to lock a timestamp that was already locked",
-                    SafeArg.of("timestamp", timestamp),
-                    SafeArg.of("requestId", requestId),
-                    SafeArg.of("currentHolder", holdersByTimestamp.get(timestamp)));
-        }
+    private final Shard[] shards;
+    private final int shardMask;
+
+    public ImmutableTimestampTracker() {
+        this(DEFAULT_NUM_SHARDS);
     }
 
-    public synchronized void unlock(long timestamp, UUID requestId) {
-        boolean wasRemoved = holdersByTimestamp.remove(timestamp, requestId);
-        if (!wasRemoved) {
-            throw new LoggableIllegalStateException(
-                    "A request attempted to unlock a timestamp that was not locked or was locked by another request",
-                    SafeArg.of("timestamp", timestamp),
-                    SafeArg.of("requestId", requestId),
-                    SafeArg.of("currentHolder", holdersByTimestamp.get(timestamp)));
+    @VisibleForTesting
+    ImmutableTimestampTracker(int numShards) {
+        Preconditions.checkArgument(Integer.bitCount(numShards) == 1, "Number of shards must be a power of two",
+                SafeArg.of("numShards", numShards));
+        this.shards = new Shard[numShards];
+        for (int i = 0; i < numShards; i++) {
+            shards[i] = new Shard();
         }
+        this.shardMask = numShards - 1;
+    }
+
+    public void lock(long timestamp, UUID requestId) {
+        shardFor(timestamp).lock(timestamp, requestId);
     }
 
-    public synchronized Optional<Long> getImmutableTimestamp() {
-        if (holdersByTimestamp.isEmpty()) {
-            return Optional.empty();
+    public void unlock(long timestamp, UUID requestId) {
+        shardFor(timestamp).unlock(timestamp, requestId);
+    }
+
+    public Optional<Long> getImmutableTimestamp() {
+        long[] stamps = new long[shards.length];
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < shards.length; i++) {
+            stamps[i] = shards[i].lock.tryOptimisticRead();
+            min = Math.min(min, shards[i].leastTimestamp);
+        }
+        if (!allValid(stamps)) {
+            min = getImmutableTimestampExclusively();
         }
-        return Optional.of(holdersByTimestamp.firstKey());
+        return min == Long.MAX_VALUE ? Optional.empty() : Optional.of(min);
     }
 
     // TODO(nziebart): should these locks should be created by LockCollection for consistency?
@@ -64,4 +84,82 @@ public class ImmutableTimestampTracker {
         return new ImmutableTimestampLock(timestamp, this);
     }
 
+    private boolean allValid(long[] stamps) {
+        for (int i = 0; i < shards.length; i++) {
+            if (!shards[i].lock.validate(stamps[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long getImmutableTimestampExclusively() {
+        long[] stamps = new long[shards.length];
+        try {
+            long min = Long.MAX_VALUE;
+            for (int i = 0; i < shards.length; i++) {
+                stamps[i] = shards[i].lock.readLock();
+                min = Math.min(min, shards[i].leastTimestamp);
+            }
+            return min;
+        } finally {
+            for (int i = 0; i < shards.length; i++) {
+                if (stamps[i] != 0) {
+                    shards[i].lock.unlockRead(stamps[i]);
+                }
+            }
+        }
+    }
+
+    private Shard shardFor(long timestamp) {
+        return shards[(int) (timestamp & shardMask)];
+    }
+
+    private static final class Shard {
+        private final StampedLock lock = new StampedLock();
+
+        @GuardedBy("lock")
+        private final SortedMap<Long, UUID> holdersByTimestamp = Maps.newTreeMap();
+
+        /**
+         * The least timestamp in {@link #holdersByTimestamp}, or {@link Long#MAX_VALUE} if there is none. Only written
+         * while holding the write lock, but may be read optimistically.
+         */
+        private volatile long leastTimestamp = Long.MAX_VALUE;
+
+        void lock(long timestamp, UUID requestId) {
+            long stamp = lock.writeLock();
+            try {
+                boolean wasAdded = holdersByTimestamp.putIfAbsent(timestamp, requestId) == null;
+                if (!wasAdded) {
+                    throw new LoggableIllegalStateException(
+                            "A request attempted to lock a timestamp that was already locked",
+                            SafeArg.of("timestamp", timestamp),
+                            SafeArg.of("requestId", requestId),
+                            SafeArg.of("currentHolder", holdersByTimestamp.get(timestamp)));
+                }
+                leastTimestamp = Math.min(leastTimestamp, timestamp);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void unlock(long timestamp, UUID requestId) {
+            long stamp = lock.writeLock();
+            try {
+                boolean wasRemoved = holdersByTimestamp.remove(timestamp, requestId);
+                if (!wasRemoved) {
+                    throw new LoggableIllegalStateException(
+                            "A request attempted to unlock a timestamp that was not locked or was locked by another "
+                                    + "request",
+                            SafeArg.of("timestamp", timestamp),
+                            SafeArg.of("requestId", requestId),
+                            SafeArg.of("currentHolder", holdersByTimestamp.get(timestamp)));
+                }
+                leastTimestamp = holdersByTimestamp.isEmpty() ? Long.MAX_VALUE : holdersByTimestamp.firstKey();
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
 }
@@ -15,50 +15,130 @@
  */
 package com.palantir.atlasdb.timelock.lock;
 
-
-import java.util.Comparator;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
-import com.google.common.collect.Lists;
+import com.google.common.annotations.VisibleForTesting;
 import com.palantir.lock.LockDescriptor;
 
+/**
+ * The table of {@link ExclusiveLock}s that currently exist, keyed by descriptor.
+ *
+ * Locks are reference counted: {@link #getAll} takes a reference to each lock it returns, and releasing the returned
+ * {@link OrderedLocks} gives them up. A lock is removed from the table as soon as no request holds or waits for it,
+ * so locks are neither retained for longer than needed nor left to the garbage collector to reclaim from a cache.
+ * Two requests for the same descriptor therefore always see the same lock while either of them is using it.
+ */
 public class LockCollection {
 
-    private final LoadingCache<LockDescriptor, ExclusiveLock> locksById;
-
-    public LockCollection() {
-        locksById = CacheBuilder.newBuilder()
-                .weakValues()
-                .build(new CacheLoader<LockDescriptor, ExclusiveLock>() {
-                    @Override
-                    public ExclusiveLock load(LockDescriptor descriptor) throws Exception {
-                        return new ExclusiveLock(descriptor);
-                    }
-                });
-    }
+    /**
+     * Rough size of a lock table entry, excluding the bytes of its descriptor: the map node, the entry, the lock and
+     * its (empty) request queue, and the descriptor object.
+     */
+    @VisibleForTesting
+    static final int ESTIMATED_ENTRY_OVERHEAD_BYTES = 320;
+
+    private final ConcurrentMap<LockDescriptor, LockEntry> locksById = new ConcurrentHashMap<>();
+    private final LongAdder descriptorBytes = new LongAdder();
 
     public OrderedLocks getAll(Set<LockDescriptor> descriptors) {
-        List<LockDescriptor> orderedDescriptors = sort(descriptors);
+        LockDescriptor[] orderedDescriptors = descriptors.toArray(new LockDescriptor[0]);
+        Arrays.sort(orderedDescriptors);
 
-        List<AsyncLock> locks = Lists.newArrayListWithExpectedSize(descriptors.size());
-        for (LockDescriptor descriptor : orderedDescriptors) {
-            locks.add(getLock(descriptor));
+        LockEntry[] entries = new LockEntry[orderedDescriptors.length];
+        AsyncLock[] locks = new AsyncLock[orderedDescriptors.length];
+        for (int i = 0; i < orderedDescriptors.length; i++) {
+            entries[i] = retain(orderedDescriptors[i]);
+            locks[i] = entries[i].lock;
         }
-        return OrderedLocks.fromOrderedList(locks);
+
+        AtomicBoolean released = new AtomicBoolean();
+        return OrderedLocks.fromOrderedList(Arrays.asList(locks), () -> {
+            if (released.compareAndSet(false, true)) {
+                for (LockEntry entry : entries) {
+                    release(entry);
+                }
+            }
+        });
     }
 
-    private List<LockDescriptor> sort(Set<LockDescriptor> descriptors) {
-        List<LockDescriptor> orderedDescriptors = Lists.newArrayList(descriptors);
-        orderedDescriptors.sort(Comparator.naturalOrder());
-        return orderedDescriptors;
+    /**
+     * Returns the number of locks that are currently held or waited for.
+     */
+    public int getNumberOfLiveLocks() {
+        return locksById.size();
     }
 
-    private AsyncLock getLock(LockDescriptor descriptor) {
-        return locksById.getUnchecked(descriptor);
+    /**
+     * Returns an estimate of the memory used by each live lock, in bytes.
+     */
+    public long getEstimatedBytesPerLock() {
+        int numLocks = locksById.size();
+        if (numLocks == 0) {
+            return 0;
+        }
+        return ESTIMATED_ENTRY_OVERHEAD_BYTES + Math.max(0, descriptorBytes.sum()) / numLocks;
+    }
+
+    private LockEntry retain(LockDescriptor descriptor) {
+        while (true) {
+            LockEntry entry = locksById.computeIfAbsent(descriptor, this::createEntry);
+            if (entry.tryRetain()) {
+                return entry;
+            }
+            // The entry was retired concurrently; help remove it, and try again with a fresh entry.
+            locksById.remove(descriptor, entry);
+        }
     }
 
+    private void release(LockEntry entry) {
+        if (entry.releaseAndTryRetire()) {
+            locksById.remove(entry.lock.getDescriptor(), entry);
+            descriptorBytes.add(-entry.descriptorBytes);
+        }
+    }
+
+    private LockEntry createEntry(LockDescriptor descriptor) {
+        LockEntry entry = new LockEntry(new ExclusiveLock(descriptor), descriptor.getBytes().length);
+        descriptorBytes.add(entry.descriptorBytes);
+        return entry;
+    }
+
+    private static final class LockEntry {
+        private static final int RETIRED = -1;
+
+        private final ExclusiveLock lock;
+        private final int descriptorBytes;
+        private final AtomicInteger references = new AtomicInteger();
+
+        LockEntry(ExclusiveLock lock, int descriptorBytes) {
+            this.lock = lock;
+            this.descriptorBytes = descriptorBytes;
+        }
+
+        boolean tryRetain() {
+            while (true) {
+                int current = references.get();
+                if (current == RETIRED) {
+                    return false;
+                }
+                if (references.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Gives up a reference, and retires the entry if that was the last one. Once retired, an entry can no longer
+         * be retained, so whoever retires it is responsible for removing it from the table.
+         */
+        boolean releaseAndTryRetire() {
+            return references.decrementAndGet() == 0 && references.compareAndSet(0, RETIRED);
+        }
+    }
 }
@@ -28,6 +28,13 @@ public interface OrderedLocks {
         return ImmutableOrderedLocks.of(orderedLocks);
     }
 
+    static OrderedLocks fromOrderedList(List<AsyncLock> orderedLocks, Runnable releaser) {
+        return ImmutableOrderedLocks.builder()
+                .get(orderedLocks)
+                .releaser(releaser)
+                .build();
+    }
+
     static OrderedLocks fromSingleLock(AsyncLock lock) {
         return fromOrderedList(ImmutableList.of(lock));
     }
@@ -35,4 +42,18 @@ public interface OrderedLocks {
     @Value.Parameter
     List<AsyncLock> get();
 
+    /**
+     * Run once the request these locks were retrieved for no longer holds or waits for any of them, so that the
+     * {@link LockCollection} they came from may discard them. Releasing more than once has no further effect.
+     */
+    @Value.Default
+    @Value.Auxiliary
+    default Runnable releaser() {
+        return () -> {};
+    }
+
+    default void release() {
+        releaser().run();
+    }
+
 }
@@ -0,0 +1,72 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.timelock.paxos;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+import com.palantir.paxos.BooleanPaxosResponse;
+import com.palantir.paxos.PaxosAcceptor;
+import com.palantir.paxos.PaxosPromise;
+
+/**
+ * The acceptors of the timestamp bound Paxos instances of many clients, so that one request between a pair of nodes
+ * can carry the requests of many clients. Each request is handled exactly as by the {@link PaxosAcceptor} of its
+ * client.
+ */
+@Path("/acceptor")
+public interface BatchPaxosAcceptor {
+    /**
+     * Prepares for each of the given proposals; see
+     * {@link PaxosAcceptor#prepare(long, com.palantir.paxos.PaxosProposalId)}.
+     *
+     * @return the promises made, in the same order as the requests
+     */
+    @POST
+    @Path("prepare")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes(MediaType.APPLICATION_JSON)
+    List<PaxosPromise> prepare(List<PaxosPrepareRequest> requests);
+
+    /**
+     * Decides whether to accept each of the given proposals; see
+     * {@link PaxosAcceptor#accept(long, com.palantir.paxos.PaxosProposal)}.
+     *
+     * @return the responses, in the same order as the requests
+     */
+    @POST
+    @Path("accept")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes(MediaType.APPLICATION_JSON)
+    List<BooleanPaxosResponse> accept(List<PaxosAcceptRequest> requests);
+
+    /**
+     * Gets the sequence number of the most recent round of each of the given clients; see
+     * {@link PaxosAcceptor#getLatestSequencePreparedOrAccepted()}.
+     */
+    @POST
+    @Path("latest-sequences-prepared-or-accepted")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes(MediaType.APPLICATION_JSON)
+    Map<String, Long> getLatestSequencesPreparedOrAccepted(Set<String> clients);
+}
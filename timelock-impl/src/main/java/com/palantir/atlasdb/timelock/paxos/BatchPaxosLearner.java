@@ -0,0 +1,41 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.timelock.paxos;
+
+import java.util.List;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.core.MediaType;
+
+import com.palantir.paxos.PaxosLearner;
+
+/**
+ * The learners of the timestamp bound Paxos instances of many clients. Only learning is batched, as this is the only
+ * learner operation on the path of every bound update; the remaining operations are made on the {@link PaxosLearner}
+ * of each client.
+ */
+@Path("/learner")
+public interface BatchPaxosLearner {
+    /**
+     * Learns each of the given values; see {@link PaxosLearner#learn(long, com.palantir.paxos.PaxosValue)}.
+     */
+    @POST
+    @Path("learn")
+    @Consumes(MediaType.APPLICATION_JSON)
+    void learn(List<PaxosLearnRequest> requests);
+}
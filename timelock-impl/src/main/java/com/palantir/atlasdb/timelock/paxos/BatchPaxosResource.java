@@ -0,0 +1,167 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.timelock.paxos;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+import javax.ws.rs.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.palantir.common.base.Throwables;
+import com.palantir.common.concurrent.NamedThreadFactory;
+import com.palantir.common.concurrent.PTExecutors;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.paxos.BooleanPaxosResponse;
+import com.palantir.paxos.PaxosPromise;
+
+/**
+ * Serves {@link BatchPaxosAcceptor} and {@link BatchPaxosLearner} requests by dispatching each request to the
+ * acceptor or learner of its client in the given {@link PaxosResource}. Requests in a batch are processed
+ * concurrently, so that the latency of a batch is that of its slowest request rather than the sum of its requests.
+ * A request that fails is answered as if it had been rejected, so that it does not fail the other requests in its
+ * batch, which may belong to other clients.
+ */
+@Path("/" + PaxosTimeLockConstants.INTERNAL_NAMESPACE
+        + "/" + PaxosTimeLockConstants.BATCH_PAXOS_NAMESPACE)
+public final class BatchPaxosResource {
+    private static final Logger log = LoggerFactory.getLogger(BatchPaxosResource.class);
+
+    private final BatchPaxosAcceptor acceptor;
+    private final BatchPaxosLearner learner;
+
+    private BatchPaxosResource(BatchPaxosAcceptor acceptor, BatchPaxosLearner learner) {
+        this.acceptor = acceptor;
+        this.learner = learner;
+    }
+
+    public static BatchPaxosResource create(PaxosResource paxosResource) {
+        ListeningExecutorService executor = MoreExecutors.listeningDecorator(
+                PTExecutors.newCachedThreadPool(new NamedThreadFactory("batch-paxos-resource", true)));
+        return new BatchPaxosResource(
+                new LocalBatchPaxosAcceptor(paxosResource, executor),
+                new LocalBatchPaxosLearner(paxosResource, executor));
+    }
+
+    @Path("/acceptor")
+    public BatchPaxosAcceptor getBatchPaxosAcceptor() {
+        return acceptor;
+    }
+
+    @Path("/learner")
+    public BatchPaxosLearner getBatchPaxosLearner() {
+        return learner;
+    }
+
+    /**
+     * Processes the given requests, returning a response for each request in order. If processing a request throws,
+     * its response is given by {@code failureResponse} instead. Responses may be null.
+     */
+    private static <T, R> List<R> processConcurrently(
+            ListeningExecutorService executor,
+            List<T> requests,
+            Function<T, R> processor,
+            Function<T, R> failureResponse) {
+        Function<T, R> safeProcessor = request -> {
+            try {
+                return processor.apply(request);
+            } catch (RuntimeException e) {
+                log.warn("Failed to process a paxos request in a batch of {} requests; responding to it as a failure",
+                        SafeArg.of("batchSize", requests.size()), e);
+                return failureResponse.apply(request);
+            }
+        };
+        if (requests.size() <= 1) {
+            return requests.isEmpty()
+                    ? Collections.emptyList()
+                    : Collections.singletonList(safeProcessor.apply(requests.get(0)));
+        }
+        List<ListenableFuture<R>> responses = requests.stream()
+                .map(request -> executor.submit(() -> safeProcessor.apply(request)))
+                .collect(ImmutableList.toImmutableList());
+        try {
+            return Futures.allAsList(responses).get();
+        } catch (InterruptedException e) {
+            responses.forEach(response -> response.cancel(true));
+            throw Throwables.throwUncheckedException(e);
+        } catch (ExecutionException e) {
+            throw Throwables.throwUncheckedException(e.getCause());
+        }
+    }
+
+    private static final class LocalBatchPaxosAcceptor implements BatchPaxosAcceptor {
+        private final PaxosResource paxosResource;
+        private final ListeningExecutorService executor;
+
+        private LocalBatchPaxosAcceptor(PaxosResource paxosResource, ListeningExecutorService executor) {
+            this.paxosResource = paxosResource;
+            this.executor = executor;
+        }
+
+        @Override
+        public List<PaxosPromise> prepare(List<PaxosPrepareRequest> requests) {
+            return processConcurrently(executor, requests,
+                    request -> paxosResource.getPaxosAcceptor(request.client())
+                            .prepare(request.seq(), request.proposalId()),
+                    request -> PaxosPromise.reject(request.proposalId()));
+        }
+
+        @Override
+        public List<BooleanPaxosResponse> accept(List<PaxosAcceptRequest> requests) {
+            return processConcurrently(executor, requests,
+                    request -> paxosResource.getPaxosAcceptor(request.client())
+                            .accept(request.seq(), request.proposal()),
+                    request -> new BooleanPaxosResponse(false));
+        }
+
+        @Override
+        public Map<String, Long> getLatestSequencesPreparedOrAccepted(Set<String> clients) {
+            return Maps.toMap(clients,
+                    client -> paxosResource.getPaxosAcceptor(client).getLatestSequencePreparedOrAccepted());
+        }
+    }
+
+    private static final class LocalBatchPaxosLearner implements BatchPaxosLearner {
+        private final PaxosResource paxosResource;
+        private final ListeningExecutorService executor;
+
+        private LocalBatchPaxosLearner(PaxosResource paxosResource, ListeningExecutorService executor) {
+            this.paxosResource = paxosResource;
+            this.executor = executor;
+        }
+
+        @Override
+        public void learn(List<PaxosLearnRequest> requests) {
+            processConcurrently(executor, requests, request -> {
+                paxosResource.getPaxosLearner(request.client()).learn(request.seq(), request.value());
+                return null;
+            }, request -> null);
+        }
+    }
+}
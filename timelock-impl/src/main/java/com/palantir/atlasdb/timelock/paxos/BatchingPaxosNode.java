@@ -0,0 +1,180 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.timelock.paxos;
+
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.palantir.atlasdb.autobatch.AutobatcherMetrics;
+import com.palantir.atlasdb.autobatch.BatchElement;
+import com.palantir.atlasdb.autobatch.BatchingPolicy;
+import com.palantir.atlasdb.autobatch.DisruptorAutobatcher;
+import com.palantir.common.base.Throwables;
+import com.palantir.paxos.BooleanPaxosResponse;
+import com.palantir.paxos.PaxosAcceptor;
+import com.palantir.paxos.PaxosLearner;
+import com.palantir.paxos.PaxosPromise;
+import com.palantir.paxos.PaxosProposal;
+import com.palantir.paxos.PaxosProposalId;
+import com.palantir.paxos.PaxosValue;
+
+/**
+ * Coalesces the requests that the timestamp bound Paxos instances of many clients make to the acceptor and learner of
+ * one remote node into {@link BatchPaxosAcceptor} and {@link BatchPaxosLearner} requests. While a batch is in flight,
+ * requests from all clients queue up and are sent together in the next batch, so the number of requests between a
+ * pair of nodes does not grow with the number of clients.
+ */
+public final class BatchingPaxosNode implements Closeable {
+    private final DisruptorAutobatcher<PaxosPrepareRequest, PaxosPromise> prepares;
+    private final DisruptorAutobatcher<PaxosAcceptRequest, BooleanPaxosResponse> accepts;
+    private final DisruptorAutobatcher<String, Long> latestSequences;
+    private final DisruptorAutobatcher<PaxosLearnRequest, Void> learns;
+
+    public BatchingPaxosNode(BatchPaxosAcceptor acceptor, BatchPaxosLearner learner) {
+        this.prepares = DisruptorAutobatcher.create(batch -> processInOrder(batch, acceptor::prepare));
+        this.accepts = DisruptorAutobatcher.create(batch -> processInOrder(batch, acceptor::accept));
+        this.latestSequences = DisruptorAutobatcher.create(batch -> processLatestSequences(acceptor, batch));
+        this.learns = DisruptorAutobatcher.create(batch -> processLearns(learner, batch));
+    }
+
+    /**
+     * Creates a node that registers metrics describing its batches with the given registry. The metrics are shared by
+     * all nodes created with the same registry.
+     */
+    public BatchingPaxosNode(BatchPaxosAcceptor acceptor, BatchPaxosLearner learner, MetricRegistry metricRegistry) {
+        BatchingPolicy policy = BatchingPolicy.builder().build();
+        this.prepares = DisruptorAutobatcher.create(batch -> processInOrder(batch, acceptor::prepare),
+                policy, AutobatcherMetrics.create(metricRegistry, "batchPaxosPrepares"));
+        this.accepts = DisruptorAutobatcher.create(batch -> processInOrder(batch, acceptor::accept),
+                policy, AutobatcherMetrics.create(metricRegistry, "batchPaxosAccepts"));
+        this.latestSequences = DisruptorAutobatcher.create(batch -> processLatestSequences(acceptor, batch),
+                policy, AutobatcherMetrics.create(metricRegistry, "batchPaxosLatestSequences"));
+        this.learns = DisruptorAutobatcher.create(batch -> processLearns(learner, batch),
+                policy, AutobatcherMetrics.create(metricRegistry, "batchPaxosLearns"));
+    }
+
+    /**
+     * Returns the acceptor of the given client on this node.
+     */
+    public PaxosAcceptor acceptorForClient(String client) {
+        return new PaxosAcceptor() {
+            @Override
+            public PaxosPromise prepare(long seq, PaxosProposalId pid) {
+                return await(prepares.apply(PaxosPrepareRequest.of(client, seq, pid)));
+            }
+
+            @Override
+            public BooleanPaxosResponse accept(long seq, PaxosProposal proposal) {
+                return await(accepts.apply(PaxosAcceptRequest.of(client, seq, proposal)));
+            }
+
+            @Override
+            public long getLatestSequencePreparedOrAccepted() {
+                return await(latestSequences.apply(client));
+            }
+        };
+    }
+
+    /**
+     * Returns the learner of the given client on this node, where values are learned in batches and all other
+     * requests are made to the given learner, which must be the learner of the client on this node.
+     */
+    public PaxosLearner learnerForClient(String client, PaxosLearner unbatchedLearner) {
+        return new PaxosLearner() {
+            @Override
+            public void learn(long seq, PaxosValue val) {
+                await(learns.apply(PaxosLearnRequest.of(client, seq, val)));
+            }
+
+            @Nullable
+            @Override
+            public PaxosValue getLearnedValue(long seq) {
+                return unbatchedLearner.getLearnedValue(seq);
+            }
+
+            @Nullable
+            @Override
+            public PaxosValue getGreatestLearnedValue() {
+                return unbatchedLearner.getGreatestLearnedValue();
+            }
+
+            @Override
+            public Collection<PaxosValue> getLearnedValuesSince(long seq) {
+                return unbatchedLearner.getLearnedValuesSince(seq);
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        prepares.close();
+        accepts.close();
+        latestSequences.close();
+        learns.close();
+    }
+
+    private static <T, R> void processInOrder(List<BatchElement<T, R>> batch, Function<List<T>, List<R>> function) {
+        List<R> results = function.apply(arguments(batch));
+        Preconditions.checkState(results.size() == batch.size(),
+                "Expected %s responses to a batch Paxos request, but received %s", batch.size(), results.size());
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result().set(results.get(i));
+        }
+    }
+
+    private static void processLatestSequences(BatchPaxosAcceptor acceptor, List<BatchElement<String, Long>> batch) {
+        Map<String, Long> latestSequences = acceptor.getLatestSequencesPreparedOrAccepted(
+                batch.stream().map(BatchElement::argument).collect(Collectors.toSet()));
+        for (BatchElement<String, Long> element : batch) {
+            Long latestSequence = latestSequences.get(element.argument());
+            if (latestSequence == null) {
+                element.result().setException(new IllegalStateException(
+                        "The remote acceptor did not return a latest sequence for one of the requested clients"));
+            } else {
+                element.result().set(latestSequence);
+            }
+        }
+    }
+
+    private static void processLearns(BatchPaxosLearner learner, List<BatchElement<PaxosLearnRequest, Void>> batch) {
+        learner.learn(arguments(batch));
+        batch.forEach(element -> element.result().set(null));
+    }
+
+    private static <T, R> List<T> arguments(List<BatchElement<T, R>> batch) {
+        return batch.stream().map(BatchElement::argument).collect(Collectors.toList());
+    }
+
+    private static <R> R await(ListenableFuture<R> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw Throwables.throwUncheckedException(e.getCause());
+        } catch (InterruptedException e) {
+            throw Throwables.throwUncheckedException(e);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.timelock.paxos;
+
+import org.immutables.value.Value;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.palantir.paxos.PaxosProposalId;
+
+/**
+ * A prepare request for the timestamp bound Paxos instance of one client; see {@link BatchPaxosAcceptor}.
+ */
+@Value.Immutable
+@JsonSerialize(as = ImmutablePaxosPrepareRequest.class)
+@JsonDeserialize(as = ImmutablePaxosPrepareRequest.class)
+public interface PaxosPrepareRequest {
+    @Value.Parameter
+    String client();
+
+    @Value.Parameter
+    long seq();
+
+    @Value.Parameter
+    PaxosProposalId proposalId();
+
+    static PaxosPrepareRequest of(String client, long seq, PaxosProposalId proposalId) {
+        return ImmutablePaxosPrepareRequest.of(client, seq, proposalId);
+    }
+}
@@ -26,10 +26,12 @@ import org.immutables.value.Value;
 import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.Maps;
 import com.palantir.atlasdb.util.AtlasDbMetrics;
+import com.palantir.leader.PaxosKnowledgeEventRecorder;
 import com.palantir.paxos.PaxosAcceptor;
 import com.palantir.paxos.PaxosAcceptorImpl;
 import com.palantir.paxos.PaxosLearner;
 import com.palantir.paxos.PaxosLearnerImpl;
+import com.palantir.paxos.PaxosStateLogFormat;
 
 @Path("/" + PaxosTimeLockConstants.INTERNAL_NAMESPACE
         + "/" + PaxosTimeLockConstants.CLIENT_PAXOS_NAMESPACE
@@ -37,15 +39,22 @@ import com.palantir.paxos.PaxosLearnerImpl;
 public final class PaxosResource {
     private final MetricRegistry metricRegistry;
     private final String logDirectory;
+    private final PaxosStateLogFormat logFormat;
     private final Map<String, PaxosComponents> paxosComponentsByClient = Maps.newConcurrentMap();
 
-    private PaxosResource(MetricRegistry metricRegistry, String logDirectory) {
+    private PaxosResource(MetricRegistry metricRegistry, String logDirectory, PaxosStateLogFormat logFormat) {
         this.metricRegistry = metricRegistry;
         this.logDirectory = logDirectory;
+        this.logFormat = logFormat;
     }
 
     public static PaxosResource create(MetricRegistry metricRegistry, String logDirectory) {
-        return new PaxosResource(metricRegistry, logDirectory);
+        return create(metricRegistry, logDirectory, PaxosStateLogFormat.FILE_PER_ROUND);
+    }
+
+    public static PaxosResource create(
+            MetricRegistry metricRegistry, String logDirectory, PaxosStateLogFormat logFormat) {
+        return new PaxosResource(metricRegistry, logDirectory, logFormat);
     }
 
     public PaxosComponents createInstrumentedComponents(String client) {
@@ -54,7 +63,7 @@ public final class PaxosResource {
         PaxosLearner learner = instrument(
                 metricRegistry,
                 PaxosLearner.class,
-                PaxosLearnerImpl.newLearner(learnerLogDir),
+                PaxosLearnerImpl.newLearner(learnerLogDir, PaxosKnowledgeEventRecorder.NO_OP, logFormat),
                 client);
 
         String acceptorLogDir = Paths.get(logDirectory, client, PaxosTimeLockConstants.ACCEPTOR_SUBDIRECTORY_PATH)
@@ -62,7 +71,7 @@ public final class PaxosResource {
         PaxosAcceptor acceptor = instrument(
                 metricRegistry,
                 PaxosAcceptor.class,
-                PaxosAcceptorImpl.newAcceptor(acceptorLogDir),
+                PaxosAcceptorImpl.newAcceptor(acceptorLogDir, logFormat),
                 client);
 
         return ImmutablePaxosComponents.builder()
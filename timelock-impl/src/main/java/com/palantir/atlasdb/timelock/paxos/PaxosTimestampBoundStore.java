@@ -64,14 +64,27 @@ public class PaxosTimestampBoundStore implements TimestampBoundStore {
     @GuardedBy("this")
     private SequenceAndBound agreedState;
 
-    private final ExecutorService executor = PTExecutors.newCachedThreadPool(
-            PTExecutors.newNamedThreadFactory(true));
+    private final ExecutorService executor;
 
     public PaxosTimestampBoundStore(PaxosProposer proposer,
             PaxosLearner knowledge,
             List<PaxosAcceptor> acceptors,
             List<PaxosLearner> learners,
             long maximumWaitBeforeProposalMs) {
+        this(proposer, knowledge, acceptors, learners, maximumWaitBeforeProposalMs,
+                PTExecutors.newCachedThreadPool(PTExecutors.newNamedThreadFactory(true)));
+    }
+
+    /**
+     * Creates a bound store that makes remote requests on the given executor, which may be shared with the bound
+     * stores of other clients.
+     */
+    public PaxosTimestampBoundStore(PaxosProposer proposer,
+            PaxosLearner knowledge,
+            List<PaxosAcceptor> acceptors,
+            List<PaxosLearner> learners,
+            long maximumWaitBeforeProposalMs,
+            ExecutorService executor) {
         DebugLogger.logger.info("Creating PaxosTimestampBoundStore. The UUID of my proposer is {}."
                 + " Currently, I believe the timestamp bound is {}.",
                 SafeArg.of("proposerUuid", proposer.getUuid()),
@@ -81,6 +94,7 @@ public class PaxosTimestampBoundStore implements TimestampBoundStore {
         this.acceptors = acceptors;
         this.learners = learners;
         this.maximumWaitBeforeProposalMs = maximumWaitBeforeProposalMs;
+        this.executor = executor;
     }
 
     /**
@@ -0,0 +1,86 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.timelock.clock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+public class ClockSkewEventsTest {
+    private static final String SERVER = "server";
+    private static final long WINDOW_NANOS = ClockSkewEvents.LEADER_LEASE_HEALTH_WINDOW.toNanos();
+    private static final long ONE_SECOND_NANOS = 1_000_000_000L;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final ClockSkewEvents events = new ClockSkewEvents(new MetricRegistry(), clock::get);
+
+    @Test
+    public void doesNotPermitLeaderLeasesBeforeClocksHaveBeenMonitored() {
+        assertThat(events.permitsLeaderLeases()).isFalse();
+
+        clock.addAndGet(WINDOW_NANOS);
+        assertThat(events.permitsLeaderLeases()).isFalse();
+    }
+
+    @Test
+    public void permitsLeaderLeasesOnceClocksHaveBeenMonitoredWithoutSkew() {
+        clock.addAndGet(WINDOW_NANOS);
+        events.clockSkew(SERVER, skewOf(0), 1L);
+
+        assertThat(events.permitsLeaderLeases()).isTrue();
+    }
+
+    @Test
+    public void doesNotPermitLeaderLeasesAfterSignificantSkew() {
+        clock.addAndGet(WINDOW_NANOS);
+        events.clockSkew(SERVER, skewOf(ONE_SECOND_NANOS / 2), 1L);
+        assertThat(events.permitsLeaderLeases()).isFalse();
+
+        clock.addAndGet(WINDOW_NANOS);
+        events.clockSkew(SERVER, skewOf(0), 1L);
+        assertThat(events.permitsLeaderLeases()).isTrue();
+    }
+
+    @Test
+    public void doesNotPermitLeaderLeasesAfterClockWentBackwards() {
+        clock.addAndGet(WINDOW_NANOS);
+        events.clockSkew(SERVER, skewOf(0), 1L);
+        events.clockWentBackwards(SERVER, 1L);
+
+        assertThat(events.permitsLeaderLeases()).isFalse();
+    }
+
+    @Test
+    public void doesNotPermitLeaderLeasesIfClocksHaveNotBeenMonitoredRecently() {
+        clock.addAndGet(WINDOW_NANOS);
+        events.clockSkew(SERVER, skewOf(0), 1L);
+        clock.addAndGet(WINDOW_NANOS);
+
+        assertThat(events.permitsLeaderLeases()).isFalse();
+    }
+
+    private static ClockSkewEvent skewOf(long skewNanos) {
+        return ImmutableClockSkewEvent.builder()
+                .minElapsedTime(ONE_SECOND_NANOS)
+                .maxElapsedTime(ONE_SECOND_NANOS)
+                .remoteElapsedTime(ONE_SECOND_NANOS + skewNanos)
+                .build();
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.timelock.paxos;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.paxos.BooleanPaxosResponse;
+import com.palantir.paxos.PaxosPromise;
+import com.palantir.paxos.PaxosProposal;
+import com.palantir.paxos.PaxosProposalId;
+import com.palantir.paxos.PaxosValue;
+
+public class BatchPaxosResourceTest {
+    private static final String CLIENT_1 = "alice";
+    private static final String CLIENT_2 = "bob";
+    // Not a valid path, so creating the paxos components for this client fails.
+    private static final String FAILING_CLIENT = "mallory\0";
+    private static final String PAXOS_UUID = "paxos";
+    private static final long ROUND_ONE = 1;
+    private static final long ROUND_TWO = 2;
+    private static final PaxosProposalId PROPOSAL_ID = new PaxosProposalId(1, PAXOS_UUID);
+    private static final PaxosValue VALUE = new PaxosValue(PAXOS_UUID, ROUND_ONE, new byte[] {0});
+
+    @ClassRule
+    public static final TemporaryFolder TEMPORARY_FOLDER = new TemporaryFolder();
+
+    private PaxosResource paxosResource;
+    private BatchPaxosResource batchPaxosResource;
+
+    @Before
+    public void setUp() throws IOException {
+        paxosResource = PaxosResource.create(new MetricRegistry(), TEMPORARY_FOLDER.newFolder().getPath());
+        batchPaxosResource = BatchPaxosResource.create(paxosResource);
+    }
+
+    @Test
+    public void batchedRequestsAreHandledByTheAcceptorOfEachClient() {
+        List<PaxosPromise> promises = batchPaxosResource.getBatchPaxosAcceptor().prepare(ImmutableList.of(
+                PaxosPrepareRequest.of(CLIENT_1, ROUND_ONE, PROPOSAL_ID),
+                PaxosPrepareRequest.of(CLIENT_2, ROUND_TWO, PROPOSAL_ID)));
+        assertThat(promises).hasSize(2).allMatch(PaxosPromise::isSuccessful);
+
+        List<BooleanPaxosResponse> responses = batchPaxosResource.getBatchPaxosAcceptor().accept(ImmutableList.of(
+                PaxosAcceptRequest.of(CLIENT_2, ROUND_TWO, new PaxosProposal(PROPOSAL_ID, VALUE))));
+        assertThat(responses).hasSize(1).allMatch(BooleanPaxosResponse::isSuccessful);
+
+        assertThat(paxosResource.getPaxosAcceptor(CLIENT_1).getLatestSequencePreparedOrAccepted()).isEqualTo(ROUND_ONE);
+        assertThat(paxosResource.getPaxosAcceptor(CLIENT_2).getLatestSequencePreparedOrAccepted()).isEqualTo(ROUND_TWO);
+        assertThat(batchPaxosResource.getBatchPaxosAcceptor()
+                .getLatestSequencesPreparedOrAccepted(ImmutableSet.of(CLIENT_1, CLIENT_2)))
+                .isEqualTo(ImmutableMap.of(CLIENT_1, ROUND_ONE, CLIENT_2, ROUND_TWO));
+    }
+
+    @Test
+    public void batchedValuesAreLearnedByTheLearnerOfEachClient() {
+        batchPaxosResource.getBatchPaxosLearner().learn(ImmutableList.of(
+                PaxosLearnRequest.of(CLIENT_1, ROUND_ONE, VALUE)));
+
+        assertThat(paxosResource.getPaxosLearner(CLIENT_1).getLearnedValue(ROUND_ONE)).isNotNull();
+        assertThat(paxosResource.getPaxosLearner(CLIENT_2).getGreatestLearnedValue()).isNull();
+    }
+
+    @Test
+    public void failedRequestsAreRejectedWithoutFailingTheRestOfTheBatch() {
+        List<PaxosPromise> promises = batchPaxosResource.getBatchPaxosAcceptor().prepare(ImmutableList.of(
+                PaxosPrepareRequest.of(CLIENT_1, ROUND_ONE, PROPOSAL_ID),
+                PaxosPrepareRequest.of(FAILING_CLIENT, ROUND_ONE, PROPOSAL_ID)));
+        assertThat(promises).extracting(PaxosPromise::isSuccessful).containsExactly(true, false);
+
+        List<BooleanPaxosResponse> responses = batchPaxosResource.getBatchPaxosAcceptor().accept(ImmutableList.of(
+                PaxosAcceptRequest.of(FAILING_CLIENT, ROUND_ONE, new PaxosProposal(PROPOSAL_ID, VALUE)),
+                PaxosAcceptRequest.of(CLIENT_1, ROUND_ONE, new PaxosProposal(PROPOSAL_ID, VALUE))));
+        assertThat(responses).extracting(BooleanPaxosResponse::isSuccessful).containsExactly(false, true);
+
+        batchPaxosResource.getBatchPaxosLearner().learn(ImmutableList.of(
+                PaxosLearnRequest.of(FAILING_CLIENT, ROUND_ONE, VALUE),
+                PaxosLearnRequest.of(CLIENT_1, ROUND_ONE, VALUE)));
+        assertThat(paxosResource.getPaxosLearner(CLIENT_1).getLearnedValue(ROUND_ONE)).isNotNull();
+    }
+
+    @Test
+    public void singleFailedRequestIsRejected() {
+        List<PaxosPromise> promises = batchPaxosResource.getBatchPaxosAcceptor().prepare(ImmutableList.of(
+                PaxosPrepareRequest.of(FAILING_CLIENT, ROUND_ONE, PROPOSAL_ID)));
+        assertThat(promises).hasSize(1).noneMatch(PaxosPromise::isSuccessful);
+    }
+}
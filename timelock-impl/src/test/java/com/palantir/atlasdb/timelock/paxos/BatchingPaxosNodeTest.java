@@ -0,0 +1,135 @@
+/*
+ * (c) Copyright 2019 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.timelock.paxos;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.google.common.collect.ImmutableMap;
+import com.palantir.paxos.BooleanPaxosResponse;
+import com.palantir.paxos.PaxosLearner;
+import com.palantir.paxos.PaxosProposal;
+import com.palantir.paxos.PaxosProposalId;
+import com.palantir.paxos.PaxosValue;
+
+public class BatchingPaxosNodeTest {
+    private static final String CLIENT_1 = "alice";
+    private static final String CLIENT_2 = "bob";
+    private static final String CLIENT_3 = "carol";
+    private static final PaxosValue VALUE = new PaxosValue("paxos", 1, new byte[] {0});
+    private static final PaxosProposal PROPOSAL = new PaxosProposal(new PaxosProposalId(1, "paxos"), VALUE);
+
+    private final BatchPaxosAcceptor batchAcceptor = mock(BatchPaxosAcceptor.class);
+    private final BatchPaxosLearner batchLearner = mock(BatchPaxosLearner.class);
+    private final BatchingPaxosNode node = new BatchingPaxosNode(batchAcceptor, batchLearner);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void tearDown() {
+        node.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void responsesAreReturnedToTheClientsThatMadeTheRequests() {
+        when(batchAcceptor.accept(anyList())).thenAnswer(invocation -> {
+            List<PaxosAcceptRequest> requests = invocation.getArgument(0);
+            return requests.stream()
+                    .map(request -> new BooleanPaxosResponse(request.client().equals(CLIENT_1)))
+                    .collect(Collectors.toList());
+        });
+
+        assertThat(node.acceptorForClient(CLIENT_1).accept(1, PROPOSAL).isSuccessful()).isTrue();
+        assertThat(node.acceptorForClient(CLIENT_2).accept(1, PROPOSAL).isSuccessful()).isFalse();
+    }
+
+    @Test
+    public void requestsMadeWhileABatchIsInFlightAreSentTogether() throws Exception {
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            firstBatchStarted.countDown();
+            releaseFirstBatch.await();
+            return null;
+        }).doNothing().when(batchLearner).learn(anyList());
+
+        Future<?> first = executor.submit(() -> node.learnerForClient(CLIENT_1, mock(PaxosLearner.class))
+                .learn(1, VALUE));
+        assertThat(firstBatchStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<?> second = executor.submit(() -> node.learnerForClient(CLIENT_2, mock(PaxosLearner.class))
+                .learn(1, VALUE));
+        Future<?> third = executor.submit(() -> node.learnerForClient(CLIENT_3, mock(PaxosLearner.class))
+                .learn(1, VALUE));
+        Thread.sleep(100);
+        releaseFirstBatch.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        third.get(5, TimeUnit.SECONDS);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<PaxosLearnRequest>> batches = ArgumentCaptor.forClass(List.class);
+        verify(batchLearner, times(2)).learn(batches.capture());
+        assertThat(batches.getAllValues().get(1)).containsExactlyInAnyOrder(
+                PaxosLearnRequest.of(CLIENT_2, 1, VALUE),
+                PaxosLearnRequest.of(CLIENT_3, 1, VALUE));
+    }
+
+    @Test
+    public void learnerReadsAreNotBatched() {
+        PaxosLearner unbatchedLearner = mock(PaxosLearner.class);
+        when(unbatchedLearner.getLearnedValue(1)).thenReturn(VALUE);
+
+        assertThat(node.learnerForClient(CLIENT_1, unbatchedLearner).getLearnedValue(1)).isEqualTo(VALUE);
+        verify(unbatchedLearner).getLearnedValue(1);
+    }
+
+    @Test
+    public void failsIfRemoteDoesNotReturnLatestSequenceForClient() {
+        when(batchAcceptor.getLatestSequencesPreparedOrAccepted(any())).thenReturn(ImmutableMap.of(CLIENT_1, 5L));
+
+        assertThat(node.acceptorForClient(CLIENT_1).getLatestSequencePreparedOrAccepted()).isEqualTo(5L);
+        assertThatThrownBy(() -> node.acceptorForClient(CLIENT_2).getLatestSequencePreparedOrAccepted())
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void failedBatchesFailAllOfTheirRequests() {
+        when(batchAcceptor.accept(anyList())).thenThrow(new IllegalStateException("remote failure"));
+
+        assertThatThrownBy(() -> node.acceptorForClient(CLIENT_1).accept(1, PROPOSAL))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("remote failure");
+    }
+}
@@ -61,4 +61,19 @@ public class PaxosTimeLockUriUtilsTest {
                         PaxosTimeLockConstants.CLIENT_PAXOS_NAMESPACE,
                         CLIENT));
     }
+
+    @Test
+    public void canGetBatchPaxosUris() {
+        Set<String> batchPaxosUris = PaxosTimeLockUriUtils.getBatchPaxosUris(ADDRESSES);
+
+        assertThat(batchPaxosUris).containsExactlyInAnyOrder(
+                String.join("/",
+                        ADDRESS_1,
+                        PaxosTimeLockConstants.INTERNAL_NAMESPACE,
+                        PaxosTimeLockConstants.BATCH_PAXOS_NAMESPACE),
+                String.join("/",
+                        ADDRESS_2,
+                        PaxosTimeLockConstants.INTERNAL_NAMESPACE,
+                        PaxosTimeLockConstants.BATCH_PAXOS_NAMESPACE));
+    }
 }
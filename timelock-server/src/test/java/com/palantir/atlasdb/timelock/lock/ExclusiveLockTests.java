@@ -19,7 +19,14 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assert.assertTrue;
 
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.junit.Test;
 
@@ -222,6 +229,35 @@ public class ExclusiveLockTests {
         assertThat(request2.isCompletedSuccessfully()).isTrue();
     }
 
+    @Test
+    public void lockIsExclusiveUnderConcurrentRequests() throws Exception {
+        AtomicInteger concurrentHolders = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = IntStream.range(0, 8)
+                    .mapToObj(unused -> executor.submit(() -> {
+                        for (int i = 0; i < 10_000; i++) {
+                            UUID requestId = UUID.randomUUID();
+                            AsyncResult<Void> result = lock.lock(requestId);
+                            while (!result.isComplete()) {
+                                Thread.yield();
+                            }
+                            assertThat(concurrentHolders.incrementAndGet()).isEqualTo(1);
+                            concurrentHolders.decrementAndGet();
+                            unlock(requestId);
+                        }
+                    }))
+                    .collect(Collectors.toList());
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(lock.getCurrentHolder()).isNull();
+    }
+
     private AsyncResult<Void> waitUntilAvailableAsync(UUID request) {
         return lock.waitUntilAvailable(request);
     }
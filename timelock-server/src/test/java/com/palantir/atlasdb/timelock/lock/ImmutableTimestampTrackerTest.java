@@ -67,6 +67,21 @@ public class ImmutableTimestampTrackerTest {
         assertThat(tracker.getImmutableTimestamp().get()).isEqualTo(TIMESTAMP_2);
     }
 
+    @Test
+    public void tracksLeastTimestampAcrossShards() {
+        ImmutableTimestampTracker shardedTracker = new ImmutableTimestampTracker(4);
+        for (long timestamp = 10; timestamp < 20; timestamp++) {
+            shardedTracker.lock(timestamp, REQUEST_1);
+        }
+
+        for (long timestamp = 10; timestamp < 19; timestamp++) {
+            shardedTracker.unlock(timestamp, REQUEST_1);
+            assertThat(shardedTracker.getImmutableTimestamp()).contains(timestamp + 1);
+        }
+        shardedTracker.unlock(19, REQUEST_1);
+        assertThat(shardedTracker.getImmutableTimestamp()).isEmpty();
+    }
+
     @Test
     public void lockingSameTimestampTwiceThrows() {
         lock(TIMESTAMP_1, REQUEST_1);
@@ -29,6 +29,7 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -217,6 +218,44 @@ public class LockAcquirerTest {
         assertThat(result.isTimedOut()).isFalse();
     }
 
+    @Test
+    public void releasesLocksOnceUnlocked() {
+        AtomicInteger releases = new AtomicInteger();
+        OrderedLocks locks = OrderedLocks.fromOrderedList(ImmutableList.of(lockA, lockB), releases::incrementAndGet);
+
+        HeldLocks heldLocks = lockAcquirer.acquireLocks(REQUEST_ID, locks, TIMEOUT).get();
+        assertThat(releases.get()).isEqualTo(0);
+
+        heldLocks.unlock();
+        assertThat(releases.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void releasesLocksAfterTimeout() {
+        lockB.lock(OTHER_REQUEST_ID);
+        AtomicInteger releases = new AtomicInteger();
+        OrderedLocks locks = OrderedLocks.fromOrderedList(ImmutableList.of(lockA, lockB), releases::incrementAndGet);
+
+        lockAcquirer.acquireLocks(REQUEST_ID, locks, TIMEOUT);
+        assertThat(releases.get()).isEqualTo(0);
+
+        executor.tick(TIMEOUT.getTimeMillis() + 1L, TimeUnit.MILLISECONDS);
+        assertThat(releases.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void releasesLocksOnceWaitCompletes() {
+        lockA.lock(OTHER_REQUEST_ID);
+        AtomicInteger releases = new AtomicInteger();
+        OrderedLocks locks = OrderedLocks.fromOrderedList(ImmutableList.of(lockA), releases::incrementAndGet);
+
+        lockAcquirer.waitForLocks(REQUEST_ID, locks, TIMEOUT);
+        assertThat(releases.get()).isEqualTo(0);
+
+        lockA.unlock(OTHER_REQUEST_ID);
+        assertThat(releases.get()).isEqualTo(1);
+    }
+
     private AsyncResult<Void> waitFor(AsyncLock... locks) {
         return lockAcquirer.waitForLocks(REQUEST_ID, OrderedLocks.fromOrderedList(ImmutableList.copyOf(locks)),
                 TIMEOUT);
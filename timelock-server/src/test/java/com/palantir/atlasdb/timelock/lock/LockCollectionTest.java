@@ -32,6 +32,10 @@ import com.palantir.lock.StringLockDescriptor;
 
 public class LockCollectionTest {
 
+    private static final LockDescriptor LOCK_A = StringLockDescriptor.of("a");
+    private static final LockDescriptor LOCK_B = StringLockDescriptor.of("b");
+    private static final LockDescriptor LOCK_C = StringLockDescriptor.of("c");
+
     private final LockCollection lockCollection = new LockCollection();
 
     @Test
@@ -70,10 +74,85 @@ public class LockCollectionTest {
         assertThat(actualOrder).isEqualTo(expectedOrder);
     }
 
+    @Test
+    public void returnsLocksSortedByDescriptor() {
+        OrderedLocks locks = lockCollection.getAll(ImmutableSet.of(LOCK_C, LOCK_A, LOCK_B));
+
+        assertThat(descriptors(locks)).containsExactly(LOCK_A, LOCK_B, LOCK_C);
+    }
+
+    @Test
+    public void returnsSameLockWhileItIsInUse() {
+        OrderedLocks first = lockCollection.getAll(ImmutableSet.of(LOCK_A));
+        OrderedLocks second = lockCollection.getAll(ImmutableSet.of(LOCK_A, LOCK_B));
+
+        assertThat(second.get().get(0)).isSameAs(first.get().get(0));
+
+        first.release();
+        OrderedLocks third = lockCollection.getAll(ImmutableSet.of(LOCK_A));
+        assertThat(third.get().get(0)).isSameAs(second.get().get(0));
+    }
+
+    @Test
+    public void removesLocksOnceReleasedByAllRequests() {
+        OrderedLocks first = lockCollection.getAll(ImmutableSet.of(LOCK_A, LOCK_B));
+        OrderedLocks second = lockCollection.getAll(ImmutableSet.of(LOCK_B));
+        assertThat(lockCollection.getNumberOfLiveLocks()).isEqualTo(2);
+
+        first.release();
+        assertThat(lockCollection.getNumberOfLiveLocks()).isEqualTo(1);
+
+        second.release();
+        assertThat(lockCollection.getNumberOfLiveLocks()).isEqualTo(0);
+    }
+
+    @Test
+    public void releasingTwiceHasNoFurtherEffect() {
+        OrderedLocks first = lockCollection.getAll(ImmutableSet.of(LOCK_A));
+        OrderedLocks second = lockCollection.getAll(ImmutableSet.of(LOCK_A));
+
+        first.release();
+        first.release();
+
+        assertThat(lockCollection.getNumberOfLiveLocks()).isEqualTo(1);
+        assertThat(lockCollection.getAll(ImmutableSet.of(LOCK_A)).get().get(0))
+                .isSameAs(second.get().get(0));
+    }
+
+    @Test
+    public void lockStateIsPreservedWhileInUse() {
+        UUID requestId = UUID.randomUUID();
+        OrderedLocks held = lockCollection.getAll(ImmutableSet.of(LOCK_A));
+        held.get().get(0).lock(requestId);
+
+        OrderedLocks waiting = lockCollection.getAll(ImmutableSet.of(LOCK_A));
+        AsyncResult<Void> result = waiting.get().get(0).lock(UUID.randomUUID());
+        assertThat(result.isComplete()).isFalse();
+
+        held.get().get(0).unlock(requestId);
+        held.release();
+        assertThat(result.isCompletedSuccessfully()).isTrue();
+    }
+
+    @Test
+    public void estimatesMemoryPerLiveLock() {
+        assertThat(lockCollection.getEstimatedBytesPerLock()).isEqualTo(0);
+
+        lockCollection.getAll(ImmutableSet.of(StringLockDescriptor.of("1234"), StringLockDescriptor.of("12345678")));
+
+        assertThat(lockCollection.getEstimatedBytesPerLock())
+                .isEqualTo(LockCollection.ESTIMATED_ENTRY_OVERHEAD_BYTES + 6);
+    }
+
     private Set<LockDescriptor> descriptors(String... names) {
         return Arrays.stream(names)
                 .map(StringLockDescriptor::of)
                 .collect(Collectors.toSet());
     }
 
+    private static List<LockDescriptor> descriptors(OrderedLocks locks) {
+        return locks.get().stream()
+                .map(AsyncLock::getDescriptor)
+                .collect(Collectors.toList());
+    }
 }
@@ -19,6 +19,24 @@ package com.palantir.timestamp;
 import java.io.Closeable;
 
 public interface CloseableTimestampService extends TimestampService, Closeable {
+    /**
+     * Returns a timestamp for use as the start timestamp of a read-only transaction. This is greater than any timestamp
+     * previously returned by or reported to this service, but it may be served from timestamps leased earlier, and so
+     * need not be greater than timestamps that have since been handed out to other clients. It must therefore not be
+     * used where a fresh timestamp is required, such as for commit timestamps.
+     */
+    default long getTimestampForReadOnlyTransaction() {
+        return getFreshTimestamp();
+    }
+
+    /**
+     * Reports a timestamp that was obtained from the timestamp service other than through this service, so that
+     * timestamps returned by {@link #getTimestampForReadOnlyTransaction()} are subsequently greater than it.
+     */
+    default void reportTimestamp(long timestamp) {
+        // Only services that lease timestamps need to know about other timestamps.
+    }
+
     @Override
     void close();
 }
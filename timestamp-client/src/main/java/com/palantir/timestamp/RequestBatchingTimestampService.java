@@ -19,15 +19,24 @@ package com.palantir.timestamp;
 import static com.google.common.base.Preconditions.checkArgument;
 
 import java.util.List;
+import java.util.OptionalLong;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
 import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
 
 import javax.annotation.concurrent.ThreadSafe;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.primitives.Ints;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.palantir.atlasdb.autobatch.AutobatcherMetrics;
 import com.palantir.atlasdb.autobatch.BatchElement;
+import com.palantir.atlasdb.autobatch.BatchingPolicy;
 import com.palantir.atlasdb.autobatch.DisruptorAutobatcher;
 import com.palantir.common.base.Throwables;
 import com.palantir.common.proxy.TimingProxy;
@@ -36,6 +45,12 @@ import com.palantir.util.timer.LoggingOperationTimer;
 
 /**
  * This uses smart batching to queue up requests and send them all as one larger batch.
+ *
+ * Optionally, timestamps for read-only transactions may be served from ranges of timestamps leased from the delegate
+ * for a short validity window, rather than each requiring a request to the delegate. Timestamps returned by this
+ * service are always greater than those it has previously returned or been told about, so that a client always sees
+ * its own writes, but a timestamp served from a lease may be less than timestamps handed out to other clients since
+ * the lease was taken.
  */
 @ThreadSafe
 public final class RequestBatchingTimestampService implements CloseableTimestampService {
@@ -43,11 +58,21 @@ public final class RequestBatchingTimestampService implements CloseableTimestamp
 
     private final TimestampService delegate;
     private final DisruptorAutobatcher<Integer, TimestampRange> batcher;
+    private final IntSupplier readOnlyLeaseSize;
+    private final LongSupplier readOnlyLeaseValidityMillis;
+
+    // The greatest timestamp this service has returned or been told about.
+    private final LongAccumulator lowerBound = new LongAccumulator(Long::max, Long.MIN_VALUE);
+    private volatile TimestampLease readOnlyLease;
 
     private RequestBatchingTimestampService(TimestampService delegate,
-            DisruptorAutobatcher<Integer, TimestampRange> batcher) {
+            DisruptorAutobatcher<Integer, TimestampRange> batcher,
+            IntSupplier readOnlyLeaseSize,
+            LongSupplier readOnlyLeaseValidityMillis) {
         this.delegate = delegate;
         this.batcher = batcher;
+        this.readOnlyLeaseSize = readOnlyLeaseSize;
+        this.readOnlyLeaseValidityMillis = readOnlyLeaseValidityMillis;
     }
 
     @Override
@@ -68,6 +93,42 @@ public final class RequestBatchingTimestampService implements CloseableTimestamp
 
     @Override
     public TimestampRange getFreshTimestamps(int numTimestampsRequested) {
+        TimestampRange range = getFreshTimestampsFromBatcher(numTimestampsRequested);
+        lowerBound.accumulate(range.getUpperBound());
+        return range;
+    }
+
+    @Override
+    public long getTimestampForReadOnlyTransaction() {
+        int leaseSize = readOnlyLeaseSize.getAsInt();
+        if (leaseSize <= 1) {
+            return getFreshTimestamp();
+        }
+
+        // Read before taking a timestamp, so that we return a timestamp greater than any returned before this call.
+        long currentLowerBound = lowerBound.get();
+        TimestampLease lease = readOnlyLease;
+        if (lease != null) {
+            OptionalLong leasedTimestamp = lease.tryTake(currentLowerBound);
+            if (leasedTimestamp.isPresent()) {
+                lowerBound.accumulate(leasedTimestamp.getAsLong());
+                return leasedTimestamp.getAsLong();
+            }
+        }
+
+        TimestampRange range = getFreshTimestampsFromBatcher(leaseSize);
+        readOnlyLease = new TimestampLease(range,
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(readOnlyLeaseValidityMillis.getAsLong()));
+        lowerBound.accumulate(range.getLowerBound());
+        return range.getLowerBound();
+    }
+
+    @Override
+    public void reportTimestamp(long timestamp) {
+        lowerBound.accumulate(timestamp);
+    }
+
+    private TimestampRange getFreshTimestampsFromBatcher(int numTimestampsRequested) {
         checkArgument(numTimestampsRequested > 0, "Must not request zero or negative timestamps");
         ListenableFuture<TimestampRange> range = batcher.apply(numTimestampsRequested);
         try {
@@ -84,9 +145,39 @@ public final class RequestBatchingTimestampService implements CloseableTimestamp
     }
 
     public static RequestBatchingTimestampService create(TimestampService untimedDelegate) {
+        return create(untimedDelegate, () -> 0, () -> 0L);
+    }
+
+    /**
+     * Creates a service that serves timestamps for read-only transactions from leased ranges of the given size, each
+     * of which may be used for the given validity window after it was requested. Leasing is disabled while the lease
+     * size is at most one.
+     */
+    public static RequestBatchingTimestampService create(TimestampService untimedDelegate,
+            IntSupplier readOnlyLeaseSize,
+            LongSupplier readOnlyLeaseValidityMillis) {
         TimestampService delegate = TimingProxy.newProxyInstance(TimestampService.class, untimedDelegate, timer);
         DisruptorAutobatcher<Integer, TimestampRange> autobatcher = DisruptorAutobatcher.create(consumer(delegate));
-        return new RequestBatchingTimestampService(delegate, autobatcher);
+        return new RequestBatchingTimestampService(
+                delegate, autobatcher, readOnlyLeaseSize, readOnlyLeaseValidityMillis);
+    }
+
+    /**
+     * As {@link #create(TimestampService, IntSupplier, LongSupplier)}, but batching requests to the delegate according
+     * to the given policy, with metrics describing the batches registered with the given registry.
+     */
+    public static RequestBatchingTimestampService create(TimestampService untimedDelegate,
+            IntSupplier readOnlyLeaseSize,
+            LongSupplier readOnlyLeaseValidityMillis,
+            BatchingPolicy batchingPolicy,
+            MetricRegistry metricRegistry) {
+        TimestampService delegate = TimingProxy.newProxyInstance(TimestampService.class, untimedDelegate, timer);
+        DisruptorAutobatcher<Integer, TimestampRange> autobatcher = DisruptorAutobatcher.create(
+                consumer(delegate),
+                batchingPolicy,
+                AutobatcherMetrics.create(metricRegistry, "timestamps"));
+        return new RequestBatchingTimestampService(
+                delegate, autobatcher, readOnlyLeaseSize, readOnlyLeaseValidityMillis);
     }
 
     @VisibleForTesting
@@ -128,4 +219,33 @@ public final class RequestBatchingTimestampService implements CloseableTimestamp
                 "End is not ahead of start so cannot create an exclusive range");
         return TimestampRange.createInclusiveRange(start, end - 1);
     }
+
+    private static final class TimestampLease {
+        private final AtomicLong nextTimestamp;
+        private final long upperBound;
+        private final long expiryNanos;
+
+        private TimestampLease(TimestampRange range, long expiryNanos) {
+            // The lower bound of the range is returned to the caller that took the lease.
+            this.nextTimestamp = new AtomicLong(range.getLowerBound() + 1);
+            this.upperBound = range.getUpperBound();
+            this.expiryNanos = expiryNanos;
+        }
+
+        private OptionalLong tryTake(long lowerBoundExclusive) {
+            if (System.nanoTime() - expiryNanos >= 0) {
+                return OptionalLong.empty();
+            }
+            while (true) {
+                long next = nextTimestamp.get();
+                long timestamp = Math.max(next, lowerBoundExclusive + 1);
+                if (timestamp > upperBound) {
+                    return OptionalLong.empty();
+                }
+                if (nextTimestamp.compareAndSet(next, timestamp + 1)) {
+                    return OptionalLong.of(timestamp);
+                }
+            }
+        }
+    }
 }
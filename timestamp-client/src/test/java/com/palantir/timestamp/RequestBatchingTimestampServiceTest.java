@@ -23,6 +23,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -39,14 +40,18 @@ import org.junit.runner.RunWith;
 import org.mockito.Spy;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.SettableFuture;
 import com.palantir.atlasdb.autobatch.BatchElement;
+import com.palantir.atlasdb.autobatch.BatchingPolicy;
+import com.palantir.atlasdb.autobatch.DisruptorAutobatcher;
 
 @RunWith(MockitoJUnitRunner.class)
 public final class RequestBatchingTimestampServiceTest {
     private static final int MAX_TIMESTAMPS = 10_000;
+    private static final int LEASE_SIZE = 10;
 
     @Spy private TimestampService unbatchedDelegate = new MaxTimestampsToGiveTimestampService();
 
@@ -82,6 +87,21 @@ public final class RequestBatchingTimestampServiceTest {
                 .hasMessage("Must not request zero or negative timestamps");
     }
 
+    @Test
+    public void registersBatchingMetricsIfGivenRegistry() {
+        MetricRegistry registry = new MetricRegistry();
+        try (CloseableTimestampService service = RequestBatchingTimestampService.create(
+                unbatchedDelegate, () -> 0, () -> 0L, BatchingPolicy.builder().build(), registry)) {
+            service.getFreshTimestamp();
+            service.getFreshTimestamps(2);
+        }
+
+        assertThat(registry.histogram(MetricRegistry.name(DisruptorAutobatcher.class, "timestamps", "batchSize"))
+                .getCount()).isEqualTo(2);
+        assertThat(registry.histogram(MetricRegistry.name(DisruptorAutobatcher.class, "timestamps", "queueWaitMicros"))
+                .getCount()).isEqualTo(2);
+    }
+
     @Test
     public void coalescesRequestsTogether() {
         assertThat(requestBatches(1, 2, 3)).containsExactly(single(1), range(2, 4), range(4, 7));
@@ -99,6 +119,58 @@ public final class RequestBatchingTimestampServiceTest {
         verifyNoMoreInteractions(unbatchedDelegate);
     }
 
+    @Test
+    public void servesReadOnlyTimestampsFreshlyIfLeasingIsDisabled() {
+        assertThat(timestamp.getTimestampForReadOnlyTransaction()).isEqualTo(1L);
+        assertThat(timestamp.getTimestampForReadOnlyTransaction()).isEqualTo(2L);
+        verify(unbatchedDelegate, times(2)).getFreshTimestamps(1);
+        verifyNoMoreInteractions(unbatchedDelegate);
+    }
+
+    @Test
+    public void servesReadOnlyTimestampsFromLease() {
+        try (CloseableTimestampService leasing = leasingService(LEASE_SIZE, Long.MAX_VALUE / 2)) {
+            for (long expected = 1; expected <= LEASE_SIZE + 1; expected++) {
+                assertThat(leasing.getTimestampForReadOnlyTransaction()).isEqualTo(expected);
+            }
+            verify(unbatchedDelegate, times(2)).getFreshTimestamps(LEASE_SIZE);
+            verifyNoMoreInteractions(unbatchedDelegate);
+        }
+    }
+
+    @Test
+    public void doesNotServeReadOnlyTimestampsFromExpiredLease() {
+        try (CloseableTimestampService leasing = leasingService(LEASE_SIZE, 0L)) {
+            assertThat(leasing.getTimestampForReadOnlyTransaction()).isEqualTo(1L);
+            assertThat(leasing.getTimestampForReadOnlyTransaction()).isEqualTo(LEASE_SIZE + 1);
+            verify(unbatchedDelegate, times(2)).getFreshTimestamps(LEASE_SIZE);
+        }
+    }
+
+    @Test
+    public void readOnlyTimestampsAreGreaterThanFreshTimestampsPreviouslyReturned() {
+        try (CloseableTimestampService leasing = leasingService(LEASE_SIZE, Long.MAX_VALUE / 2)) {
+            assertThat(leasing.getTimestampForReadOnlyTransaction()).isEqualTo(1L);
+            assertThat(leasing.getFreshTimestamp()).isEqualTo(LEASE_SIZE + 1);
+            assertThat(leasing.getTimestampForReadOnlyTransaction()).isEqualTo(LEASE_SIZE + 2);
+        }
+    }
+
+    @Test
+    public void readOnlyTimestampsAreGreaterThanReportedTimestamps() {
+        try (CloseableTimestampService leasing = leasingService(LEASE_SIZE, Long.MAX_VALUE / 2)) {
+            assertThat(leasing.getTimestampForReadOnlyTransaction()).isEqualTo(1L);
+            leasing.reportTimestamp(5L);
+            assertThat(leasing.getTimestampForReadOnlyTransaction()).isEqualTo(6L);
+            leasing.reportTimestamp(LEASE_SIZE);
+            assertThat(leasing.getTimestampForReadOnlyTransaction()).isEqualTo(LEASE_SIZE + 1);
+        }
+    }
+
+    private CloseableTimestampService leasingService(int leaseSize, long leaseValidityMillis) {
+        return RequestBatchingTimestampService.create(unbatchedDelegate, () -> leaseSize, () -> leaseValidityMillis);
+    }
+
     private List<TimestampRange> requestBatches(int... sizes) {
         List<BatchElement<Integer, TimestampRange>> elements = Arrays.stream(sizes)
                 .mapToObj(size -> ImmutableTestBatchElement.builder()
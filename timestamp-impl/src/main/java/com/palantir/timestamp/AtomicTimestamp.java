@@ -18,6 +18,11 @@ package com.palantir.timestamp;
 import java.util.concurrent.atomic.AtomicLong;
 
 public class AtomicTimestamp {
+    /**
+     * Below this value, we increment with a single atomic add, which unlike a compare-and-set loop does not need to be
+     * retried under contention. Above it, we fall back to a compare-and-set loop, so that we never overflow.
+     */
+    private static final long ATOMIC_ADD_LIMIT = Long.MAX_VALUE / 2;
 
     private final AtomicLong value;
 
@@ -26,7 +31,9 @@ public class AtomicTimestamp {
     }
 
     public TimestampRange incrementBy(long delta) {
-        long upperBound = value.updateAndGet(current -> Math.addExact(current, delta));
+        long upperBound = value.get() < ATOMIC_ADD_LIMIT && delta < ATOMIC_ADD_LIMIT
+                ? value.addAndGet(delta)
+                : value.updateAndGet(current -> Math.addExact(current, delta));
         long lowerBound = upperBound - delta + 1L;
         return TimestampRange.createInclusiveRange(lowerBound, upperBound);
     }
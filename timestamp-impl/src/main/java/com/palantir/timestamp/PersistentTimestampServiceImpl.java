@@ -15,6 +15,8 @@
  */
 package com.palantir.timestamp;
 
+import java.util.concurrent.ExecutorService;
+
 import javax.annotation.concurrent.ThreadSafe;
 
 import org.slf4j.Logger;
@@ -24,6 +26,8 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.palantir.async.initializer.AsyncInitializer;
 import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.common.concurrent.NamedThreadFactory;
+import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.logsafe.SafeArg;
 
 @ThreadSafe
@@ -48,6 +52,9 @@ public class PersistentTimestampServiceImpl implements PersistentTimestampServic
 
     private static final Logger log = LoggerFactory.getLogger(PersistentTimestampServiceImpl.class);
     private static final int MAX_TIMESTAMPS_PER_REQUEST = 10_000;
+    // Shared by all timestamp services, as each only ever has one extension of its upper limit in progress.
+    private static final ExecutorService UPPER_LIMIT_EXTENSION_EXECUTOR = PTExecutors.newCachedThreadPool(
+            new NamedThreadFactory("timestamp-upper-limit-extender", true));
 
     private ErrorCheckingTimestampBoundStore store;
     private PersistentTimestamp timestamp;
@@ -83,7 +90,7 @@ public class PersistentTimestampServiceImpl implements PersistentTimestampServic
 
     private void tryInitialize() {
         long latestTimestamp = store.getUpperLimit();
-        PersistentUpperLimit upperLimit = new PersistentUpperLimit(store);
+        PersistentUpperLimit upperLimit = new PersistentUpperLimit(store, UPPER_LIMIT_EXTENSION_EXECUTOR);
         timestamp = new PersistentTimestamp(upperLimit, latestTimestamp);
     }
 
@@ -15,9 +15,19 @@
  */
 package com.palantir.timestamp;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import com.google.common.annotations.VisibleForTesting;
+import com.palantir.logsafe.SafeArg;
 
 public class PersistentUpperLimit {
+    private static final Logger log = LoggerFactory.getLogger(PersistentUpperLimit.class);
 
     /**
      * Some internal atlas clients have behavior tied to this value and will need to
@@ -26,12 +36,41 @@ public class PersistentUpperLimit {
     @VisibleForTesting
     static final long BUFFER = 1_000_000;
 
+    /**
+     * When extending the limit in the background, we aim to leave room for this long's worth of timestamps at the
+     * rate at which they were recently handed out, so that the limit is extended around twice per second at most.
+     */
+    private static final long TARGET_BACKGROUND_EXTENSION_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    @VisibleForTesting
+    static final long MAXIMUM_BUFFER = 1_000 * BUFFER;
+
     private volatile long currentLimit;
     private final TimestampBoundStore store;
 
+    private final Executor backgroundExtensionExecutor;
+    private final AtomicBoolean backgroundExtensionInProgress = new AtomicBoolean(false);
+    private volatile boolean backgroundExtensionEnabled;
+    private volatile long buffer = BUFFER;
+    // Only accessed by the background extension, of which there is at most one at a time.
+    private long timestampAtLastBackgroundExtension;
+    private long nanoTimeAtLastBackgroundExtension;
+
     public PersistentUpperLimit(TimestampBoundStore boundStore) {
+        this(boundStore, null);
+    }
+
+    /**
+     * Creates an upper limit that is extended on the given executor, ahead of the timestamps handed out, so that
+     * requests for timestamps do not usually wait for the new limit to be stored. The amount by which the limit is
+     * extended is adapted to the rate at which timestamps are handed out, but is never less than {@link #BUFFER}.
+     */
+    public PersistentUpperLimit(TimestampBoundStore boundStore, Executor backgroundExtensionExecutor) {
         this.store = boundStore;
         this.currentLimit = boundStore.getUpperLimit();
+        this.backgroundExtensionExecutor = backgroundExtensionExecutor;
+        this.backgroundExtensionEnabled = backgroundExtensionExecutor != null;
+        this.timestampAtLastBackgroundExtension = currentLimit;
+        this.nanoTimeAtLastBackgroundExtension = System.nanoTime();
     }
 
     public long get() {
@@ -39,21 +78,73 @@ public class PersistentUpperLimit {
     }
 
     public void increaseToAtLeast(long newLimit) {
-        if (newLimit > currentLimit) {
-            updateLimit(newLimit);
+        long limit = currentLimit;
+        if (newLimit > limit) {
+            updateLimit(newLimit, BUFFER);
+            backgroundExtensionEnabled = backgroundExtensionExecutor != null;
+        } else if (backgroundExtensionEnabled && limit - newLimit < buffer / 2) {
+            extendInBackground(newLimit);
         }
     }
 
-    private synchronized void updateLimit(long newLimit) {
+    private synchronized void updateLimit(long newLimit, long bufferToAdd) {
         if (currentLimit >= newLimit) {
             return;
         }
 
-        long newLimitWithBuffer = Math.addExact(newLimit, BUFFER);
+        long newLimitWithBuffer = Math.addExact(newLimit, bufferToAdd);
         storeUpperLimit(newLimitWithBuffer);
         currentLimit = newLimitWithBuffer;
     }
 
+    private synchronized void extendTo(long newLimit) {
+        if (currentLimit >= newLimit) {
+            return;
+        }
+
+        storeUpperLimit(newLimit);
+        currentLimit = newLimit;
+    }
+
+    private void extendInBackground(long latestTimestamp) {
+        if (!backgroundExtensionInProgress.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            backgroundExtensionExecutor.execute(() -> {
+                try {
+                    adaptBuffer(latestTimestamp);
+                    extendTo(Math.addExact(latestTimestamp, buffer));
+                } catch (Throwable t) {
+                    // Requests will extend the limit themselves once it is reached, and surface any failure then.
+                    log.info("Failed to extend the timestamp upper limit in the background. It will next be extended"
+                            + " once it is reached.", t);
+                    backgroundExtensionEnabled = false;
+                } finally {
+                    backgroundExtensionInProgress.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            backgroundExtensionInProgress.set(false);
+        }
+    }
+
+    private void adaptBuffer(long latestTimestamp) {
+        long now = System.nanoTime();
+        long elapsedNanos = Math.max(now - nanoTimeAtLastBackgroundExtension, 1);
+        double timestampsPerNano = (double) Math.max(latestTimestamp - timestampAtLastBackgroundExtension, 0)
+                / elapsedNanos;
+        long newBuffer = (long) Math.min(timestampsPerNano * TARGET_BACKGROUND_EXTENSION_INTERVAL_NANOS,
+                MAXIMUM_BUFFER);
+        buffer = Math.max(newBuffer, BUFFER);
+        if (buffer > BUFFER) {
+            log.debug("Extending the timestamp upper limit with a buffer of {} timestamps.",
+                    SafeArg.of("buffer", buffer));
+        }
+        timestampAtLastBackgroundExtension = latestTimestamp;
+        nanoTimeAtLastBackgroundExtension = now;
+    }
+
     private void storeUpperLimit(long upperLimit) {
         DebugLogger.willStoreNewUpperLimit(upperLimit);
         store.storeUpperLimit(upperLimit);
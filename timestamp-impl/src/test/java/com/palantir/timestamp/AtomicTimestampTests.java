@@ -50,6 +50,13 @@ public class AtomicTimestampTests {
         assertThatExceptionOfType(ArithmeticException.class).isThrownBy(() -> timestamp.incrementBy(1));
     }
 
+    @Test
+    public void canIncrementCloseToOverflow() {
+        timestamp.increaseTo(Long.MAX_VALUE - 10);
+
+        assertThat(timestamp.incrementBy(10).getUpperBound(), is(Long.MAX_VALUE));
+    }
+
     @Test
     public void handleConcurrentlyIncreasingTheValue() throws InterruptedException {
         for (int i = 0; i < 100; i++) {
@@ -17,8 +17,10 @@ package com.palantir.timestamp;
 
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -119,4 +121,44 @@ public class PersistentUpperLimitTest {
         assertThat(upperLimit.get(), is(INITIAL_UPPER_LIMIT));
     }
 
+    @Test
+    public void shouldExtendTheLimitInTheBackgroundWhenRunningLow() {
+        PersistentUpperLimit extendingUpperLimit = new PersistentUpperLimit(boundStore, Runnable::run);
+        extendingUpperLimit.increaseToAtLeast(TIMESTAMP);
+
+        long nearLimit = TIMESTAMP + BUFFER / 2 + 1;
+        extendingUpperLimit.increaseToAtLeast(nearLimit);
+
+        assertThat(extendingUpperLimit.get(), is(greaterThanOrEqualTo(nearLimit + BUFFER)));
+        verify(boundStore, times(2)).storeUpperLimit(anyLong());
+    }
+
+    @Test
+    public void shouldNotExtendTheLimitInTheBackgroundWhenNotRunningLow() {
+        PersistentUpperLimit extendingUpperLimit = new PersistentUpperLimit(boundStore, Runnable::run);
+        extendingUpperLimit.increaseToAtLeast(TIMESTAMP);
+
+        extendingUpperLimit.increaseToAtLeast(TIMESTAMP + BUFFER / 2 - 1);
+
+        assertThat(extendingUpperLimit.get(), is(TIMESTAMP + BUFFER));
+        verify(boundStore, times(1)).storeUpperLimit(anyLong());
+    }
+
+    @Test
+    public void shouldOnlyExtendTheLimitInTheBackgroundAgainOnceItHasBeenReachedAfterAFailure() {
+        doNothing().doThrow(RuntimeException.class).doNothing().when(boundStore).storeUpperLimit(anyLong());
+        PersistentUpperLimit extendingUpperLimit = new PersistentUpperLimit(boundStore, Runnable::run);
+        extendingUpperLimit.increaseToAtLeast(TIMESTAMP);
+
+        extendingUpperLimit.increaseToAtLeast(TIMESTAMP + BUFFER - 1);
+        extendingUpperLimit.increaseToAtLeast(TIMESTAMP + BUFFER);
+        assertThat(extendingUpperLimit.get(), is(TIMESTAMP + BUFFER));
+        verify(boundStore, times(2)).storeUpperLimit(anyLong());
+
+        extendingUpperLimit.increaseToAtLeast(TIMESTAMP + BUFFER + 1);
+        assertThat(extendingUpperLimit.get(), is(TIMESTAMP + 2 * BUFFER + 1));
+        extendingUpperLimit.increaseToAtLeast(TIMESTAMP + 2 * BUFFER);
+        verify(boundStore, times(4)).storeUpperLimit(anyLong());
+    }
+
 }